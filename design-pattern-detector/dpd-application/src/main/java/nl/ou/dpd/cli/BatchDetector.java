@@ -0,0 +1,196 @@
+package nl.ou.dpd.cli;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.matching.CompiledPatternMatcher;
+import nl.ou.dpd.domain.matching.FeedbackLevel;
+import nl.ou.dpd.domain.matching.PatternInspector;
+import nl.ou.dpd.domain.matching.PatternMatcher;
+import nl.ou.dpd.domain.matching.Solution;
+import nl.ou.dpd.parsing.ArgoUMLParser;
+import nl.ou.dpd.parsing.ParserFactory;
+import nl.ou.dpd.parsing.PatternsParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * A headless entry point of the Design Pattern Detector, for batch runs (e.g. on a build server). It analyses one or
+ * more system designs (ArgoUML exports, {@code *.xmi}) for the design patterns in a templates file ({@code *.xml}),
+ * without starting the JavaFX GUI. The solutions are written as soon as they are found, one line per solution, in one
+ * of the {@link OutputFormat}s. No feedback is gathered.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp DesignPatternDetector.jar nl.ou.dpd.cli.BatchDetector -t templates.xml [-f jsonl|csv] [-o output] [-a] system.xmi...
+ * </pre>
+ * The exit status is 0 if all system designs were analysed, 1 if one or more of them could not be analysed, and 2 if
+ * the arguments are invalid.
+ *
+ * @author Martin de Boer
+ */
+public final class BatchDetector {
+
+    private static final Logger LOGGER = LogManager.getLogger(BatchDetector.class);
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+
+    static final String USAGE = "Usage: BatchDetector -t <templates.xml> [-f jsonl|csv] [-o <output file>] [-a] "
+            + "<system.xmi>...\n"
+            + "  -t  the design pattern templates file\n"
+            + "  -f  the output format (default: jsonl)\n"
+            + "  -o  the output file (default: standard output)\n"
+            + "  -a  include solutions that are similar to an earlier solution\n";
+
+    private static final String SYSTEM_FAILED_MSG = "The system design '%s' could not be analysed: %s";
+
+    private String templatesFile;
+    private String outputFile;
+    private OutputFormat format = OutputFormat.JSONL;
+    private boolean allowSimilarSolutions;
+    private final List<String> systemFiles = new ArrayList<>();
+
+    /**
+     * Private constructor: a {@link BatchDetector} is only created by {@link #run(String[], PrintStream, PrintStream)}.
+     */
+    private BatchDetector() {
+    }
+
+    /**
+     * The main method of the batch detector. Exits with the status described in the class documentation.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        LOGGER.info("Application BatchDetector started.");
+        final int status = run(args, System.out, System.err);
+        LOGGER.info("Application BatchDetector stopped.");
+        System.exit(status);
+    }
+
+    /**
+     * Runs the batch detector with the specified arguments.
+     *
+     * @param args the command line arguments
+     * @param out  the stream to write the solutions to, unless an output file is specified
+     * @param err  the stream to write errors to
+     * @return the exit status
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        final BatchDetector detector = new BatchDetector();
+        final String error = detector.parseArguments(args);
+        if (error != null) {
+            err.println(error);
+            err.print(USAGE);
+            return EXIT_USAGE;
+        }
+        try {
+            return detector.detect(out, err);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("The batch detection failed.", e);
+            err.println(e.getMessage());
+            return EXIT_FAILED;
+        }
+    }
+
+    /**
+     * Parses the command line arguments.
+     *
+     * @return an error message if the arguments are invalid, or {@code null} otherwise.
+     */
+    private String parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+            if ("-a".equals(arg)) {
+                allowSimilarSolutions = true;
+            } else if ("-t".equals(arg) || "-f".equals(arg) || "-o".equals(arg)) {
+                if (++i == args.length) {
+                    return String.format("Missing value for option %s.", arg);
+                }
+                if ("-t".equals(arg)) {
+                    templatesFile = args[i];
+                } else if ("-o".equals(arg)) {
+                    outputFile = args[i];
+                } else {
+                    try {
+                        format = OutputFormat.valueOf(args[i].toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        return String.format("Unknown output format '%s'.", args[i]);
+                    }
+                }
+            } else if (arg.startsWith("-")) {
+                return String.format("Unknown option %s.", arg);
+            } else {
+                systemFiles.add(arg);
+            }
+        }
+        if (templatesFile == null) {
+            return "No templates file specified.";
+        }
+        if (systemFiles.isEmpty()) {
+            return "No system design specified.";
+        }
+        return null;
+    }
+
+    private int detect(PrintStream out, PrintStream err) throws IOException {
+        final PatternsParser patternsParser = ParserFactory.createPatternParser();
+        final List<DesignPattern> designPatterns = patternsParser.parse(templatesFile);
+
+        if (outputFile == null) {
+            final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            return detect(format.createWriter(writer), designPatterns, err);
+        }
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8))) {
+            return detect(format.createWriter(writer), designPatterns, err);
+        }
+    }
+
+    private int detect(SolutionWriter writer, List<DesignPattern> designPatterns, PrintStream err) throws IOException {
+        writer.writeHeader();
+        int status = EXIT_OK;
+        for (String systemFile : systemFiles) {
+            final SystemUnderConsideration system;
+            try {
+                final ArgoUMLParser xmiParser = ParserFactory.createArgoUMLParser();
+                system = xmiParser.parse(systemFile);
+            } catch (RuntimeException e) {
+                LOGGER.error(String.format(SYSTEM_FAILED_MSG, systemFile, e.getMessage()), e);
+                err.println(String.format(SYSTEM_FAILED_MSG, systemFile, e.getMessage()));
+                status = EXIT_FAILED;
+                continue;
+            }
+            final String systemName = Paths.get(systemFile).getFileName().toString();
+            final PatternMatcher matcher = new CompiledPatternMatcher();
+            for (DesignPattern pattern : designPatterns) {
+                final PatternInspector inspector = new PatternInspector(system, pattern, matcher)
+                        .setFeedbackLevel(FeedbackLevel.NONE);
+                final Stream<Solution> solutions = allowSimilarSolutions
+                        ? inspector.streamSolutions()
+                        : inspector.streamDistinctSolutions();
+                final Iterator<Solution> iterator = solutions.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(systemName, iterator.next());
+                }
+            }
+        }
+        return status;
+    }
+
+}
@@ -0,0 +1,68 @@
+package nl.ou.dpd.cli;
+
+import nl.ou.dpd.domain.matching.Solution;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link SolutionWriter} writing comma separated values (RFC 4180). The output starts with a header line, followed
+ * by a line for every solution. The matching nodes and relations are written as {@code system=pattern} pairs,
+ * separated by semicolons, e.g.
+ * <pre>
+ * system,pattern,family,nodes,relations
+ * MyObserver.xmi,Observer,Observer,Subject=Subject;Observer=Observer,notifies=notifies
+ * </pre>
+ * Equals signs, semicolons and backslashes in the names are escaped with a backslash, so {@code a=b} is written as
+ * {@code a\=b}.
+ *
+ * @author Martin de Boer
+ */
+class CsvSolutionWriter extends SolutionWriter {
+
+    private static final String HEADER = "system,pattern,family,nodes,relations";
+
+    CsvSolutionWriter(Writer writer) {
+        super(writer);
+    }
+
+    @Override
+    public void writeHeader() throws IOException {
+        writeLine(HEADER);
+    }
+
+    @Override
+    protected String format(String systemName, Solution solution) {
+        final String nodes = solution.getMatchingNodes().stream()
+                .map(pair -> escape(getName(pair[0])) + "=" + escape(getName(pair[1])))
+                .collect(Collectors.joining(";"));
+        final String relations = solution.getMatchingRelations().stream()
+                .map(pair -> escape(getName(pair[0])) + "=" + escape(getName(pair[1])))
+                .collect(Collectors.joining(";"));
+        return String.join(",",
+                quote(systemName),
+                quote(solution.getDesignPatternName()),
+                quote(solution.getPatternFamilyName()),
+                quote(nodes),
+                quote(relations));
+    }
+
+    private static String escape(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.replace("\\", "\\\\").replace("=", "\\=").replace(";", "\\;");
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+}
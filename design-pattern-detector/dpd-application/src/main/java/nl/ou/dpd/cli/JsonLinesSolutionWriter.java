@@ -0,0 +1,85 @@
+package nl.ou.dpd.cli;
+
+import nl.ou.dpd.domain.matching.Solution;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+
+import java.io.Writer;
+
+/**
+ * A {@link SolutionWriter} writing JSON Lines: every solution is written as a JSON object on a line of its own, e.g.
+ * <pre>
+ * {"system":"MyObserver.xmi","pattern":"Observer","family":"Observer","nodes":[{"system":"Subject","pattern":"Subject"}],"relations":[]}
+ * </pre>
+ *
+ * @author Martin de Boer
+ */
+class JsonLinesSolutionWriter extends SolutionWriter {
+
+    JsonLinesSolutionWriter(Writer writer) {
+        super(writer);
+    }
+
+    @Override
+    protected String format(String systemName, Solution solution) {
+        final StringBuilder json = new StringBuilder("{");
+        appendField(json, "system", systemName).append(',');
+        appendField(json, "pattern", solution.getDesignPatternName()).append(',');
+        appendField(json, "family", solution.getPatternFamilyName()).append(',');
+
+        json.append("\"nodes\":[");
+        for (int i = 0; i < solution.getMatchingNodes().size(); i++) {
+            final Node[] nodes = solution.getMatchingNodes().get(i);
+            appendPair(json.append(i == 0 ? "" : ","), getName(nodes[0]), getName(nodes[1]));
+        }
+        json.append("],\"relations\":[");
+        for (int i = 0; i < solution.getMatchingRelations().size(); i++) {
+            final Relation[] relations = solution.getMatchingRelations().get(i);
+            appendPair(json.append(i == 0 ? "" : ","), getName(relations[0]), getName(relations[1]));
+        }
+        return json.append("]}").toString();
+    }
+
+    private static StringBuilder appendPair(StringBuilder json, String systemName, String patternName) {
+        json.append('{');
+        appendField(json, "system", systemName).append(',');
+        return appendField(json, "pattern", patternName).append('}');
+    }
+
+    private static StringBuilder appendField(StringBuilder json, String name, String value) {
+        appendString(json, name).append(':');
+        return value == null ? json.append("null") : appendString(json, value);
+    }
+
+    private static StringBuilder appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"');
+    }
+
+}
@@ -0,0 +1,40 @@
+package nl.ou.dpd.cli;
+
+import java.io.Writer;
+
+/**
+ * The output formats supported by the {@link BatchDetector}.
+ *
+ * @author Martin de Boer
+ */
+public enum OutputFormat {
+
+    /**
+     * JSON Lines: a JSON object per solution (see {@link JsonLinesSolutionWriter}).
+     */
+    JSONL {
+        @Override
+        public SolutionWriter createWriter(Writer writer) {
+            return new JsonLinesSolutionWriter(writer);
+        }
+    },
+
+    /**
+     * Comma separated values: a header line, followed by a line per solution (see {@link CsvSolutionWriter}).
+     */
+    CSV {
+        @Override
+        public SolutionWriter createWriter(Writer writer) {
+            return new CsvSolutionWriter(writer);
+        }
+    };
+
+    /**
+     * Creates a {@link SolutionWriter} writing this format to the specified {@link Writer}.
+     *
+     * @param writer the {@link Writer} to write to
+     * @return the created {@link SolutionWriter}
+     */
+    public abstract SolutionWriter createWriter(Writer writer);
+
+}
@@ -0,0 +1,72 @@
+package nl.ou.dpd.cli;
+
+import nl.ou.dpd.domain.matching.Solution;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes {@link Solution}s to a {@link Writer}, one line per solution. Every line is flushed as soon as it is written,
+ * so that the solutions can be processed while the detection is still running.
+ *
+ * @author Martin de Boer
+ */
+public abstract class SolutionWriter {
+
+    private final Writer writer;
+
+    protected SolutionWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes the header of the output, if the format has one. Must be called before any solution is written.
+     *
+     * @throws IOException when writing fails
+     */
+    public void writeHeader() throws IOException {
+    }
+
+    /**
+     * Writes a {@link Solution} as a single line.
+     *
+     * @param systemName the name of the system design (e.g. its file name) in which the solution was found
+     * @param solution   the {@link Solution} to write
+     * @throws IOException when writing fails
+     */
+    public void write(String systemName, Solution solution) throws IOException {
+        writeLine(format(systemName, solution));
+    }
+
+    /**
+     * Formats a {@link Solution} as a single line (without the line separator).
+     *
+     * @param systemName the name of the system design in which the solution was found
+     * @param solution   the {@link Solution} to format
+     * @return the formatted line
+     */
+    protected abstract String format(String systemName, Solution solution);
+
+    protected void writeLine(String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+        writer.flush();
+    }
+
+    /**
+     * Returns the name of a {@link Node}, or its id if it has no name.
+     */
+    protected static String getName(Node node) {
+        return node.getName() == null ? node.getId() : node.getName();
+    }
+
+    /**
+     * Returns the name of a {@link Relation}, or its id if it has no name.
+     */
+    protected static String getName(Relation relation) {
+        return relation.getName() == null ? relation.getId() : relation.getName();
+    }
+
+}
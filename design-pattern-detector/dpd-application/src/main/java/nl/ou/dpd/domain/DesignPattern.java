@@ -9,12 +9,19 @@ import org.jgrapht.graph.DefaultDirectedGraph;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static nl.ou.dpd.util.Util.tidy;
 
 /**
  * A {@link DesignPattern} is a {@link DefaultDirectedGraph} representation of a design pattern. It contains a set of
  * {@link CompoundComparator}s for matching purposes.
+ * <p>
+ * Comparators collect {@link nl.ou.dpd.domain.matching.Feedback} while matching, so they should not be shared between
+ * matching runs. A {@link DesignPattern} therefore only holds {@link Supplier}s of comparators, and comparators are
+ * created anew every time they are requested. The state of a matching run, such as the comparators and the level of
+ * the feedback they collect, is kept by the {@link nl.ou.dpd.domain.matching.PatternInspector}. This way, a parsed
+ * {@link DesignPattern} can be reused for any number of (concurrent) matching runs.
  *
  * @author Martin de Boer
  */
@@ -24,8 +31,8 @@ public class DesignPattern extends DefaultDirectedGraph<Node, Relation> {
     final private String family;
     final private Set<String> notes;
 
-    private FeedbackEnabledComparator<Relation> relationComparator;
-    private FeedbackEnabledComparator<Node> nodeComparator;
+    private Supplier<FeedbackEnabledComparator<Relation>> relationComparatorSupplier;
+    private Supplier<FeedbackEnabledComparator<Node>> nodeComparatorSupplier;
 
     public DesignPattern(String name, String family) {
         super(new RelationFactory());
@@ -42,21 +49,33 @@ public class DesignPattern extends DefaultDirectedGraph<Node, Relation> {
         return family;
     }
 
+    /**
+     * Returns a relation comparator for this {@link DesignPattern}. Every call returns the instance provided by the
+     * {@link Supplier} of relation comparators, which should be a new one.
+     *
+     * @return the relation comparator, or {@code null} if none was set.
+     */
     public FeedbackEnabledComparator<Relation> getRelationComparator() {
-        return relationComparator;
+        return relationComparatorSupplier == null ? null : relationComparatorSupplier.get();
     }
 
-    public DesignPattern setRelationComparator(FeedbackEnabledComparator<Relation> relationComparator) {
-        this.relationComparator = relationComparator;
+    public DesignPattern setRelationComparator(Supplier<FeedbackEnabledComparator<Relation>> relationComparatorSupplier) {
+        this.relationComparatorSupplier = relationComparatorSupplier;
         return this;
     }
 
+    /**
+     * Returns a node comparator for this {@link DesignPattern}. Every call returns the instance provided by the
+     * {@link Supplier} of node comparators, which should be a new one.
+     *
+     * @return the node comparator, or {@code null} if none was set.
+     */
     public FeedbackEnabledComparator<Node> getNodeComparator() {
-        return nodeComparator;
+        return nodeComparatorSupplier == null ? null : nodeComparatorSupplier.get();
     }
 
-    public DesignPattern setNodeComparator(FeedbackEnabledComparator<Node> nodeComparator) {
-        this.nodeComparator = nodeComparator;
+    public DesignPattern setNodeComparator(Supplier<FeedbackEnabledComparator<Node>> nodeComparatorSupplier) {
+        this.nodeComparatorSupplier = nodeComparatorSupplier;
         return this;
     }
 
@@ -0,0 +1,167 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.exception.DesignPatternDetectorException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * An {@link AnalysisEngine} analyses a {@link SystemUnderConsideration} for a number of {@link DesignPattern}s. Every
+ * design pattern is inspected by a {@link PatternInspector} of its own, running as a separate task on an
+ * {@link ExecutorService}. By default, the {@link ForkJoinPool#commonPool()} is used.
+ * <p>
+ * Every {@link PatternInspector} obtains its own comparators from the {@link DesignPattern} it inspects, so the
+ * {@link Feedback} gathered by one task is never shared with another. The tasks of one analysis do share a
+ * {@link CompiledPatternMatcher}, so that the system is compiled only once.
+ * <p>
+ * An {@link AnalysisMonitor} can follow the progress of an analysis, and cancel it. A cancelled analysis stops with a
+ * {@link CancellationException}, also in the middle of the search for a design pattern.
+ *
+ * @author Martin de Boer
+ */
+public class AnalysisEngine {
+
+    private static final Logger LOGGER = LogManager.getLogger(AnalysisEngine.class);
+
+    private static final String ANALYSIS_INTERRUPTED_MSG = "The analysis of system design '%s' was interrupted.";
+    private static final String ANALYSIS_FAILED_MSG = "The analysis of system design '%s' failed.";
+
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a new {@link AnalysisEngine} that runs its tasks on the {@link ForkJoinPool#commonPool()}.
+     */
+    public AnalysisEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new {@link AnalysisEngine} that runs its tasks on the specified {@link ExecutorService}. The
+     * caller remains responsible for shutting down the executor.
+     *
+     * @param executor the {@link ExecutorService} to run the pattern inspections on.
+     */
+    public AnalysisEngine(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Analyses the specified {@link SystemUnderConsideration} for all the specified {@link DesignPattern}s. The
+     * inspections run in parallel, and this method returns when all of them have finished. The results are gathered
+     * in a {@link Map} containing {@link PatternInspector.MatchingResult}s as values, and the name of the pattern as
+     * key (see {@link #getResultKey(DesignPattern)}).
+     *
+     * @param system         the system under consideration
+     * @param designPatterns the design patterns to look for
+     * @return a {@link Map} containing the gathered results
+     */
+    public Map<String, PatternInspector.MatchingResult> analyse(SystemUnderConsideration system,
+                                                                List<DesignPattern> designPatterns) {
+        return analyse(system, designPatterns, AnalysisMonitor.NONE);
+    }
+
+    /**
+     * Analyses the specified {@link SystemUnderConsideration} for all the specified {@link DesignPattern}s, like
+     * {@link #analyse(SystemUnderConsideration, List)} does. The specified {@link AnalysisMonitor} receives the result
+     * of every design pattern as soon as its analysis has finished, and is asked regularly whether the analysis must be
+     * cancelled.
+     *
+     * @param system         the system under consideration
+     * @param designPatterns the design patterns to look for
+     * @param monitor        the {@link AnalysisMonitor} following the analysis
+     * @return a {@link Map} containing the gathered results
+     * @throws CancellationException if the analysis was cancelled by the {@code monitor}.
+     */
+    public Map<String, PatternInspector.MatchingResult> analyse(SystemUnderConsideration system,
+                                                                List<DesignPattern> designPatterns,
+                                                                AnalysisMonitor monitor) {
+        final PatternMatcher matcher = new CompiledPatternMatcher(monitor::isCancelled);
+        final AtomicInteger analysed = new AtomicInteger();
+        final List<Callable<PatternInspector.MatchingResult>> tasks = designPatterns.stream()
+                .map(pattern -> (Callable<PatternInspector.MatchingResult>)
+                        () -> inspect(system, pattern, matcher, monitor, analysed, designPatterns.size()))
+                .collect(Collectors.toList());
+
+        final List<Future<PatternInspector.MatchingResult>> futures;
+        try {
+            futures = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw analysisException(ANALYSIS_INTERRUPTED_MSG, system, e);
+        }
+
+        final Map<String, PatternInspector.MatchingResult> assembledMatchResults = new HashMap<>();
+        for (int i = 0; i < designPatterns.size(); i++) {
+            assembledMatchResults.put(getResultKey(designPatterns.get(i)), getResult(futures.get(i), system));
+        }
+        return assembledMatchResults;
+    }
+
+    private PatternInspector.MatchingResult inspect(SystemUnderConsideration system,
+                                                    DesignPattern pattern,
+                                                    PatternMatcher matcher,
+                                                    AnalysisMonitor monitor,
+                                                    AtomicInteger analysed,
+                                                    int total) {
+        if (monitor.isCancelled()) {
+            throw new CancellationException();
+        }
+        final PatternInspector.MatchingResult result =
+                new PatternInspector(system, pattern, matcher).getMatchingResult();
+        monitor.patternAnalysed(pattern, result, analysed.incrementAndGet(), total);
+        return result;
+    }
+
+    /**
+     * Determines the key under which the results of the specified {@link DesignPattern} are stored. This is the name
+     * of the pattern, followed by the name of its family between parentheses if the family name differs.
+     *
+     * @param pattern the {@link DesignPattern}
+     * @return the key for the results of {@code pattern}.
+     */
+    public static String getResultKey(DesignPattern pattern) {
+        final String patternName = pattern.getName();
+        final String patternFamilyName = pattern.getFamily();
+        if (!patternName.equals(patternFamilyName)) {
+            return String.format("%s (%s)", patternName, patternFamilyName);
+        }
+        return patternName;
+    }
+
+    private PatternInspector.MatchingResult getResult(Future<PatternInspector.MatchingResult> future,
+                                                      SystemUnderConsideration system) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw analysisException(ANALYSIS_INTERRUPTED_MSG, system, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw analysisException(ANALYSIS_FAILED_MSG, system, e.getCause());
+        }
+    }
+
+    private DesignPatternDetectorException analysisException(String format,
+                                                             SystemUnderConsideration system,
+                                                             Throwable cause) {
+        final String msg = String.format(format, system.getName());
+        LOGGER.error(msg, cause);
+        return new DesignPatternDetectorException(msg, cause);
+    }
+
+}
@@ -0,0 +1,49 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Monitors an analysis by the {@link AnalysisEngine}: it is told about the progress of the analysis, it receives the
+ * result of every design pattern as soon as that pattern has been analysed, and it can cancel the analysis. The
+ * analysis checks {@link #isCancelled()} regularly, also in the middle of the search for a design pattern, and stops
+ * with a {@link CancellationException} as soon as it returns {@code true}.
+ * <p>
+ * The methods of a monitor are called from the threads the analysis runs on, so they must be thread-safe.
+ *
+ * @author Martin de Boer
+ */
+public interface AnalysisMonitor {
+
+    /**
+     * A monitor that ignores the progress and the results, and never cancels the analysis.
+     */
+    AnalysisMonitor NONE = new AnalysisMonitor() {
+    };
+
+    /**
+     * Determines whether the analysis must be cancelled.
+     *
+     * @return {@code true} if the analysis must be cancelled, or {@code false} otherwise.
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * Called as soon as the analysis of a design pattern has finished, while other design patterns may still be
+     * analysed. The same result is part of the outcome of the whole analysis.
+     *
+     * @param pattern  the {@link DesignPattern} that was analysed.
+     * @param result   the {@link PatternInspector.MatchingResult} of the design pattern.
+     * @param analysed the number of design patterns that have been analysed so far.
+     * @param total    the total number of design patterns to be analysed.
+     */
+    default void patternAnalysed(DesignPattern pattern,
+                                 PatternInspector.MatchingResult result,
+                                 int analysed,
+                                 int total) {
+    }
+
+}
@@ -0,0 +1,114 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+
+import java.util.BitSet;
+import java.util.Comparator;
+
+import static nl.ou.dpd.domain.matching.CompiledPattern.NONE;
+
+/**
+ * Holds the outcome of comparing system nodes and relations with pattern nodes and relations, so that the search for
+ * a design pattern only has to look up bits. Every pair is compared (and so gets its feedback) exactly once:
+ * <ul>
+ * <li>every system node is compared with every pattern node;</li>
+ * <li>a system relation is only compared with a pattern relation if both their sources and both their targets
+ * match. Other pairs of relations can never be part of the same mapping.</li>
+ * </ul>
+ * The system relations are identified by their position in the successor array of the {@link CompiledSystem}.
+ *
+ * @author Martin de Boer
+ */
+final class CompatibilityMatrix {
+
+    private final CompiledSystem system;
+    private final CompiledPattern pattern;
+
+    // For every pattern node, the system nodes that match it
+    private final BitSet[] nodes;
+    // For every pattern relation, the system relations (by position) that match it
+    private final BitSet[] relations;
+
+    CompatibilityMatrix(CompiledSystem system,
+                        CompiledPattern pattern,
+                        Comparator<Node> nodeComparator,
+                        Comparator<Relation> relationComparator) {
+        this.system = system;
+        this.pattern = pattern;
+
+        this.nodes = new BitSet[pattern.getNodeCount()];
+        for (int patternNode = 0; patternNode < nodes.length; patternNode++) {
+            nodes[patternNode] = new BitSet(system.getNodeCount());
+            for (int systemNode = 0; systemNode < system.getNodeCount(); systemNode++) {
+                if (nodeComparator.compare(system.getNode(systemNode), pattern.getNode(patternNode)) == 0) {
+                    nodes[patternNode].set(systemNode);
+                }
+            }
+        }
+
+        this.relations = new BitSet[pattern.getRelationCount()];
+        final int[] successors = system.getSuccessors();
+        for (int patternRelation = 0; patternRelation < relations.length; patternRelation++) {
+            relations[patternRelation] = new BitSet(system.getRelationCount());
+            final BitSet sources = nodes[pattern.getRelationSource(patternRelation)];
+            final BitSet targets = nodes[pattern.getRelationTarget(patternRelation)];
+            final Relation relation = pattern.getRelation(
+                    pattern.getRelationSource(patternRelation),
+                    pattern.getRelationTarget(patternRelation));
+            for (int source = sources.nextSetBit(0); source >= 0; source = sources.nextSetBit(source + 1)) {
+                for (int position = system.getSuccessorsStart(source);
+                     position < system.getSuccessorsEnd(source);
+                     position++) {
+                    if (targets.get(successors[position])
+                            && relationComparator.compare(system.getRelationAt(position), relation) == 0) {
+                        relations[patternRelation].set(position);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the system nodes that match the specified pattern node. The returned {@link BitSet} must not be
+     * modified.
+     */
+    BitSet getMatchingNodes(int patternNode) {
+        return nodes[patternNode];
+    }
+
+    boolean isMatchingNode(int systemNode, int patternNode) {
+        return nodes[patternNode].get(systemNode);
+    }
+
+    /**
+     * Checks whether the system relation at the specified position matches the specified pattern relation.
+     */
+    boolean isMatchingRelation(int systemPosition, int patternRelation) {
+        return relations[patternRelation].get(systemPosition);
+    }
+
+    /**
+     * Returns a {@link Comparator} that looks up whether a system node matches a pattern node.
+     */
+    Comparator<Node> getNodeComparator() {
+        return (systemNode, patternNode) ->
+                isMatchingNode(system.indexOf(systemNode), pattern.indexOf(patternNode)) ? 0 : 1;
+    }
+
+    /**
+     * Returns a {@link Comparator} that looks up whether a system relation matches a pattern relation.
+     */
+    Comparator<Relation> getRelationComparator() {
+        return (systemRelation, patternRelation) -> {
+            final int position = system.findRelationPosition(
+                    system.indexOf(system.getSystem().getEdgeSource(systemRelation)),
+                    system.indexOf(system.getSystem().getEdgeTarget(systemRelation)));
+            final int index = pattern.getRelationIndex(
+                    pattern.indexOf(pattern.getPattern().getEdgeSource(patternRelation)),
+                    pattern.indexOf(pattern.getPattern().getEdgeTarget(patternRelation)));
+            return position != NONE && isMatchingRelation(position, index) ? 0 : 1;
+        };
+    }
+
+}
@@ -0,0 +1,246 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An int-indexed representation of a {@link DesignPattern}, prepared for matching. Since design patterns are small,
+ * the relations are stored in an adjacency matrix. Besides that, a {@link CompiledPattern} contains the symmetry
+ * breaking constraints of the pattern (see {@link PatternSymmetry}), and the order in which the pattern nodes are to
+ * be matched.
+ *
+ * @author Martin de Boer
+ */
+final class CompiledPattern {
+
+    static final int NONE = -1;
+
+    private final DesignPattern pattern;
+    private final int relationCount;
+    private final Node[] nodes;
+    private final Map<Node, Integer> indexes;
+    private final Relation[][] relations;
+    private final int[][] relationIndexes;
+    private final int[] relationSources;
+    private final int[] relationTargets;
+    private final int[] outDegrees;
+    private final int[] inDegrees;
+    private final boolean hasSelfRelations;
+
+    // The order in which pattern nodes are matched, and for each of them a previously matched neighbour (or NONE)
+    private final int[] order;
+    private final int[] parents;
+    private final boolean[] parentIsPredecessor;
+
+    // The symmetry breaking constraints per pattern node: nodes that must be matched with lower or higher indexes
+    private final int[][] lowerNodes;
+    private final int[][] higherNodes;
+
+    CompiledPattern(DesignPattern pattern) {
+        this.pattern = pattern;
+        this.nodes = pattern.vertexSet().toArray(new Node[0]);
+        this.indexes = new HashMap<>(nodes.length * 2);
+        for (int i = 0; i < nodes.length; i++) {
+            indexes.put(nodes[i], i);
+        }
+        this.relationCount = pattern.edgeSet().size();
+        this.relations = new Relation[nodes.length][nodes.length];
+        this.relationIndexes = new int[nodes.length][nodes.length];
+        this.relationSources = new int[relationCount];
+        this.relationTargets = new int[relationCount];
+        this.outDegrees = new int[nodes.length];
+        this.inDegrees = new int[nodes.length];
+        for (int[] row : relationIndexes) {
+            Arrays.fill(row, NONE);
+        }
+        boolean selfRelations = false;
+        int index = 0;
+        for (Relation relation : pattern.edgeSet()) {
+            final int source = indexes.get(pattern.getEdgeSource(relation));
+            final int target = indexes.get(pattern.getEdgeTarget(relation));
+            relations[source][target] = relation;
+            relationIndexes[source][target] = index;
+            relationSources[index] = source;
+            relationTargets[index] = target;
+            index++;
+            outDegrees[source]++;
+            inDegrees[target]++;
+            selfRelations |= source == target;
+        }
+        this.hasSelfRelations = selfRelations;
+
+        this.order = new int[nodes.length];
+        this.parents = new int[nodes.length];
+        this.parentIsPredecessor = new boolean[nodes.length];
+        determineMatchingOrder();
+
+        this.lowerNodes = new int[nodes.length][0];
+        this.higherNodes = new int[nodes.length][0];
+        for (int[] constraint : new PatternSymmetry(pattern, nodes).getConstraints()) {
+            higherNodes[constraint[0]] = append(higherNodes[constraint[0]], constraint[1]);
+            lowerNodes[constraint[1]] = append(lowerNodes[constraint[1]], constraint[0]);
+        }
+    }
+
+    DesignPattern getPattern() {
+        return pattern;
+    }
+
+    int getNodeCount() {
+        return nodes.length;
+    }
+
+    int getRelationCount() {
+        return relationCount;
+    }
+
+    Node getNode(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns the index of the specified node, or -1 if the node is not part of the pattern.
+     */
+    int indexOf(Node node) {
+        final Integer index = indexes.get(node);
+        return index == null ? NONE : index;
+    }
+
+    /**
+     * Returns the relation from {@code source} to {@code target}, or {@code null} if there is no such relation.
+     */
+    Relation getRelation(int source, int target) {
+        return relations[source][target];
+    }
+
+    /**
+     * Returns the index of the relation from {@code source} to {@code target}, or {@link #NONE} if there is no such
+     * relation. Relations are numbered from {@code 0} up to (but excluding) {@link #getRelationCount()}.
+     */
+    int getRelationIndex(int source, int target) {
+        return relationIndexes[source][target];
+    }
+
+    int getRelationSource(int relation) {
+        return relationSources[relation];
+    }
+
+    int getRelationTarget(int relation) {
+        return relationTargets[relation];
+    }
+
+    /**
+     * Checks whether this pattern has more nodes or more relations than the specified system, in which case it can
+     * never match.
+     */
+    boolean isLargerThan(CompiledSystem system) {
+        return nodes.length > system.getNodeCount() || relationCount > system.getRelationCount();
+    }
+
+    int getOutDegree(int node) {
+        return outDegrees[node];
+    }
+
+    int getInDegree(int node) {
+        return inDegrees[node];
+    }
+
+    /**
+     * Returns whether the pattern contains a relation of a node with itself.
+     */
+    boolean hasSelfRelations() {
+        return hasSelfRelations;
+    }
+
+    /**
+     * Returns the pattern node that is to be matched at the specified position.
+     */
+    int getNodeAt(int position) {
+        return order[position];
+    }
+
+    /**
+     * Returns a pattern node that is matched before the specified position and is related to the node at that
+     * position, or {@link #NONE} if there is no such node.
+     */
+    int getParentAt(int position) {
+        return parents[position];
+    }
+
+    /**
+     * Returns whether the relation between the node at the specified position and its parent points towards the
+     * node.
+     */
+    boolean isParentPredecessorAt(int position) {
+        return parentIsPredecessor[position];
+    }
+
+    /**
+     * Returns the pattern nodes that must be matched with a system node with a lower index than the specified node.
+     */
+    int[] getLowerNodes(int node) {
+        return lowerNodes[node];
+    }
+
+    /**
+     * Returns the pattern nodes that must be matched with a system node with a higher index than the specified node.
+     */
+    int[] getHigherNodes(int node) {
+        return higherNodes[node];
+    }
+
+    /**
+     * Orders the pattern nodes, starting with the node with the most relations. Every next node is the one with the
+     * most relations to the nodes ordered so far (the node with the most relations in total breaks ties), so that
+     * the relations constrain the search as early as possible.
+     */
+    private void determineMatchingOrder() {
+        final boolean[] ordered = new boolean[nodes.length];
+        for (int position = 0; position < nodes.length; position++) {
+            int best = NONE;
+            int bestConnections = -1;
+            int bestDegree = -1;
+            for (int u = 0; u < nodes.length; u++) {
+                if (ordered[u]) {
+                    continue;
+                }
+                int connections = 0;
+                for (int v = 0; v < nodes.length; v++) {
+                    if (ordered[v]) {
+                        connections += (relations[u][v] != null ? 1 : 0) + (relations[v][u] != null ? 1 : 0);
+                    }
+                }
+                final int degree = outDegrees[u] + inDegrees[u];
+                if (connections > bestConnections || (connections == bestConnections && degree > bestDegree)) {
+                    best = u;
+                    bestConnections = connections;
+                    bestDegree = degree;
+                }
+            }
+            order[position] = best;
+            ordered[best] = true;
+            parents[position] = NONE;
+            for (int p = 0; p < position && parents[position] == NONE; p++) {
+                if (relations[order[p]][best] != null) {
+                    parents[position] = order[p];
+                    parentIsPredecessor[position] = true;
+                } else if (relations[best][order[p]] != null) {
+                    parents[position] = order[p];
+                    parentIsPredecessor[position] = false;
+                }
+            }
+        }
+    }
+
+    private static int[] append(int[] array, int value) {
+        final int[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = value;
+        return result;
+    }
+
+}
@@ -0,0 +1,419 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import org.jgrapht.GraphMapping;
+import org.jgrapht.alg.isomorphism.IsomorphismInspector;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static nl.ou.dpd.domain.matching.CompiledPattern.NONE;
+
+/**
+ * A {@link PatternMatcher} that works on int-indexed representations of the system and the design pattern (see
+ * {@link CompiledSystem} and {@link CompiledPattern}). The search extends a partial mapping one pattern node at a time,
+ * in an order in which every next pattern node (if possible) is related to a node that is already mapped, like in
+ * RI. The candidates for such a node are the neighbours of the system node matched with its mapped neighbour.
+ * <p>
+ * Before the search starts, all nodes and relations are compared once, and the outcome is kept in a
+ * {@link CompatibilityMatrix}. The search itself does not call the comparators anymore. Every pattern node gets a
+ * candidate domain: a {@link BitSet} of the matching system nodes that have at least as many incoming and outgoing
+ * relations as the pattern node.
+ * <p>
+ * The compiled system is kept, so that a {@link CompiledPatternMatcher} can inspect the same system for many design
+ * patterns (possibly concurrently) at the cost of compiling it only once. The system should not be changed during
+ * that time.
+ * <p>
+ * The search can be cancelled: a {@link CompiledPatternMatcher} can be created with a condition that is checked while
+ * nodes and relations are compared, and regularly during the search. As soon as the condition holds, the search stops
+ * with a {@link CancellationException}.
+ * <p>
+ * VF2 does not check relations of a pattern node with itself, but its look-ahead rules count them as relations with
+ * an unmapped node, which makes the outcome depend on the order in which VF2 visits the nodes. To produce exactly the
+ * same solutions, patterns containing such relations are matched by the {@link VF2PatternMatcher}, using comparators
+ * that look up the outcome in the {@link CompatibilityMatrix}.
+ *
+ * @author Martin de Boer
+ */
+public class CompiledPatternMatcher implements PatternMatcher {
+
+    // The number of search steps between two checks whether the search is cancelled
+    private static final int CANCELLATION_CHECK_INTERVAL = 1024;
+
+    private final BooleanSupplier cancelled;
+    private CompiledSystem compiledSystem;
+
+    /**
+     * Constructs a new {@link CompiledPatternMatcher} whose searches are never cancelled.
+     */
+    public CompiledPatternMatcher() {
+        this(() -> false);
+    }
+
+    /**
+     * Constructs a new {@link CompiledPatternMatcher} whose searches are cancelled as soon as the specified condition
+     * holds. The condition may be checked by several threads at once.
+     *
+     * @param cancelled the condition under which the searches are cancelled.
+     */
+    public CompiledPatternMatcher(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public IsomorphismInspector<Node, Relation> createInspector(SystemUnderConsideration system,
+                                                                DesignPattern pattern,
+                                                                Comparator<Node> nodeComparator,
+                                                                Comparator<Relation> relationComparator) {
+        return new CompiledInspector(
+                compile(system),
+                new CompiledPattern(pattern),
+                (node1, node2) -> compare(nodeComparator, node1, node2),
+                (relation1, relation2) -> compare(relationComparator, relation1, relation2));
+    }
+
+    private <T> int compare(Comparator<T> comparator, T object1, T object2) {
+        checkCancelled();
+        return comparator.compare(object1, object2);
+    }
+
+    private void checkCancelled() {
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException();
+        }
+    }
+
+    private synchronized CompiledSystem compile(SystemUnderConsideration system) {
+        if (compiledSystem == null || !compiledSystem.represents(system)) {
+            compiledSystem = new CompiledSystem(system);
+        }
+        return compiledSystem;
+    }
+
+    private class CompiledInspector implements IsomorphismInspector<Node, Relation> {
+
+        private final CompiledSystem system;
+        private final CompiledPattern pattern;
+        private final Comparator<Node> nodeComparator;
+        private final Comparator<Relation> relationComparator;
+
+        // Created when the first mapping is searched for, so that nothing is compared before the search starts
+        private CompatibilityMatrix matrix;
+        private BitSet[] domains;
+
+        private CompiledInspector(CompiledSystem system,
+                                  CompiledPattern pattern,
+                                  Comparator<Node> nodeComparator,
+                                  Comparator<Relation> relationComparator) {
+            this.system = system;
+            this.pattern = pattern;
+            this.nodeComparator = nodeComparator;
+            this.relationComparator = relationComparator;
+        }
+
+        @Override
+        public Iterator<GraphMapping<Node, Relation>> getMappings() {
+            return new DeferredIterator<>(this::searchMappings);
+        }
+
+        private Iterator<GraphMapping<Node, Relation>> searchMappings() {
+            if (pattern.isLargerThan(system)) {
+                // A pattern that is larger than the system can never match, so there is nothing to compare
+                return Collections.emptyIterator();
+            }
+            if (matrix == null) {
+                matrix = new CompatibilityMatrix(system, pattern, nodeComparator, relationComparator);
+                domains = createDomains();
+            }
+            if (pattern.hasSelfRelations()) {
+                final Comparator<Node> matrixNodeComparator = matrix.getNodeComparator();
+                final Comparator<Relation> matrixRelationComparator = matrix.getRelationComparator();
+                return VF2PatternMatcher.createInspector(
+                        system.getSystem(),
+                        pattern.getPattern(),
+                        (node1, node2) -> compare(matrixNodeComparator, node1, node2),
+                        (relation1, relation2) -> compare(matrixRelationComparator, relation1, relation2),
+                        system,
+                        pattern).getMappings();
+            }
+            return new MappingIterator();
+        }
+
+        /**
+         * Determines the candidate domain of every pattern node: the matching system nodes that have at least as many
+         * incoming and outgoing relations.
+         */
+        private BitSet[] createDomains() {
+            final BitSet[] result = new BitSet[pattern.getNodeCount()];
+            for (int patternNode = 0; patternNode < result.length; patternNode++) {
+                result[patternNode] = (BitSet) matrix.getMatchingNodes(patternNode).clone();
+                final BitSet domain = result[patternNode];
+                for (int systemNode = domain.nextSetBit(0); systemNode >= 0; systemNode = domain.nextSetBit(systemNode + 1)) {
+                    if (system.getOutDegree(systemNode) < pattern.getOutDegree(patternNode)
+                            || system.getInDegree(systemNode) < pattern.getInDegree(patternNode)) {
+                        domain.clear(systemNode);
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public boolean isomorphismExists() {
+            return getMappings().hasNext();
+        }
+
+        /**
+         * A depth first search over the pattern nodes in matching order, which is suspended after every complete
+         * mapping.
+         */
+        private class MappingIterator implements Iterator<GraphMapping<Node, Relation>> {
+
+            private final int[] patternToSystem = new int[pattern.getNodeCount()];
+            private final boolean[] usedSystemNodes = new boolean[system.getNodeCount()];
+            private final int[] cursors = new int[pattern.getNodeCount()];
+            private int depth = 0;
+            private int steps = 0;
+            private boolean exhausted;
+            private GraphMapping<Node, Relation> next;
+
+            private MappingIterator() {
+                Arrays.fill(patternToSystem, NONE);
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !exhausted) {
+                    next = findNext();
+                }
+                return next != null;
+            }
+
+            @Override
+            public GraphMapping<Node, Relation> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final GraphMapping<Node, Relation> result = next;
+                next = null;
+                return result;
+            }
+
+            private GraphMapping<Node, Relation> findNext() {
+                final int size = pattern.getNodeCount();
+                if (size == 0) {
+                    // The empty pattern has exactly one (empty) mapping
+                    exhausted = true;
+                    return new CompiledGraphMapping(system, pattern, patternToSystem.clone());
+                }
+                if (depth == size) {
+                    // Resume the search after the previous mapping
+                    depth--;
+                    unmap(pattern.getNodeAt(depth));
+                }
+                while (depth >= 0) {
+                    if (++steps % CANCELLATION_CHECK_INTERVAL == 0) {
+                        checkCancelled();
+                    }
+                    final int candidate = nextCandidate(depth);
+                    if (candidate == NONE) {
+                        cursors[depth] = 0;
+                        depth--;
+                        if (depth >= 0) {
+                            unmap(pattern.getNodeAt(depth));
+                        }
+                        continue;
+                    }
+                    patternToSystem[pattern.getNodeAt(depth)] = candidate;
+                    usedSystemNodes[candidate] = true;
+                    depth++;
+                    if (depth == size) {
+                        return new CompiledGraphMapping(system, pattern, patternToSystem.clone());
+                    }
+                }
+                exhausted = true;
+                return null;
+            }
+
+            private void unmap(int patternNode) {
+                usedSystemNodes[patternToSystem[patternNode]] = false;
+                patternToSystem[patternNode] = NONE;
+            }
+
+            /**
+             * Finds the next feasible candidate for the pattern node at the specified position in the matching order,
+             * starting at the current cursor position, and advances the cursor beyond it.
+             */
+            private int nextCandidate(int position) {
+                final int patternNode = pattern.getNodeAt(position);
+                final BitSet domain = domains[patternNode];
+                final int parent = pattern.getParentAt(position);
+                if (parent == NONE) {
+                    for (int candidate = domain.nextSetBit(cursors[position]);
+                         candidate >= 0;
+                         candidate = domain.nextSetBit(candidate + 1)) {
+                        cursors[position] = candidate + 1;
+                        if (isFeasible(candidate, patternNode)) {
+                            return candidate;
+                        }
+                    }
+                    cursors[position] = system.getNodeCount();
+                    return NONE;
+                }
+
+                final int parentImage = patternToSystem[parent];
+                final int[] neighbours;
+                final int start;
+                final int end;
+                if (pattern.isParentPredecessorAt(position)) {
+                    neighbours = system.getSuccessors();
+                    start = system.getSuccessorsStart(parentImage);
+                    end = system.getSuccessorsEnd(parentImage);
+                } else {
+                    neighbours = system.getPredecessors();
+                    start = system.getPredecessorsStart(parentImage);
+                    end = system.getPredecessorsEnd(parentImage);
+                }
+                while (start + cursors[position] < end) {
+                    final int candidate = neighbours[start + cursors[position]];
+                    cursors[position]++;
+                    if (domain.get(candidate) && isFeasible(candidate, patternNode)) {
+                        return candidate;
+                    }
+                }
+                return NONE;
+            }
+
+            private boolean isFeasible(int systemNode, int patternNode) {
+                if (usedSystemNodes[systemNode]) {
+                    return false;
+                }
+                for (int lower : pattern.getLowerNodes(patternNode)) {
+                    if (patternToSystem[lower] != NONE && patternToSystem[lower] > systemNode) {
+                        return false;
+                    }
+                }
+                for (int higher : pattern.getHigherNodes(patternNode)) {
+                    if (patternToSystem[higher] != NONE && patternToSystem[higher] < systemNode) {
+                        return false;
+                    }
+                }
+                for (int other = 0; other < patternToSystem.length; other++) {
+                    final int otherSystemNode = patternToSystem[other];
+                    if (otherSystemNode != NONE
+                            && (!areCompatible(systemNode, otherSystemNode, patternNode, other)
+                            || !areCompatible(otherSystemNode, systemNode, other, patternNode))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            /**
+             * Checks whether there is a relation between the system nodes if and only if there is a relation between
+             * the pattern nodes, and if so, whether these relations match.
+             */
+            private boolean areCompatible(int systemSource, int systemTarget, int patternSource, int patternTarget) {
+                final int systemRelation = system.findRelationPosition(systemSource, systemTarget);
+                final int patternRelation = pattern.getRelationIndex(patternSource, patternTarget);
+                if (systemRelation == NONE || patternRelation == NONE) {
+                    return systemRelation == NONE && patternRelation == NONE;
+                }
+                return matrix.isMatchingRelation(systemRelation, patternRelation);
+            }
+        }
+    }
+
+    /**
+     * An {@link Iterator} that creates the actual {@link Iterator} the first time it is used.
+     */
+    private static class DeferredIterator<T> implements Iterator<T> {
+
+        private Supplier<Iterator<T>> supplier;
+        private Iterator<T> iterator;
+
+        private DeferredIterator(Supplier<Iterator<T>> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (iterator == null) {
+                iterator = supplier.get();
+                supplier = null;
+            }
+            return iterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return iterator.next();
+        }
+    }
+
+    /**
+     * A {@link GraphMapping} between the system (forward) and the pattern (backward), backed by an array that maps
+     * pattern node indexes on system node indexes.
+     */
+    private static class CompiledGraphMapping implements GraphMapping<Node, Relation> {
+
+        private final CompiledSystem system;
+        private final CompiledPattern pattern;
+        private final int[] patternToSystem;
+
+        private CompiledGraphMapping(CompiledSystem system, CompiledPattern pattern, int[] patternToSystem) {
+            this.system = system;
+            this.pattern = pattern;
+            this.patternToSystem = patternToSystem;
+        }
+
+        @Override
+        public Node getVertexCorrespondence(Node node, boolean forward) {
+            if (forward) {
+                final int patternNode = toPatternNode(system.indexOf(node));
+                return patternNode == NONE ? null : pattern.getNode(patternNode);
+            }
+            final int patternNode = pattern.indexOf(node);
+            return patternNode == NONE ? null : system.getNode(patternToSystem[patternNode]);
+        }
+
+        @Override
+        public Relation getEdgeCorrespondence(Relation relation, boolean forward) {
+            if (forward) {
+                final SystemUnderConsideration graph = system.getSystem();
+                final int source = toPatternNode(system.indexOf(graph.getEdgeSource(relation)));
+                final int target = toPatternNode(system.indexOf(graph.getEdgeTarget(relation)));
+                return source == NONE || target == NONE ? null : pattern.getRelation(source, target);
+            }
+            final DesignPattern graph = pattern.getPattern();
+            final int source = pattern.indexOf(graph.getEdgeSource(relation));
+            final int target = pattern.indexOf(graph.getEdgeTarget(relation));
+            return system.findRelation(patternToSystem[source], patternToSystem[target]);
+        }
+
+        private int toPatternNode(int systemNode) {
+            if (systemNode != NONE) {
+                for (int patternNode = 0; patternNode < patternToSystem.length; patternNode++) {
+                    if (patternToSystem[patternNode] == systemNode) {
+                        return patternNode;
+                    }
+                }
+            }
+            return NONE;
+        }
+    }
+
+}
@@ -0,0 +1,193 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An int-indexed representation of a {@link SystemUnderConsideration}. The nodes are numbered in the iteration order
+ * of the system's vertex set, and the relations are stored in compressed sparse row (CSR) format: the successors of
+ * node {@code i} are {@code successors[successorOffsets[i]]} up to (but excluding)
+ * {@code successors[successorOffsets[i + 1]]}, sorted ascending, and the same goes for the predecessors.
+ * <p>
+ * A {@link CompiledSystem} is immutable, and reflects the system at the time it was compiled.
+ *
+ * @author Martin de Boer
+ */
+final class CompiledSystem {
+
+    private final SystemUnderConsideration system;
+    private final int relationCount;
+
+    private final Node[] nodes;
+    private final Map<Node, Integer> indexes;
+
+    private final int[] successorOffsets;
+    private final int[] successors;
+    private final Relation[] outgoingRelations;
+    private final int[] predecessorOffsets;
+    private final int[] predecessors;
+
+    CompiledSystem(SystemUnderConsideration system) {
+        this.system = system;
+        this.nodes = system.vertexSet().toArray(new Node[0]);
+        this.indexes = new HashMap<>(nodes.length * 2);
+        for (int i = 0; i < nodes.length; i++) {
+            indexes.put(nodes[i], i);
+        }
+
+        final Relation[] relations = system.edgeSet().toArray(new Relation[0]);
+        this.relationCount = relations.length;
+        final int[] sources = new int[relationCount];
+        final int[] targets = new int[relationCount];
+        this.successorOffsets = new int[nodes.length + 1];
+        this.predecessorOffsets = new int[nodes.length + 1];
+        for (int r = 0; r < relationCount; r++) {
+            sources[r] = indexes.get(system.getEdgeSource(relations[r]));
+            targets[r] = indexes.get(system.getEdgeTarget(relations[r]));
+            successorOffsets[sources[r] + 1]++;
+            predecessorOffsets[targets[r] + 1]++;
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            successorOffsets[i + 1] += successorOffsets[i];
+            predecessorOffsets[i + 1] += predecessorOffsets[i];
+        }
+
+        // Fill the rows by counting sort on the target (or source), so every row ends up sorted
+        this.successors = new int[relationCount];
+        this.outgoingRelations = new Relation[relationCount];
+        this.predecessors = new int[relationCount];
+        final int[] byTarget = sortByNode(targets);
+        final int[] successorFill = successorOffsets.clone();
+        for (int r : byTarget) {
+            final int position = successorFill[sources[r]]++;
+            successors[position] = targets[r];
+            outgoingRelations[position] = relations[r];
+        }
+        final int[] bySource = sortByNode(sources);
+        final int[] predecessorFill = predecessorOffsets.clone();
+        for (int r : bySource) {
+            predecessors[predecessorFill[targets[r]]++] = sources[r];
+        }
+    }
+
+    /**
+     * Checks whether this {@link CompiledSystem} (still) represents the specified system.
+     */
+    boolean represents(SystemUnderConsideration other) {
+        return system == other
+                && nodes.length == other.vertexSet().size()
+                && relationCount == other.edgeSet().size();
+    }
+
+    SystemUnderConsideration getSystem() {
+        return system;
+    }
+
+    int getNodeCount() {
+        return nodes.length;
+    }
+
+    int getRelationCount() {
+        return relationCount;
+    }
+
+    Node getNode(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns the index of the specified node, or -1 if the node is not part of the system.
+     */
+    int indexOf(Node node) {
+        final Integer index = indexes.get(node);
+        return index == null ? -1 : index;
+    }
+
+    int getOutDegree(int node) {
+        return successorOffsets[node + 1] - successorOffsets[node];
+    }
+
+    int getInDegree(int node) {
+        return predecessorOffsets[node + 1] - predecessorOffsets[node];
+    }
+
+    int[] getSuccessors() {
+        return successors;
+    }
+
+    int getSuccessorsStart(int node) {
+        return successorOffsets[node];
+    }
+
+    int getSuccessorsEnd(int node) {
+        return successorOffsets[node + 1];
+    }
+
+    int[] getPredecessors() {
+        return predecessors;
+    }
+
+    int getPredecessorsStart(int node) {
+        return predecessorOffsets[node];
+    }
+
+    int getPredecessorsEnd(int node) {
+        return predecessorOffsets[node + 1];
+    }
+
+    /**
+     * Returns the relation from {@code source} to {@code target}, or {@code null} if there is no such relation.
+     */
+    Relation findRelation(int source, int target) {
+        final int position = findRelationPosition(source, target);
+        return position < 0 ? null : outgoingRelations[position];
+    }
+
+    /**
+     * Returns the position of the relation from {@code source} to {@code target} in the successor array, or -1 if
+     * there is no such relation. Since every relation has exactly one such position, positions can be used as
+     * relation indexes, ranging from {@code 0} up to (but excluding) {@link #getRelationCount()}.
+     */
+    int findRelationPosition(int source, int target) {
+        int low = successorOffsets[source];
+        int high = successorOffsets[source + 1] - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            if (successors[middle] < target) {
+                low = middle + 1;
+            } else if (successors[middle] > target) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the relation at the specified position in the successor array.
+     */
+    Relation getRelationAt(int position) {
+        return outgoingRelations[position];
+    }
+
+    private int[] sortByNode(int[] nodeOfRelation) {
+        final int[] counts = new int[nodes.length + 1];
+        for (int node : nodeOfRelation) {
+            counts[node + 1]++;
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            counts[i + 1] += counts[i];
+        }
+        final int[] result = new int[nodeOfRelation.length];
+        for (int r = 0; r < nodeOfRelation.length; r++) {
+            result[counts[nodeOfRelation[r]]++] = r;
+        }
+        return result;
+    }
+
+}
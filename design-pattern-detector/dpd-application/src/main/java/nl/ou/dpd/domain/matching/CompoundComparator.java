@@ -29,6 +29,11 @@ public abstract class CompoundComparator<T> implements FeedbackEnabledComparator
                 .count();
     }
 
+    @Override
+    public void setFeedbackLevel(FeedbackLevel level) {
+        subComparators.forEach(subComparator -> subComparator.setFeedbackLevel(level));
+    }
+
     @Override
     public Feedback getFeedback() {
         final Feedback feedback = new Feedback();
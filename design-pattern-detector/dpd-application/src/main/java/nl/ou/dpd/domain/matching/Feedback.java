@@ -5,14 +5,27 @@ import nl.ou.dpd.domain.node.Node;
 import nl.ou.dpd.domain.relation.Relation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
  * A container for feedback messages that are generated during the matching process.
+ * <p>
+ * Messages are stored as a format and its arguments, and are only formatted when they are requested by calling
+ * {@link #getFeedbackMessages(Node, FeedbackType)} or {@link #getFeedbackMessages(Relation, FeedbackType)}. Which
+ * messages are stored at all is determined by the {@link FeedbackLevel}: nothing is allocated for a message that is
+ * left out. Callers that pass arguments can check {@link #includes(FeedbackType)} first, to avoid the allocation of
+ * the argument array as well.
+ * <p>
+ * When a {@link SystemUnderConsideration} is specified, every relation in it, and every node at either end of such a
+ * relation, that has no other messages is reported as {@link FeedbackType#NOT_ANALYSED}.
  *
  * @author Martin de Boer
  */
@@ -20,28 +33,61 @@ public class Feedback {
 
     // The default feedback: not analysed
     private static final String MSG_NOT_ANALYSED = "Not analysed.";
+    private static final Message NOT_ANALYSED = new Message(MSG_NOT_ANALYSED);
 
     private final Set<String> patternRelatedNotes = new HashSet<>();
-    private final Map<Node, Map<FeedbackType, List<String>>> nodeRelatedFeedbackMessages = new HashMap<>();
-    private final Map<Relation, Map<FeedbackType, List<String>>> relationRelatedFeedbackMessages = new HashMap<>();
+    private final Map<Node, Map<FeedbackType, Set<Message>>> nodeRelatedFeedbackMessages = new HashMap<>();
+    private final Map<Relation, Map<FeedbackType, Set<Message>>> relationRelatedFeedbackMessages = new HashMap<>();
+
+    private SystemUnderConsideration system;
+    // The relations of the system and the nodes at either end of them, collected when first needed
+    private Set<Relation> systemRelations;
+    private Set<Node> systemNodes;
+    private FeedbackLevel level = FeedbackLevel.FULL;
 
     public Feedback() {
     }
 
     public Feedback(SystemUnderConsideration systemUnderConsideration) {
-        systemUnderConsideration.edgeSet().forEach(relation -> {
-            addFeedbackMessage(relation, FeedbackType.NOT_ANALYSED, MSG_NOT_ANALYSED);
-            addFeedbackMessage(systemUnderConsideration.getEdgeSource(relation), FeedbackType.NOT_ANALYSED, MSG_NOT_ANALYSED);
-            addFeedbackMessage(systemUnderConsideration.getEdgeTarget(relation), FeedbackType.NOT_ANALYSED, MSG_NOT_ANALYSED);
-        });
+        this.system = systemUnderConsideration;
+    }
+
+    public FeedbackLevel getFeedbackLevel() {
+        return level;
+    }
+
+    /**
+     * Sets the {@link FeedbackLevel}, determining which messages are stored from now on. Messages that are already
+     * stored are kept.
+     *
+     * @param level the new {@link FeedbackLevel}
+     * @return this {@link Feedback}, allowing chaining
+     */
+    public Feedback setFeedbackLevel(FeedbackLevel level) {
+        this.level = level;
+        return this;
+    }
+
+    /**
+     * Checks whether messages of the specified {@link FeedbackType} are stored at the current {@link FeedbackLevel}.
+     *
+     * @param type the {@link FeedbackType} to check
+     * @return {@code true} if messages of the specified type are stored, or {@code false} otherwise.
+     */
+    public boolean includes(FeedbackType type) {
+        return level.includes(type);
     }
 
     public Set<Node> getNodeSet() {
-        return nodeRelatedFeedbackMessages.keySet();
+        final Set<Node> nodes = new LinkedHashSet<>(nodeRelatedFeedbackMessages.keySet());
+        nodes.addAll(getSystemNodes());
+        return nodes;
     }
 
     public Set<Relation> getRelationSet() {
-        return relationRelatedFeedbackMessages.keySet();
+        final Set<Relation> relations = new LinkedHashSet<>(relationRelatedFeedbackMessages.keySet());
+        relations.addAll(getSystemRelations());
+        return relations;
     }
 
     public Feedback addNotes(Set<String> notes) {
@@ -54,44 +100,108 @@ public class Feedback {
     }
 
     public List<String> getFeedbackMessages(Node node, FeedbackType type) {
-        if (nodeRelatedFeedbackMessages.get(node) == null) {
-            return new ArrayList<>();
-        }
-        final List<String> messages = nodeRelatedFeedbackMessages.get(node).get(type);
-        if (messages == null) {
-            return new ArrayList<>();
+        final Map<FeedbackType, Set<Message>> messages = nodeRelatedFeedbackMessages.get(node);
+        if (messages == null || messages.isEmpty()) {
+            return type == FeedbackType.NOT_ANALYSED && isSystemNode(node)
+                    ? format(Arrays.asList(NOT_ANALYSED))
+                    : new ArrayList<>();
         }
-        return messages;
+        return format(messages.get(type));
     }
 
     public List<String> getFeedbackMessages(Relation relation, FeedbackType type) {
-        if (relationRelatedFeedbackMessages.get(relation) == null) {
-            return new ArrayList<>();
+        final Map<FeedbackType, Set<Message>> messages = relationRelatedFeedbackMessages.get(relation);
+        if (messages == null || messages.isEmpty()) {
+            return type == FeedbackType.NOT_ANALYSED && isSystemRelation(relation)
+                    ? format(Arrays.asList(NOT_ANALYSED))
+                    : new ArrayList<>();
         }
-        final List<String> messages = relationRelatedFeedbackMessages.get(relation).get(type);
-        if (messages == null) {
-            return new ArrayList<>();
+        return format(messages.get(type));
+    }
+
+    /**
+     * Counts the feedback messages of the specified {@link FeedbackType} for the specified {@link Node}, without
+     * formatting them. The count equals the size of {@link #getFeedbackMessages(Node, FeedbackType)}.
+     *
+     * @param node the {@link Node} the messages apply to
+     * @param type the {@link FeedbackType} of the messages
+     * @return the number of messages.
+     */
+    public int countFeedbackMessages(Node node, FeedbackType type) {
+        final Map<FeedbackType, Set<Message>> messages = nodeRelatedFeedbackMessages.get(node);
+        if (messages == null || messages.isEmpty()) {
+            return type == FeedbackType.NOT_ANALYSED && isSystemNode(node) ? 1 : 0;
         }
-        return messages;
+        return count(messages.get(type));
+    }
+
+    /**
+     * Counts the feedback messages of the specified {@link FeedbackType} for the specified {@link Relation}, without
+     * formatting them. The count equals the size of {@link #getFeedbackMessages(Relation, FeedbackType)}.
+     *
+     * @param relation the {@link Relation} the messages apply to
+     * @param type     the {@link FeedbackType} of the messages
+     * @return the number of messages.
+     */
+    public int countFeedbackMessages(Relation relation, FeedbackType type) {
+        final Map<FeedbackType, Set<Message>> messages = relationRelatedFeedbackMessages.get(relation);
+        if (messages == null || messages.isEmpty()) {
+            return type == FeedbackType.NOT_ANALYSED && isSystemRelation(relation) ? 1 : 0;
+        }
+        return count(messages.get(type));
     }
 
     public Feedback addFeedbackMessage(Node node, FeedbackType type, String message) {
-        nodeRelatedFeedbackMessages.computeIfAbsent(node, k -> new HashMap<>());
-        nodeRelatedFeedbackMessages.get(node).remove(FeedbackType.NOT_ANALYSED);
-        nodeRelatedFeedbackMessages.get(node).computeIfAbsent(type, k -> new ArrayList<>());
-        return addUniqueMessage(nodeRelatedFeedbackMessages.get(node).get(type), message);
+        return includes(type) ? addMessage(nodeRelatedFeedbackMessages, node, type, new Message(message)) : this;
+    }
+
+    /**
+     * Adds a feedback message for the specified {@link Node}. The message is formatted (as with
+     * {@link String#format(String, Object...)}) only when it is requested, so the arguments should not be modified
+     * afterwards.
+     *
+     * @param node   the {@link Node} the message applies to
+     * @param type   the {@link FeedbackType} of the message
+     * @param format the format of the message
+     * @param args   the arguments referenced by the format
+     * @return this {@link Feedback}, allowing chaining
+     */
+    public Feedback addFeedbackMessage(Node node, FeedbackType type, String format, Object... args) {
+        return includes(type) ? addMessage(nodeRelatedFeedbackMessages, node, type, new Message(format, args)) : this;
     }
 
     public Feedback addFeedbackMessage(Relation relation, FeedbackType type, String message) {
-        relationRelatedFeedbackMessages.computeIfAbsent(relation, k -> new HashMap<>());
-        relationRelatedFeedbackMessages.get(relation).remove(FeedbackType.NOT_ANALYSED);
-        relationRelatedFeedbackMessages.get(relation).computeIfAbsent(type, k -> new ArrayList<>());
-        return addUniqueMessage(relationRelatedFeedbackMessages.get(relation).get(type), message);
+        return includes(type)
+                ? addMessage(relationRelatedFeedbackMessages, relation, type, new Message(message))
+                : this;
+    }
+
+    /**
+     * Adds a feedback message for the specified {@link Relation}. The message is formatted (as with
+     * {@link String#format(String, Object...)}) only when it is requested, so the arguments should not be modified
+     * afterwards.
+     *
+     * @param relation the {@link Relation} the message applies to
+     * @param type     the {@link FeedbackType} of the message
+     * @param format   the format of the message
+     * @param args     the arguments referenced by the format
+     * @return this {@link Feedback}, allowing chaining
+     */
+    public Feedback addFeedbackMessage(Relation relation, FeedbackType type, String format, Object... args) {
+        return includes(type)
+                ? addMessage(relationRelatedFeedbackMessages, relation, type, new Message(format, args))
+                : this;
     }
 
-    private Feedback addUniqueMessage(List<String> messages, String message) {
-        if (messages.stream().filter(s -> s.equals(message)).count() == 0) {
-            messages.add(message);
+    private <T> Feedback addMessage(Map<T, Map<FeedbackType, Set<Message>>> feedbackMessages,
+                                    T element,
+                                    FeedbackType type,
+                                    Message message) {
+        if (includes(type)) {
+            final Map<FeedbackType, Set<Message>> messages =
+                    feedbackMessages.computeIfAbsent(element, k -> new EnumMap<>(FeedbackType.class));
+            messages.remove(FeedbackType.NOT_ANALYSED);
+            messages.computeIfAbsent(type, k -> new LinkedHashSet<>()).add(message);
         }
         return this;
     }
@@ -100,22 +210,104 @@ public class Feedback {
         if (other == null) {
             return this;
         }
-        if (other.patternRelatedNotes != null && other.patternRelatedNotes.size() > 0) {
-            patternRelatedNotes.addAll(other.patternRelatedNotes);
+        patternRelatedNotes.addAll(other.patternRelatedNotes);
+        other.nodeRelatedFeedbackMessages.forEach((node, messages) -> messages.forEach((type, msgs) ->
+                msgs.forEach(msg -> addMessage(nodeRelatedFeedbackMessages, node, type, msg))));
+        other.relationRelatedFeedbackMessages.forEach((relation, messages) -> messages.forEach((type, msgs) ->
+                msgs.forEach(msg -> addMessage(relationRelatedFeedbackMessages, relation, type, msg))));
+        if (other.system != null) {
+            // The elements the other feedback reports as not analysed
+            other.getSystemNodes().stream()
+                    .filter(node -> !other.nodeRelatedFeedbackMessages.containsKey(node))
+                    .forEach(node -> addMessage(
+                            nodeRelatedFeedbackMessages, node, FeedbackType.NOT_ANALYSED, NOT_ANALYSED));
+            other.getSystemRelations().stream()
+                    .filter(relation -> !other.relationRelatedFeedbackMessages.containsKey(relation))
+                    .forEach(relation -> addMessage(
+                            relationRelatedFeedbackMessages, relation, FeedbackType.NOT_ANALYSED, NOT_ANALYSED));
+        }
+        return this;
+    }
+
+    private boolean isSystemNode(Node node) {
+        return getSystemNodes().contains(node);
+    }
+
+    private Set<Node> getSystemNodes() {
+        if (systemNodes == null) {
+            systemNodes = new LinkedHashSet<>();
+            if (system != null) {
+                system.edgeSet().forEach(relation -> {
+                    systemNodes.add(system.getEdgeSource(relation));
+                    systemNodes.add(system.getEdgeTarget(relation));
+                });
+            }
+        }
+        return systemNodes;
+    }
+
+    private boolean isSystemRelation(Relation relation) {
+        return getSystemRelations().contains(relation);
+    }
+
+    private Set<Relation> getSystemRelations() {
+        if (systemRelations == null) {
+            systemRelations = system == null ? new LinkedHashSet<>() : new LinkedHashSet<>(system.edgeSet());
         }
-        if (other.nodeRelatedFeedbackMessages != null && other.nodeRelatedFeedbackMessages.size() > 0) {
-            other.nodeRelatedFeedbackMessages.keySet()
-                    .forEach(node -> other.nodeRelatedFeedbackMessages.get(node)
-                            .forEach((type, message) -> other.nodeRelatedFeedbackMessages.get(node).get(type)
-                                    .forEach(msg -> addFeedbackMessage(node, type, msg))));
+        return systemRelations;
+    }
+
+    private static int count(Set<Message> messages) {
+        return messages == null ? 0 : messages.size();
+    }
+
+    private static List<String> format(Iterable<Message> messages) {
+        final List<String> result = new ArrayList<>();
+        if (messages != null) {
+            messages.forEach(message -> result.add(message.toString()));
         }
-        if (other.relationRelatedFeedbackMessages != null && other.relationRelatedFeedbackMessages.size() > 0) {
-            other.relationRelatedFeedbackMessages.keySet()
-                    .forEach(relation -> other.relationRelatedFeedbackMessages.get(relation)
-                            .forEach((type, message) -> other.relationRelatedFeedbackMessages.get(relation).get(type)
-                                    .forEach(msg -> addFeedbackMessage(relation, type, msg))));
+        return result;
+    }
+
+    /**
+     * A feedback message that is formatted only when it is needed. Two messages are equal if their formats and
+     * arguments are equal, so that the same message is stored only once.
+     */
+    private static final class Message {
+
+        private final String format;
+        private final Object[] args;
+
+        Message(String text) {
+            this(text, new Object[0]);
+        }
+
+        Message(String format, Object[] args) {
+            this.format = format;
+            this.args = args;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Message message = (Message) o;
+            return Objects.equals(format, message.format) && Arrays.equals(args, message.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(format) + Arrays.hashCode(args);
+        }
+
+        @Override
+        public String toString() {
+            return args.length == 0 ? format : String.format(format, args);
         }
-        return this;
     }
 
 }
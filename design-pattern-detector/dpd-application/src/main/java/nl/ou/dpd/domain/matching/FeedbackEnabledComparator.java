@@ -14,4 +14,13 @@ import java.util.Comparator;
  */
 public interface FeedbackEnabledComparator<T> extends Comparator<T>, FeedbackEnabled {
 
+    /**
+     * Sets the {@link FeedbackLevel}, determining how much feedback is gathered during subsequent comparisons. By
+     * default, the level is ignored.
+     *
+     * @param level the {@link FeedbackLevel} to apply
+     */
+    default void setFeedbackLevel(FeedbackLevel level) {
+    }
+
 }
@@ -0,0 +1,44 @@
+package nl.ou.dpd.domain.matching;
+
+/**
+ * The level of detail of the {@link Feedback} that is gathered during the matching process. Gathering feedback takes
+ * time and memory, so when nobody is going to read it (e.g. in batch runs), a lower level can be chosen.
+ *
+ * @author Martin de Boer
+ */
+public enum FeedbackLevel {
+
+    /**
+     * No feedback is gathered, apart from the notes of the design pattern.
+     */
+    NONE,
+
+    /**
+     * Only matches, mismatches and elements that were not analysed are reported. Informational messages are left
+     * out.
+     */
+    SUMMARY,
+
+    /**
+     * All feedback is gathered.
+     */
+    FULL;
+
+    /**
+     * Checks whether messages of the specified {@link FeedbackType} are gathered at this level.
+     *
+     * @param type the {@link FeedbackType} to check
+     * @return {@code true} if messages of the specified type are gathered, or {@code false} otherwise.
+     */
+    public boolean includes(FeedbackType type) {
+        switch (this) {
+            case FULL:
+                return true;
+            case SUMMARY:
+                return type != FeedbackType.INFO;
+            default:
+                return false;
+        }
+    }
+
+}
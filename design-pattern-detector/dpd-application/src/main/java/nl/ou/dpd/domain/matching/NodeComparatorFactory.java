@@ -3,9 +3,6 @@ package nl.ou.dpd.domain.matching;
 import nl.ou.dpd.domain.node.Node;
 import nl.ou.dpd.domain.node.NodeType;
 
-import java.util.Set;
-import java.util.stream.Collectors;
-
 /**
  * A factory for {@link FeedbackEnabledComparator}s used for matching {@link Node}s of system designs with
  * {@link Node}s of design patterns.
@@ -56,16 +53,22 @@ public class NodeComparatorFactory {
         @Override
         public int compare(Node systemNode, Node patternNode) {
             final int result = super.compare(systemNode, patternNode);
-            if (result == 0) {
-                final String feedbackMsg = String.format(MATCHED_WITH_MSG, patternNode.getName());
-                feedback.addFeedbackMessage(systemNode, FeedbackType.MATCH, feedbackMsg);
-            } else {
-                final String feedbackMsg = String.format(MATCH_FAILED_WITH_MSG, patternNode.getName());
-                feedback.addFeedbackMessage(systemNode, FeedbackType.MISMATCH, feedbackMsg);
+            final FeedbackType type = result == 0 ? FeedbackType.MATCH : FeedbackType.MISMATCH;
+            if (feedback.includes(type)) {
+                feedback.addFeedbackMessage(systemNode,
+                        type,
+                        result == 0 ? MATCHED_WITH_MSG : MATCH_FAILED_WITH_MSG,
+                        patternNode.getName());
             }
             return result;
         }
 
+        @Override
+        public void setFeedbackLevel(FeedbackLevel level) {
+            super.setFeedbackLevel(level);
+            feedback.setFeedbackLevel(level);
+        }
+
         @Override
         public Feedback getFeedback() {
             return super.getFeedback().merge(feedback);
@@ -80,38 +83,37 @@ public class NodeComparatorFactory {
             return feedback;
         }
 
+        @Override
+        public void setFeedbackLevel(FeedbackLevel level) {
+            feedback.setFeedbackLevel(level);
+        }
+
         @Override
         public int compare(Node systemNode, Node patternNode) {
-            final Set<NodeType> sysTypes = systemNode.getTypes();
-            final Set<NodeType> dpTypes = patternNode.getTypes();
-            final Set<NodeType> dpDisjunction = getLeftDisjunction(dpTypes, sysTypes);
+            // The types of the pattern node that the system node lacks
+            final long missingTypes = patternNode.getTypeMask() & ~systemNode.getTypeMask();
 
             feedback.addFeedbackMessage(systemNode, FeedbackType.INFO, NODE_TYPES_ANALYSED_MSG);
 
-            final int result = dpDisjunction.size();
-            if (result != 0) {
-                createFeedback(systemNode, patternNode, dpDisjunction);
+            if (missingTypes != 0 && feedback.includes(FeedbackType.MISMATCH)) {
+                createFeedback(systemNode, patternNode, missingTypes);
             }
-            return result;
-        }
-
-        private void createFeedback(Node systemNode, Node patternNode, Set<NodeType> dpDisjunction) {
-            dpDisjunction.forEach(nodeType -> {
-                final String feedbackMsg = String.format(
-                        MISMATCH_MISSING_NODE_TYPE_MSG,
-                        patternNode.getName(),
-                        nodeType,
-                        systemNode.getName());
-                feedback.addFeedbackMessage(systemNode, FeedbackType.MISMATCH, feedbackMsg);
-            });
+            return Long.bitCount(missingTypes);
         }
 
-        private Set<NodeType> getLeftDisjunction(Set<NodeType> set1, Set<NodeType> set2) {
-            return set1.stream()
-                    .filter(type -> !set2.contains(type))
-                    .collect(Collectors.toSet());
+        private void createFeedback(Node systemNode, Node patternNode, long missingTypes) {
+            for (NodeType nodeType : NodeType.values()) {
+                if ((missingTypes & nodeType.getMask()) != 0) {
+                    feedback.addFeedbackMessage(
+                            systemNode,
+                            FeedbackType.MISMATCH,
+                            MISMATCH_MISSING_NODE_TYPE_MSG,
+                            patternNode.getName(),
+                            nodeType,
+                            systemNode.getName());
+                }
+            }
         }
 
-
     }
 }
@@ -7,26 +7,40 @@ import nl.ou.dpd.domain.relation.Relation;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jgrapht.GraphMapping;
-import org.jgrapht.alg.isomorphism.VF2SubgraphIsomorphismInspector;
+import org.jgrapht.alg.isomorphism.IsomorphismInspector;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Inspects a system under consideration for design patterns. Both objects (the system under control as well as the
  * design pattern) must be implemented as {@link org.jgrapht.DirectedGraph}s with {@link Node}s as vertices and
  * {@link Relation}s as edges.
+ * <p>
+ * The inspector looks for node induced subgraphs of the system that are isomorphic to the design pattern, like
+ * jgrapht's {@link org.jgrapht.alg.isomorphism.VF2SubgraphIsomorphismInspector} does. Of all the mappings that only
+ * differ by interchanging equivalent pattern nodes, only one is produced (see {@link PatternSymmetry}). The actual
+ * search is done by a {@link PatternMatcher}, which is a {@link CompiledPatternMatcher} unless specified otherwise.
  *
  * @author Martin de Boer
  */
-public class PatternInspector extends VF2SubgraphIsomorphismInspector<Node, Relation> {
+public class PatternInspector implements IsomorphismInspector<Node, Relation> {
 
     private static final Logger LOGGER = LogManager.getLogger(PatternInspector.class);
 
     private SystemUnderConsideration system;
     private DesignPattern designPattern;
+    private FeedbackEnabledComparator<Node> nodeComparator;
+    private FeedbackEnabledComparator<Relation> relationComparator;
+    private IsomorphismInspector<Node, Relation> inspector;
+    private FeedbackLevel feedbackLevel = FeedbackLevel.FULL;
 
     /**
      * Construct a new {@link PatternInspector}.
@@ -35,46 +49,183 @@ public class PatternInspector extends VF2SubgraphIsomorphismInspector<Node, Rela
      * @param designPattern a designPattern (possible subgraph of system)
      */
     public PatternInspector(SystemUnderConsideration system, DesignPattern designPattern) {
-        super(system, designPattern, designPattern.getNodeComparator(), designPattern.getRelationComparator());
+        this(system, designPattern, new CompiledPatternMatcher());
+    }
+
+    /**
+     * Construct a new {@link PatternInspector} that uses the specified {@link PatternMatcher}.
+     *
+     * @param system        a system under consideration
+     * @param designPattern a designPattern (possible subgraph of system)
+     * @param matcher       the {@link PatternMatcher} that searches the system for the design pattern
+     */
+    public PatternInspector(SystemUnderConsideration system, DesignPattern designPattern, PatternMatcher matcher) {
+        this(system, designPattern, designPattern.getNodeComparator(), designPattern.getRelationComparator(), matcher);
+    }
+
+    private PatternInspector(SystemUnderConsideration system,
+                             DesignPattern designPattern,
+                             FeedbackEnabledComparator<Node> nodeComparator,
+                             FeedbackEnabledComparator<Relation> relationComparator,
+                             PatternMatcher matcher) {
         LOGGER.info(String.format("Analysing system design '%s' for design pattern '%s'.",
                 system.getName(),
                 designPattern.getName()));
         this.system = system;
         this.designPattern = designPattern;
+        this.nodeComparator = nodeComparator;
+        this.relationComparator = relationComparator;
+        this.inspector = matcher.createInspector(system, designPattern, nodeComparator, relationComparator);
+    }
+
+    /**
+     * Sets the {@link FeedbackLevel} of the feedback that is gathered during the inspection. The default level is
+     * {@link FeedbackLevel#FULL}. It should be set before the search for solutions starts.
+     *
+     * @param feedbackLevel the {@link FeedbackLevel}
+     * @return this {@link PatternInspector}, allowing chaining
+     */
+    public PatternInspector setFeedbackLevel(FeedbackLevel feedbackLevel) {
+        this.feedbackLevel = feedbackLevel;
+        if (nodeComparator != null) {
+            nodeComparator.setFeedbackLevel(feedbackLevel);
+        }
+        if (relationComparator != null) {
+            relationComparator.setFeedbackLevel(feedbackLevel);
+        }
+        return this;
     }
 
+    public FeedbackLevel getFeedbackLevel() {
+        return feedbackLevel;
+    }
+
+    /**
+     * Returns an {@link Iterator} over the mappings between the system and the design pattern. Mappings that only
+     * differ by interchanging equivalent pattern nodes are produced only once. Mappings are found lazily.
+     *
+     * @return an {@link Iterator} over the mappings.
+     */
+    @Override
+    public Iterator<GraphMapping<Node, Relation>> getMappings() {
+        return inspector.getMappings();
+    }
+
+    @Override
+    public boolean isomorphismExists() {
+        return getMappings().hasNext();
+    }
+
+    /**
+     * Returns the {@link MatchingResult}, containing all the solutions that were found, and the gathered feedback.
+     *
+     * @return the {@link MatchingResult}
+     */
     public MatchingResult getMatchingResult() {
-        return new MatchingResult(getSolutions(), getFeedback());
+        return new MatchingResult(getSolutions(streamSolutions()), getFeedback());
     }
 
     /**
-     * Initializes a new {@link Feedback} object (all relations and nodes are set to {@link FeedbackType#NOT_ANALYSED})
-     * and merges all feedback messages from the comparators into the newly created feedback object.
+     * Returns the {@link MatchingResult}, containing at most {@code maxSolutions} solutions. The search for solutions
+     * stops as soon as the maximum number of solutions is found, so the feedback only covers the part of the system
+     * that was analysed up to that point.
      *
-     * @return the resulting {@link Feedback} object containing all the feedback messages from the comparators, or
-     * a message "not analysed" and {@link FeedbackType#NOT_ANALYSED} when no feedback has been generated by the
-     * comparators.
+     * @param maxSolutions the maximum number of solutions (before filtering out duplicates)
+     * @return the {@link MatchingResult}
+     */
+    public MatchingResult getMatchingResult(long maxSolutions) {
+        return new MatchingResult(getSolutions(streamSolutions(maxSolutions)), getFeedback());
+    }
+
+    /**
+     * Returns an {@link Iterator} that produces the {@link Solution}s one at a time, as they are found. No solution is
+     * searched for before it is requested, so a caller can stop the search simply by no longer calling
+     * {@link Iterator#next()}. Similar solutions are not filtered out.
+     *
+     * @return an {@link Iterator} over all the solutions.
+     */
+    public Iterator<Solution> solutionIterator() {
+        final Iterator<GraphMapping<Node, Relation>> mappings = getMappings();
+        return new Iterator<Solution>() {
+            @Override
+            public boolean hasNext() {
+                return mappings.hasNext();
+            }
+
+            @Override
+            public Solution next() {
+                return getSolutionFromGraphMapping(mappings.next());
+            }
+        };
+    }
+
+    /**
+     * Returns a sequential {@link Stream} of {@link Solution}s, backed by {@link #solutionIterator()}. Solutions are
+     * searched for lazily, so short-circuiting operations like {@link Stream#findFirst()} or
+     * {@link Stream#anyMatch(java.util.function.Predicate)} stop the search as soon as their result is known.
+     * Similar solutions are not filtered out.
+     *
+     * @return a {@link Stream} of all the solutions.
+     */
+    public Stream<Solution> streamSolutions() {
+        final Spliterator<Solution> spliterator = Spliterators.spliteratorUnknownSize(
+                solutionIterator(),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Returns a sequential {@link Stream} of at most {@code maxSolutions} {@link Solution}s. The search stops when
+     * the maximum number of solutions is found.
+     *
+     * @param maxSolutions the maximum number of solutions to produce
+     * @return a {@link Stream} of at most {@code maxSolutions} solutions.
+     */
+    public Stream<Solution> streamSolutions(long maxSolutions) {
+        return streamSolutions().limit(maxSolutions);
+    }
+
+    /**
+     * Returns a sequential {@link Stream} of {@link Solution}s, like {@link #streamSolutions()}, but with similar
+     * solutions filtered out: only the first solution of every group of similar solutions is produced.
+     *
+     * @return a {@link Stream} of all the solutions that are not similar to an earlier one.
+     */
+    public Stream<Solution> streamDistinctSolutions() {
+        final Set<Solution.SimilarityKey> keys = new HashSet<>();
+        return streamSolutions().filter(solution -> keys.add(solution.getSimilarityKey()));
+    }
+
+    /**
+     * Creates the {@link Feedback} for the configured {@link FeedbackLevel}. At {@link FeedbackLevel#NONE}, the
+     * comparators gather nothing, so the result is an empty {@link Feedback} that only contains the notes of the
+     * design pattern. At {@link FeedbackLevel#SUMMARY} and {@link FeedbackLevel#FULL}, the notes are merged with
+     * whatever feedback the comparators gathered at that level.
+     *
+     * @return the resulting {@link Feedback} object.
      */
     private Feedback getFeedback() {
+        if (feedbackLevel == FeedbackLevel.NONE) {
+            return new Feedback().addNotes(designPattern.getNotes());
+        }
         return new Feedback(this.system)
                 .addNotes(designPattern.getNotes())
-                .merge(designPattern.getNodeComparator().getFeedback())
-                .merge(designPattern.getRelationComparator().getFeedback());
+                .merge(nodeComparator.getFeedback())
+                .merge(relationComparator.getFeedback());
     }
 
     /**
      * Gathers the solutions, one for every instance of a detected design pattern.
      *
+     * @param solutions the {@link Stream} of solutions to gather
      * @return a {@link List} of {@link Solution} objects, one for every design pattern instance that was detected.
      */
-    private List<Solution> getSolutions() {
+    private List<Solution> getSolutions(Stream<Solution> solutions) {
+        final List<Solution> result = solutions.collect(Collectors.toList());
         LOGGER.info(String.format("Found %d solutions for pattern '%s' (before filtering out duplicates).",
-                asList(getMappings()).size(),
+                result.size(),
                 designPattern.getName()));
-        return asList(getMappings())
-                .stream()
-                .map(graphMapping -> getSolutionFromGraphMapping(graphMapping))
-                .collect(Collectors.toList());
+        return result;
     }
 
     private Solution getSolutionFromGraphMapping(GraphMapping<Node, Relation> mapping) {
@@ -105,12 +256,6 @@ public class PatternInspector extends VF2SubgraphIsomorphismInspector<Node, Rela
         return false;
     }
 
-    private List<GraphMapping<Node, Relation>> asList(Iterator<GraphMapping<Node, Relation>> iter) {
-        List<GraphMapping<Node, Relation>> graphMappings = new ArrayList<>();
-        iter.forEachRemaining(graphMapping -> graphMappings.add(graphMapping));
-        return graphMappings;
-    }
-
     /**
      * A {@link MatchingResult} object contains the solutions and the feedback for a specific design pattern.
      */
@@ -131,23 +276,17 @@ public class PatternInspector extends VF2SubgraphIsomorphismInspector<Node, Rela
             if (allowSimilarSolutions) {
                 return solutions;
             }
-            // Filter out similar solutions
-            List<Solution> result = new ArrayList<>();
-            solutions.forEach(solution -> {
-                if (!containsSimilarSolution(result, solution)) {
-                    result.add(solution);
-                }
-            });
+            // Filter out similar solutions, keeping the first of every group of similar solutions
+            final Set<Solution.SimilarityKey> keys = new HashSet<>();
+            final List<Solution> result = solutions.stream()
+                    .filter(solution -> keys.add(solution.getSimilarityKey()))
+                    .collect(Collectors.toList());
             LOGGER.info(String.format("Found %d solutions for pattern '%s' (after filtering out duplicates).",
                     result.size(),
                     designPattern.getName()));
             return result;
         }
 
-        private boolean containsSimilarSolution(List<Solution> list, Solution solution) {
-            return list.stream().anyMatch(sol -> sol.isSimilar(solution));
-        }
-
         public Feedback getFeedback() {
             return feedback;
         }
@@ -0,0 +1,40 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import org.jgrapht.alg.isomorphism.IsomorphismInspector;
+
+import java.util.Comparator;
+
+/**
+ * A {@link PatternMatcher} is the algorithm that looks for a {@link DesignPattern} in a
+ * {@link SystemUnderConsideration}: it finds the node induced subgraphs of the system that are isomorphic to the
+ * design pattern, where every system node and relation must match the corresponding pattern node and relation
+ * according to the specified comparators ({@code 0} meaning a match).
+ * <p>
+ * Of all the mappings that only differ by interchanging equivalent pattern nodes, only one is produced (see
+ * {@link PatternSymmetry}). All implementations must produce the same mappings, although not necessarily in the same
+ * order.
+ *
+ * @author Martin de Boer
+ */
+public interface PatternMatcher {
+
+    /**
+     * Creates an {@link IsomorphismInspector} that produces the mappings between the {@code system} and the
+     * {@code pattern}.
+     *
+     * @param system             the system under consideration
+     * @param pattern            the design pattern to look for
+     * @param nodeComparator     decides whether a system node matches a pattern node
+     * @param relationComparator decides whether a system relation matches a pattern relation
+     * @return the {@link IsomorphismInspector}.
+     */
+    IsomorphismInspector<Node, Relation> createInspector(SystemUnderConsideration system,
+                                                         DesignPattern pattern,
+                                                         Comparator<Node> nodeComparator,
+                                                         Comparator<Relation> relationComparator);
+
+}
@@ -0,0 +1,210 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Describes the symmetry of a {@link DesignPattern} graph: the automorphism orbits of its nodes, and a set of ordering
+ * constraints that break the symmetry during the matching process.
+ * <p>
+ * An automorphism is a permutation of the pattern nodes that preserves the node types, the relations and their
+ * properties. Interchangeable pattern nodes (for example several concrete observers) cause every instance of a
+ * design pattern in a system to be found once for every automorphism. The ordering constraints allow only one of
+ * these equivalent mappings: a constraint {@code (a, b)} demands that the system node matched with pattern node
+ * {@code a} precedes the system node matched with pattern node {@code b}, in some fixed order of the system nodes.
+ * <p>
+ * This is only valid if the comparators judge pattern nodes and relations by their types and properties (and not,
+ * for example, by their names), which holds for the comparators in {@link NodeComparatorFactory} and
+ * {@link RelationComparatorFactory}.
+ *
+ * @author Martin de Boer
+ */
+final class PatternSymmetry {
+
+    private final int[][] constraints;
+    private final List<int[]> orbits;
+
+    private final int size;
+    private final int[] colors;
+    private final Object[][] edgeLabels;
+
+    /**
+     * Analyses the symmetry of the {@code pattern}. The nodes are identified by their index in {@code patternNodes}.
+     *
+     * @param pattern      the {@link DesignPattern} to analyse
+     * @param patternNodes the nodes of the {@code pattern}, in the order of their indexes.
+     */
+    PatternSymmetry(DesignPattern pattern, Node[] patternNodes) {
+        this.size = patternNodes.length;
+        this.colors = colorNodes(patternNodes);
+        this.edgeLabels = labelEdges(pattern, patternNodes);
+        this.orbits = findOrbits(new int[0]);
+        this.constraints = findConstraints();
+    }
+
+    /**
+     * Returns the ordering constraints. Every constraint is an array {@code [a, b]} of two pattern node indexes,
+     * meaning that the system node matched with {@code a} must precede the system node matched with {@code b}.
+     *
+     * @return the ordering constraints (possibly empty).
+     */
+    int[][] getConstraints() {
+        return constraints;
+    }
+
+    /**
+     * Returns the orbits of the automorphism group of the pattern: sets of pattern node indexes that can be mapped
+     * onto each other by an automorphism. Orbits containing a single node are omitted.
+     *
+     * @return the nontrivial orbits (possibly empty).
+     */
+    List<int[]> getOrbits() {
+        return Collections.unmodifiableList(orbits);
+    }
+
+    private int[] colorNodes(Node[] patternNodes) {
+        final Map<Long, Integer> colorsByTypes = new HashMap<>();
+        final int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = colorsByTypes.computeIfAbsent(patternNodes[i].getTypeMask(), key -> colorsByTypes.size());
+        }
+        return result;
+    }
+
+    private Object[][] labelEdges(DesignPattern pattern, Node[] patternNodes) {
+        final Map<Node, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            indexes.put(patternNodes[i], i);
+        }
+        final Object[][] result = new Object[size][size];
+        for (Relation relation : pattern.edgeSet()) {
+            final int source = indexes.get(pattern.getEdgeSource(relation));
+            final int target = indexes.get(pattern.getEdgeTarget(relation));
+            // Copy the properties, because they may have been altered after they were added to the relation
+            final Set<RelationProperty> properties = relation.getRelationProperties();
+            result[source][target] = properties == null ? Collections.emptySet() : new HashSet<>(properties);
+        }
+        return result;
+    }
+
+    /**
+     * Applies the Grochow-Kellis symmetry breaking scheme. Repeatedly, the first node that is not fixed yet and has a
+     * nontrivial orbit (under the automorphisms that fix all previously fixed nodes) is made to precede all other
+     * nodes in its orbit, and is then fixed itself.
+     */
+    private int[][] findConstraints() {
+        final List<int[]> result = new ArrayList<>();
+        int[] fixed = new int[0];
+        List<int[]> stabilizerOrbits = orbits;
+        while (!stabilizerOrbits.isEmpty()) {
+            final int[] orbit = stabilizerOrbits.get(0);
+            final int representative = orbit[0];
+            for (int i = 1; i < orbit.length; i++) {
+                result.add(new int[]{representative, orbit[i]});
+            }
+            fixed = append(fixed, representative);
+            stabilizerOrbits = findOrbits(fixed);
+        }
+        return result.toArray(new int[result.size()][]);
+    }
+
+    /**
+     * Finds the nontrivial orbits of the automorphisms fixing the specified nodes, ordered by their smallest node.
+     */
+    private List<int[]> findOrbits(int[] fixed) {
+        final List<int[]> result = new ArrayList<>();
+        final boolean[] assigned = new boolean[size];
+        for (int v = 0; v < size; v++) {
+            if (assigned[v]) {
+                continue;
+            }
+            int[] orbit = new int[]{v};
+            for (int w = v + 1; w < size; w++) {
+                if (!assigned[w] && colors[v] == colors[w] && automorphismExists(fixed, v, w)) {
+                    orbit = append(orbit, w);
+                    assigned[w] = true;
+                }
+            }
+            if (orbit.length > 1) {
+                result.add(orbit);
+            }
+        }
+        return result;
+    }
+
+    private boolean automorphismExists(int[] fixed, int from, int to) {
+        final int[] permutation = new int[size];
+        final boolean[] used = new boolean[size];
+        Arrays.fill(permutation, -1);
+        for (int f : fixed) {
+            permutation[f] = f;
+            used[f] = true;
+        }
+        if (permutation[from] >= 0 || used[to]) {
+            return false;
+        }
+        permutation[from] = to;
+        used[to] = true;
+        for (int f : fixed) {
+            if (!isConsistent(permutation, f)) {
+                return false;
+            }
+        }
+        return isConsistent(permutation, from) && extend(permutation, used, 0);
+    }
+
+    private boolean extend(int[] permutation, boolean[] used, int v) {
+        if (v == size) {
+            return true;
+        }
+        if (permutation[v] >= 0) {
+            return extend(permutation, used, v + 1);
+        }
+        for (int w = 0; w < size; w++) {
+            if (!used[w] && colors[v] == colors[w]) {
+                permutation[v] = w;
+                used[w] = true;
+                if (isConsistent(permutation, v) && extend(permutation, used, v + 1)) {
+                    return true;
+                }
+                permutation[v] = -1;
+                used[w] = false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the relations between node {@code v} and all other mapped nodes are preserved.
+     */
+    private boolean isConsistent(int[] permutation, int v) {
+        final int image = permutation[v];
+        for (int u = 0; u < size; u++) {
+            if (permutation[u] >= 0
+                    && (!Objects.equals(edgeLabels[v][u], edgeLabels[image][permutation[u]])
+                    || !Objects.equals(edgeLabels[u][v], edgeLabels[permutation[u]][image]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] append(int[] array, int value) {
+        final int[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = value;
+        return result;
+    }
+
+}
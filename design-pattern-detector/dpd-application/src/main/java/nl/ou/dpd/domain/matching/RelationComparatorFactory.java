@@ -5,9 +5,6 @@ import nl.ou.dpd.domain.relation.Relation;
 import nl.ou.dpd.domain.relation.RelationProperty;
 import nl.ou.dpd.domain.relation.RelationType;
 
-import java.util.Set;
-import java.util.stream.Collectors;
-
 /**
  * A factory for {@link FeedbackEnabledComparator}s used for matching {@link Relation}s of system designs with design
  * patterns.
@@ -66,16 +63,22 @@ public class RelationComparatorFactory {
         @Override
         public int compare(Relation systemRelation, Relation patternRelation) {
             final int result = super.compare(systemRelation, patternRelation);
-            if (result == 0) {
-                final String feedbackMsg = String.format(MATCHED_WITH_MSG, patternRelation.getName());
-                feedback.addFeedbackMessage(systemRelation, FeedbackType.MATCH, feedbackMsg);
-            } else {
-                final String feedbackMsg = String.format(MATCH_FAILED_WITH_MSG, patternRelation.getName());
-                feedback.addFeedbackMessage(systemRelation, FeedbackType.MISMATCH, feedbackMsg);
+            final FeedbackType type = result == 0 ? FeedbackType.MATCH : FeedbackType.MISMATCH;
+            if (feedback.includes(type)) {
+                feedback.addFeedbackMessage(systemRelation,
+                        type,
+                        result == 0 ? MATCHED_WITH_MSG : MATCH_FAILED_WITH_MSG,
+                        patternRelation.getName());
             }
             return result;
         }
 
+        @Override
+        public void setFeedbackLevel(FeedbackLevel level) {
+            super.setFeedbackLevel(level);
+            feedback.setFeedbackLevel(level);
+        }
+
         @Override
         public Feedback getFeedback() {
             return super.getFeedback().merge(feedback);
@@ -91,6 +94,11 @@ public class RelationComparatorFactory {
             return feedback;
         }
 
+        @Override
+        public void setFeedbackLevel(FeedbackLevel level) {
+            feedback.setFeedbackLevel(level);
+        }
+
         @Override
         public int compare(Relation systemRelation, Relation patternRelation) {
             int result = compareRelationTypes(systemRelation, patternRelation);
@@ -101,38 +109,29 @@ public class RelationComparatorFactory {
         }
 
         private int compareRelationTypes(Relation systemRelation, Relation patternRelation) {
-            final Set<RelationType> sysTypes = systemRelation.getRelationProperties().stream()
-                    .map(relationProperties -> relationProperties.getRelationType())
-                    .collect(Collectors.toSet());
-            final Set<RelationType> dpTypes = patternRelation.getRelationProperties().stream()
-                    .map(relationProperties -> relationProperties.getRelationType())
-                    .collect(Collectors.toSet());
-            final Set<RelationType> dpDisjunction = getLeftDisjunction(dpTypes, sysTypes);
+            // The relation types of the pattern relation that the system relation lacks
+            final long missingTypes = patternRelation.getRelationTypeMask() & ~systemRelation.getRelationTypeMask();
 
             feedback.addFeedbackMessage(systemRelation, FeedbackType.INFO, RELATION_TYPE_ANALYSED_MSG);
 
-            final int result = dpDisjunction.size();
-            if (result != 0) {
-                createMismatchFeedback(systemRelation, patternRelation, dpDisjunction);
+            if (missingTypes != 0 && feedback.includes(FeedbackType.MISMATCH)) {
+                createMismatchFeedback(systemRelation, patternRelation, missingTypes);
             }
-            return result;
-        }
-
-        private void createMismatchFeedback(Relation systemRelation, Relation patternRelation, Set<RelationType> dpDisjunction) {
-            dpDisjunction.forEach(relationType -> {
-                final String feedbackMsg = String.format(
-                        MISMATCH_MISSING_RELATION_TYPE_MSG,
-                        patternRelation.getName(),
-                        relationType,
-                        systemRelation.getName());
-                feedback.addFeedbackMessage(systemRelation, FeedbackType.MISMATCH, feedbackMsg);
-            });
+            return Long.bitCount(missingTypes);
         }
 
-        private Set<RelationType> getLeftDisjunction(Set<RelationType> set1, Set<RelationType> set2) {
-            return set1.stream()
-                    .filter(type -> !set2.contains(type))
-                    .collect(Collectors.toSet());
+        private void createMismatchFeedback(Relation systemRelation, Relation patternRelation, long missingTypes) {
+            for (RelationType relationType : RelationType.values()) {
+                if ((missingTypes & relationType.getMask()) != 0) {
+                    feedback.addFeedbackMessage(
+                            systemRelation,
+                            FeedbackType.MISMATCH,
+                            MISMATCH_MISSING_RELATION_TYPE_MSG,
+                            patternRelation.getName(),
+                            relationType,
+                            systemRelation.getName());
+                }
+            }
         }
 
         private int compareCardinalities(Relation systemRelation, Relation patternRelation) {
@@ -148,21 +147,17 @@ public class RelationComparatorFactory {
                     final Cardinality systemCardinalityRight = systemRelationProperties.getCardinalityRight();
                     if (systemRelationType == patternRelationType) {
                         if (!systemCardinalityLeft.isWithinLimitsOf(patternCardinalityLeft)) {
-                            final String feedbackMsg = String.format(
+                            addCardinalityMismatch(systemRelation,
+                                    patternRelation,
                                     MISMATCH_UNEXPECTED_LEFT_CARDINALITY_MSG,
-                                    patternRelation.getName(),
-                                    systemCardinalityLeft.toString(),
-                                    systemRelation.getName());
-                            feedback.addFeedbackMessage(systemRelation, FeedbackType.MISMATCH, feedbackMsg);
+                                    systemCardinalityLeft);
                             return 1;
                         }
                         if (!systemCardinalityRight.isWithinLimitsOf(patternCardinalityRight)) {
-                            final String feedbackMsg = String.format(
+                            addCardinalityMismatch(systemRelation,
+                                    patternRelation,
                                     MISMATCH_UNEXPECTED_RIGHT_CARDINALITY_MSG,
-                                    patternRelation.getName(),
-                                    systemCardinalityLeft.toString(),
-                                    systemRelation.getName());
-                            feedback.addFeedbackMessage(systemRelation, FeedbackType.MISMATCH, feedbackMsg);
+                                    systemCardinalityLeft);
                             return 1;
                         }
                     }
@@ -171,6 +166,21 @@ public class RelationComparatorFactory {
             return 0;
         }
 
+        private void addCardinalityMismatch(Relation systemRelation,
+                                            Relation patternRelation,
+                                            String format,
+                                            Cardinality systemCardinality) {
+            if (feedback.includes(FeedbackType.MISMATCH)) {
+                feedback.addFeedbackMessage(
+                        systemRelation,
+                        FeedbackType.MISMATCH,
+                        format,
+                        patternRelation.getName(),
+                        systemCardinality.toString(),
+                        systemRelation.getName());
+            }
+        }
+
     }
 
 }
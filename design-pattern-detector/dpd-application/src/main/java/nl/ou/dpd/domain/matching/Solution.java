@@ -4,7 +4,9 @@ import nl.ou.dpd.domain.node.Node;
 import nl.ou.dpd.domain.relation.Relation;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -61,6 +63,23 @@ public class Solution {
         return systemNodeIds.containsAll(otherSystemNodeIds);
     }
 
+    /**
+     * Returns a key that identifies the group of {@link Solution}s this {@link Solution} is similar to (see
+     * {@link #isSimilar(Solution)}). Two solutions with equal keys are similar, so solutions can be deduplicated by
+     * means of a hash based collection, rather than comparing every pair of solutions. The key is computed from the
+     * current state of the solution, and should not be kept while matching nodes or relations are still being added.
+     *
+     * @return the similarity key for this {@link Solution}.
+     */
+    SimilarityKey getSimilarityKey() {
+        final List<String> systemNodeIds = matchingNodes
+                .stream()
+                .map(nodes -> nodes[SYSTEM_IDX].getId())
+                .sorted(Comparator.nullsFirst(Comparator.naturalOrder()))
+                .collect(Collectors.toList());
+        return new SimilarityKey(designPatternName, patternFamilyName, matchingRelations.size(), systemNodeIds);
+    }
+
     public String getDesignPatternName() {
         return designPatternName;
     }
@@ -115,4 +134,43 @@ public class Solution {
         return false;
     }
 
+    /**
+     * The canonical representation of a {@link Solution} with respect to similarity: the design pattern name and
+     * family, the number of matching relations, and the sorted ids of the matching system nodes.
+     */
+    static final class SimilarityKey {
+        private final String designPatternName;
+        private final String patternFamilyName;
+        private final int relationCount;
+        private final List<String> sortedSystemNodeIds;
+        private final int hashCode;
+
+        private SimilarityKey(String designPatternName,
+                              String patternFamilyName,
+                              int relationCount,
+                              List<String> sortedSystemNodeIds) {
+            this.designPatternName = designPatternName;
+            this.patternFamilyName = patternFamilyName;
+            this.relationCount = relationCount;
+            this.sortedSystemNodeIds = sortedSystemNodeIds;
+            this.hashCode = Objects.hash(designPatternName, patternFamilyName, relationCount, sortedSystemNodeIds);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            SimilarityKey that = (SimilarityKey) o;
+            return relationCount == that.relationCount
+                    && Objects.equals(designPatternName, that.designPatternName)
+                    && Objects.equals(patternFamilyName, that.patternFamilyName)
+                    && Objects.equals(sortedSystemNodeIds, that.sortedSystemNodeIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
 }
@@ -0,0 +1,112 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import org.jgrapht.GraphMapping;
+import org.jgrapht.alg.isomorphism.IsomorphismInspector;
+import org.jgrapht.alg.isomorphism.VF2SubgraphIsomorphismInspector;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link PatternMatcher} that uses jgrapht's {@link VF2SubgraphIsomorphismInspector}. The mappings that violate the
+ * symmetry breaking constraints of the design pattern (see {@link PatternSymmetry}) are left out afterwards.
+ * <p>
+ * This is the reference implementation: it is slower than the {@link CompiledPatternMatcher}, but it is the one the
+ * other implementations are verified against.
+ *
+ * @author Martin de Boer
+ */
+public class VF2PatternMatcher implements PatternMatcher {
+
+    @Override
+    public IsomorphismInspector<Node, Relation> createInspector(SystemUnderConsideration system,
+                                                                DesignPattern pattern,
+                                                                Comparator<Node> nodeComparator,
+                                                                Comparator<Relation> relationComparator) {
+        return createInspector(system, pattern, nodeComparator, relationComparator,
+                new CompiledSystem(system), new CompiledPattern(pattern));
+    }
+
+    static IsomorphismInspector<Node, Relation> createInspector(SystemUnderConsideration system,
+                                                         DesignPattern pattern,
+                                                         Comparator<Node> nodeComparator,
+                                                         Comparator<Relation> relationComparator,
+                                                         CompiledSystem compiledSystem,
+                                                         CompiledPattern compiledPattern) {
+        final VF2SubgraphIsomorphismInspector<Node, Relation> inspector =
+                new VF2SubgraphIsomorphismInspector<>(system, pattern, nodeComparator, relationComparator);
+        return new IsomorphismInspector<Node, Relation>() {
+            @Override
+            public Iterator<GraphMapping<Node, Relation>> getMappings() {
+                return new ConstrainedMappingIterator(inspector.getMappings(), compiledSystem, compiledPattern);
+            }
+
+            @Override
+            public boolean isomorphismExists() {
+                return getMappings().hasNext();
+            }
+        };
+    }
+
+    /**
+     * Leaves out the mappings of another {@link Iterator} that violate the symmetry breaking constraints.
+     */
+    private static class ConstrainedMappingIterator implements Iterator<GraphMapping<Node, Relation>> {
+
+        private final Iterator<GraphMapping<Node, Relation>> mappings;
+        private final CompiledSystem system;
+        private final CompiledPattern pattern;
+        private GraphMapping<Node, Relation> next;
+
+        private ConstrainedMappingIterator(Iterator<GraphMapping<Node, Relation>> mappings,
+                                           CompiledSystem system,
+                                           CompiledPattern pattern) {
+            this.mappings = mappings;
+            this.system = system;
+            this.pattern = pattern;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && mappings.hasNext()) {
+                final GraphMapping<Node, Relation> mapping = mappings.next();
+                if (satisfiesConstraints(mapping)) {
+                    next = mapping;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public GraphMapping<Node, Relation> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final GraphMapping<Node, Relation> result = next;
+            next = null;
+            return result;
+        }
+
+        private boolean satisfiesConstraints(GraphMapping<Node, Relation> mapping) {
+            for (int patternNode = 0; patternNode < pattern.getNodeCount(); patternNode++) {
+                final int systemNode = imageOf(mapping, patternNode);
+                for (int higher : pattern.getHigherNodes(patternNode)) {
+                    if (imageOf(mapping, higher) < systemNode) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private int imageOf(GraphMapping<Node, Relation> mapping, int patternNode) {
+            return system.indexOf(mapping.getVertexCorrespondence(pattern.getNode(patternNode), false));
+        }
+    }
+
+}
@@ -15,6 +15,7 @@ public class Attribute implements SignatureComparable<Attribute> {
     private String name;
     private Node type;
     private Visibility visibility;
+    private volatile long signatureFingerprint;
 
     /**
      * Constructs an attribute with the specified {@code id} and for the specified {@code parentNode}.
@@ -43,6 +44,7 @@ public class Attribute implements SignatureComparable<Attribute> {
 
     public Attribute setName(String name) {
         this.name = name;
+        invalidateSignatureFingerprint();
         return this;
     }
 
@@ -56,6 +58,7 @@ public class Attribute implements SignatureComparable<Attribute> {
 
     public Attribute setType(Node type) {
         this.type = type;
+        invalidateSignatureFingerprint();
         return this;
     }
 
@@ -71,9 +74,35 @@ public class Attribute implements SignatureComparable<Attribute> {
     public boolean equalsSignature(Attribute other) {
         if (other == null) return false;
         if (this.equals(other)) return true;
+        if (!SignatureFingerprint.mayBeEqual(getSignatureFingerprint(), other.getSignatureFingerprint())) return false;
         if (!nullSafeEquals(name, other.name)) return false;
         if (!nullSafeEquals(type, other.type)) return false;
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The fingerprint of an {@link Attribute} covers its name and the id of its type.
+     */
+    @Override
+    public long getSignatureFingerprint() {
+        long fingerprint = signatureFingerprint;
+        if (fingerprint == SignatureFingerprint.UNKNOWN) {
+            fingerprint = new SignatureFingerprint.Builder()
+                    .add(name)
+                    .add(type == null ? null : type.getId())
+                    .build();
+            signatureFingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    void invalidateSignatureFingerprint() {
+        signatureFingerprint = SignatureFingerprint.UNKNOWN;
+        if (parentNode != null) {
+            parentNode.invalidateSignatureFingerprint();
+        }
+    }
+
 }
\ No newline at end of file
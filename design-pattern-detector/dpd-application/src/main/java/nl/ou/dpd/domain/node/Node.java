@@ -1,6 +1,8 @@
 package nl.ou.dpd.domain.node;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import static nl.ou.dpd.util.Util.nullSafeEquals;
@@ -17,9 +19,11 @@ public class Node implements SignatureComparable<Node> {
     final private String id;
     private String name;
     private Set<NodeType> types;
+    private long typeMask;
     private Set<Attribute> attributes;
     private Set<Operation> operations;
     private Visibility visibility; //default PUBLIC
+    private volatile long signatureFingerprint;
 
     /**
      * Constructs a {@link Node} with the specified {@code id}, {@code name} and {@code nodeType}. The default
@@ -32,12 +36,12 @@ public class Node implements SignatureComparable<Node> {
     public Node(String id, String name, NodeType nodeType) {
         this.id = id;
         this.name = name;
-        this.types = new HashSet<>();
+        this.types = EnumSet.noneOf(NodeType.class);
         if (nodeType != null) {
-            types.add(nodeType);
+            addType(nodeType);
         }
-        this.attributes = new HashSet<>();
-        this.operations = new HashSet<>();
+        this.attributes = new LinkedHashSet<>();
+        this.operations = new LinkedHashSet<>();
         visibility = Visibility.PUBLIC;
     }
 
@@ -70,14 +74,31 @@ public class Node implements SignatureComparable<Node> {
 
     public void setName(String name) {
         this.name = name;
+        invalidateSignatureFingerprint();
     }
 
+    /**
+     * Returns the types of this node. Use {@link #addType(NodeType)} to add a type.
+     *
+     * @return an unmodifiable view of the types of this node.
+     */
     public Set<NodeType> getTypes() {
-        return types;
+        return Collections.unmodifiableSet(types);
+    }
+
+    /**
+     * Returns the types of this node as a bit mask (see {@link NodeType#getMask()}).
+     *
+     * @return the mask of the types of this node.
+     */
+    public long getTypeMask() {
+        return typeMask;
     }
 
     public void addType(NodeType type) {
         this.types.add(type);
+        this.typeMask |= type.getMask();
+        invalidateSignatureFingerprint();
     }
 
     public Set<Attribute> getAttributes() {
@@ -86,6 +107,7 @@ public class Node implements SignatureComparable<Node> {
 
     protected void addAttribute(Attribute attribute) {
         this.attributes.add(attribute);
+        invalidateSignatureFingerprint();
     }
 
     public Set<Operation> getOperations() {
@@ -94,6 +116,7 @@ public class Node implements SignatureComparable<Node> {
 
     protected void addOperation(Operation operation) {
         this.operations.add(operation);
+        invalidateSignatureFingerprint();
     }
 
     public Visibility getVisibility() {
@@ -102,31 +125,44 @@ public class Node implements SignatureComparable<Node> {
 
     public void setVisibility(Visibility visibility) {
         this.visibility = visibility;
+        invalidateSignatureFingerprint();
     }
 
     public boolean equalsSignature(Node other) {
         if (other == null) return false;
         if (this.equals(other)) return true;
+        if (!SignatureFingerprint.mayBeEqual(getSignatureFingerprint(), other.getSignatureFingerprint())) return false;
         if (!nullSafeEquals(name, other.name)) return false;
         if (!nullSafeEquals(types, other.types)) return false;
         if (!nullSafeEquals(visibility, other.visibility)) return false;
-        if (!equalsAttributesSignatures(attributes, other.attributes)) return false;
-        if (!equalsOperationsSignatures(operations, other.operations)) return false;
+        if (!SignatureFingerprint.equalsSignatures(attributes, other.attributes)) return false;
+        if (!SignatureFingerprint.equalsSignatures(operations, other.operations)) return false;
         return true;
     }
 
-    private boolean equalsAttributesSignatures(Set<Attribute> sourceAttributes, Set<Attribute> targetAttributes) {
-        if (sourceAttributes.size() != targetAttributes.size()) {
-            return false;
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The fingerprint of a {@link Node} covers its name, types, visibility, attributes and operations.
+     */
+    @Override
+    public long getSignatureFingerprint() {
+        long fingerprint = signatureFingerprint;
+        if (fingerprint == SignatureFingerprint.UNKNOWN) {
+            fingerprint = new SignatureFingerprint.Builder()
+                    .add(name)
+                    .add(typeMask)
+                    .add(visibility == null ? null : visibility.name())
+                    .addAll(attributes)
+                    .addAll(operations)
+                    .build();
+            signatureFingerprint = fingerprint;
         }
-        return sourceAttributes.stream().allMatch(attr1 -> targetAttributes.stream().anyMatch(attr2 -> attr1.equalsSignature(attr2)));
+        return fingerprint;
     }
 
-    private boolean equalsOperationsSignatures(Set<Operation> sourceOperations, Set<Operation> targetOperations) {
-        if (sourceOperations.size() != targetOperations.size()) {
-            return false;
-        }
-        return sourceOperations.stream().allMatch(op1 -> targetOperations.stream().anyMatch(op2 -> op1.equalsSignature(op2)));
+    void invalidateSignatureFingerprint() {
+        signatureFingerprint = SignatureFingerprint.UNKNOWN;
     }
 
 }
@@ -11,5 +11,14 @@ public enum NodeType {
     ABSTRACT_CLASS,
     INTERFACE,
     ABSTRACT_CLASS_OR_INTERFACE,
-    DATATYPE
-};
+    DATATYPE;
+
+    /**
+     * Returns the bit that represents this {@link NodeType} in a mask of node types.
+     *
+     * @return a {@code long} with only the bit for this {@link NodeType} set.
+     */
+    public long getMask() {
+        return 1L << ordinal();
+    }
+}
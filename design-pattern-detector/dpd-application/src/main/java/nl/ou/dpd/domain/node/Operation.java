@@ -1,6 +1,6 @@
 package nl.ou.dpd.domain.node;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import static nl.ou.dpd.util.Util.nullSafeEquals;
@@ -19,6 +19,7 @@ public class Operation implements SignatureComparable<Operation> {
     private Visibility visibility;
     private Set<Parameter> parameters;
     private Node returnType; // null if returnType is 'void'
+    private volatile long signatureFingerprint;
 
     /**
      * Creates an {@link Operation} with the specified id and parent node
@@ -31,7 +32,7 @@ public class Operation implements SignatureComparable<Operation> {
         this.parentNode = parentNode;
         this.name = null;
         this.visibility = Visibility.PUBLIC;
-        this.parameters = new HashSet<>();
+        this.parameters = new LinkedHashSet<>();
         this.returnType = null;
         if (this.parentNode != null) {
             this.parentNode.addOperation(this);
@@ -48,6 +49,7 @@ public class Operation implements SignatureComparable<Operation> {
 
     protected void addParameter(Parameter parameter) {
         this.parameters.add(parameter);
+        invalidateSignatureFingerprint();
     }
 
     public Node getReturnType() {
@@ -65,6 +67,7 @@ public class Operation implements SignatureComparable<Operation> {
 
     public Operation setName(String name) {
         this.name = name;
+        invalidateSignatureFingerprint();
         return this;
     }
 
@@ -84,21 +87,41 @@ public class Operation implements SignatureComparable<Operation> {
     public boolean equalsSignature(Operation other) {
         if (other == null) return false;
         if (this.equals(other)) return true;
+        if (!SignatureFingerprint.mayBeEqual(getSignatureFingerprint(), other.getSignatureFingerprint())) return false;
         if (!nullSafeEquals(name, other.name)) return false;
         if (!nullSafeEqualsReturnType(returnType, other.returnType)) return false;
-        if (!equalsParametersSignatures(parameters, other.parameters)) return false;
+        if (!SignatureFingerprint.equalsSignatures(parameters, other.parameters)) return false;
         return true;
     }
 
-    private boolean nullSafeEqualsReturnType(SignatureComparable a, SignatureComparable b) {
-        return (a == null && b == null) || (a != null && a.equalsSignature(b));
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The fingerprint of an {@link Operation} covers its name and parameters. The return type is left out, because its
+     * signature may change without notice to the operation.
+     */
+    @Override
+    public long getSignatureFingerprint() {
+        long fingerprint = signatureFingerprint;
+        if (fingerprint == SignatureFingerprint.UNKNOWN) {
+            fingerprint = new SignatureFingerprint.Builder()
+                    .add(name)
+                    .addAll(parameters)
+                    .build();
+            signatureFingerprint = fingerprint;
+        }
+        return fingerprint;
     }
 
-    private boolean equalsParametersSignatures(Set<Parameter> sourceParameters, Set<Parameter> targetParameters) {
-        if (sourceParameters.size() != targetParameters.size()) {
-            return false;
+    void invalidateSignatureFingerprint() {
+        signatureFingerprint = SignatureFingerprint.UNKNOWN;
+        if (parentNode != null) {
+            parentNode.invalidateSignatureFingerprint();
         }
-        return sourceParameters.stream().allMatch(par1 -> targetParameters.stream().anyMatch(par2 -> par1.equalsSignature(par2)));
+    }
+
+    private boolean nullSafeEqualsReturnType(SignatureComparable a, SignatureComparable b) {
+        return (a == null && b == null) || (a != null && a.equalsSignature(b));
     }
 
 }
\ No newline at end of file
@@ -15,6 +15,7 @@ public class Parameter implements SignatureComparable<Parameter> {
     private final Operation parentOperation;
     private String name;
     private Node type;
+    private volatile long signatureFingerprint;
 
     /**
      * Creates a {@link Parameter} instance with the given id and parent operation.
@@ -46,6 +47,7 @@ public class Parameter implements SignatureComparable<Parameter> {
 
     public void setName(String name) {
         this.name = name;
+        invalidateSignatureFingerprint();
     }
 
     public String getId() {
@@ -58,14 +60,41 @@ public class Parameter implements SignatureComparable<Parameter> {
 
     public void setType(Node type) {
         this.type = type;
+        invalidateSignatureFingerprint();
     }
 
     public boolean equalsSignature(Parameter other) {
         if (other == null) return false;
         if (this.equals(other)) return true;
+        if (!SignatureFingerprint.mayBeEqual(getSignatureFingerprint(), other.getSignatureFingerprint())) return false;
         if (!nullSafeEquals(name, other.name)) return false;
         if (!nullSafeEquals(type, other.type)) return false;
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The fingerprint of a {@link Parameter} covers its name and the id of its type.
+     */
+    @Override
+    public long getSignatureFingerprint() {
+        long fingerprint = signatureFingerprint;
+        if (fingerprint == SignatureFingerprint.UNKNOWN) {
+            fingerprint = new SignatureFingerprint.Builder()
+                    .add(name)
+                    .add(type == null ? null : type.getId())
+                    .build();
+            signatureFingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    void invalidateSignatureFingerprint() {
+        signatureFingerprint = SignatureFingerprint.UNKNOWN;
+        if (parentOperation != null) {
+            parentOperation.invalidateSignatureFingerprint();
+        }
+    }
+
 }
\ No newline at end of file
@@ -17,4 +17,14 @@ public interface SignatureComparable<T extends SignatureComparable> {
      * otherwise.
      */
     public boolean equalsSignature(T other);
+
+    /**
+     * Returns a 64-bit fingerprint of the "signature" of this element. Elements with equal signatures have equal
+     * fingerprints, so the signatures of elements with different fingerprints do not have to be compared, unless a
+     * fingerprint is ambiguous (see {@link SignatureFingerprint}). The fingerprint is computed when it is needed, and
+     * cached until the signature changes.
+     *
+     * @return the fingerprint of the signature of this element.
+     */
+    public long getSignatureFingerprint();
 }
@@ -0,0 +1,159 @@
+package nl.ou.dpd.domain.node;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Utility methods for the 64-bit fingerprints of the signatures of {@link SignatureComparable}s (see
+ * {@link SignatureComparable#getSignatureFingerprint()}).
+ * <p>
+ * A fingerprint is a hash of the signature, so elements with equal signatures have equal fingerprints. The reverse is
+ * not true: if two fingerprints are equal, the signatures still have to be compared. The lowest bit of a fingerprint
+ * marks it as ambiguous. The signatures of two sets of elements are equal if the sets have the same size, and every
+ * element of one set has the same signature as an element of the other set. This is not the case for the reverse,
+ * if a set contains elements with the same signature. The fingerprint of an element with such a set is therefore
+ * ambiguous, and cannot be used to tell that signatures differ.
+ *
+ * @author Martin de Boer
+ */
+public final class SignatureFingerprint {
+
+    /**
+     * The bit that marks an ambiguous fingerprint. It is also the key under which ambiguous fingerprints are grouped
+     * by {@link #getGroupKey(long)}.
+     */
+    public static final long AMBIGUOUS = 1L;
+
+    /**
+     * The value of a cached fingerprint that has not been computed yet. It is never the value of a fingerprint.
+     */
+    static final long UNKNOWN = 0L;
+
+    // The minimum size of a set for comparing its elements by looking them up by their fingerprint
+    private static final int LOOKUP_THRESHOLD = 8;
+
+    private static final long NULL_HASH = 0x5bd1e9955bd1e995L;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Private constructor, because this is a utility class.
+     */
+    private SignatureFingerprint() {
+    }
+
+    /**
+     * Determines whether the fingerprint of an element can be used to tell that its signature differs from another.
+     *
+     * @param fingerprint the fingerprint of the element.
+     * @return {@code true} if the fingerprint is not ambiguous, or {@code false} otherwise.
+     */
+    public static boolean isDecisive(long fingerprint) {
+        return (fingerprint & AMBIGUOUS) == 0;
+    }
+
+    /**
+     * Determines whether two elements with the specified fingerprints may have the same signature.
+     *
+     * @param fingerprint1 the fingerprint of one element.
+     * @param fingerprint2 the fingerprint of the other element.
+     * @return {@code false} if the signatures of the elements differ, or {@code true} if their signatures have to be
+     * compared to find out.
+     */
+    public static boolean mayBeEqual(long fingerprint1, long fingerprint2) {
+        return fingerprint1 == fingerprint2 || !isDecisive(fingerprint1) || !isDecisive(fingerprint2);
+    }
+
+    /**
+     * Returns the key for grouping an element with the specified fingerprint with the elements that may have the same
+     * signature. This is the fingerprint itself, or {@link #AMBIGUOUS} if the fingerprint is ambiguous. Elements under
+     * the key {@link #AMBIGUOUS} may have the same signature as any other element.
+     *
+     * @param fingerprint the fingerprint of the element.
+     * @return the key of the group of the element.
+     */
+    public static long getGroupKey(long fingerprint) {
+        return isDecisive(fingerprint) ? fingerprint : AMBIGUOUS;
+    }
+
+    /**
+     * Compares the signatures of two sets of elements. The signatures are equal if the sets have the same size, and
+     * every element of {@code source} has the same signature as an element of {@code target}. Large sets are compared
+     * by looking up the elements of {@code source} by their fingerprint.
+     */
+    static <T extends SignatureComparable<T>> boolean equalsSignatures(Set<T> source, Set<T> target) {
+        if (source.size() != target.size()) {
+            return false;
+        }
+        if (target.size() < LOOKUP_THRESHOLD) {
+            return source.stream().allMatch(s -> target.stream().anyMatch(s::equalsSignature));
+        }
+        final Map<Long, List<T>> targetGroups = target.stream()
+                .collect(Collectors.groupingBy(t -> getGroupKey(t.getSignatureFingerprint())));
+        final List<T> ambiguous = targetGroups.get(AMBIGUOUS);
+        return source.stream().allMatch(s -> {
+            if (!isDecisive(s.getSignatureFingerprint())) {
+                return target.stream().anyMatch(s::equalsSignature);
+            }
+            final List<T> candidates = targetGroups.get(s.getSignatureFingerprint());
+            return (candidates != null && candidates.stream().anyMatch(s::equalsSignature))
+                    || (ambiguous != null && ambiguous.stream().anyMatch(s::equalsSignature));
+        });
+    }
+
+    /**
+     * Computes a fingerprint by adding the parts of a signature one after the other. The order of the parts matters,
+     * except for the elements of a set, which are added by {@link #addAll(Collection)}.
+     */
+    static final class Builder {
+        private long hash = FNV_OFFSET_BASIS;
+        private boolean ambiguous;
+
+        Builder add(String value) {
+            if (value == null) {
+                return add(NULL_HASH);
+            }
+            long stringHash = FNV_OFFSET_BASIS;
+            for (int i = 0; i < value.length(); i++) {
+                stringHash = (stringHash ^ value.charAt(i)) * FNV_PRIME;
+            }
+            return add(stringHash);
+        }
+
+        Builder add(long value) {
+            hash = mix(hash + value);
+            return this;
+        }
+
+        Builder addAll(Collection<? extends SignatureComparable<?>> elements) {
+            final Set<Long> fingerprints = new HashSet<>();
+            long sum = 0;
+            for (SignatureComparable<?> element : elements) {
+                final long fingerprint = element.getSignatureFingerprint();
+                if (!isDecisive(fingerprint) || !fingerprints.add(fingerprint)) {
+                    ambiguous = true;
+                }
+                sum += fingerprint;
+            }
+            return add(elements.size()).add(sum);
+        }
+
+        long build() {
+            final long fingerprint = ambiguous ? hash | AMBIGUOUS : hash & ~AMBIGUOUS;
+            return fingerprint == UNKNOWN ? 2L : fingerprint;
+        }
+
+        // The finalizer of SplitMix64, which spreads every bit of the input over the output.
+        private static long mix(long value) {
+            long z = value;
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package nl.ou.dpd.domain.relation;
 
 import org.jgrapht.graph.DefaultEdge;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -17,6 +18,7 @@ public class Relation extends DefaultEdge {
     private String id;
     private String name;
     private Set<RelationProperty> relationProperties;
+    private long relationTypeMask;
 
     public Relation(String id, String name) {
         this.id = id;
@@ -42,12 +44,27 @@ public class Relation extends DefaultEdge {
         return this;
     }
 
+    /**
+     * Returns the properties of this relation. Use {@link #addRelationProperty(RelationProperty)} to add a property.
+     *
+     * @return an unmodifiable view of the properties of this relation.
+     */
     public Set<RelationProperty> getRelationProperties() {
-        return relationProperties;
+        return Collections.unmodifiableSet(relationProperties);
+    }
+
+    /**
+     * Returns the types of the properties of this relation as a bit mask (see {@link RelationType#getMask()}).
+     *
+     * @return the mask of the relation types of this relation.
+     */
+    public long getRelationTypeMask() {
+        return relationTypeMask;
     }
 
     public Relation addRelationProperty(RelationProperty relationProperties) {
         this.relationProperties.add(relationProperties);
+        this.relationTypeMask |= relationProperties.getRelationType().getMask();
         return this;
     }
 
@@ -17,4 +17,13 @@ public enum RelationType {
     HAS_METHOD_RETURNTYPE,
     CALLS_METHOD_OF,
     OVERRIDES_METHOD_OF;
-};
+
+    /**
+     * Returns the bit that represents this {@link RelationType} in a mask of relation types.
+     *
+     * @return a {@code long} with only the bit for this {@link RelationType} set.
+     */
+    public long getMask() {
+        return 1L << ordinal();
+    }
+}
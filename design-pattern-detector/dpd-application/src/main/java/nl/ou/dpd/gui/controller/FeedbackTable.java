@@ -0,0 +1,222 @@
+package nl.ou.dpd.gui.controller;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.scene.Node;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Pagination;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
+import nl.ou.dpd.domain.matching.FeedbackType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Shows feedback messages in a {@link TableView}, one row per message, one page at a time. The messages can be filtered
+ * by {@link FeedbackType}. Only the rows of the current page are passed to the table, and the table only creates cells
+ * for the rows that are visible, so the number of nodes in the scene graph does not depend on the number of messages.
+ * <p>
+ * The rows are created from the number of messages of every element and type. The messages themselves are only
+ * formatted when a page shows them, and then only the messages of the elements and types on that page.
+ *
+ * @author Martin de Boer
+ */
+public class FeedbackTable extends VBox {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final String ALL_TYPES = "All feedback";
+    private static final String NO_FEEDBACK = "No feedback";
+
+    private static final Map<FeedbackType, String> feedbackStyleClasses = new EnumMap<>(FeedbackType.class);
+
+    static {
+        feedbackStyleClasses.put(FeedbackType.INFO, "info");
+        feedbackStyleClasses.put(FeedbackType.MATCH, "okay");
+        feedbackStyleClasses.put(FeedbackType.MISMATCH, "error");
+        feedbackStyleClasses.put(FeedbackType.NOT_ANALYSED, "warning");
+    }
+
+    private final ChoiceBox<FeedbackType> typeFilter = new ChoiceBox<>();
+    private final TableView<Row> table = new TableView<>();
+    private final Pagination pagination = new Pagination(1);
+
+    private List<Row> rows = Collections.emptyList();
+    private List<Row> filteredRows = Collections.emptyList();
+
+    /**
+     * Constructs a new, empty {@link FeedbackTable}.
+     *
+     * @param elementTitle the title of the column with the elements the feedback is about
+     */
+    public FeedbackTable(String elementTitle) {
+        super(5.0);
+
+        final TableColumn<Row, String> elementColumn = new TableColumn<>(elementTitle);
+        elementColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().element));
+        final TableColumn<Row, FeedbackType> typeColumn = new TableColumn<>("Type");
+        typeColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().type));
+        typeColumn.setCellFactory(column -> new FeedbackTypeCell());
+        final TableColumn<Row, String> messageColumn = new TableColumn<>("Message");
+        messageColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getMessage()));
+        table.getColumns().add(elementColumn);
+        table.getColumns().add(typeColumn);
+        table.getColumns().add(messageColumn);
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        table.setPlaceholder(new Label(NO_FEEDBACK));
+
+        typeFilter.getItems().add(null);
+        typeFilter.getItems().addAll(FeedbackType.values());
+        typeFilter.setConverter(new StringConverter<FeedbackType>() {
+            @Override
+            public String toString(FeedbackType type) {
+                return type == null ? ALL_TYPES : type.toString();
+            }
+
+            @Override
+            public FeedbackType fromString(String string) {
+                // The "all types" entry, or any unknown text, stands for no filter
+                for (FeedbackType type : FeedbackType.values()) {
+                    if (type.toString().equals(string)) {
+                        return type;
+                    }
+                }
+                return null;
+            }
+        });
+        typeFilter.setValue(null);
+        typeFilter.valueProperty().addListener((observable, oldType, newType) -> applyFilter());
+
+        pagination.setPageFactory(this::showPage);
+        getChildren().addAll(typeFilter, pagination);
+    }
+
+    /**
+     * Shows the feedback messages about the specified elements. The elements keep their order; the messages of an
+     * element are ordered by {@link FeedbackType}. The messages of an element and type are only requested when a page
+     * shows one of them.
+     *
+     * @param elements the elements the feedback is about
+     * @param title    determines the text that represents an element
+     * @param count    determines the number of messages of a specific {@link FeedbackType} about an element
+     * @param messages determines the messages of a specific {@link FeedbackType} about an element
+     * @param <T>      the type of the elements
+     */
+    public <T> void setFeedback(Collection<T> elements,
+                                Function<T, String> title,
+                                BiFunction<T, FeedbackType, Integer> count,
+                                BiFunction<T, FeedbackType, List<String>> messages) {
+        final List<Row> newRows = new ArrayList<>();
+        for (T element : elements) {
+            final String elementTitle = title.apply(element);
+            for (FeedbackType type : FeedbackType.values()) {
+                final int messageCount = count.apply(element, type);
+                if (messageCount > 0) {
+                    final Messages elementMessages = new Messages(() -> messages.apply(element, type));
+                    for (int index = 0; index < messageCount; index++) {
+                        newRows.add(new Row(elementTitle, type, elementMessages, index));
+                    }
+                }
+            }
+        }
+        rows = newRows;
+        applyFilter();
+    }
+
+    /**
+     * Removes all the feedback messages.
+     */
+    public void clear() {
+        rows = Collections.emptyList();
+        applyFilter();
+    }
+
+    private void applyFilter() {
+        final FeedbackType type = typeFilter.getValue();
+        filteredRows = type == null
+                ? rows
+                : rows.stream().filter(row -> row.type == type).collect(Collectors.toList());
+        pagination.setPageCount(Math.max(1, (filteredRows.size() + PAGE_SIZE - 1) / PAGE_SIZE));
+        pagination.setCurrentPageIndex(0);
+        showPage(0);
+    }
+
+    private Node showPage(int pageIndex) {
+        final int from = Math.min(pageIndex * PAGE_SIZE, filteredRows.size());
+        final int to = Math.min(from + PAGE_SIZE, filteredRows.size());
+        table.setItems(FXCollections.observableList(filteredRows.subList(from, to)));
+        table.scrollTo(0);
+        return table;
+    }
+
+    /**
+     * A cell showing a {@link FeedbackType} in the colour of that type.
+     */
+    private static class FeedbackTypeCell extends TableCell<Row, FeedbackType> {
+        @Override
+        protected void updateItem(FeedbackType type, boolean empty) {
+            super.updateItem(type, empty);
+            getStyleClass().removeAll(feedbackStyleClasses.values());
+            if (empty || type == null) {
+                setText(null);
+            } else {
+                setText(type.toString());
+                getStyleClass().add(feedbackStyleClasses.get(type));
+            }
+        }
+    }
+
+    /**
+     * The messages of a specific {@link FeedbackType} about an element, formatted when the first of them is shown.
+     */
+    private static final class Messages {
+        private final Supplier<List<String>> formatter;
+        private List<String> formatted;
+
+        private Messages(Supplier<List<String>> formatter) {
+            this.formatter = formatter;
+        }
+
+        private String get(int index) {
+            if (formatted == null) {
+                formatted = formatter.get();
+            }
+            return index < formatted.size() ? formatted.get(index) : null;
+        }
+    }
+
+    /**
+     * A feedback message about an element.
+     */
+    private static final class Row {
+        private final String element;
+        private final FeedbackType type;
+        private final Messages messages;
+        private final int index;
+
+        private Row(String element, FeedbackType type, Messages messages, int index) {
+            this.element = element;
+            this.type = type;
+            this.messages = messages;
+            this.index = index;
+        }
+
+        private String getMessage() {
+            return messages.get(index);
+        }
+    }
+
+}
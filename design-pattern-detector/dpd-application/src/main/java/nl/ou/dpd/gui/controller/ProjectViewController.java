@@ -2,37 +2,35 @@ package nl.ou.dpd.gui.controller;
 
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
-import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextField;
-import javafx.scene.control.TitledPane;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeView;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
 import nl.ou.dpd.domain.matching.Feedback;
-import nl.ou.dpd.domain.matching.FeedbackType;
 import nl.ou.dpd.domain.matching.PatternInspector;
 import nl.ou.dpd.domain.matching.Solution;
 import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.gui.model.AnalysisService;
 import nl.ou.dpd.gui.model.Model;
+import nl.ou.dpd.gui.model.PreparseService;
 import nl.ou.dpd.gui.model.Project;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.net.URL;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.ResourceBundle;
@@ -49,21 +47,18 @@ public class ProjectViewController extends Controller implements Observer {
 
     private static final Logger LOGGER = LogManager.getLogger(ProjectViewController.class);
 
-    private static final String FEEDBACK = "Feedback";
+    private static final String DESIGN_PATTERNS = "Design patterns";
     private static final String IMG_ICON_ARROW_RIGHT = "/img/icon-arrow-right-16x16.png";
     private static final String ID_FORMAT = "ID [%s]";
 
-    private static final Map<FeedbackType, String> feedbackStyleClasses = new HashMap<>(4);
+    // The maximum number of children of an item in the tree view
+    private static final int SOLUTION_PAGE_SIZE = 100;
 
-    static {
-        feedbackStyleClasses.put(FeedbackType.INFO, "info");
-        feedbackStyleClasses.put(FeedbackType.MATCH, "okay");
-        feedbackStyleClasses.put(FeedbackType.MISMATCH, "error");
-        feedbackStyleClasses.put(FeedbackType.NOT_ANALYSED, "warning");
-    }
-
-    private Map<String, Solution> solutionMap;
-    private Map<String, Feedback> feedbackMap;
+    private FeedbackTable nodesFeedbackTable;
+    private FeedbackTable relationsFeedbackTable;
+    private int solutionCount;
+    // The names of the patterns in the tree view, in the same (sorted) order as their tree items
+    private final List<String> patternNames = new ArrayList<>();
 
     @FXML
     private Label projectNameLabel;
@@ -77,6 +72,15 @@ public class ProjectViewController extends Controller implements Observer {
     private Button clearButton;
     @FXML
     private Button analyseButton;
+    @FXML
+    private Button cancelButton;
+    @FXML
+    private CheckBox watchCheckBox;
+
+    @FXML
+    private Label analysisStatusLabel;
+    @FXML
+    private ProgressBar analysisProgressBar;
 
     @FXML
     private TreeView<String> feedbackTreeView;
@@ -124,7 +128,54 @@ public class ProjectViewController extends Controller implements Observer {
      */
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        feedbackTreeView.setOnMouseClicked(createMouseHandler());
+        feedbackTreeView.getSelectionModel().selectedItemProperty().addListener(
+                (observable, oldItem, newItem) -> showDetails(newItem));
+        nodesFeedbackTable = new FeedbackTable("Class/interface");
+        nodesFeedbackVBox.getChildren().add(nodesFeedbackTable);
+        relationsFeedbackTable = new FeedbackTable("Relation");
+        relationsFeedbackVBox.getChildren().add(relationsFeedbackTable);
+        initAnalysisService(getModel().getAnalysisService());
+        initPreparseService(getModel().getSystemPreparser());
+        initPreparseService(getModel().getTemplatePreparser());
+        watchCheckBox.setSelected(getModel().isWatchingInputFiles());
+        getModel().setOnInputFilesChanged(this::reanalyse);
+    }
+
+    /**
+     * Reports the parse errors of a {@link PreparseService} as soon as they occur, instead of waiting for an analysis.
+     * The handlers of the service are called on the JavaFX application thread.
+     *
+     * @param service a {@link PreparseService} of the {@link Model}
+     */
+    private void initPreparseService(PreparseService service) {
+        service.setOnFailed(event -> showParseError(service.getException()));
+    }
+
+    /**
+     * Shows the progress of the {@link AnalysisService} while it is running, and handles its outcome. The handlers of
+     * the service are called on the JavaFX application thread.
+     *
+     * @param service the {@link AnalysisService} of the {@link Model}
+     */
+    private void initAnalysisService(AnalysisService service) {
+        analysisStatusLabel.textProperty().bind(service.messageProperty());
+        analysisProgressBar.progressProperty().bind(service.progressProperty());
+        for (Node node : new Node[]{analysisStatusLabel, analysisProgressBar, cancelButton}) {
+            node.visibleProperty().bind(service.runningProperty());
+            node.managedProperty().bind(service.runningProperty());
+        }
+        service.runningProperty().addListener((observable, wasRunning, isRunning) -> updateAnalyseButton());
+
+        service.setOnPatternAnalysed(this::showPatternResult);
+        service.setOnSucceeded(event -> finishAnalysis());
+        service.setOnFailed(event -> {
+            finishAnalysis();
+            showAnalysisError(service.getException());
+        });
+        service.setOnCancelled(event -> {
+            finishAnalysis();
+            LOGGER.info("Analysis cancelled.");
+        });
     }
 
     /**
@@ -160,67 +211,129 @@ public class ProjectViewController extends Controller implements Observer {
     }
 
     /**
-     * Starts the analysis of the system under consideration, and processes the feedback data.
+     * Starts the analysis of the system under consideration in the background. The feedback data of every design
+     * pattern are added to the tree view as soon as that pattern has been analysed.
      */
     @FXML
     protected void analyse() {
-        Map<String, PatternInspector.MatchingResult> result;
-        try {
-            result = getModel().analyse();
-        } catch (Exception e) {
-            LOGGER.error("Error during analysis: ", e);
-
-            // Show error to the user.
-            Alert alert = new CustomAlert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText("Could not analyse input data");
-            alert.setContentText(e.getMessage());
-            alert.showAndWait();
-
-            return;
-        }
-
-        final TreeItem<String> treeRoot = new TreeItem<>("Design patterns");
+        clearFeedback();
+        final TreeItem<String> treeRoot = new TreeItem<>();
         treeRoot.setExpanded(true);
         feedbackTreeView.setRoot(treeRoot);
+        updateTreeRootName(treeRoot);
 
-        clearData();
+        getModel().startAnalysis();
+    }
+
+    /**
+     * Cancels the running analysis.
+     */
+    @FXML
+    protected void cancelAnalysis() {
+        getModel().cancelAnalysis();
+    }
 
-        int patternCount = 0;
-        for (String patternName : result.keySet()) {
-            final List<Solution> solutions = result.get(patternName).getSolutions();
-            final Feedback feedback = result.get(patternName).getFeedback();
-            final TreeItem<String> patternRoot = new TreeItem<>(makePatternRootName(patternName, solutions));
+    /**
+     * Switches the watch mode of the open {@link Project} on or off, depending on the state of the watch check box. In
+     * watch mode, the input files are analysed again as soon as they have changed.
+     */
+    @FXML
+    protected void toggleWatch() {
+        getModel().setWatchingInputFiles(watchCheckBox.isSelected());
+    }
 
-            treeRoot.getChildren().add(patternRoot);
-            patternCount += addSolutionsToTree(solutions, patternRoot);
-            addFeedbackToTree(feedback, patternRoot, patternName);
+    /**
+     * Analyses the input files again, after they have changed in watch mode. A running analysis is cancelled first.
+     */
+    private void reanalyse() {
+        if (!isSystemFileEmpty() && !isTemplateFileEmpty()) {
+            LOGGER.info("Input files changed, analysing them again.");
+            analyse();
         }
+    }
 
-        treeRoot.setValue(treeRoot.getValue() + " (" + patternCount + ")");
+    private void showAnalysisError(Throwable e) {
+        LOGGER.error("Error during analysis: ", e);
 
-        // Sort by patterns by name
-        treeRoot.getChildren().sort(Comparator.comparing(t -> t.getValue()));
+        // Show error to the user.
+        Alert alert = new CustomAlert(Alert.AlertType.ERROR);
+        alert.setTitle("Error");
+        alert.setHeaderText("Could not analyse input data");
+        alert.setContentText(e.getMessage());
+        alert.showAndWait();
+    }
 
-        // Enable clear button
-        clearButton.setDisable(false);
+    private void showParseError(Throwable e) {
+        LOGGER.error("Error while parsing input file: ", e);
+
+        // Show error to the user.
+        Alert alert = new CustomAlert(Alert.AlertType.ERROR);
+        alert.setTitle("Error");
+        alert.setHeaderText("Could not parse input file");
+        alert.setContentText(e.getMessage());
+        alert.showAndWait();
     }
 
-    private void addFeedbackToTree(Feedback feedback, TreeItem<String> patternRoot, String patternName) {
-        final TreeItem<String> feedbackItem = new TreeItem<>("Feedback " + patternName);
-        patternRoot.getChildren().add(feedbackItem);
-        feedbackMap.put(patternName, feedback);
+    private void finishAnalysis() {
+        // Enable clear button
+        clearButton.setDisable(feedbackTreeView.getRoot() == null);
     }
 
-    private int addSolutionsToTree(List<Solution> solutions, TreeItem<String> patternRoot) {
-        int i = 0;
-        for (Solution solution : solutions) {
-            final String dpn = String.format("%s-%d", solution.getDesignPatternName(), ++i);
-            final TreeItem<String> patternItem = new TreeItem<>(dpn);
-            patternRoot.getChildren().add(patternItem);
-            solutionMap.put(dpn, solution);
+    /**
+     * Adds the feedback data of a design pattern to the tree view, keeping the patterns sorted by name. The children of
+     * the pattern are created when it is expanded.
+     *
+     * @param patternName the name of the design pattern
+     * @param result      the result of the analysis of the design pattern
+     */
+    private void showPatternResult(String patternName, PatternInspector.MatchingResult result) {
+        final TreeItem<String> treeRoot = feedbackTreeView.getRoot();
+        if (treeRoot == null) {
+            // The feedback was cleared in the meantime
+            return;
+        }
+        final List<Solution> solutions = result.getSolutions();
+        final TreeItem<String> patternRoot = ResultTreeItem.withChildren(
+                makePatternRootName(patternName, solutions),
+                () -> createPatternChildren(patternName, solutions, result.getFeedback()));
+
+        // Keep the patterns sorted by name
+        final ObservableList<TreeItem<String>> patternRoots = treeRoot.getChildren();
+        int position = 0;
+        while (position < patternNames.size() && patternNames.get(position).compareTo(patternName) <= 0) {
+            position++;
         }
-        return i;
+        patternNames.add(position, patternName);
+        patternRoots.add(position, patternRoot);
+
+        solutionCount += solutions.size();
+        updateTreeRootName(treeRoot);
+    }
+
+    /**
+     * Creates the children of a design pattern in the tree view: the solutions, divided into pages if there are many,
+     * followed by the feedback.
+     */
+    private List<TreeItem<String>> createPatternChildren(String patternName,
+                                                         List<Solution> solutions,
+                                                         Feedback feedback) {
+        final List<TreeItem<String>> children = ResultTreeItem.createPages(
+                solutions.size(),
+                SOLUTION_PAGE_SIZE,
+                index -> createSolutionItem(solutions.get(index), index),
+                (first, last) -> String.format("%s %d-%d", patternName, first, last));
+        children.add(ResultTreeItem.withAction("Feedback " + patternName,
+                () -> showFeedbackDetails(patternName, feedback)));
+        return children;
+    }
+
+    private TreeItem<String> createSolutionItem(Solution solution, int index) {
+        final String dpn = String.format("%s-%d", solution.getDesignPatternName(), index + 1);
+        return ResultTreeItem.withAction(dpn, () -> showSolutionDetails(dpn, solution));
+    }
+
+    private void updateTreeRootName(TreeItem<String> treeRoot) {
+        treeRoot.setValue(String.format("%s (%d)", DESIGN_PATTERNS, solutionCount));
     }
 
     /**
@@ -236,36 +349,21 @@ public class ProjectViewController extends Controller implements Observer {
     }
 
     /**
-     * Creates an {@link EventHandler} to handle mouse clicks in the {@link TreeView} containing the detected patterns.
-     * This handler shows solution or feedback details in the scroll pane, depending on the item that is clicked in the
-     * tree view.
+     * Shows the details of the selected item in the tree view, if it has any.
      *
-     * @return a mouseclick handler
+     * @param item the selected item, or {@code null} if no item is selected.
      */
-    private EventHandler<MouseEvent> createMouseHandler() {
-        return new EventHandler<MouseEvent>() {
-            @Override
-            public void handle(final MouseEvent event) {
-                final Node node = event.getPickResult().getIntersectedNode();
-                if (node instanceof Text) {
-                    final String key = ((Text) node).getText();
-                    if (key.startsWith(FEEDBACK)) {
-                        showFeedbackDetails(key.substring(FEEDBACK.length() + 1));
-                    } else {
-                        showSolutionDetails(key);
-                    }
-                }
-            }
-        };
+    private void showDetails(TreeItem<String> item) {
+        if (!(item instanceof ResultTreeItem) || !((ResultTreeItem) item).select()) {
+            clearDetails();
+        }
     }
 
-    private void showFeedbackDetails(final String key) {
-        final Feedback feedback = feedbackMap.get(key);
-
+    private void showFeedbackDetails(String patternName, Feedback feedback) {
         clearDetails();
 
         feedbackTitle.setText("Analysis feedback");
-        feedbackSubtitle.setText(String.format("Design pattern: %s", key));
+        feedbackSubtitle.setText(String.format("Design pattern: %s", patternName));
 
         showGeneralNote(feedback);
         showNodeFeedbackDetails(feedback);
@@ -290,24 +388,10 @@ public class ProjectViewController extends Controller implements Observer {
         show(relationsFeedbackSubtitle);
         show(relationsFeedbackVBox);
         relationsFeedbackSubtitle.setText("Relation feedback");
-        for (Relation relation : feedback.getRelationSet()) {
-            populateRelationsFeedbackVBox(feedback, relation);
-        }
-    }
-
-    private void populateNodesFeedbackVBox(Feedback feedback, nl.ou.dpd.domain.node.Node node) {
-        final GridPane content = new GridPane();
-        final TitledPane titledPane = new TitledPane(getTitle(node), content);
-        titledPane.setExpanded(false);
-        nodesFeedbackVBox.getChildren().add(titledPane);
-        int row = 0;
-        for (FeedbackType type : FeedbackType.values()) {
-            for (String s : feedback.getFeedbackMessages(node, type)) {
-                final Text text = new Text(s);
-                text.getStyleClass().add(feedbackStyleClasses.get(type));
-                content.addRow(row++, text);
-            }
-        }
+        relationsFeedbackTable.setFeedback(feedback.getRelationSet(),
+                this::getTitle,
+                feedback::countFeedbackMessages,
+                feedback::getFeedbackMessages);
     }
 
     private String getTitle(nl.ou.dpd.domain.node.Node node) {
@@ -321,24 +405,10 @@ public class ProjectViewController extends Controller implements Observer {
         show(nodesFeedbackSubtitle);
         show(nodesFeedbackVBox);
         nodesFeedbackSubtitle.setText("Class/interface feedback");
-        for (nl.ou.dpd.domain.node.Node node : feedback.getNodeSet()) {
-            populateNodesFeedbackVBox(feedback, node);
-        }
-    }
-
-    private void populateRelationsFeedbackVBox(Feedback feedback, Relation relation) {
-        final GridPane content = new GridPane();
-        final TitledPane titledPane = new TitledPane(getTitle(relation), content);
-        titledPane.setExpanded(false);
-        relationsFeedbackVBox.getChildren().add(titledPane);
-        int row = 0;
-        for (FeedbackType type : FeedbackType.values()) {
-            for (String s : feedback.getFeedbackMessages(relation, type)) {
-                final Text text = new Text(s);
-                text.getStyleClass().add(feedbackStyleClasses.get(type));
-                content.addRow(row++, text);
-            }
-        }
+        nodesFeedbackTable.setFeedback(feedback.getNodeSet(),
+                this::getTitle,
+                feedback::countFeedbackMessages,
+                feedback::getFeedbackMessages);
     }
 
     private String getTitle(Relation relation) {
@@ -348,13 +418,12 @@ public class ProjectViewController extends Controller implements Observer {
         return relation.getName();
     }
 
-    private void showSolutionDetails(final String key) {
+    private void showSolutionDetails(final String key, final Solution solution) {
         clearDetails();
 
         show(matchedClassesLabel);
         show(matchedClassesGridPane);
 
-        final Solution solution = solutionMap.get(key);
         if (solution != null) {
             feedbackTitle.setText(String.format("Solution: %s", key));
             feedbackSubtitle.setText(getPatternLabelText(solution));
@@ -412,16 +481,18 @@ public class ProjectViewController extends Controller implements Observer {
                 projectNameLabel.setText(project.getName() + " *");
             }
             if (isSystemFileChanged(systemFileTextField, project)) {
+                getModel().cancelAnalysis();
                 systemFileTextField.setText(project.getSystemUnderConsiderationFilePath());
                 clearFeedback();
             }
             if (isTemplateFileChanged(templateFileTextField, project)) {
+                getModel().cancelAnalysis();
                 templateFileTextField.setText(project.getDesignPatternFilePath());
                 clearFeedback();
             }
 
             // Enable/disable the analyse button
-            analyseButton.setDisable(isTemplateFileEmpty() || isSystemFileEmpty());
+            updateAnalyseButton();
         } else {
             // Whipe the fields' values
             projectNameLabel.setText(null);
@@ -432,6 +503,12 @@ public class ProjectViewController extends Controller implements Observer {
         }
     }
 
+    private void updateAnalyseButton() {
+        analyseButton.setDisable(isTemplateFileEmpty()
+                || isSystemFileEmpty()
+                || getModel().getAnalysisService().isRunning());
+    }
+
     private boolean isSystemFileChanged(TextField systemFileTextField, Project project) {
         return !nullSafeEquals(systemFileTextField.getText(), project.getSystemUnderConsiderationFilePath());
     }
@@ -460,8 +537,8 @@ public class ProjectViewController extends Controller implements Observer {
     }
 
     private void clearData() {
-        solutionMap = new HashMap<>();
-        feedbackMap = new HashMap<>();
+        solutionCount = 0;
+        patternNames.clear();
     }
 
     private void clearTreeView(final TreeView<String> treeView) {
@@ -496,10 +573,10 @@ public class ProjectViewController extends Controller implements Observer {
         clearVBox(notesVBox);
         hide(notesVBox);
 
-        clearVBox(nodesFeedbackVBox);
+        nodesFeedbackTable.clear();
         hide(nodesFeedbackVBox);
 
-        clearVBox(relationsFeedbackVBox);
+        relationsFeedbackTable.clear();
         hide(relationsFeedbackVBox);
     }
 
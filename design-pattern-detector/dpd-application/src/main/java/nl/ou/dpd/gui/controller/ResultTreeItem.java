@@ -0,0 +1,130 @@
+package nl.ou.dpd.gui.controller;
+
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * A {@link TreeItem} in the tree view of analysis results, that creates its children when they are first needed, which
+ * is when the item is expanded. An item can have an action, that is performed when the item is selected in the
+ * {@link TreeView} (for instance to show the details of a solution).
+ * <p>
+ * A long list of items can be divided into pages (see {@link #createPages}), so that no item ever has more than a
+ * page of children. That way, the number of items that are created does not depend on the number of results, but on
+ * the number of items the user expands.
+ *
+ * @author Martin de Boer
+ */
+public class ResultTreeItem extends TreeItem<String> {
+
+    private final Runnable action;
+    private Supplier<List<TreeItem<String>>> childrenFactory;
+
+    private ResultTreeItem(String value, Runnable action, Supplier<List<TreeItem<String>>> childrenFactory) {
+        super(value);
+        this.action = action;
+        this.childrenFactory = childrenFactory;
+    }
+
+    /**
+     * Creates a new {@link ResultTreeItem} without children, that performs the specified action when it is selected.
+     *
+     * @param value  the text of the item
+     * @param action the action to perform when the item is selected
+     * @return the new {@link ResultTreeItem}
+     */
+    public static ResultTreeItem withAction(String value, Runnable action) {
+        return new ResultTreeItem(value, action, null);
+    }
+
+    /**
+     * Creates a new {@link ResultTreeItem} without an action, that creates its children with the specified factory
+     * when they are first needed.
+     *
+     * @param value           the text of the item
+     * @param childrenFactory creates the children of the item
+     * @return the new {@link ResultTreeItem}
+     */
+    public static ResultTreeItem withChildren(String value, Supplier<List<TreeItem<String>>> childrenFactory) {
+        return new ResultTreeItem(value, null, childrenFactory);
+    }
+
+    /**
+     * Divides the items with indexes {@code 0} up to {@code count} into pages of at most {@code pageSize} items. If
+     * there are more than {@code pageSize} pages, the pages are divided into pages themselves, and so on. Neither the
+     * pages nor the items are created before they are needed.
+     *
+     * @param count       the number of items
+     * @param pageSize    the maximum number of children of a page
+     * @param itemFactory creates the item with the specified index
+     * @param pageName    creates the text of a page from the (1-based) numbers of its first and last item
+     * @return the items, if there are at most {@code pageSize} of them, or the pages otherwise.
+     */
+    public static List<TreeItem<String>> createPages(int count,
+                                                     int pageSize,
+                                                     IntFunction<TreeItem<String>> itemFactory,
+                                                     BiFunction<Integer, Integer, String> pageName) {
+        return createPages(0, count, pageSize, itemFactory, pageName);
+    }
+
+    private static List<TreeItem<String>> createPages(int from,
+                                                      int to,
+                                                      int pageSize,
+                                                      IntFunction<TreeItem<String>> itemFactory,
+                                                      BiFunction<Integer, Integer, String> pageName) {
+        final List<TreeItem<String>> result = new ArrayList<>();
+        if (to - from <= pageSize) {
+            for (int index = from; index < to; index++) {
+                result.add(itemFactory.apply(index));
+            }
+            return result;
+        }
+        // The number of items per page, so that there are at most pageSize pages
+        long itemsPerPage = pageSize;
+        while (itemsPerPage * pageSize < to - from) {
+            itemsPerPage *= pageSize;
+        }
+        for (int pageFrom = from; pageFrom < to; pageFrom = (int) Math.min(to, pageFrom + itemsPerPage)) {
+            final int first = pageFrom;
+            final int last = (int) Math.min(to, pageFrom + itemsPerPage);
+            result.add(withChildren(pageName.apply(first + 1, last),
+                    () -> createPages(first, last, pageSize, itemFactory, pageName)));
+        }
+        return result;
+    }
+
+    /**
+     * Performs the action of this item, if it has one.
+     *
+     * @return {@code true} if an action was performed, or {@code false} otherwise.
+     */
+    public boolean select() {
+        if (action == null) {
+            return false;
+        }
+        action.run();
+        return true;
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return childrenFactory == null && super.getChildren().isEmpty();
+    }
+
+    @Override
+    public ObservableList<TreeItem<String>> getChildren() {
+        if (childrenFactory != null) {
+            final Supplier<List<TreeItem<String>>> factory = childrenFactory;
+            childrenFactory = null;
+            super.getChildren().setAll(factory.get());
+        }
+        return super.getChildren();
+    }
+
+}
@@ -0,0 +1,149 @@
+package nl.ou.dpd.gui.model;
+
+import javafx.application.Platform;
+import javafx.concurrent.Service;
+import javafx.concurrent.Task;
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.matching.AnalysisEngine;
+import nl.ou.dpd.domain.matching.AnalysisMonitor;
+import nl.ou.dpd.domain.matching.PatternInspector;
+import nl.ou.dpd.parsing.ParseCache;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link Service} that analyses a system under consideration for the design patterns in a template file, in the
+ * background. Every analysis runs as a {@link Task} on a worker thread of the service, so the JavaFX application
+ * thread is never blocked. The task reports its progress per phase: while the input files are parsed, the progress is
+ * indeterminate; while the design patterns are analysed, the progress is the number of patterns that were analysed.
+ * <p>
+ * The result of every design pattern is published as soon as that pattern has been analysed, so it can be shown while
+ * the other design patterns are still being analysed (see {@link #setOnPatternAnalysed(BiConsumer)}).
+ * <p>
+ * A running analysis can be cancelled with {@link #cancel()}. The search for a design pattern checks regularly
+ * whether the task was cancelled, and then stops as soon as possible. The parsing of an input file is not
+ * interrupted, but the analysis stops when the file has been parsed.
+ * <p>
+ * Like any {@link Service}, this service must be started, cancelled and observed from the JavaFX application thread.
+ * The results are passed back to that thread by the service (see {@link #setOnSucceeded}).
+ *
+ * @author Martin de Boer
+ */
+public class AnalysisService extends Service<Map<String, PatternInspector.MatchingResult>> {
+
+    private static final String PARSING_SYSTEM_MSG = "Parsing '%s' ...";
+    private static final String PARSING_TEMPLATES_MSG = "Parsing design pattern templates '%s' ...";
+    private static final String ANALYSING_MSG = "Analysing %d design patterns ...";
+    private static final String PATTERN_ANALYSED_MSG = "Analysed design pattern '%s' (%d of %d).";
+
+    private final ParseCache parseCache;
+    private String systemFilePath;
+    private String designPatternFilePath;
+    private BiConsumer<String, PatternInspector.MatchingResult> onPatternAnalysed = (key, result) -> {
+    };
+
+    /**
+     * Constructs a new {@link AnalysisService}, that takes the parsed input files from the specified
+     * {@link ParseCache}.
+     *
+     * @param parseCache the {@link ParseCache} to take the parsed input files from.
+     */
+    public AnalysisService(ParseCache parseCache) {
+        this.parseCache = parseCache;
+    }
+
+    /**
+     * Sets the input files of the next analysis. A running analysis is not affected.
+     *
+     * @param systemFilePath        the path of the "system under consideration" file.
+     * @param designPatternFilePath the path of the design pattern template file.
+     */
+    public void setInput(String systemFilePath, String designPatternFilePath) {
+        this.systemFilePath = systemFilePath;
+        this.designPatternFilePath = designPatternFilePath;
+    }
+
+    /**
+     * Sets the handler that is called on the JavaFX application thread with the result of every design pattern, as
+     * soon as that pattern has been analysed. The handler is called with the key of the result (see
+     * {@link AnalysisEngine#getResultKey(DesignPattern)}) and the result itself. It is not called anymore once the
+     * analysis has been cancelled. The handler of the next analysis is affected, not that of a running analysis.
+     *
+     * @param onPatternAnalysed the handler of the results.
+     */
+    public void setOnPatternAnalysed(BiConsumer<String, PatternInspector.MatchingResult> onPatternAnalysed) {
+        this.onPatternAnalysed = onPatternAnalysed;
+    }
+
+    @Override
+    protected Task<Map<String, PatternInspector.MatchingResult>> createTask() {
+        return new AnalysisTask(parseCache, systemFilePath, designPatternFilePath, onPatternAnalysed);
+    }
+
+    /**
+     * Analyses one pair of input files. The {@link Task} itself is the {@link AnalysisMonitor} of the analysis.
+     * Results are passed to the JavaFX application thread in the order in which they are published, and before the
+     * task succeeds.
+     */
+    private static class AnalysisTask extends Task<Map<String, PatternInspector.MatchingResult>>
+            implements AnalysisMonitor {
+
+        private final ParseCache parseCache;
+        private final String systemFilePath;
+        private final String designPatternFilePath;
+        private final BiConsumer<String, PatternInspector.MatchingResult> onPatternAnalysed;
+
+        private AnalysisTask(ParseCache parseCache,
+                             String systemFilePath,
+                             String designPatternFilePath,
+                             BiConsumer<String, PatternInspector.MatchingResult> onPatternAnalysed) {
+            this.parseCache = parseCache;
+            this.systemFilePath = systemFilePath;
+            this.designPatternFilePath = designPatternFilePath;
+            this.onPatternAnalysed = onPatternAnalysed;
+        }
+
+        @Override
+        protected Map<String, PatternInspector.MatchingResult> call() {
+            // Parse the xmi input file, unless it was parsed before
+            updateProgress(-1, 1);
+            updateMessage(String.format(PARSING_SYSTEM_MSG, new File(systemFilePath).getName()));
+            final SystemUnderConsideration system = parseCache.getSystem(systemFilePath);
+            if (isCancelled()) {
+                return null;
+            }
+
+            // Parse the xml input file, unless it was parsed before
+            updateMessage(String.format(PARSING_TEMPLATES_MSG, new File(designPatternFilePath).getName()));
+            final List<DesignPattern> designPatterns = parseCache.getDesignPatterns(designPatternFilePath);
+            if (isCancelled()) {
+                return null;
+            }
+
+            // Analyse the system under consideration, one task per design pattern
+            updateProgress(0, designPatterns.size());
+            updateMessage(String.format(ANALYSING_MSG, designPatterns.size()));
+            return new AnalysisEngine().analyse(system, designPatterns, this);
+        }
+
+        @Override
+        public void patternAnalysed(DesignPattern pattern,
+                                    PatternInspector.MatchingResult result,
+                                    int analysed,
+                                    int total) {
+            final String key = AnalysisEngine.getResultKey(pattern);
+            updateProgress(analysed, total);
+            updateMessage(String.format(PATTERN_ANALYSED_MSG, key, analysed, total));
+            Platform.runLater(() -> {
+                if (!isCancelled()) {
+                    onPatternAnalysed.accept(key, result);
+                }
+            });
+        }
+    }
+
+}
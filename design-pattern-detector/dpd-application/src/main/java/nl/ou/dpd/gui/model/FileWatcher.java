@@ -0,0 +1,157 @@
+package nl.ou.dpd.gui.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a number of files for changes, with a {@link WatchService} on the directories they are in, and reports the
+ * changes after a quiet period. Saving or exporting a file usually causes a burst of events (the file is created,
+ * truncated and written in parts), and several files may be changed at once. All the changes that follow each other
+ * within the quiet period are reported once, when no file has changed for the duration of the quiet period.
+ * <p>
+ * The events are received on a daemon thread of the watcher, and the changes are reported on that thread as well.
+ *
+ * @author Martin de Boer
+ */
+public class FileWatcher {
+
+    private static final Logger LOGGER = LogManager.getLogger(FileWatcher.class);
+
+    private static final String WATCHING_MSG = "Watching file '%s' for changes.";
+    private static final String UNABLE_TO_WATCH_MSG = "Unable to watch file '%s' for changes.";
+    private static final String FILES_CHANGED_MSG = "Watched files have changed.";
+
+    private final long quietPeriodMillis;
+    private final Runnable onChange;
+    private WatchService watchService;
+
+    /**
+     * Constructs a new {@link FileWatcher}, that does not watch any files yet.
+     *
+     * @param quietPeriodMillis the number of milliseconds without changes, after which the changes are reported.
+     * @param onChange          called when watched files have changed.
+     */
+    public FileWatcher(long quietPeriodMillis, Runnable onChange) {
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.onChange = onChange;
+    }
+
+    /**
+     * Starts to watch the files with the specified paths, instead of the files that were watched before. Paths that
+     * are {@code null} or empty are ignored, as are files in directories that cannot be watched.
+     *
+     * @param paths the paths of the files to watch.
+     */
+    public synchronized void watch(String... paths) {
+        stop();
+        final Set<Path> files = new HashSet<>();
+        for (String path : paths) {
+            if (path != null && !path.isEmpty()) {
+                files.add(Paths.get(path).toAbsolutePath().normalize());
+            }
+        }
+        if (files.isEmpty()) {
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            LOGGER.warn(String.format(UNABLE_TO_WATCH_MSG, files), e);
+            return;
+        }
+        for (Path file : files) {
+            try {
+                file.getParent().register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                LOGGER.info(String.format(WATCHING_MSG, file));
+            } catch (IOException e) {
+                LOGGER.warn(String.format(UNABLE_TO_WATCH_MSG, file), e);
+            }
+        }
+
+        final WatchService service = watchService;
+        final Thread thread = new Thread(() -> receiveEvents(service, files), "file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching files. Changes that have not been reported yet are not reported anymore.
+     */
+    public synchronized void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOGGER.warn(e.getMessage(), e);
+            }
+            watchService = null;
+        }
+    }
+
+    /**
+     * Determines whether files are being watched.
+     *
+     * @return {@code true} if files are being watched, or {@code false} otherwise.
+     */
+    public synchronized boolean isWatching() {
+        return watchService != null;
+    }
+
+    private void receiveEvents(WatchService service, Set<Path> files) {
+        // The time at which the pending changes are reported, or 0 if there are no pending changes
+        long deadline = 0;
+        try {
+            while (true) {
+                final WatchKey key;
+                if (deadline == 0) {
+                    key = service.take();
+                } else {
+                    key = service.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                }
+                if (key == null) {
+                    deadline = 0;
+                    reportChanges(service);
+                    continue;
+                }
+                final Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || files.contains(directory.resolve((Path) event.context()))) {
+                        deadline = System.currentTimeMillis() + quietPeriodMillis;
+                    }
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Watching was stopped
+        }
+    }
+
+    private void reportChanges(WatchService service) {
+        synchronized (this) {
+            if (service != watchService) {
+                // Watching was stopped, or other files are watched now
+                return;
+            }
+        }
+        LOGGER.info(FILES_CHANGED_MSG);
+        onChange.run();
+    }
+
+}
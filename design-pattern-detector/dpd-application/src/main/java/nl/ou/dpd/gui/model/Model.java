@@ -1,5 +1,6 @@
 package nl.ou.dpd.gui.model;
 
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -10,13 +11,8 @@ import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.util.Callback;
 import nl.ou.dpd.DesignPatternDetector;
-import nl.ou.dpd.domain.DesignPattern;
-import nl.ou.dpd.domain.SystemUnderConsideration;
-import nl.ou.dpd.domain.matching.PatternInspector;
 import nl.ou.dpd.exception.DesignPatternDetectorException;
-import nl.ou.dpd.parsing.ArgoUMLParser;
-import nl.ou.dpd.parsing.ParserFactory;
-import nl.ou.dpd.parsing.PatternsParser;
+import nl.ou.dpd.parsing.ParseCache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -24,9 +20,6 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Observable;
 
 /**
@@ -43,10 +36,21 @@ public class Model extends Observable {
     private static final String ABOUTVIEW_FXML = "fxml/aboutview.fxml";
     private static final String PROJECTVIEW_FXML = "fxml/projectview.fxml";
 
+    // The number of milliseconds without changes to the watched input files, after which they are analysed again
+    private static final long WATCH_QUIET_PERIOD_MILLIS = 1000;
+
     private static final String NO_CONTROLLER_ERR_MSG = "Initialization error. No controller factory was set in model.";
     private static final String UNABLE_TO_OPEN_RESOURCE_MSG = "Unable to open resource '%s'.";
 
     private final RetentionFileChooser fileChooser;
+    private final ParseCache parseCache = new ParseCache();
+    private final AnalysisService analysisService = new AnalysisService(parseCache);
+    private final PreparseService systemPreparser = new PreparseService(parseCache::getSystem);
+    private final PreparseService templatePreparser = new PreparseService(parseCache::getDesignPatterns);
+    private final FileWatcher fileWatcher =
+            new FileWatcher(WATCH_QUIET_PERIOD_MILLIS, () -> Platform.runLater(this::inputFilesChanged));
+    private Runnable onInputFilesChanged = () -> {
+    };
     private Scene scene;
     private Callback<Class<?>, Object> controllerFactory;
     private Project openProject = null;
@@ -75,6 +79,7 @@ public class Model extends Observable {
      * Shows the main view of the application and notifies the {@link java.util.Observer}s.
      */
     public void showMainView() {
+        cancelBackgroundWork();
         openProject = null;
         showView(MAINVIEW_FXML);
         setChangedAndNotifyObservers();
@@ -92,6 +97,7 @@ public class Model extends Observable {
      * Shows the project view of the application and notifies the {@link java.util.Observer}s.
      */
     public void newProject() {
+        cancelBackgroundWork();
         openProject = new Project();
         showView(PROJECTVIEW_FXML);
         setChangedAndNotifyObservers();
@@ -109,14 +115,18 @@ public class Model extends Observable {
 
     /**
      * Opens an existing {@link Project}, based on the contents of the specified {@link File} and notifies the
-     * {@link java.util.Observer}s.
+     * {@link java.util.Observer}s. The input files of the {@link Project} are parsed in the background right away (see
+     * {@link PreparseService}).
      *
      * @param projectFile a project file containing {@link Project} information
      * @throws FileNotFoundException when the project file does not exits.
      */
     public void openProject(File projectFile) throws FileNotFoundException {
         if (projectFile != null) {
+            cancelBackgroundWork();
             openProject = new Project(projectFile);
+            systemPreparser.preparse(openProject.getSystemUnderConsiderationFilePath());
+            templatePreparser.preparse(openProject.getDesignPatternFilePath());
         }
         if (hasOpenProject()) {
             showView(PROJECTVIEW_FXML);
@@ -196,22 +206,26 @@ public class Model extends Observable {
     }
 
     /**
-     * Opens a dialog to choose a file with extension {@code *.xmi}. Notifies {@link java.util.Observer}s when a
-     * file was chosen.
+     * Opens a dialog to choose a file with extension {@code *.xmi}, or a compressed ArgoUML model with extension
+     * {@code *.zargo} or {@code *.xmi.gz}. Notifies {@link java.util.Observer}s when a
+     * file was chosen, and starts to parse it in the background.
      */
     public void chooseSystemFile() {
-        File chosenFile = this.chooseFile("ArgoUML export files (*.xmi)", "*.xmi");
+        File chosenFile = this.chooseFile("ArgoUML export files (*.xmi, *.zargo, *.xmi.gz)",
+                "*.xmi", "*.zargo", "*.xmi.gz");
         if (chosenFile != null
                 && chosenFile.getPath() != null
                 && !chosenFile.getPath().equals(openProject.getSystemUnderConsiderationFilePath())) {
             openProject.setSystemUnderConsiderationPath(chosenFile.getPath());
+            systemPreparser.preparse(chosenFile.getPath());
+            updateWatchedFiles();
             setChangedAndNotifyObservers();
         }
     }
 
     /**
      * Opens a dialog to choose a file with extension {@code *.xml}. Notifies {@link java.util.Observer}s when a
-     * file was chosen.
+     * file was chosen, and starts to parse it in the background.
      */
     public void chooseTemplateFile() {
         File chosenFile = this.chooseFile("XML template files (*.xml)", "*.xml");
@@ -219,40 +233,118 @@ public class Model extends Observable {
                 && chosenFile.getPath() != null
                 && !chosenFile.getPath().equals(openProject.getDesignPatternFilePath())) {
             openProject.setDesignPatternTemplatePath(chosenFile.getPath());
+            templatePreparser.preparse(chosenFile.getPath());
+            updateWatchedFiles();
             setChangedAndNotifyObservers();
         }
     }
 
     /**
-     * Parses the specified input files, and attempts to detect design patterns defined in the template file, in the
-     * "system under consideration" file. The results are gathered in a {@link Map} containing {@link List}s of
-     * {@link PatternInspector.MatchingResult}s as values, and the name of the pattern as key.
+     * Returns the {@link AnalysisService} that analyses the input files of the open {@link Project} in the background.
+     * Observers of the analysis, like the views, can bind to its properties.
+     *
+     * @return the {@link AnalysisService}
+     */
+    public AnalysisService getAnalysisService() {
+        return analysisService;
+    }
+
+    /**
+     * Returns the {@link PreparseService} that parses the "system under consideration" file of the open
+     * {@link Project} in the background, as soon as it is chosen.
+     *
+     * @return the {@link PreparseService} of the "system under consideration" file
+     */
+    public PreparseService getSystemPreparser() {
+        return systemPreparser;
+    }
+
+    /**
+     * Returns the {@link PreparseService} that parses the design pattern template file of the open {@link Project} in
+     * the background, as soon as it is chosen.
      *
-     * @return a {@link Map} containing the gathered results
+     * @return the {@link PreparseService} of the design pattern template file
      */
-    public Map<String, PatternInspector.MatchingResult> analyse() {
-        // Parse the xmi input file
-        final ArgoUMLParser argoUMLParser = ParserFactory.createArgoUMLParser();
-        final SystemUnderConsideration system = argoUMLParser.parse(openProject.getSystemUnderConsiderationFilePath());
-
-        // Parse the xml input file
-        final PatternsParser patternsParser = ParserFactory.createPatternParser();
-        final List<DesignPattern> designPatterns = patternsParser.parse(openProject.getDesignPatternFilePath());
-
-        // Analyse the system under consideration
-        final Map<String, PatternInspector.MatchingResult> assembledMatchResults = new HashMap<>();
-        designPatterns.forEach(pattern -> {
-            final PatternInspector patternInspector = new PatternInspector(system, pattern);
-            final String patternName = pattern.getName();
-            final String patternFamilyName = pattern.getFamily();
-            String key = patternName;
-            if (!patternName.equals(patternFamilyName)) {
-                key = String.format("%s (%s)", patternName, patternFamilyName);
-            }
-            assembledMatchResults.put(key, patternInspector.getMatchingResult());
-        });
-
-        return assembledMatchResults;
+    public PreparseService getTemplatePreparser() {
+        return templatePreparser;
+    }
+
+    /**
+     * Starts to parse the input files of the open {@link Project}, and to detect the design patterns defined in the
+     * template file in the "system under consideration" file, in the background (see {@link AnalysisService}). A
+     * running analysis is cancelled first. Input files that have not changed since they were parsed before are not
+     * parsed again, but taken from the {@link ParseCache}. Input files that are still being parsed in the background
+     * are not parsed again either: the analysis waits for that parse to finish.
+     */
+    public void startAnalysis() {
+        analysisService.setInput(
+                openProject.getSystemUnderConsiderationFilePath(),
+                openProject.getDesignPatternFilePath());
+        analysisService.restart();
+    }
+
+    /**
+     * Cancels the running analysis, if any.
+     */
+    public void cancelAnalysis() {
+        analysisService.cancel();
+    }
+
+    /**
+     * Switches the watch mode of the open {@link Project} on or off. In watch mode, the input files of the project are
+     * watched for changes (see {@link FileWatcher}). When they have changed, and have not changed again for a while,
+     * the handler set with {@link #setOnInputFilesChanged(Runnable)} is called, which normally analyses them again
+     * with {@link #startAnalysis()}. Only the changed files are parsed again, the others are taken from the
+     * {@link ParseCache}. Watch mode is switched off when another project is opened, or the project is closed.
+     *
+     * @param watching {@code true} to switch the watch mode on, or {@code false} to switch it off.
+     */
+    public void setWatchingInputFiles(boolean watching) {
+        if (watching && hasOpenProject()) {
+            fileWatcher.watch(
+                    openProject.getSystemUnderConsiderationFilePath(),
+                    openProject.getDesignPatternFilePath());
+        } else {
+            fileWatcher.stop();
+        }
+    }
+
+    /**
+     * Determines whether the input files of the open {@link Project} are watched for changes.
+     *
+     * @return {@code true} if the watch mode is on, or {@code false} otherwise.
+     */
+    public boolean isWatchingInputFiles() {
+        return fileWatcher.isWatching();
+    }
+
+    /**
+     * Sets the handler that is called on the JavaFX application thread when the input files of the open
+     * {@link Project} have changed in watch mode (see {@link #setWatchingInputFiles(boolean)}).
+     *
+     * @param onInputFilesChanged the handler of changes to the input files.
+     */
+    public void setOnInputFilesChanged(Runnable onInputFilesChanged) {
+        this.onInputFilesChanged = onInputFilesChanged;
+    }
+
+    private void inputFilesChanged() {
+        if (isWatchingInputFiles()) {
+            onInputFilesChanged.run();
+        }
+    }
+
+    private void updateWatchedFiles() {
+        if (isWatchingInputFiles()) {
+            setWatchingInputFiles(true);
+        }
+    }
+
+    private void cancelBackgroundWork() {
+        fileWatcher.stop();
+        analysisService.cancel();
+        systemPreparser.cancel();
+        templatePreparser.cancel();
     }
 
     private File chooseFile(String filterDescription, String... filterExtension) {
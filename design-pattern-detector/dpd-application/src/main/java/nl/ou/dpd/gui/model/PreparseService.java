@@ -0,0 +1,64 @@
+package nl.ou.dpd.gui.model;
+
+import javafx.concurrent.Service;
+import javafx.concurrent.Task;
+import nl.ou.dpd.parsing.ParseCache;
+
+import java.util.function.Consumer;
+
+/**
+ * A {@link Service} that parses an input file in the background, as soon as it is chosen, so that parse errors are
+ * reported early, and an analysis of the file does not have to wait for the parsing. The parsed file is stored in a
+ * {@link ParseCache}, from which the analysis takes it. If the analysis starts while the file is still being parsed,
+ * the {@link ParseCache} lets the analysis wait for that parse, instead of parsing the file again.
+ * <p>
+ * Choosing another file supersedes the parse in progress: its task is cancelled, so that its outcome is ignored.
+ * The parsing itself cannot be interrupted, so the superseded file is still parsed (and cached) in the background.
+ * <p>
+ * Like any {@link Service}, this service must be started, cancelled and observed from the JavaFX application thread.
+ * Parse errors are reported by the service (see {@link #setOnFailed}).
+ *
+ * @author Martin de Boer
+ */
+public class PreparseService extends Service<Void> {
+
+    private final Consumer<String> parser;
+    private String filePath;
+
+    /**
+     * Constructs a new {@link PreparseService}, that parses files with the specified parser.
+     *
+     * @param parser parses the file with the specified path, like {@link ParseCache#getSystem(String)}.
+     */
+    public PreparseService(Consumer<String> parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Starts to parse the file with the specified path in the background, superseding the parse in progress, if any.
+     * If no path is specified, the parse in progress is cancelled.
+     *
+     * @param filePath the path of the file to parse, or {@code null}.
+     */
+    public void preparse(String filePath) {
+        if (filePath == null || filePath.isEmpty()) {
+            cancel();
+            return;
+        }
+        this.filePath = filePath;
+        restart();
+    }
+
+    @Override
+    protected Task<Void> createTask() {
+        final String path = filePath;
+        return new Task<Void>() {
+            @Override
+            protected Void call() {
+                parser.accept(path);
+                return null;
+            }
+        };
+    }
+
+}
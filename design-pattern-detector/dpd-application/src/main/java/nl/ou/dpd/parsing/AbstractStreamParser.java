@@ -0,0 +1,303 @@
+package nl.ou.dpd.parsing;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * An abstract parent class of parsers processing XML files with an {@link XMLStreamReader}. The reader is used as a
+ * cursor: elements are handled while the reader is positioned on them, and their attributes are read directly from
+ * the reader, without creating event objects or attribute maps.
+ * <p>
+ * Only elements with a tag that is known to the parser (a constant of the tag type {@code T}) are handled. These
+ * elements are kept on a stack, together with their id, while their children are handled. Other elements are skipped,
+ * so the parent of an element is the nearest enclosing element with a known tag.
+ *
+ * @param <T> the type of the tags that are known to the parser.
+ * @author Martin de Boer
+ */
+public abstract class AbstractStreamParser<T extends Enum<T>> {
+
+    private final XMLInputFactory xmlInputFactory;
+    private final Map<String, T> tags;
+    private final String idAttribute;
+
+    private final List<T> tagStack = new ArrayList<>();
+    private final List<String> idStack = new ArrayList<>();
+
+    private XMLStreamReader reader;
+    private StringBuilder text;
+
+    /**
+     * A constructor expecting an {@link XMLInputFactory}, the known tags and the name of the id attribute.
+     *
+     * @param xmlInputFactory used for instantiating {@link XMLStreamReader}s processing XML files.
+     * @param tags            the known tags, with their local name as key.
+     * @param idAttribute     the name of the attribute that is kept on the stack with the tag of an element, or
+     *                        {@code null} if the parser does not need the ids of parent elements.
+     */
+    protected AbstractStreamParser(XMLInputFactory xmlInputFactory, Map<String, T> tags, String idAttribute) {
+        this.xmlInputFactory = xmlInputFactory;
+        this.tags = tags;
+        this.idAttribute = idAttribute;
+    }
+
+    /**
+     * Creates a map of tags, with their local name as key.
+     *
+     * @param values    all the tags.
+     * @param localName returns the local name of a tag.
+     * @param <T>       the type of the tags.
+     * @return an unmodifiable map of tags.
+     */
+    protected static <T extends Enum<T>> Map<String, T> mapTags(T[] values, Function<T, String> localName) {
+        final Map<String, T> tags = new HashMap<>();
+        for (T tag : values) {
+            tags.put(localName.apply(tag), tag);
+        }
+        return Collections.unmodifiableMap(tags);
+    }
+
+    /**
+     * Reads the specified {@link InputStream} and handles its elements. Every start and end element read from the
+     * stream is passed to the specified {@code elementListener} as well, after it has been handled by this parser, so
+     * that other parsers can collect the elements they need in the same pass. The listener should not move the reader.
+     *
+     * @param input           the stream to read.
+     * @param elementListener receives the reader, positioned on a start or end element.
+     * @throws XMLStreamException when the stream does not contain well-formed XML.
+     */
+    protected void parse(InputStream input, Consumer<XMLStreamReader> elementListener) throws XMLStreamException {
+        reader = xmlInputFactory.createXMLStreamReader(input);
+        try {
+            while (reader.hasNext()) {
+                handleEvent(reader.next(), elementListener);
+            }
+        } finally {
+            reader.close();
+            reader = null;
+            clearStack();
+        }
+    }
+
+    /**
+     * Reads the specified {@link InputStream}, validates it with the specified {@link Validator}, and handles its
+     * elements, in a single pass over the stream. The validator pulls the events from the reader, and every element is
+     * handled as soon as the reader is positioned on it.
+     * <p>
+     * The validator may report an invalid element after it has been handled. Therefore, when the handling of an
+     * element fails, the remaining elements are not handled, but the stream is validated up to the end. Validation
+     * errors take precedence over the failure of the handler.
+     *
+     * @param input     the stream to read.
+     * @param validator validates the stream.
+     * @throws XMLStreamException when the stream does not contain well-formed XML.
+     * @throws SAXException       when the stream is not valid.
+     * @throws IOException        when the stream cannot be read.
+     */
+    protected void parse(InputStream input, Validator validator)
+            throws XMLStreamException, SAXException, IOException {
+        reader = xmlInputFactory.createXMLStreamReader(input);
+        final RuntimeException[] failure = {null};
+        try {
+            validator.validate(new StAXSource(new StreamReaderDelegate(reader) {
+                @Override
+                public int next() throws XMLStreamException {
+                    final int eventType = super.next();
+                    if (failure[0] == null) {
+                        try {
+                            handleEvent(eventType, r -> {
+                            });
+                        } catch (RuntimeException e) {
+                            failure[0] = e;
+                        }
+                    }
+                    return eventType;
+                }
+            }));
+        } catch (SAXException e) {
+            rethrow(e);
+        } finally {
+            reader.close();
+            reader = null;
+            clearStack();
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    /**
+     * The validator wraps the exceptions it encounters. Throws the validation error, or the exception thrown by the
+     * reader if the stream does not contain well-formed XML.
+     */
+    private static void rethrow(SAXException e) throws XMLStreamException, SAXException {
+        XMLStreamException readerException = null;
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SAXParseException) {
+                throw (SAXParseException) cause;
+            }
+            if (cause instanceof XMLStreamException && readerException == null) {
+                readerException = (XMLStreamException) cause;
+            }
+        }
+        if (readerException != null) {
+            throw readerException;
+        }
+        throw e;
+    }
+
+    private void handleEvent(int eventType, Consumer<XMLStreamReader> elementListener) {
+        switch (eventType) {
+            case XMLStreamConstants.START_ELEMENT:
+                final T startTag = tags.get(reader.getLocalName());
+                if (startTag != null) {
+                    startElement(startTag);
+                }
+                elementListener.accept(reader);
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                final T endTag = tags.get(reader.getLocalName());
+                if (endTag != null) {
+                    endElement(endTag);
+                }
+                elementListener.accept(reader);
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                if (text != null) {
+                    text.append(reader.getText());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Handles elements that were read before, for instance by another parser. The specified {@code elements} should
+     * call {@link #startElement(Enum)} and {@link #endElement(Enum)} for every element, in the order in which they were
+     * read.
+     *
+     * @param elements handles the elements.
+     */
+    protected void replay(Runnable elements) {
+        try {
+            elements.run();
+        } finally {
+            clearStack();
+        }
+    }
+
+    private void clearStack() {
+        tagStack.clear();
+        idStack.clear();
+        text = null;
+    }
+
+    /**
+     * Handles the start of an element with the specified tag, and pushes the element onto the stack.
+     *
+     * @param tag the tag of the element.
+     */
+    protected final void startElement(T tag) {
+        handleStartElement(tag);
+        tagStack.add(tag);
+        idStack.add(idAttribute == null ? null : getAttribute(idAttribute));
+    }
+
+    /**
+     * Pops the element from the stack, and handles the end of the element. Text collected for the element (see
+     * {@link #collectText()}) is available to the handler, and is discarded afterwards.
+     *
+     * @param tag the tag of the element.
+     */
+    protected final void endElement(T tag) {
+        final int top = tagStack.size() - 1;
+        tagStack.remove(top);
+        idStack.remove(top);
+        handleEndElement(tag);
+        text = null;
+    }
+
+    protected abstract void handleStartElement(T tag);
+
+    protected void handleEndElement(T tag) {
+        // Nothing to do by default
+    }
+
+    /**
+     * Returns the value of an attribute of the element that is currently handled.
+     *
+     * @param name the local name of the attribute.
+     * @return the value of the attribute, or {@code null} if the element does not have the attribute.
+     */
+    protected String getAttribute(String name) {
+        return reader.getAttributeValue(null, name);
+    }
+
+    /**
+     * Starts collecting the text of the element that is currently handled. The text can be obtained with
+     * {@link #getCollectedText()} when the end of the element is handled. Unlike
+     * {@link XMLStreamReader#getElementText()}, this does not move the reader, so the reader can be shared with a
+     * {@link Validator}.
+     */
+    protected void collectText() {
+        text = new StringBuilder();
+    }
+
+    /**
+     * Returns the text collected since {@link #collectText()} was called.
+     *
+     * @return the collected text, or {@code null} if no text is being collected.
+     */
+    protected String getCollectedText() {
+        return text == null ? null : text.toString();
+    }
+
+    /**
+     * Returns the tag of the parent of the element that is currently handled.
+     *
+     * @return the tag of the parent, or {@code null} if the element has no parent with a known tag.
+     */
+    protected T getParentTag() {
+        return tagStack.isEmpty() ? null : tagStack.get(tagStack.size() - 1);
+    }
+
+    /**
+     * Returns the id of the parent of the element that is currently handled.
+     *
+     * @return the id of the parent, or {@code null} if the parent has no id or the element has no parent with a
+     * known tag.
+     */
+    protected String getParentId() {
+        return idStack.isEmpty() ? null : idStack.get(idStack.size() - 1);
+    }
+
+    /**
+     * Returns the number of elements on the stack.
+     *
+     * @return the depth of the element that is currently handled, counting only elements with a known tag.
+     */
+    protected int getDepth() {
+        return tagStack.size();
+    }
+
+}
@@ -1,29 +1,22 @@
 package nl.ou.dpd.parsing;
 
-import nl.ou.dpd.domain.node.Node;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.XMLEvent;
-import java.io.File;
-import java.io.FileInputStream;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Stack;
+import java.util.function.Consumer;
 
 /**
  * An abstract parent class of specified ArgoUML parsers. This abstract parent class contains shared functionality of
  * inheriting classes.
  *
+ * @param <T> the type of the XMI tags that are known to the parser.
  * @author Martin de Boer
  */
-public abstract class ArgoUMLAbstractParser {
+public abstract class ArgoUMLAbstractParser<T extends Enum<T>> extends AbstractStreamParser<T> {
 
     // XMI attributes
     protected static final String ID_ATTRIBUTE = "xmi.id";
@@ -49,89 +42,77 @@ public abstract class ArgoUMLAbstractParser {
     static final String XMI_FILE_COULD_NOT_BE_PARSED_LONG_MSG = "The XMI file '%s' could not be parsed.";
     static final String XMI_FILE_COULD_NOT_BE_PARSED_SHORT_MSG = "The XMI file could not be parsed.";
 
-    private XMLInputFactory xmlInputFactory;
-
     /**
-     * A constructor expecting an {@link XMLInputFactory}.
+     * A constructor expecting an {@link XMLInputFactory} and the known XMI tags.
      * <p>
      * This constructor has protected access so it can only be instantiated from within the same package (by the
      * ParserFactory or in a unit test in the same package).
      *
-     * @param xmlInputFactory used for instantiating {@link XMLEventReader}s processing XML files.
+     * @param xmlInputFactory used for instantiating {@link XMLStreamReader}s processing XML files.
+     * @param tags            the known XMI tags, with their local name as key.
+     * @param idAttribute     the name of the attribute that is kept on the stack with the tag of an element, or
+     *                        {@code null} if the parser does not need the ids of parent elements.
      */
-    protected ArgoUMLAbstractParser(XMLInputFactory xmlInputFactory) {
-        this.xmlInputFactory = xmlInputFactory;
+    protected ArgoUMLAbstractParser(XMLInputFactory xmlInputFactory, Map<String, T> tags, String idAttribute) {
+        super(xmlInputFactory, tags, idAttribute);
     }
 
     /**
-     * Contains the passed events. Keeps track of the hierarchical structure of the XMI-tags.
+     * Contains the collected nodes and other elements from the XMI-tags, by id.
      */
-    protected Stack<XMLEvent> events = new Stack<>();
+    protected SymbolTable symbols;
 
     /**
-     * Contains the collected nodes from the XMI-tags.
+     * Releases the state of the last parse, like the {@link SymbolTable}. A parser is reused for many files, and must
+     * not keep the model it parsed last reachable in the meantime. Subclasses that keep more state should override
+     * this method, and call the overridden method.
      */
-    protected Map<String, Node> nodes;
+    protected void clearParseState() {
+        symbols = null;
+    }
+
+    protected void doParse(XmiSource source) {
+        doParse(source, reader -> {
+        });
+    }
 
-    protected void doParse(String filename) {
-        try (InputStream input = new FileInputStream(new File(filename))) {
-            final XMLEventReader eventReader = xmlInputFactory.createXMLEventReader(input);
-            handleEvents(eventReader);
+    /**
+     * Parses the specified {@link XmiSource}, and passes every start and end element to the specified
+     * {@code elementListener} after it has been handled by this parser. This way, other parsers can collect the
+     * elements they need from the same pass over the source. Compressed sources are decompressed while they are read.
+     *
+     * @param source          the source to be parsed.
+     * @param elementListener receives the reader, positioned on every start and end element read from the source.
+     */
+    protected void doParse(XmiSource source, Consumer<XMLStreamReader> elementListener) {
+        try (InputStream input = source.open()) {
+            parse(input, elementListener);
         } catch (ParseException pe) {
             // We don't need to repackage a ParseException in a ParseException.
             // Rethrow ParseExceptions directly
             throw pe;
         } catch (Exception e) {
-            String msg = String.format(XMI_FILE_COULD_NOT_BE_PARSED_LONG_MSG, filename);
+            String msg = String.format(XMI_FILE_COULD_NOT_BE_PARSED_LONG_MSG, source.getName());
             error(msg, XMI_FILE_COULD_NOT_BE_PARSED_SHORT_MSG, e);
         }
     }
 
-    protected void handleEvents(XMLEventReader eventReader) throws XMLStreamException {
-        while (eventReader.hasNext()) {
-            XMLEvent event = eventReader.nextEvent();
-            handleEvent(event);
-        }
-    }
-
-    protected void handleEvent(XMLEvent event) {
-        if (event.isStartElement()) {
-            handleStartElement(event);
-        }
-        if (event.isEndElement()) {
-            handleEndElement(event);
-        }
-    }
-
-    protected abstract void handleStartElement(XMLEvent event);
-
-    protected abstract void handleEndElement(XMLEvent event);
-
     /**
-     * Return an Attributes Map with the attribute name as key and the attribute value as value, retrieved from the
-     * specified {@link XMLEvent}.
+     * Handles elements that were read from the specified {@link XmiSource} before.
      *
-     * @param event the {@link XMLEvent} containing the attributes.
-     * @return a Map containing attributes, extracted from the {@code event}.
+     * @param source   the source the elements were read from.
+     * @param elements handles the elements, in the order in which they were read.
      */
-    protected Map<String, String> readAttributes(XMLEvent event) {
-        final Map<String, String> attributes = new HashMap<>();
-        final Iterator<Attribute> attributeIterator = event.asStartElement().getAttributes();
-        while (attributeIterator.hasNext()) {
-            final Attribute attribute = attributeIterator.next();
-            final String name = attribute.getName().getLocalPart();
-            final String value = attribute.getValue();
-            attributes.put(name, value);
+    protected void doReplay(XmiSource source, Runnable elements) {
+        try {
+            replay(elements);
+        } catch (ParseException pe) {
+            // Rethrow ParseExceptions directly
+            throw pe;
+        } catch (Exception e) {
+            String msg = String.format(XMI_FILE_COULD_NOT_BE_PARSED_LONG_MSG, source.getName());
+            error(msg, XMI_FILE_COULD_NOT_BE_PARSED_SHORT_MSG, e);
         }
-        return attributes;
-    }
-
-    protected String getParentElementNameLocalPart() {
-        return getStartElementNameLocalPart(events.peek());
-    }
-
-    protected String getStartElementNameLocalPart(XMLEvent event) {
-        return event.asStartElement().getName().getLocalPart();
     }
 
     protected void error(String longMsg, String shortMsg, Exception cause) {
@@ -9,16 +9,13 @@ import nl.ou.dpd.util.Util;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.XMLEvent;
-import java.util.Arrays;
+import javax.xml.stream.XMLStreamReader;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * This class implements a parser for a xmi-file as generated by the ArgoUML-modelling tool (see
@@ -35,7 +32,7 @@ import java.util.Set;
  * @see ArgoUMLRelationParser
  * @see SystemRelationsExtractor
  */
-public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
+public class ArgoUMLNodeParser extends ArgoUMLAbstractParser<ArgoUMLNodeParser.Tag> {
     private static final Logger LOGGER = LogManager.getLogger(ArgoUMLNodeParser.class);
 
     // Datatype xmi.id endings
@@ -48,6 +45,27 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
     private static final String OPERATION_TAG = "Operation";
     private static final String PARAMETER_TAG = "Parameter";
 
+    /**
+     * The XMI tags handled by this parser.
+     */
+    enum Tag {
+        MODEL(MODEL_TAG),
+        CLASS(CLASS_TAG),
+        INTERFACE(INTERFACE_TAG),
+        ATTRIBUTE(ATTRIBUTE_TAG),
+        DATATYPE(DATATYPE_TAG),
+        OPERATION(OPERATION_TAG),
+        PARAMETER(PARAMETER_TAG);
+
+        private final String localName;
+
+        Tag(String localName) {
+            this.localName = localName;
+        }
+    }
+
+    private static final Map<String, Tag> TAGS = mapTags(Tag.values(), tag -> tag.localName);
+
     private static final Map<String, String> typeMap = new HashMap<>();
     static {
         typeMap.put(STRING, String.class.getSimpleName());
@@ -56,11 +74,8 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
         typeMap.put(UNLIMITED_INTEGER, "UnlimitedInteger");
     }
 
-    private static final List<String> eventTags = Arrays.asList(new String[]{
-            MODEL_TAG, CLASS_TAG, INTERFACE_TAG, ATTRIBUTE_TAG, DATATYPE_TAG, OPERATION_TAG, PARAMETER_TAG
-    });
-
     private Operation parentOperation;
+    private boolean inputParameter; // Keeps track of the kind of the parameter under consideration.
 
     /**
      * A constructor expecting an {@link XMLInputFactory}.
@@ -68,75 +83,89 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      * This constructor has package protected access so it can only be instantiated from within the same package (by the
      * ParserFactory or in a unit test in the same package).
      *
-     * @param xmlInputFactory used for instantiating {@link XMLEventReader}s processing XML files.
+     * @param xmlInputFactory used for instantiating {@link XMLStreamReader}s processing XML files.
      */
     ArgoUMLNodeParser(XMLInputFactory xmlInputFactory) {
-        super(xmlInputFactory);
+        super(xmlInputFactory, TAGS, ID_ATTRIBUTE);
     }
 
     /**
-     * Parses an xmi file with the specified {@code filename}.
+     * Parses the specified {@link XmiSource}.
      *
-     * @param filename the name of the file to be parsed.
+     * @param source the source to be parsed.
      * @return a map of {@link Node}s including attributes and operations. The key is represented by the node id, the
      * value is represented by the node itself.
      */
-    Map<String, Node> parse(String filename) {
-        this.nodes = new HashMap<>();
-        doParse(filename);
-        LOGGER.info(String.format("Parsed %d nodes from %s.", nodes.size(), filename));
-        return nodes;
+    Map<String, Node> parse(XmiSource source) {
+        return parse(source, new SymbolTable(), reader -> {
+        });
     }
 
-    protected void handleStartElement(XMLEvent event) {
-        switch (getStartElementNameLocalPart(event)) {
-            case MODEL_TAG:
-                events.push(event);
-                break;
-            case CLASS_TAG:
-            case INTERFACE_TAG:
-                handleNodeEvent(event);
-                events.push(event);
+    /**
+     * Parses the specified {@link XmiSource}, adding the parsed nodes, attributes, operations and parameters to the
+     * specified {@link SymbolTable}, and passing every start and end element read from the source to the specified
+     * {@code elementListener} as well. This allows the {@link ArgoUMLRelationParser} to collect its elements in the
+     * same pass over the source.
+     *
+     * @param source          the source to be parsed.
+     * @param symbols         the symbol table to fill.
+     * @param elementListener receives the reader, positioned on every start and end element read from the source, after
+     *                        the element has been handled by this parser.
+     * @return a map of {@link Node}s including attributes and operations. The key is represented by the node id, the
+     * value is represented by the node itself.
+     */
+    Map<String, Node> parse(XmiSource source, SymbolTable symbols, Consumer<XMLStreamReader> elementListener) {
+        this.symbols = symbols;
+        try {
+            doParse(source, elementListener);
+        } finally {
+            clearParseState();
+        }
+        LOGGER.info(String.format("Parsed %d nodes from %s.", symbols.getNodes().size(), source.getName()));
+        return symbols.getNodes();
+    }
+
+    @Override
+    protected void clearParseState() {
+        super.clearParseState();
+        parentOperation = null;
+    }
+
+    protected void handleStartElement(Tag tag) {
+        switch (tag) {
+            case CLASS:
+            case INTERFACE:
+                handleNodeEvent(tag);
                 break;
-            case ATTRIBUTE_TAG:
-                handleAttributeEvent(event);
-                events.push(event);
+            case ATTRIBUTE:
+                handleAttributeEvent();
                 break;
-            case OPERATION_TAG:
-                handleOperationEvent(event);
-                events.push(event);
+            case OPERATION:
+                handleOperationEvent();
                 break;
-            case DATATYPE_TAG:
+            case DATATYPE:
                 //internal ArgoUML datatype of an attribute
-                handleDatatypeEvent(event);
-                events.push(event);
+                handleDatatypeEvent();
                 break;
-            case PARAMETER_TAG:
-                handleParameterEvent(event);
-                events.push(event);
+            case PARAMETER:
+                handleParameterEvent();
                 break;
             default:
                 break;
         }
     }
 
-    protected void handleEndElement(XMLEvent event) {
-        if (eventTags.contains(event.asEndElement().getName().getLocalPart())) {
-            events.pop();
-        }
-    }
-
-    private void handleNodeEvent(XMLEvent event) {
+    private void handleNodeEvent(Tag tag) {
         //look for the event one level higher
-        switch (getParentElementNameLocalPart()) {
-            case MODEL_TAG:
-                handleModelEvent(event);
+        switch (getParentTag()) {
+            case MODEL:
+                handleModelEvent(tag);
                 break;
-            case ATTRIBUTE_TAG:
-                setAttributeType(readAttributes(event).get(IDREF_ATTRIBUTE));
+            case ATTRIBUTE:
+                setAttributeType(getAttribute(IDREF_ATTRIBUTE));
                 break;
-            case PARAMETER_TAG:
-                setParameterType(readAttributes(event).get(IDREF_ATTRIBUTE));
+            case PARAMETER:
+                setParameterType(getAttribute(IDREF_ATTRIBUTE));
                 break;
             default:
                 break;
@@ -146,10 +175,10 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
     /**
      * Create a node (a class or interface) and add it to the {@link Node}s map.
      *
-     * @param event the XML event
+     * @param tag the tag of the element, a class or an interface
      */
-    private void handleModelEvent(XMLEvent event) {
-        Node node = findOrcreateNode(event);
+    private void handleModelEvent(Tag tag) {
+        Node node = findOrcreateNode(tag);
         if (node != null) {
             addNode(node);
         }
@@ -158,26 +187,22 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
     /**
      * Create an attribute WITHOUT its type (null) and add it to the attributes of Node.  A type will be added as a
      * special handling of the Class/Interface event.
-     *
-     * @param event the attribute event
      */
-    private void handleAttributeEvent(XMLEvent event) {
-        Node node = nodes.get(readAttributes(events.peek()).get(ID_ATTRIBUTE));
-        createIncompleteAttribute(event, node);
+    private void handleAttributeEvent() {
+        Node node = symbols.getNode(getParentId());
+        createIncompleteAttribute(node);
     }
 
     /**
      * Create an operation WITHOUT the types (null) of return values and parameters and add it to the operations of the
      * node. A type will be added as a special handling of the Class/Interface event.
-     *
-     * @param event the operation event
      */
-    private void handleOperationEvent(XMLEvent event) {
-        switch (getParentElementNameLocalPart()) {
-            case CLASS_TAG:
-            case INTERFACE_TAG:
-                Node node = nodes.get(readAttributes(events.peek()).get(ID_ATTRIBUTE));
-                createIncompleteOperation(event, node);
+    private void handleOperationEvent() {
+        switch (getParentTag()) {
+            case CLASS:
+            case INTERFACE:
+                Node node = symbols.getNode(getParentId());
+                createIncompleteOperation(node);
                 break;
             default:
                 break;
@@ -187,22 +212,20 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
     /**
      * Create or find the node of this particular Datatype and set this type to the corresponding {@link Attribute} or
      * {@link Parameter}. See <a href="http://argouml.tigris.org//profiles/uml14/default-uml14.xmi"></a>.
-     *
-     * @param event the datatype event
      */
-    private void handleDatatypeEvent(XMLEvent event) {
+    private void handleDatatypeEvent() {
         //make a node if necessary
-        Node node = findOrCreateDatatypeNode(event);
+        Node node = findOrCreateDatatypeNode();
         if (node != null) {
             addNode(node);
         }
         //look for the event one level higher
-        switch (getParentElementNameLocalPart()) {
-            case ATTRIBUTE_TAG:
-                setAttributeType(readAttributes(event).get(HREF_ATTRIBUTE));
+        switch (getParentTag()) {
+            case ATTRIBUTE:
+                setAttributeType(getAttribute(HREF_ATTRIBUTE));
                 break;
-            case PARAMETER_TAG:
-                setParameterType(readAttributes(event).get(HREF_ATTRIBUTE));
+            case PARAMETER:
+                setParameterType(getAttribute(HREF_ATTRIBUTE));
                 break;
             default:
                 break;
@@ -213,15 +236,12 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      * If the kind of the {@link Parameter} is 'in' create a Parameter without type, else (the kind is 'return')
      * memorize the {@link Operation} under consideration. Types will be set as a special handling of the
      * CLASS_TAG/INTERFACE_TAG event.
-     *
-     * @param event the parameter event
      */
-    private void handleParameterEvent(XMLEvent event) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String opId = readAttributes(events.peek()).get(ID_ATTRIBUTE);
-        final Operation operation = findOperationById(opId);
-        if (INPUT_ATTRIBUTE.equals(attributes.get(KIND_ATTRIBUTE))) {
-            createIncompleteParameter(event, operation);
+    private void handleParameterEvent() {
+        final Operation operation = findOperationById(getParentId());
+        inputParameter = INPUT_ATTRIBUTE.equals(getAttribute(KIND_ATTRIBUTE));
+        if (inputParameter) {
+            createIncompleteParameter(operation);
         } else {
             parentOperation = operation;
         }
@@ -234,9 +254,9 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      *              nodes.
      */
     private void setAttributeType(String idref) {
-        String attrId = readAttributes(events.peek()).get(ID_ATTRIBUTE);
+        String attrId = getParentId();
         final nl.ou.dpd.domain.node.Attribute attr = findAttributeById(attrId);
-        Node node = nodes.get(idref);
+        Node node = symbols.getNode(idref);
         if (node == null) {
             node = new Node(idref);
             addNode(node);
@@ -251,8 +271,7 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      *              nodes.
      */
     private void setParameterType(String idref) {
-        String kind = readAttributes(events.peek()).get(KIND_ATTRIBUTE);
-        if (INPUT_ATTRIBUTE.equals(kind)) {
+        if (inputParameter) {
             setParameterInType(idref);
         } else {
             setParameterReturnType(idref);
@@ -266,9 +285,9 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      *              nodes.
      */
     private void setParameterInType(String idref) {
-        String paramId = readAttributes(events.peek()).get(ID_ATTRIBUTE);
+        String paramId = getParentId();
         Parameter parameter = findParameterById(paramId);
-        Node node = nodes.get(idref);
+        Node node = symbols.getNode(idref);
         if (node == null) {
             node = new Node(idref);
             addNode(node);
@@ -283,7 +302,7 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      *              nodes.
      */
     private void setParameterReturnType(String idref) {
-        Node node = nodes.get(idref);
+        Node node = symbols.getNode(idref);
         if (node == null) {
             node = new Node(idref);
             addNode(node);
@@ -297,26 +316,25 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
      * @param node the node to add
      */
     private void addNode(Node node) {
-        nodes.put(node.getId(), node);
+        symbols.addNode(node);
     }
 
     /**
-     * Find a {@link Node} with the ID_ATTRIBUTE specified in the attributes of the given event. If a node with this ID_ATTRIBUTE does not
-     * exist, create it. Finally, set the appropriate properties of the (found or newly created) node.
+     * Find a {@link Node} with the ID_ATTRIBUTE specified in the attributes of the current element. If a node with this
+     * ID_ATTRIBUTE does not exist, create it. Finally, set the appropriate properties of the (found or newly created)
+     * node.
      *
-     * @param event the {@link XMLEvent} currently handled. Contains the attributes necessary for the creation of a
-     *              node.
+     * @param tag the tag of the element currently handled, a class or an interface.
      * @return the created/found {@link Node}.
      */
-    private Node findOrcreateNode(XMLEvent event) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String id = attributes.get(ID_ATTRIBUTE);
+    private Node findOrcreateNode(Tag tag) {
+        final String id = getAttribute(ID_ATTRIBUTE);
         if (id != null) {
-            Node node = nodes.get(id);
+            Node node = symbols.getNode(id);
             if (node == null) {
                 node = new Node(id);
             }
-            return addNodeProperties(node, event);
+            return addNodeProperties(node, tag);
         }
         return null;
     }
@@ -324,26 +342,24 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
     /**
      * Set the properties of a {@link Node}, including the name, visibility, type and abstractness.
      *
-     * @param node  the {@link Node} to be handled
-     * @param event currently handled, containing the necessary attributes.
+     * @param node the {@link Node} to be handled
+     * @param tag  the tag of the element currently handled, a class or an interface.
      * @return the newly updated {@link Node}
      */
-    private Node addNodeProperties(Node node, XMLEvent event) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String name = attributes.get(NAME_ATTRIBUTE);
-        final Set<NodeType> types = determineNodeTypes(event);
-        final Visibility visibility = Visibility.valueOfIgnoreCase(attributes.get(VISIBILITY_ATTRIBUTE));
+    private Node addNodeProperties(Node node, Tag tag) {
+        final String name = getAttribute(NAME_ATTRIBUTE);
+        final Set<NodeType> types = determineNodeTypes(tag);
+        final Visibility visibility = Visibility.valueOfIgnoreCase(getAttribute(VISIBILITY_ATTRIBUTE));
         node.setName(name);
         node.setVisibility(visibility);
         types.forEach(t -> node.addType(t));
         return node;
     }
 
-    private Set<NodeType> determineNodeTypes(XMLEvent event) {
+    private Set<NodeType> determineNodeTypes(Tag tag) {
     	final Set<NodeType> types = new HashSet<>();
-        final String typeString = getStartElementNameLocalPart(event).toUpperCase();
-        final boolean isAbstract = Boolean.parseBoolean(readAttributes(event).get(IS_ABSTRACT_ATTRIBUTE));
-        if (typeString.equals("CLASS")) {
+        final boolean isAbstract = Boolean.parseBoolean(getAttribute(IS_ABSTRACT_ATTRIBUTE));
+        if (tag == Tag.CLASS) {
             if (isAbstract) {
             	types.add(NodeType.ABSTRACT_CLASS);
             	types.add(NodeType.ABSTRACT_CLASS_OR_INTERFACE);
@@ -351,7 +367,7 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
             	types.add(NodeType.CONCRETE_CLASS);
             }
         }
-        if (typeString.equals("INTERFACE")) {
+        if (tag == Tag.INTERFACE) {
         	types.add(NodeType.INTERFACE);
         	types.add(NodeType.ABSTRACT_CLASS_OR_INTERFACE);
         }
@@ -359,22 +375,20 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
     }
 
     /**
-     * Find a {@link Node} of the type DATATYPE_TAG with the ID_ATTRIBUTE specified in the attributes of the given event.
-     * If a node with this ID_ATTRIBUTE does not exist, create it.
+     * Find a {@link Node} of the type DATATYPE_TAG with the ID_ATTRIBUTE specified in the attributes of the current
+     * element. If a node with this ID_ATTRIBUTE does not exist, create it.
      * Finally, set the appropriate properties of the (found or newly created) node.
      *
-     * @param event the {@link XMLEvent} currently handled. Contains the attributes necessary for the creation of a node.
      * @return the created of found {@link Node}
      */
-    private Node findOrCreateDatatypeNode(XMLEvent event) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String id = attributes.get(HREF_ATTRIBUTE);
+    private Node findOrCreateDatatypeNode() {
+        final String id = getAttribute(HREF_ATTRIBUTE);
         Node node = null;
         if (id != null) {
-            node = nodes.get(id);
+            node = symbols.getNode(id);
             if (node == null) {
                 node = new Node(id);
-                node = addDataTypeProperties(node, event);
+                node = addDataTypeProperties(node, id);
             }
         }
         return node;
@@ -383,12 +397,12 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
     /**
      * Set the properties of a {@link Node} of the {@link NodeType#DATATYPE}, including the name, visibility, and type.
      *
-     * @param node  the {@link Node} to be handled
-     * @param event currently handled, containing the necessary attributes.
+     * @param node the {@link Node} to be handled
+     * @param href the reference to the datatype.
      * @return the newly updated {@link Node}
      */
-    private Node addDataTypeProperties(Node node, XMLEvent event) {
-        final String typeId = Util.inverseSubstringOf(readAttributes(event).get(HREF_ATTRIBUTE), 3);
+    private Node addDataTypeProperties(Node node, String href) {
+        final String typeId = Util.inverseSubstringOf(href, 3);
         node.setName(typeMap.get(typeId));
         node.setVisibility(Visibility.PUBLIC);
         node.addType(NodeType.DATATYPE);
@@ -396,86 +410,66 @@ public class ArgoUMLNodeParser extends ArgoUMLAbstractParser {
     }
 
     /**
-     * Create a new node attribute with the name and visibility specified in the event's attributes.
+     * Create a new node attribute with the name and visibility specified in the current element's attributes.
      * The type is not set. The attribute is added to the {@code parentNode}.
      *
-     * @param event      the {@link XMLEvent} containing the name and type in its attributes.
      * @param parentNode the node to add the attribute to
      */
-    private void createIncompleteAttribute(XMLEvent event, Node parentNode) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String id = attributes.get(ID_ATTRIBUTE);
-        final String name = attributes.get(NAME_ATTRIBUTE);
-        final Visibility visibility = Visibility.valueOfIgnoreCase(attributes.get(VISIBILITY_ATTRIBUTE));
+    private void createIncompleteAttribute(Node parentNode) {
+        final String id = getAttribute(ID_ATTRIBUTE);
+        final String name = getAttribute(NAME_ATTRIBUTE);
+        final Visibility visibility = Visibility.valueOfIgnoreCase(getAttribute(VISIBILITY_ATTRIBUTE));
         final nl.ou.dpd.domain.node.Attribute attr = new nl.ou.dpd.domain.node.Attribute(id, parentNode);
         attr.setName(name);
         attr.setVisibility(visibility);
+        if (parentNode != null) {
+            symbols.addAttribute(attr);
+        }
     }
 
     /**
-     * Create a new method 'in'-parameter with the name asspecified in the event's attributes.
+     * Create a new method 'in'-parameter with the name asspecified in the current element's attributes.
      * The type is not set. The parameter is added to the specified operation.
      *
-     * @param event     the {@link XMLEvent} containing the name and type in its attributes.
      * @param operation the {@link Operation} to add the parameter to.
      */
-    private void createIncompleteParameter(XMLEvent event, Operation operation) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String id = attributes.get(ID_ATTRIBUTE);
-        final String name = attributes.get(NAME_ATTRIBUTE);
+    private void createIncompleteParameter(Operation operation) {
+        final String id = getAttribute(ID_ATTRIBUTE);
+        final String name = getAttribute(NAME_ATTRIBUTE);
         final Parameter parameter = new Parameter(id, operation);
         parameter.setName(name);
+        if (operation != null) {
+            symbols.addParameter(parameter);
+        }
     }
 
     /**
-     * Create a new node operation with the name, type and visibility specified in the event's attributes.
+     * Create a new node operation with the name, type and visibility specified in the current element's attributes.
      * ReturnType and parameters are not set. The operation is added to the specified parentNode.
      *
-     * @param event      the {@link XMLEvent} containing the name and type in its attributes.
      * @param parentNode the {@link Node} to add the {@link Operation} to
      */
-    private void createIncompleteOperation(XMLEvent event, Node parentNode) {
-        final Map<String, String> attributes = readAttributes(event);
-        final String id = attributes.get(ID_ATTRIBUTE);
-        final String name = attributes.get(NAME_ATTRIBUTE);
-        final Visibility visibility = Visibility.valueOfIgnoreCase(attributes.get(VISIBILITY_ATTRIBUTE));
+    private void createIncompleteOperation(Node parentNode) {
+        final String id = getAttribute(ID_ATTRIBUTE);
+        final String name = getAttribute(NAME_ATTRIBUTE);
+        final Visibility visibility = Visibility.valueOfIgnoreCase(getAttribute(VISIBILITY_ATTRIBUTE));
         final Operation operation = new Operation(id, parentNode);
         operation.setName(name).setVisibility(visibility);
+        if (parentNode != null) {
+            symbols.addOperation(operation);
+        }
     }
 
     private nl.ou.dpd.domain.node.Attribute findAttributeById(String id) {
-        for (Node n : nodes.values()) {
-            for (nl.ou.dpd.domain.node.Attribute a : n.getAttributes()) {
-                if (id.equals(a.getId())) {
-                    return a;
-                }
-            }
-        }
-        return null;
+        return symbols.getAttribute(id);
     }
 
     private Operation findOperationById(String id) {
-        for (Node n : nodes.values()) {
-            for (Operation op : n.getOperations()) {
-                if (id.equals(op.getId())) {
-                    return op;
-                }
-            }
-        }
-        return null;
+        return symbols.getOperation(id);
     }
 
     private Parameter findParameterById(String id) {
-        for (Node n : nodes.values()) {
-            for (Operation op : n.getOperations()) {
-                for (Parameter param : op.getParameters()) {
-                    if (id.equals(param.getId())) {
-                        return param;
-                    }
-                }
-            }
-        }
-        return null;
+        return symbols.getParameter(id);
     }
 
 }
@@ -2,11 +2,25 @@ package nl.ou.dpd.parsing;
 
 import nl.ou.dpd.domain.SystemUnderConsideration;
 
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * A parser for ArgoUML export files (*.xmi). This parser creates an instance of {@link SystemUnderConsideration}
  * containing the information extracted from the ArgoUML export file.
+ * <p>
+ * In single-pass mode, the file is read only once: the {@link ArgoUMLNodeParser} collects the nodes, and the elements the
+ * {@link ArgoUMLRelationParser} needs are recorded meanwhile. The recorded elements are handled afterwards, when all
+ * nodes are known, so references to nodes further on in the file are resolved. Otherwise, the file is read twice, once
+ * by each parser. Both modes result in the same {@link SystemUnderConsideration}.
+ * <p>
+ * The model can be read from a file, a {@link URL} or an {@link InputStream}. Compressed models, like ArgoUML projects
+ * (*.zargo) or gzipped exports (*.xmi.gz), are decompressed on the fly (see {@link XmiSource}).
+ <p>
+ * An {@link ArgoUMLParser} keeps the state of the file being parsed, so it must not be used by several threads at once.
+ * Use a {@link ParsingService} to parse files in parallel.
  *
  * @author Peter Vansweevelt
  * @author Martin de Boer
@@ -19,10 +33,11 @@ public class ArgoUMLParser {
     private final ArgoUMLNodeParser nodeparser;
     private final ArgoUMLRelationParser relationparser;
     private final SystemRelationsExtractor systemRelationsExtractor;
+    private final boolean singlePass;
 
     /**
      * Creates a (compound) parser, consisting of the specified {@link ArgoUMLNodeParser}, {@link ArgoUMLRelationParser}
-     * and {@link SystemRelationsExtractor}.
+     * and {@link SystemRelationsExtractor}, that reads the input file twice.
      * <p>
      * This constructor has package protected access so it can only be instantiated from within the same package (by the
      * ParserFactory or in a unit test in the same package).
@@ -35,29 +50,94 @@ public class ArgoUMLParser {
             ArgoUMLNodeParser nodeparser,
             ArgoUMLRelationParser relationparser,
             SystemRelationsExtractor systemRelationsExtractor) {
+        this(nodeparser, relationparser, systemRelationsExtractor, false);
+    }
+
+    /**
+     * Creates a (compound) parser, consisting of the specified {@link ArgoUMLNodeParser}, {@link ArgoUMLRelationParser}
+     * and {@link SystemRelationsExtractor}.
+     * <p>
+     * This constructor has package protected access so it can only be instantiated from within the same package (by the
+     * ParserFactory or in a unit test in the same package).
+     *
+     * @param nodeparser               a parser for the nodes in the ArgoUML input xmi
+     * @param relationparser           a parser for the relations in the ArgoUML input xmi
+     * @param systemRelationsExtractor the system relation extractor performing a kind of post-parsing
+     * @param singlePass               {@code true} if the input file is to be read once, or {@code false} if it is to
+     *                                 be read by each parser separately
+     */
+    ArgoUMLParser(
+            ArgoUMLNodeParser nodeparser,
+            ArgoUMLRelationParser relationparser,
+            SystemRelationsExtractor systemRelationsExtractor,
+            boolean singlePass) {
         this.nodeparser = nodeparser;
         this.relationparser = relationparser;
         this.systemRelationsExtractor = systemRelationsExtractor;
+        this.singlePass = singlePass;
     }
 
     /**
-     * Parses an xmi file with the specified {@code xmiUrl}.
+     * Parses an xmi file with the specified {@code xmiUrl}. The file may be compressed (see {@link XmiSource}).
      *
      * @param xmiUrl the url of the file to be parsed.
      * @return a new {@link SystemUnderConsideration}.
      */
     public SystemUnderConsideration parse(URL xmiUrl) {
-        return this.parse(xmiUrl.getPath());
+        return this.parse(XmiSource.of(xmiUrl));
     }
 
     /**
-     * Parses an xmi file with the specified {@code xmiFileName}.
+     * Parses an xmi file with the specified {@code xmiFileName}. The file may be compressed (see {@link XmiSource}).
      *
      * @param xmiFilename the name of the file to be parsed.
      * @return a new {@link SystemUnderConsideration}.
      */
     public SystemUnderConsideration parse(String xmiFilename) {
-        return systemRelationsExtractor.execute(relationparser.parse(xmiFilename, nodeparser.parse(xmiFilename)));
+        return this.parse(Paths.get(xmiFilename));
+    }
+
+    /**
+     * Parses an xmi file with the specified {@code xmiPath}. The file may be compressed (see {@link XmiSource}).
+     *
+     * @param xmiPath the path of the file to be parsed.
+     * @return a new {@link SystemUnderConsideration}.
+     */
+    public SystemUnderConsideration parse(Path xmiPath) {
+        return this.parse(XmiSource.of(xmiPath));
+    }
+
+    /**
+     * Parses an xmi read from the specified {@link InputStream}. The stream may be compressed (see {@link XmiSource}),
+     * and is closed when it has been read. Because the stream can be read only once, it is always parsed in a single
+     * pass.
+     *
+     * @param xmiStream the stream to be parsed.
+     * @param name      the name of the stream, used in messages.
+     * @return a new {@link SystemUnderConsideration}.
+     */
+    public SystemUnderConsideration parse(InputStream xmiStream, String name) {
+        return this.parse(XmiSource.of(xmiStream, name));
+    }
+
+    /**
+     * Parses the specified {@link XmiSource}. A source that cannot be reopened is always parsed in a single pass.
+     *
+     * @param source the source to be parsed.
+     * @return a new {@link SystemUnderConsideration}.
+     */
+    public SystemUnderConsideration parse(XmiSource source) {
+        if (singlePass || !source.isReopenable()) {
+            return systemRelationsExtractor.execute(parseInOnePass(source));
+        }
+        return systemRelationsExtractor.execute(relationparser.parse(source, nodeparser.parse(source)));
+    }
+
+    private SystemUnderConsideration parseInOnePass(XmiSource source) {
+        final SymbolTable symbols = new SymbolTable();
+        final ArgoUMLRelationParser.Recording recording = new ArgoUMLRelationParser.Recording();
+        nodeparser.parse(source, symbols, recording);
+        return relationparser.parse(source, recording, symbols);
     }
 
 }
@@ -9,16 +9,18 @@ import nl.ou.dpd.domain.relation.RelationType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.function.Consumer;
 
 /**
  * This class implements a parser for a xmi-file as generated by the ArgoUML-modeling tool (see
@@ -34,7 +36,7 @@ import java.util.Stack;
  * @author Peter Vansweevelt
  * @author Martin de Boer
  */
-public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
+public class ArgoUMLRelationParser extends ArgoUMLAbstractParser<ArgoUMLRelationParser.Tag> {
     private static final Logger LOGGER = LogManager.getLogger(ArgoUMLRelationParser.class);
 
     static final String REVERSED_POSTFIX = "-reversed";
@@ -50,6 +52,31 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
     private static final String LOWER_ATTRIBUTE = "lower";
     private static final String UPPER_ATTRIBUTE = "upper";
 
+    /**
+     * The XMI tags handled by this parser, with the XMI attributes this parser reads from them.
+     */
+    enum Tag {
+        MODEL(MODEL_TAG, ID_ATTRIBUTE, NAME_ATTRIBUTE),
+        CLASS(CLASS_TAG, IDREF_ATTRIBUTE),
+        INTERFACE(INTERFACE_TAG, IDREF_ATTRIBUTE),
+        ASSOCIATION(ASSOCIATION_TAG, ID_ATTRIBUTE, NAME_ATTRIBUTE),
+        ASSOCIATION_END(ASSOCIATION_END_TAG, IS_NAVIGABLE_ATTRIBUTE),
+        MULTIPLICITY_RANGE(MULTIPLICITY_RANGE_TAG, LOWER_ATTRIBUTE, UPPER_ATTRIBUTE),
+        ABSTRACTION(ABSTRACTION_TAG, ID_ATTRIBUTE, NAME_ATTRIBUTE),
+        DEPENDENCY(DEPENDENCY_TAG, ID_ATTRIBUTE, NAME_ATTRIBUTE),
+        GENERALIZATION(GENERALIZATION_TAG, ID_ATTRIBUTE, NAME_ATTRIBUTE);
+
+        private final String localName;
+        private final List<String> attributes;
+
+        Tag(String localName, String... attributes) {
+            this.localName = localName;
+            this.attributes = Arrays.asList(attributes);
+        }
+    }
+
+    private static final Map<String, Tag> TAGS = mapTags(Tag.values(), tag -> tag.localName);
+
     private static final Map<String, Set<RelationType>> RELATION_TYPE_BY_STRING_MAP = new HashMap<>();
 
     static {
@@ -59,16 +86,12 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
         RELATION_TYPE_BY_STRING_MAP.put(GENERALIZATION_TAG, new HashSet<>(Arrays.asList(RelationType.INHERITS_FROM, RelationType.INHERITS_FROM_OR_IMPLEMENTS)));
     }
 
-    private static final List<String> eventTags = Arrays.asList(new String[]{
-            MODEL_TAG, CLASS_TAG, INTERFACE_TAG, ASSOCIATION_TAG, ASSOCIATION_END_TAG,
-            MULTIPLICITY_RANGE_TAG, ABSTRACTION_TAG, DEPENDENCY_TAG, GENERALIZATION_TAG
-    });
-
     private Relation lastRelation; //holds the information of the last Relation.
     private SystemUnderConsideration system; // The system under consideration that will be returned.
     private Stack<Node> sourceAndTarget; // Keeps track of source and target vertices. If size is 2, an edge can be made.
     private Stack<Boolean> navigabilities; // Keeps track of the isNavigable attribute which determines directed or undirected associations.
     private Stack<Cardinality> cardinalities; // Keeps track of the cardinalities.
+    private Recording replaying; // The recording that is being replayed, if any.
 
     /**
      * A constructor expecting an {@link XMLInputFactory}.
@@ -76,65 +99,103 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
      * This constructor has package protected access so it can only be instantiated from within the same package (by the
      * ParserFactory or in a unit test in the same package).
      *
-     * @param xmlInputFactory used for instantiating {@link XMLEventReader}s processing XML files.
+     * @param xmlInputFactory used for instantiating {@link XMLStreamReader}s processing XML files.
      */
     ArgoUMLRelationParser(XMLInputFactory xmlInputFactory) {
-        super(xmlInputFactory);
+        super(xmlInputFactory, TAGS, null);
     }
 
     /**
-     * Parses an xmi file with the specified {@code filename}.
+     * Parses the specified {@link XmiSource}.
      *
-     * @param filename the name of the file to be parsed.
-     * @param nodes    the nodes that were parsed previously by the {@link ArgoUMLNodeParser}.
+     * @param source the source to be parsed.
+     * @param nodes  the nodes that were parsed previously by the {@link ArgoUMLNodeParser}.
      * @return a new {@link SystemUnderConsideration}.
      */
-    SystemUnderConsideration parse(String filename, Map<String, Node> nodes) {
+    SystemUnderConsideration parse(XmiSource source, Map<String, Node> nodes) {
         initParse(nodes);
-        doParse(filename);
-        LOGGER.info(String.format("Parsed %d relations from '%s'.", system.edgeSet().size(), filename));
+        try {
+            doParse(source);
+            return parsedSystem(source);
+        } finally {
+            clearParseState();
+        }
+    }
+
+    /**
+     * Builds a {@link SystemUnderConsideration} from the elements that were recorded while the
+     * {@link ArgoUMLNodeParser} parsed the specified {@link XmiSource}. Because all nodes are known when the elements
+     * are replayed, references to nodes that are declared further on in the source are resolved just like in
+     * {@link #parse(XmiSource, Map)}.
+     *
+     * @param source    the source the elements were read from.
+     * @param recording the recorded elements, in the order in which they were read.
+     * @param symbols   the symbol table filled by the {@link ArgoUMLNodeParser}. The relations are added to it.
+     * @return a new {@link SystemUnderConsideration}.
+     */
+    SystemUnderConsideration parse(XmiSource source, Recording recording, SymbolTable symbols) {
+        initParse(symbols);
+        replaying = recording;
+        try {
+            doReplay(source, () -> recording.replay(this));
+            return parsedSystem(source);
+        } finally {
+            clearParseState();
+        }
+    }
+
+    private SystemUnderConsideration parsedSystem(XmiSource source) {
+        LOGGER.info(String.format("Parsed %d relations from '%s'.", system.edgeSet().size(), source.getName()));
         return system;
     }
 
+    @Override
+    protected void clearParseState() {
+        super.clearParseState();
+        system = null;
+        lastRelation = null;
+        sourceAndTarget = null;
+        navigabilities = null;
+        cardinalities = null;
+        replaying = null;
+    }
+
     private void initParse(Map<String, Node> nodes) {
-        this.nodes = nodes;
+        initParse(new SymbolTable(nodes));
+    }
+
+    private void initParse(SymbolTable symbols) {
+        this.symbols = symbols;
         navigabilities = new Stack<>();
         sourceAndTarget = new Stack<>();
         cardinalities = new Stack<>();
     }
 
-    protected void handleStartElement(XMLEvent event) {
-        switch (getStartElementNameLocalPart(event)) {
-            case MODEL_TAG:
-                system = createSystem(event);
-                nodes.values().forEach(node -> system.addVertex(node));
-                events.push(event);
+    protected void handleStartElement(Tag tag) {
+        switch (tag) {
+            case MODEL:
+                system = createSystem();
+                symbols.getNodes().values().forEach(node -> system.addVertex(node));
                 break;
-            case CLASS_TAG:
-            case INTERFACE_TAG:
-                handleNodeEvent(event);
-                events.push(event);
+            case CLASS:
+            case INTERFACE:
+                handleNodeEvent();
                 break;
-            case ASSOCIATION_TAG:
-                handleAssociationEvent(event);
-                events.push(event);
+            case ASSOCIATION:
+                handleAssociationEvent(tag);
                 break;
-            case ABSTRACTION_TAG:
-            case GENERALIZATION_TAG:
-                handleInheritance(event);
-                events.push(event);
+            case ABSTRACTION:
+            case GENERALIZATION:
+                handleInheritance(tag);
                 break;
-            case ASSOCIATION_END_TAG:
-                handleAssociationEndEvent(event);
-                events.push(event);
+            case ASSOCIATION_END:
+                handleAssociationEndEvent();
                 break;
-            case DEPENDENCY_TAG:
-                handleDependencyEvent(event);
-                events.push(event);
+            case DEPENDENCY:
+                handleDependencyEvent();
                 break;
-            case MULTIPLICITY_RANGE_TAG:
-                handleMultiplicityRangeEvent(event);
-                events.push(event);
+            case MULTIPLICITY_RANGE:
+                handleMultiplicityRangeEvent();
                 break;
             default:
                 break;
@@ -142,41 +203,42 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
     }
 
     /**
-     * Remove an {@link XMLEvent} from the stack.
+     * Returns the value of an attribute of the element that is currently handled. While a {@link Recording} is
+     * replayed, the value is taken from the recording.
      *
-     * @param event the {@link XMLEvent} to remove.
+     * @param name the local name of the attribute.
+     * @return the value of the attribute, or {@code null} if the element does not have the attribute.
      */
-    protected void handleEndElement(XMLEvent event) {
-        if (eventTags.contains(event.asEndElement().getName().getLocalPart())) {
-            events.pop();
+    @Override
+    protected String getAttribute(String name) {
+        if (replaying != null) {
+            return replaying.getAttribute(name);
         }
+        return super.getAttribute(name);
     }
 
     /**
-     * Create a new {@link SystemUnderConsideration} with the id and name that are specified in the event.
+     * Create a new {@link SystemUnderConsideration} with the id and name that are specified in the current element.
      *
-     * @param event the {@link XMLEvent} that specifies the name and the id of the {@link SystemUnderConsideration}
-     * @return a new {@link SystemUnderConsideration} with the id and name specified in the event.
+     * @return a new {@link SystemUnderConsideration} with the id and name specified in the current element.
      */
-    private SystemUnderConsideration createSystem(XMLEvent event) {
-        final String id = readAttributes(event).get(ID_ATTRIBUTE);
-        final String name = readAttributes(event).get(NAME_ATTRIBUTE);
+    private SystemUnderConsideration createSystem() {
+        final String id = getAttribute(ID_ATTRIBUTE);
+        final String name = getAttribute(NAME_ATTRIBUTE);
         return new SystemUnderConsideration(id, name);
     }
 
     /**
      * Handles the attribute and Interface events, based on the event on level higher.
-     *
-     * @param event the {@link XMLEvent} to handle.
      */
-    private void handleNodeEvent(XMLEvent event) {
+    private void handleNodeEvent() {
         //look for the event one level higher
-        switch (getParentElementNameLocalPart()) {
-            case ASSOCIATION_END_TAG:
-            case ABSTRACTION_TAG:
-            case GENERALIZATION_TAG:
-            case DEPENDENCY_TAG:
-                setSourceOrTargetNode(event);
+        switch (getParentTag()) {
+            case ASSOCIATION_END:
+            case ABSTRACTION:
+            case GENERALIZATION:
+            case DEPENDENCY:
+                setSourceOrTargetNode();
                 break;
             default:
                 break;
@@ -186,33 +248,33 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
     /**
      * Find or create an {@link Relation} and add the {@link RelationType}.
      *
-     * @param event the {@link XMLEvent} containing the name and id in its attributes.
+     * @param tag the tag of the element, containing the name and id in its attributes.
      */
-    private void handleAssociationEvent(XMLEvent event) {
-        final String id = readAttributes(event).get(ID_ATTRIBUTE);
-        final String name = readAttributes(event).get(NAME_ATTRIBUTE);
+    private void handleAssociationEvent(Tag tag) {
+        final String id = getAttribute(ID_ATTRIBUTE);
+        final String name = getAttribute(NAME_ATTRIBUTE);
         lastRelation = findSystemRelationById(id);
         if (lastRelation == null) {
             lastRelation = createIncompleteRelation(id, name);
         }
-        final Set<RelationType> rts = findRelationTypesByString(getStartElementNameLocalPart(event));
-        rts.forEach(rt -> lastRelation.getRelationProperties().add(new RelationProperty(rt)));
+        final Set<RelationType> rts = findRelationTypesByString(tag.localName);
+        rts.forEach(rt -> lastRelation.addRelationProperty(new RelationProperty(rt)));
     }
 
     /**
      * Adds an inheritance, abstraction (realization) or generalization (inheritance)) relation to the system under
      * consideration.
      *
-     * @param event the {@link XMLEvent} that contains the id and name in its attributes.
+     * @param tag the tag of the element, that contains the id and name in its attributes.
      */
-    private void handleInheritance(XMLEvent event) {
-        if (MODEL_TAG.equals(getParentElementNameLocalPart())) {
-            final String id = readAttributes(event).get(ID_ATTRIBUTE);
-            final String name = readAttributes(event).get(NAME_ATTRIBUTE);
+    private void handleInheritance(Tag tag) {
+        if (getParentTag() == Tag.MODEL) {
+            final String id = getAttribute(ID_ATTRIBUTE);
+            final String name = getAttribute(NAME_ATTRIBUTE);
             lastRelation = createIncompleteRelation(id, name);
 
-            final Set<RelationType> rts = findRelationTypesByString(getStartElementNameLocalPart(event));
-            rts.forEach(rt -> lastRelation.getRelationProperties().add(new RelationProperty(rt)));
+            final Set<RelationType> rts = findRelationTypesByString(tag.localName);
+            rts.forEach(rt -> lastRelation.addRelationProperty(new RelationProperty(rt)));
         }
     }
 
@@ -222,42 +284,35 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
 
     /**
      * Keep track of the navigabilities of the association in order to find out if the association is directed.
-     *
-     * @param event the {@link XMLEvent} containing the necessary XML attributes
      */
-    private void handleAssociationEndEvent(XMLEvent event) {
+    private void handleAssociationEndEvent() {
         //association directed if first node !isNavigable and second node isNavigable
         //will be used when an association edge is created
-        navigabilities.push(Boolean.valueOf(readAttributes(event).get(IS_NAVIGABLE_ATTRIBUTE)));
+        navigabilities.push(Boolean.valueOf(getAttribute(IS_NAVIGABLE_ATTRIBUTE)));
     }
 
     /**
      * Find or create an {@link Relation} and add the {@link RelationType}.
-     *
-     * @param event the {@link XMLEvent} containing the necessary XML attributes
      */
-    private void handleDependencyEvent(XMLEvent event) {
-        if (CLASS_TAG.equals(getParentElementNameLocalPart())) {
-            final String id = readAttributes(event).get(ID_ATTRIBUTE);
-            final String name = readAttributes(event).get(NAME_ATTRIBUTE);
+    private void handleDependencyEvent() {
+        if (getParentTag() == Tag.CLASS) {
+            final String id = getAttribute(ID_ATTRIBUTE);
+            final String name = getAttribute(NAME_ATTRIBUTE);
             if (id != null && findSystemRelationById(id) == null) {
                 //create an incomplete relation if the relation does not exist yet
                 lastRelation = createIncompleteRelation(id, name);
-                lastRelation.getRelationProperties().add(new RelationProperty(RelationType.DEPENDS_ON));
+                lastRelation.addRelationProperty(new RelationProperty(RelationType.DEPENDS_ON));
             }
         }
     }
 
     /**
      * Sets the multiplicity of an association end.
-     *
-     * @param event the {@link XMLEvent} containing the necessary XML attributes
      */
-    private void handleMultiplicityRangeEvent(XMLEvent event) {
-        if (!events.empty() && getParentElementNameLocalPart().equals(ASSOCIATION_END_TAG)) {
-            final Map<String, String> attributes = readAttributes(event);
-            final int lower = Integer.parseInt(attributes.get(LOWER_ATTRIBUTE));
-            final int upper = Integer.parseInt(attributes.get(UPPER_ATTRIBUTE));
+    private void handleMultiplicityRangeEvent() {
+        if (getParentTag() == Tag.ASSOCIATION_END) {
+            final int lower = Integer.parseInt(getAttribute(LOWER_ATTRIBUTE));
+            final int upper = Integer.parseInt(getAttribute(UPPER_ATTRIBUTE));
             final RelationProperty rp = findRelationPropertyByType(lastRelation, RelationType.ASSOCIATES_WITH);
             if (rp != null) {
                 cardinalities.push(new Cardinality(lower, upper));
@@ -268,9 +323,9 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
         }
     }
 
-    private void setSourceOrTargetNode(XMLEvent event) {
-        final String idref = readAttributes(event).get(IDREF_ATTRIBUTE);
-        final Node node = nodes.get(idref);
+    private void setSourceOrTargetNode() {
+        final String idref = getAttribute(IDREF_ATTRIBUTE);
+        final Node node = symbols.getNode(idref);
         //add node to system (if new Node, e.g. datatype)
         system.addVertex(node);
         sourceAndTarget.push(node);
@@ -283,7 +338,9 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
         final Node targetNode = sourceAndTarget.pop();
         final Node sourceNode = sourceAndTarget.pop();
         boolean added = system.addEdge(sourceNode, targetNode, lastRelation);
-        if (!added) {
+        if (added) {
+            symbols.addRelation(lastRelation);
+        } else {
             //add the new relationproperties to the existing relation
             addRelationProperties(lastRelation, system.getEdge(sourceNode, targetNode));
         }
@@ -291,10 +348,7 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
     }
 
     private Relation findSystemRelationById(String id) {
-        return system.edgeSet().stream()
-                .filter(relation -> relation.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+        return symbols.getRelation(id);
     }
 
     /**
@@ -342,7 +396,9 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
                 originalRelationProperty.getCardinalityRight(),
                 originalRelationProperty.getCardinalityLeft());
         relation.addRelationProperty(relationProperty);
-        system.addEdge(originalTargetNode, originalSourceNode, relation);
+        if (system.addEdge(originalTargetNode, originalSourceNode, relation)) {
+            symbols.addRelation(relation);
+        }
         return relation;
     }
 
@@ -372,4 +428,58 @@ public class ArgoUMLRelationParser extends ArgoUMLAbstractParser {
                 .anyMatch(rp -> relationtype.equals(rp.getRelationType()));
     }
 
+    /**
+     * Records the elements handled by the {@link ArgoUMLRelationParser} while another parser reads a file, so that the
+     * relations can be parsed without reading the file again. Only the tags of the elements, and the values of the
+     * attributes the relation parser reads from them, are recorded.
+     */
+    static final class Recording implements Consumer<XMLStreamReader> {
+
+        private final List<Tag> tags = new ArrayList<>();
+        private final BitSet endElements = new BitSet();
+        private final List<String> values = new ArrayList<>();
+
+        private Tag currentTag;
+        private int currentOffset;
+
+        @Override
+        public void accept(XMLStreamReader reader) {
+            final Tag tag = TAGS.get(reader.getLocalName());
+            if (tag == null) {
+                return;
+            }
+            if (reader.isEndElement()) {
+                endElements.set(tags.size());
+            } else {
+                tag.attributes.forEach(attribute -> values.add(reader.getAttributeValue(null, attribute)));
+            }
+            tags.add(tag);
+        }
+
+        /**
+         * Lets the specified parser handle the recorded elements, in the order in which they were read.
+         *
+         * @param parser the parser handling the elements.
+         */
+        void replay(ArgoUMLRelationParser parser) {
+            int offset = 0;
+            for (int i = 0; i < tags.size(); i++) {
+                final Tag tag = tags.get(i);
+                if (endElements.get(i)) {
+                    parser.endElement(tag);
+                } else {
+                    currentTag = tag;
+                    currentOffset = offset;
+                    parser.startElement(tag);
+                    offset += tag.attributes.size();
+                }
+            }
+        }
+
+        private String getAttribute(String name) {
+            final int index = currentTag.attributes.indexOf(name);
+            return index < 0 ? null : values.get(currentOffset + index);
+        }
+    }
+
 }
@@ -0,0 +1,404 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.Operation;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.util.Util;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jgrapht.Graph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded, in-process cache of parsed system designs ({@link SystemUnderConsideration}s) and design pattern templates
+ * (lists of {@link DesignPattern}s). A parsed file is reused as long as its path and contents are unchanged, so that
+ * files are not parsed again for every analysis. A file whose size and modification time are unchanged is considered
+ * unchanged, without reading it. Otherwise, the contents of the file are hashed, so that a file that was only touched
+ * is not parsed again either. The hash is handed to the parser, so that it does not have to hash the file again (see
+ * {@link SystemSnapshotParser#parse(String, byte[])}).
+ * <p>
+ * The cache is bounded by the estimated heap size of its entries. When a new entry does not fit, the least recently
+ * used entries are evicted. Cached objects are shared between all callers, so they must not be modified. This is safe
+ * for {@link DesignPattern}s, because they do not keep the state of matching runs.
+ * <p>
+ * This class is thread-safe. Files are parsed outside the lock, so a slow parse does not block other lookups. A file
+ * that is requested while it is being parsed for another caller is not parsed again: the caller waits for the result
+ * of the parse in progress instead. That way, a file can be parsed in the background in advance, without parsing it
+ * twice if it is needed before the background parse has finished.
+ *
+ * @author Martin de Boer
+ */
+public class ParseCache {
+
+    private static final Logger LOGGER = LogManager.getLogger(ParseCache.class);
+
+    /**
+     * The default maximum of the estimated heap size of the cached entries, in bytes.
+     */
+    public static final long DEFAULT_MAX_HEAP_SIZE = 128L * 1024 * 1024;
+
+    // Rough estimates of the heap size of the parsed objects, in bytes, including their strings and collections.
+    private static final long GRAPH_SIZE = 1024;
+    private static final long NODE_SIZE = 512;
+    private static final long ATTRIBUTE_SIZE = 192;
+    private static final long OPERATION_SIZE = 256;
+    private static final long PARAMETER_SIZE = 160;
+    private static final long RELATION_SIZE = 384;
+
+    private static final String CACHE_HIT_MSG = "Reusing the parsed contents of file '%s'.";
+    private static final String CACHE_EVICTION_MSG = "Evicted the parsed contents of file '%s' from the cache.";
+    private static final String FILE_NOT_IDENTIFIED_MSG = "File '%s' could not be identified, and is not cached.";
+    private static final String PARSE_IN_PROGRESS_MSG = "Waiting for the parse of file '%s' in progress.";
+    private static final String PARSING_INTERRUPTED_MSG = "Waiting for the parse of file '%s' was interrupted.";
+    private static final String PARSING_FAILED_MSG = "The parsing of file '%s' failed.";
+
+    private enum Kind {
+        SYSTEM,
+        DESIGN_PATTERNS
+    }
+
+    private final long maxHeapSize;
+    private final BiFunction<String, byte[], SystemUnderConsideration> systemParser;
+    private final Function<String, List<DesignPattern>> designPatternsParser;
+
+    // An access-ordered map, so the least recently used entry comes first.
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long heapSize;
+    // The files that are being parsed
+    private final Map<Key, Parse> parses = new HashMap<>();
+
+    /**
+     * Constructs a {@link ParseCache} with the {@link #DEFAULT_MAX_HEAP_SIZE}, that parses files with the parsers
+     * created by the {@link ParserFactory}. System designs are read from their snapshot, if it is up-to-date (see
+     * {@link SystemSnapshotParser}).
+     */
+    public ParseCache() {
+        this(DEFAULT_MAX_HEAP_SIZE,
+                (path, hash) -> ParserFactory.createSystemSnapshotParser().parse(path, hash),
+                path -> ParserFactory.createPatternParser().parse(path));
+    }
+
+    /**
+     * Constructs a {@link ParseCache} with the specified maximum heap size and parsers.
+     *
+     * @param maxHeapSize          the maximum of the estimated heap size of the cached entries, in bytes.
+     * @param systemParser         parses a system design file.
+     * @param designPatternsParser parses a design pattern templates file.
+     */
+    public ParseCache(long maxHeapSize,
+                      Function<String, SystemUnderConsideration> systemParser,
+                      Function<String, List<DesignPattern>> designPatternsParser) {
+        this(maxHeapSize, (path, hash) -> systemParser.apply(path), designPatternsParser);
+    }
+
+    private ParseCache(long maxHeapSize,
+                       BiFunction<String, byte[], SystemUnderConsideration> systemParser,
+                       Function<String, List<DesignPattern>> designPatternsParser) {
+        this.maxHeapSize = maxHeapSize;
+        this.systemParser = systemParser;
+        this.designPatternsParser = designPatternsParser;
+    }
+
+    /**
+     * Returns the parsed system design in the file with the specified {@code path}. The file is only parsed if it is
+     * not cached, or if it was changed since it was cached.
+     *
+     * @param path the path of the system design file.
+     * @return the parsed {@link SystemUnderConsideration}, which must not be modified.
+     */
+    public SystemUnderConsideration getSystem(String path) {
+        return get(Kind.SYSTEM, path, systemParser, ParseCache::estimateHeapSize);
+    }
+
+    /**
+     * Returns the parsed design pattern templates in the file with the specified {@code path}. The file is only parsed
+     * if it is not cached, or if it was changed since it was cached.
+     *
+     * @param path the path of the design pattern templates file.
+     * @return an unmodifiable list of parsed {@link DesignPattern}s, which must not be modified.
+     */
+    public List<DesignPattern> getDesignPatterns(String path) {
+        return get(Kind.DESIGN_PATTERNS,
+                path,
+                (p, hash) -> Collections.unmodifiableList(designPatternsParser.apply(p)),
+                designPatterns -> designPatterns.stream().mapToLong(ParseCache::estimateHeapSize).sum());
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        heapSize = 0;
+    }
+
+    /**
+     * @return the number of cached files.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated heap size of the cached entries, in bytes.
+     */
+    public synchronized long getHeapSize() {
+        return heapSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Kind kind, String path, BiFunction<String, byte[], T> parser, ToLongFunction<T> estimator) {
+        FileVersion version = FileVersion.of(path);
+        if (version == null) {
+            LOGGER.warn(String.format(FILE_NOT_IDENTIFIED_MSG, path));
+            return parser.apply(path, null);
+        }
+
+        final Key key = new Key(kind, version.path);
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null && entry.version.isUnchanged(version)) {
+                LOGGER.info(String.format(CACHE_HIT_MSG, path));
+                return (T) entry.value;
+            }
+            final Parse inProgress = parses.get(key);
+            if (inProgress != null && inProgress.version.isUnchanged(version)) {
+                LOGGER.info(String.format(PARSE_IN_PROGRESS_MSG, path));
+                return (T) await(inProgress, path);
+            }
+        }
+
+        // The file is hashed outside the lock, and only if its size or modification time have changed
+        version = version.withHash();
+        if (version == null) {
+            LOGGER.warn(String.format(FILE_NOT_IDENTIFIED_MSG, path));
+            return parser.apply(path, null);
+        }
+
+        final byte[] hash = version.hash;
+        final Parse parse;
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null && entry.version.hasSameContents(version)) {
+                // The file was touched, but not changed
+                LOGGER.info(String.format(CACHE_HIT_MSG, path));
+                entry.version = version;
+                return (T) entry.value;
+            }
+            final Parse inProgress = parses.get(key);
+            if (inProgress != null && inProgress.version.hasSameContents(version)) {
+                LOGGER.info(String.format(PARSE_IN_PROGRESS_MSG, path));
+                return (T) await(inProgress, path);
+            }
+            parse = new Parse(version, () -> parser.apply(path, hash));
+            parses.put(key, parse);
+        }
+
+        try {
+            parse.run();
+            final T value = (T) await(parse, path);
+            put(key, new Entry(version, value, estimator.applyAsLong(value)));
+            return value;
+        } finally {
+            synchronized (this) {
+                parses.remove(key, parse);
+            }
+        }
+    }
+
+    private Object await(Parse parse, String path) {
+        try {
+            return parse.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParseException(String.format(PARSING_INTERRUPTED_MSG, path), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new ParseException(String.format(PARSING_FAILED_MSG, path), e.getCause());
+        }
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        final Entry previous = entries.remove(key);
+        if (previous != null) {
+            heapSize -= previous.heapSize;
+        }
+        if (entry.heapSize > maxHeapSize) {
+            return;
+        }
+        entries.put(key, entry);
+        heapSize += entry.heapSize;
+
+        final Iterator<Map.Entry<Key, Entry>> leastRecentlyUsed = entries.entrySet().iterator();
+        while (heapSize > maxHeapSize) {
+            final Map.Entry<Key, Entry> evicted = leastRecentlyUsed.next();
+            heapSize -= evicted.getValue().heapSize;
+            leastRecentlyUsed.remove();
+            LOGGER.info(String.format(CACHE_EVICTION_MSG, evicted.getKey().path));
+        }
+    }
+
+    private static long estimateHeapSize(Graph<Node, Relation> graph) {
+        long size = GRAPH_SIZE + graph.edgeSet().size() * RELATION_SIZE;
+        for (Node node : graph.vertexSet()) {
+            size += NODE_SIZE + node.getAttributes().size() * ATTRIBUTE_SIZE;
+            for (Operation operation : node.getOperations()) {
+                size += OPERATION_SIZE + operation.getParameters().size() * PARAMETER_SIZE;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * The key of a cached entry: the kind of contents, and the absolute path of the file.
+     */
+    private static final class Key {
+        private final Kind kind;
+        private final Path path;
+
+        private Key(Kind kind, Path path) {
+            this.kind = kind;
+            this.path = path;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return kind == key.kind && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, path);
+        }
+    }
+
+    /**
+     * A parse in progress, together with the version of the file that is being parsed.
+     */
+    private static final class Parse extends FutureTask<Object> {
+        private final FileVersion version;
+
+        private Parse(FileVersion version, Callable<Object> parser) {
+            super(parser);
+            this.version = version;
+        }
+    }
+
+    /**
+     * A cached entry, together with the version of the file it was parsed from.
+     */
+    private static final class Entry {
+        // Replaced by the current version when the file was touched, but not changed
+        private FileVersion version;
+        private final Object value;
+        private final long heapSize;
+
+        private Entry(FileVersion version, Object value, long heapSize) {
+            this.version = version;
+            this.value = value;
+            this.heapSize = heapSize;
+        }
+    }
+
+    /**
+     * Identifies the contents of a file by its path, size and modification time, and optionally its content hash.
+     */
+    private static final class FileVersion {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+        private final byte[] hash;
+
+        private FileVersion(Path path, long size, long lastModified, byte[] hash) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        /**
+         * Determines the current version of the file with the specified {@code path}, without hashing its contents.
+         *
+         * @param path the path of the file.
+         * @return the current version of the file, or {@code null} if it cannot be read.
+         */
+        static FileVersion of(String path) {
+            try {
+                final Path absolutePath = Paths.get(path).toAbsolutePath().normalize();
+                final long size = Files.size(absolutePath);
+                final long lastModified = Files.getLastModifiedTime(absolutePath).toMillis();
+                return new FileVersion(absolutePath, size, lastModified, null);
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Hashes the contents of the file.
+         *
+         * @return this version, together with the hash of the current contents of the file, or {@code null} if the
+         * file cannot be read.
+         */
+        FileVersion withHash() {
+            try {
+                return new FileVersion(path, size, lastModified, Util.hash(path));
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Checks whether the size and modification time of the file are unchanged. A file that is changed without
+         * changing its size, within the resolution of the modification time, is considered unchanged.
+         *
+         * @param current the current version of the file.
+         * @return {@code true} if the file is unchanged, or {@code false} otherwise.
+         */
+        boolean isUnchanged(FileVersion current) {
+            return size == current.size && lastModified == current.lastModified && path.equals(current.path);
+        }
+
+        /**
+         * Checks whether the contents of the file are unchanged, according to their hash.
+         *
+         * @param current the current version of the file, with its hash.
+         * @return {@code true} if the contents are unchanged, or {@code false} otherwise.
+         */
+        boolean hasSameContents(FileVersion current) {
+            return hash != null && Arrays.equals(hash, current.hash) && path.equals(current.path);
+        }
+    }
+
+}
@@ -1,7 +1,10 @@
 package nl.ou.dpd.parsing;
 
+import org.xml.sax.SAXException;
+
 import javax.xml.XMLConstants;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 
 /**
@@ -11,6 +14,12 @@ import javax.xml.validation.SchemaFactory;
  */
 public class ParserFactory {
 
+    private static final String PATTERNS_XSD = "/patterns.xsd";
+    private static final String PATTERNS_XSD_COULD_NOT_BE_COMPILED_MSG = "The XSD schema for design pattern templates could not be compiled.";
+
+    // The compiled XSD schema for design pattern templates. A Schema is thread-safe, and is compiled only once.
+    private static Schema patternsSchema;
+
     /**
      * Private constructor, because this is a utility class.
      */
@@ -19,26 +28,60 @@ public class ParserFactory {
 
     /**
      * Creates an {@link ArgoUMLParser}, consisting of an {@link ArgoUMLNodeParser}, an {@link ArgoUMLRelationParser}
-     * and a {@link SystemRelationsExtractor}.
+     * and a {@link SystemRelationsExtractor}, that reads its input files in a single pass.
      *
      * @return the created {@link ArgoUMLParser}
      */
     public static ArgoUMLParser createArgoUMLParser() {
+        return createArgoUMLParser(true);
+    }
+
+    /**
+     * Creates an {@link ArgoUMLParser}, consisting of an {@link ArgoUMLNodeParser}, an {@link ArgoUMLRelationParser}
+     * and a {@link SystemRelationsExtractor}.
+     *
+     * @param singlePass {@code true} if the parser is to read its input files in a single pass, or {@code false} if
+     *                   they are to be read by the node parser and the relation parser separately
+     * @return the created {@link ArgoUMLParser}
+     */
+    public static ArgoUMLParser createArgoUMLParser(boolean singlePass) {
         final ArgoUMLNodeParser nodeParser = new ArgoUMLNodeParser(XMLInputFactory.newInstance());
         final ArgoUMLRelationParser relationParser = new ArgoUMLRelationParser(XMLInputFactory.newInstance());
         final SystemRelationsExtractor systemRelationsExtractor = new SystemRelationsExtractor();
-        return new ArgoUMLParser(nodeParser, relationParser, systemRelationsExtractor);
+        return new ArgoUMLParser(nodeParser, relationParser, systemRelationsExtractor, singlePass);
     }
 
     /**
-     * Creates a {@link PatternsParser} having a {@link SchemaFactory} (for XSD validation) and an
-     * {@link XMLInputFactory} for creating an XML input stream.
+     * Creates a {@link SystemSnapshotParser}, that reads a system design from its snapshot if the snapshot is
+     * up-to-date, and parses the xmi file with a single-pass {@link ArgoUMLParser} otherwise.
+     *
+     * @return the created {@link SystemSnapshotParser}
+     */
+    public static SystemSnapshotParser createSystemSnapshotParser() {
+        return new SystemSnapshotParser(createArgoUMLParser());
+    }
+
+    /**
+     * Creates a {@link PatternsParser} having a compiled XSD {@link Schema} (for XSD validation) and an
+     * {@link XMLInputFactory} for creating an XML input stream. The schema is compiled the first time a
+     * {@link PatternsParser} is created, and is shared by all {@link PatternsParser}s created afterwards.
      *
      * @return the created {@link PatternsParser}
      */
     public static PatternsParser createPatternParser() {
-        final SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
         final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
-        return new PatternsParser(schemaFactory, xmlInputFactory);
+        return new PatternsParser(getPatternsSchema(), xmlInputFactory);
+    }
+
+    private static synchronized Schema getPatternsSchema() {
+        if (patternsSchema == null) {
+            final SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            try {
+                patternsSchema = schemaFactory.newSchema(ParserFactory.class.getResource(PATTERNS_XSD));
+            } catch (SAXException e) {
+                throw new ParseException(PATTERNS_XSD_COULD_NOT_BE_COMPILED_MSG, e);
+            }
+        }
+        return patternsSchema;
     }
 }
@@ -0,0 +1,143 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * A thread-safe service for parsing ArgoUML export files (*.xmi), that parses many files at the same time.
+ * <p>
+ * An {@link ArgoUMLParser} keeps the state of the file it is parsing in its (node and relation) parsers, so it cannot
+ * be used by several threads at once. This service therefore lends every parse a parser of its own: a parser is taken
+ * from a pool of idle parsers (or created if there is none), and returned to the pool when the file has been parsed.
+ * The pool is bounded, and belongs to the service, so parsers are not pinned to (long-lived) threads. A parser
+ * releases the state of the file it parsed before it is returned. The files of a batch are parsed as separate tasks
+ * on an {@link ExecutorService}. By default, the {@link ForkJoinPool#commonPool()} is used.
+ *
+ * @author Martin de Boer
+ */
+public class ParsingService {
+
+    private static final Logger LOGGER = LogManager.getLogger(ParsingService.class);
+
+    private static final String PARSING_INTERRUPTED_MSG = "The parsing of XMI file '%s' was interrupted.";
+    private static final String PARSING_FAILED_MSG = "The parsing of XMI file '%s' failed.";
+
+    private final ExecutorService executor;
+    private final Supplier<ArgoUMLParser> parserFactory;
+    // The parsers that are not in use. Parsers returned to a full pool are left to the garbage collector.
+    private final BlockingQueue<ArgoUMLParser> idleParsers =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Constructs a new {@link ParsingService} that runs its tasks on the {@link ForkJoinPool#commonPool()}, and parses
+     * files with single-pass parsers created by the {@link ParserFactory}.
+     */
+    public ParsingService() {
+        this(ForkJoinPool.commonPool(), ParserFactory::createArgoUMLParser);
+    }
+
+    /**
+     * Constructs a new {@link ParsingService} that runs its tasks on the specified {@link ExecutorService}, and parses
+     * files with parsers obtained from the specified {@code parserFactory}. The factory is called whenever a file is
+     * to be parsed while no idle parser is available, and must return a new parser every time. The caller remains
+     * responsible for shutting down the executor.
+     *
+     * @param executor      the {@link ExecutorService} to run the parsing tasks on.
+     * @param parserFactory creates a new {@link ArgoUMLParser}.
+     */
+    public ParsingService(ExecutorService executor, Supplier<ArgoUMLParser> parserFactory) {
+        this.executor = executor;
+        this.parserFactory = parserFactory;
+    }
+
+    /**
+     * Parses the specified {@link XmiSource} in the calling thread, with an idle parser of this service.
+     *
+     * @param source the source to be parsed.
+     * @return a new {@link SystemUnderConsideration}.
+     */
+    public SystemUnderConsideration parse(XmiSource source) {
+        ArgoUMLParser parser = idleParsers.poll();
+        if (parser == null) {
+            parser = parserFactory.get();
+        }
+        try {
+            return parser.parse(source);
+        } finally {
+            idleParsers.offer(parser);
+        }
+    }
+
+    /**
+     * Parses the xmi files with the specified {@code paths} in parallel (see {@link #parseAll(List)}).
+     *
+     * @param paths the paths of the files to be parsed.
+     * @return the parsed {@link SystemUnderConsideration}s, in the order of {@code paths}.
+     */
+    public List<SystemUnderConsideration> parseAllPaths(List<Path> paths) {
+        return parseAll(paths.stream().map(XmiSource::of).collect(Collectors.toList()));
+    }
+
+    /**
+     * Parses the specified {@link XmiSource}s in parallel. This method returns when all of them have been parsed. If
+     * a source cannot be parsed, the exception of the first failing source (in the order of {@code sources}) is
+     * rethrown.
+     *
+     * @param sources the sources to be parsed.
+     * @return the parsed {@link SystemUnderConsideration}s, in the order of {@code sources}.
+     */
+    public List<SystemUnderConsideration> parseAll(List<XmiSource> sources) {
+        final List<Callable<SystemUnderConsideration>> tasks = sources.stream()
+                .map(source -> (Callable<SystemUnderConsideration>) () -> parse(source))
+                .collect(Collectors.toList());
+
+        final List<Future<SystemUnderConsideration>> futures;
+        try {
+            futures = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw parseException(PARSING_INTERRUPTED_MSG, sources.get(0), e);
+        }
+
+        final List<SystemUnderConsideration> systems = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            systems.add(getResult(futures.get(i), sources.get(i)));
+        }
+        return systems;
+    }
+
+    private SystemUnderConsideration getResult(Future<SystemUnderConsideration> future, XmiSource source) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw parseException(PARSING_INTERRUPTED_MSG, source, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw parseException(PARSING_FAILED_MSG, source, e.getCause());
+        }
+    }
+
+    private ParseException parseException(String format, XmiSource source, Throwable cause) {
+        final String msg = String.format(format, source.getName());
+        LOGGER.error(msg, cause);
+        return new ParseException(msg, cause);
+    }
+
+}
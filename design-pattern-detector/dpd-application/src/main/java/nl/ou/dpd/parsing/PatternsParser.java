@@ -13,24 +13,18 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.xml.sax.SAXException;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.XMLEvent;
-import javax.xml.transform.stream.StreamSource;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
-import javax.xml.validation.Validator;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -40,7 +34,7 @@ import java.util.Set;
  *
  * @author Martin de Boer
  */
-public class PatternsParser {
+public class PatternsParser extends AbstractStreamParser<PatternsParser.Tag> {
 
     private static final Logger LOGGER = LogManager.getLogger(PatternsParser.class);
 
@@ -60,6 +54,26 @@ public class PatternsParser {
     private static final String CARDINALITY_LEFT = "cardinalityLeft";
     private static final String CARDINALITY_RIGHT = "cardinalityRight";
 
+    /**
+     * The XML tags handled by this parser.
+     */
+    enum Tag {
+        PATTERN(PatternsParser.PATTERN),
+        NOTE(PatternsParser.NOTE),
+        NODE(PatternsParser.NODE),
+        NODE_RULE(PatternsParser.NODE_RULE),
+        RELATION(PatternsParser.RELATION),
+        RELATION_RULE(PatternsParser.RELATION_RULE);
+
+        private final String localName;
+
+        Tag(String localName) {
+            this.localName = localName;
+        }
+    }
+
+    private static final Map<String, Tag> TAGS = mapTags(Tag.values(), tag -> tag.localName);
+
     private static final Cardinality DEFAULT_CARDINALITY = Cardinality.valueOf("1");
 
     static final String PATTERN_TEMPLATE_FILE_COULD_NOT_BE_PARSED_LONG_MSG = "The design pattern template file '%s' could not be parsed.";
@@ -71,31 +85,31 @@ public class PatternsParser {
     private Node node;
     private Relation relation;
 
-    private final SchemaFactory xsdSchemaFactory;
-    private final XMLInputFactory xmlInputFactory;
+    private final Schema xsdSchema;
 
     /**
-     * A constructor expecting a {@link SchemaFactory} and an {@link XMLInputFactory} a parameter.
+     * A constructor expecting a compiled XSD {@link Schema} and an {@link XMLInputFactory} a parameter.
      * <p>
      * This constructor has protected access so it can only be instantiated from within the same package (by the
      * ParserFactory or in a unit test in the same package).
      *
-     * @param xsdSchemaFactory used for instantiating an XSD validator for validation of XML files.
-     * @param xmlInputFactory  used for instantiating an {@link XMLEventReader} for processing XML files.
+     * @param xsdSchema       the XSD schema, used for instantiating a validator for validation of XML files.
+     * @param xmlInputFactory used for instantiating an {@link XMLStreamReader} for processing XML files.
      */
-    protected PatternsParser(SchemaFactory xsdSchemaFactory, XMLInputFactory xmlInputFactory) {
-        this.xsdSchemaFactory = xsdSchemaFactory;
-        this.xmlInputFactory = xmlInputFactory;
+    protected PatternsParser(Schema xsdSchema, XMLInputFactory xmlInputFactory) {
+        super(xmlInputFactory, TAGS, null);
+        this.xsdSchema = xsdSchema;
     }
 
+    /**
+     * Parses the XML file with the specified {@code xmlFilename}. The file is validated against the XSD schema while
+     * it is parsed, so it is read only once.
+     *
+     * @param xmlFilename the name of the file to be parsed.
+     * @return a list of {@link DesignPattern}s.
+     */
     public List<DesignPattern> parse(String xmlFilename) {
-        final URL xsdUrl = PatternsParser.class.getResource("/patterns.xsd");
-        return parse(xmlFilename, xsdUrl);
-    }
-
-    private List<DesignPattern> parse(String xmlFilename, URL xsdUrl) {
         try {
-            validate(xmlFilename, xsdUrl);
             doParse(xmlFilename);
         } catch (ParseException pe) {
             // We don't need to repackage a ParseException in a ParseException.
@@ -108,74 +122,58 @@ public class PatternsParser {
         return designPatterns;
     }
 
-    private void doParse(String xmlFilename) throws IOException, XMLStreamException {
+    private void doParse(String xmlFilename) throws IOException, XMLStreamException, SAXException {
         try (final InputStream input = new FileInputStream(new File(xmlFilename))) {
-            final XMLEventReader eventReader = xmlInputFactory.createXMLEventReader(input);
-            handleEvents(eventReader);
-        } catch (Exception ex) {
-            throw ex;
-        }
-    }
-
-    private void validate(String xmlFilename, URL xsdUrl) throws IOException, SAXException {
-        final Schema schema = xsdSchemaFactory.newSchema(xsdUrl);
-        final Validator validator = schema.newValidator();
-        try (final InputStream stream = new FileInputStream(new File(xmlFilename))) {
-            validator.validate(new StreamSource(stream));
+            parse(input, xsdSchema.newValidator());
         } catch (Exception ex) {
             throw ex;
         }
     }
 
-    private void handleEvents(XMLEventReader eventReader) throws XMLStreamException {
-        while (eventReader.hasNext()) {
-            handleEvent(eventReader.nextEvent(), eventReader);
-        }
-    }
-
-    private void handleEvent(XMLEvent event, XMLEventReader eventReader) throws XMLStreamException {
-        if (event.isStartElement()) {
-            handleStartElement(event, eventReader);
-        }
-    }
-
-    private void handleStartElement(XMLEvent event, XMLEventReader eventReader) throws XMLStreamException {
-        switch (event.asStartElement().getName().getLocalPart()) {
+    protected void handleStartElement(Tag tag) {
+        switch (tag) {
             case PATTERN:
-                handlePatternStartElement(event);
+                handlePatternStartElement();
                 break;
             case NOTE:
-                designPattern.addNote(eventReader.getElementText());
+                collectText();
                 break;
             case NODE:
-                handleNodeStartElement(event);
+                handleNodeStartElement();
                 break;
             case NODE_RULE:
-                handleNodeRuleStartElement(event);
+                handleNodeRuleStartElement();
                 break;
             case RELATION:
-                handleRelationStartElement(event);
+                handleRelationStartElement();
                 break;
             case RELATION_RULE:
-                handleRelationRuleStartElement(event);
+                handleRelationRuleStartElement();
                 break;
             default:
                 break;
         }
     }
 
-    private void handlePatternStartElement(XMLEvent event) {
+    @Override
+    protected void handleEndElement(Tag tag) {
+        if (tag == Tag.NOTE) {
+            designPattern.addNote(getCollectedText());
+        }
+    }
+
+    private void handlePatternStartElement() {
         this.nodes = new HashSet<>();
-        this.designPattern = new DesignPattern(getAttributeFromEvent(event, NAME), getAttributeFromEvent(event, FAMILY));
+        this.designPattern = new DesignPattern(getAttribute(NAME), getAttribute(FAMILY));
         this.designPatterns.add(designPattern);
         this.designPattern
-                .setNodeComparator(NodeComparatorFactory.createCompoundNodeComparator())
-                .setRelationComparator(RelationComparatorFactory.createCompoundRelationComparator());
+                .setNodeComparator(() -> NodeComparatorFactory.createCompoundNodeComparator())
+                .setRelationComparator(() -> RelationComparatorFactory.createCompoundRelationComparator());
     }
 
-    private void handleNodeStartElement(XMLEvent event) {
-        final String name = getAttributeFromEvent(event, NAME);
-        final String id = getAttributeFromEvent(event, ID);
+    private void handleNodeStartElement() {
+        final String name = getAttribute(NAME);
+        final String id = getAttribute(ID);
         if (name == null || name.isEmpty()) {
             node = new Node(id, id);
         } else {
@@ -184,9 +182,9 @@ public class PatternsParser {
         nodes.add(node);
     }
 
-    private void handleRelationStartElement(XMLEvent event) {
-        final Node source = getNodeById(getAttributeFromEvent(event, NODE_1));
-        final Node target = getNodeById(getAttributeFromEvent(event, NODE_2));
+    private void handleRelationStartElement() {
+        final Node source = getNodeById(getAttribute(NODE_1));
+        final Node target = getNodeById(getAttribute(NODE_2));
 
         if (!designPattern.containsEdge(source, target)) {
             final String name = String.format("%s-%s", source.getName(), target.getName());
@@ -201,27 +199,23 @@ public class PatternsParser {
 
     /**
      * A node.rule element in the XML is converted to a node type in the {@link DesignPattern} object.
-     *
-     * @param event the XML event of the rule element
      */
-    private void handleNodeRuleStartElement(XMLEvent event) {
-        node.addType(NodeType.valueOf(getAttributeFromEvent(event, NODE_TYPE)));
+    private void handleNodeRuleStartElement() {
+        node.addType(NodeType.valueOf(getAttribute(NODE_TYPE)));
     }
 
     /**
      * A relation.rule element in the XML is converted to a relation characteristic in the {@link DesignPattern} object.
-     *
-     * @param event the XML event of the rule element
      */
-    private void handleRelationRuleStartElement(XMLEvent event) {
-        final RelationType type = RelationType.valueOf(getAttributeFromEvent(event, RELATION_TYPE));
-        final Cardinality cardinalityLeft = getCardinality(event, CARDINALITY_LEFT);
-        final Cardinality cardinalityRight = getCardinality(event, CARDINALITY_RIGHT);
+    private void handleRelationRuleStartElement() {
+        final RelationType type = RelationType.valueOf(getAttribute(RELATION_TYPE));
+        final Cardinality cardinalityLeft = getCardinality(CARDINALITY_LEFT);
+        final Cardinality cardinalityRight = getCardinality(CARDINALITY_RIGHT);
         relation.addRelationProperty(new RelationProperty(type, cardinalityLeft, cardinalityRight));
     }
 
-    private Cardinality getCardinality(XMLEvent event, String elementName) {
-        final String elementValue = getAttributeFromEvent(event, elementName);
+    private Cardinality getCardinality(String elementName) {
+        final String elementValue = getAttribute(elementName);
         if (elementValue == null) {
             return DEFAULT_CARDINALITY;
         } else {
@@ -236,17 +230,6 @@ public class PatternsParser {
                 .orElse(null);
     }
 
-    private String getAttributeFromEvent(XMLEvent event, String attributeName) {
-        final Iterator<Attribute> attrIterator = event.asStartElement().getAttributes();
-        while (attrIterator.hasNext()) {
-            final Attribute a = attrIterator.next();
-            if (a.getName().getLocalPart().equals(attributeName)) {
-                return a.getValue();
-            }
-        }
-        return null;
-    }
-
     private void error(String longMsg, String shortMsg, Exception cause) {
         LOGGER.error(longMsg);
         throw new ParseException(shortMsg, cause);
@@ -0,0 +1,109 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.node.Attribute;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.Operation;
+import nl.ou.dpd.domain.node.Parameter;
+import nl.ou.dpd.domain.relation.Relation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A symbol table containing the elements parsed from an XMI file, keyed by their id (the xmi.id). It is filled while
+ * the elements are created, and shared by the {@link ArgoUMLNodeParser} and the {@link ArgoUMLRelationParser}, so
+ * every reference (xmi.idref) is resolved in constant time, rather than by searching all the parsed elements.
+ * <p>
+ * The {@link Node}s are kept apart, because they are the result of the {@link ArgoUMLNodeParser}. All other kinds of
+ * elements share one map, because ids are unique within an XMI file. When an id occurs more than once, the element
+ * that was added first is kept.
+ *
+ * @author Martin de Boer
+ */
+final class SymbolTable {
+
+    private final Map<String, Node> nodes;
+    private final Map<String, Object> elements = new HashMap<>();
+
+    /**
+     * Creates an empty symbol table.
+     */
+    SymbolTable() {
+        this(new HashMap<>());
+    }
+
+    /**
+     * Creates a symbol table containing the specified, previously parsed, nodes.
+     *
+     * @param nodes a map of {@link Node}s, with the node id as key. The map is used (and filled) by the symbol table.
+     */
+    SymbolTable(Map<String, Node> nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * Returns the nodes in this symbol table.
+     *
+     * @return a map of {@link Node}s, with the node id as key.
+     */
+    Map<String, Node> getNodes() {
+        return nodes;
+    }
+
+    Node getNode(String id) {
+        return nodes.get(id);
+    }
+
+    /**
+     * Adds a node to the symbol table. A node with the same id is replaced.
+     *
+     * @param node the {@link Node} to add.
+     */
+    void addNode(Node node) {
+        nodes.put(node.getId(), node);
+    }
+
+    Attribute getAttribute(String id) {
+        return get(id, Attribute.class);
+    }
+
+    void addAttribute(Attribute attribute) {
+        add(attribute.getId(), attribute);
+    }
+
+    Operation getOperation(String id) {
+        return get(id, Operation.class);
+    }
+
+    void addOperation(Operation operation) {
+        add(operation.getId(), operation);
+    }
+
+    Parameter getParameter(String id) {
+        return get(id, Parameter.class);
+    }
+
+    void addParameter(Parameter parameter) {
+        add(parameter.getId(), parameter);
+    }
+
+    Relation getRelation(String id) {
+        return get(id, Relation.class);
+    }
+
+    void addRelation(Relation relation) {
+        add(relation.getId(), relation);
+    }
+
+    private void add(String id, Object element) {
+        if (id != null) {
+            elements.putIfAbsent(id, element);
+        }
+    }
+
+    private <T> T get(String id, Class<T> kind) {
+        final Object element = id == null ? null : elements.get(id);
+        return kind.isInstance(element) ? kind.cast(element) : null;
+    }
+
+}
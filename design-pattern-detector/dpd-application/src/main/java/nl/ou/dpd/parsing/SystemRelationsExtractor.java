@@ -5,10 +5,22 @@ import nl.ou.dpd.domain.node.Attribute;
 import nl.ou.dpd.domain.node.Node;
 import nl.ou.dpd.domain.node.Operation;
 import nl.ou.dpd.domain.node.Parameter;
+import nl.ou.dpd.domain.node.SignatureFingerprint;
 import nl.ou.dpd.domain.relation.Relation;
 import nl.ou.dpd.domain.relation.RelationProperty;
 import nl.ou.dpd.domain.relation.RelationType;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 /**
  * This class extracts extra {@link Relation}s out of a {@link SystemUnderConsideration}, which are not explicitly in
  * the Class diagram. This step is the final part of the parsing process of an ArgoUML export file. Previous steps are
@@ -16,6 +28,14 @@ import nl.ou.dpd.domain.relation.RelationType;
  * <p>
  * Relations can be added, based on {@link Attribute}s or based on {@link Operation}s that are present in a
  * {@link Node}.
+ * <p>
+ * The extraction takes two steps. First, the relations to be added or updated are derived for every node separately,
+ * without modifying the system. For large systems, this is done in parallel. The outgoing relations of a node are
+ * indexed by their target, and an operation overrides a method of the target of a relation if the target has an
+ * operation with the same signature, which is looked up in an index of the operations of the target by their
+ * signature fingerprint (see {@link SignatureFingerprint}). Then, the derived relations are merged into the system,
+ * one node after the other, in the order of the nodes in the system. Because the merge is sequential, the result does
+ * not depend on the number of threads.
  *
  * @author Peter Vansweevelt
  * @author Martin de Boer
@@ -24,10 +44,18 @@ import nl.ou.dpd.domain.relation.RelationType;
  */
 public class SystemRelationsExtractor {
 
-    private SystemUnderConsideration system;
-
     static final String SYSTEM_RELATION_PREFIX = "SystemRelation";
 
+    // The minimum number of nodes for deriving the relations in parallel (on the common pool, if it has more than one
+    // thread). Smaller systems are not worth the overhead.
+    private static final int PARALLEL_THRESHOLD = 1000;
+    // The minimum number of operations of a node for indexing them by their signature. A few operations are scanned.
+    private static final int SIGNATURE_INDEX_THRESHOLD = 8;
+
+    private SystemUnderConsideration system;
+    // The operations of a node grouped by their signature fingerprint, for nodes having many operations
+    private Map<Node, Map<Long, List<Operation>>> signatureIndex;
+
     /**
      * This constructor has package protected access so it can only be instantiated from within the same package (by the
      * ParserFactory or in a unit test in the same package).
@@ -37,114 +65,144 @@ public class SystemRelationsExtractor {
 
     SystemUnderConsideration execute(SystemUnderConsideration system) {
         this.system = system;
-        for (Node node : system.vertexSet()) {
-            exploreAttributesRelations(node);
-            exploreOperationsRelations(node);
+        this.signatureIndex = new ConcurrentHashMap<>();
+        try {
+            final List<Node> nodes = system.vertexSet().stream()
+                    .filter(node -> !node.getAttributes().isEmpty() || !node.getOperations().isEmpty())
+                    .collect(Collectors.toList());
+            final boolean parallel =
+                    nodes.size() >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+            final Stream<Node> derivation = parallel ? nodes.parallelStream() : nodes.stream();
+            final List<List<DerivedRelation>> derivedRelations = derivation
+                    .map(this::deriveRelations)
+                    .collect(Collectors.toList());
+            derivedRelations.forEach(this::merge);
+            return system;
+        } finally {
+            // The extractor is reused for many systems, and must not keep the last one reachable
+            this.system = null;
+            this.signatureIndex = null;
         }
-        return this.system;
     }
 
-    private void exploreAttributesRelations(Node node) {
-        for (Attribute attr : node.getAttributes()) {
-            updateOrCreateAttributeRelation(attr);
+    /**
+     * Derives the relations to be added or updated for the specified {@link Node}, in the order in which they are to be
+     * merged into the system. This method does not modify the system, so it can be called for several nodes at once.
+     */
+    private List<DerivedRelation> deriveRelations(Node node) {
+        final List<DerivedRelation> derivedRelations = new ArrayList<>();
+        // The outgoing relations of the node by their target. The targets of the relations derived so far are added
+        // as well, without a relation, because the relation may not be created until the merge.
+        final Map<Node, Relation> relations = new LinkedHashMap<>();
+        for (Relation relation : system.outgoingEdgesOf(node)) {
+            relations.put(system.getEdgeTarget(relation), relation);
         }
-    }
-
-    private void updateOrCreateAttributeRelation(Attribute attribute) {
-    	if (attribute.getType() != null) {
-	        Relation relation = system.getEdge(attribute.getParentNode(), attribute.getType());
-	        if (relation == null) {
-	            relation = createSystemAttributeRelation(attribute);
-	        }
-	        relation.addRelationProperty(new RelationProperty(RelationType.HAS_ATTRIBUTE_OF));
-	        addEdge(attribute, relation);
-    	}
-    }
-
-    private Relation createSystemAttributeRelation(Attribute attribute) {
-        final Node parentNode = attribute.getParentNode();
-        final String relationId = String.format("%s-%s-%s", SYSTEM_RELATION_PREFIX, parentNode.getId(), attribute.getId());
-
-        final Node type = attribute.getType();
-        final String typeName = type.getName();
-        final String relationName = String.format("%s-%s (%s)", parentNode.getName(), typeName, attribute.getName());
-
-        return new Relation(relationId, relationName);
-    }
 
-    private void exploreOperationsRelations(Node node) {
+        for (Attribute attribute : node.getAttributes()) {
+            if (attribute.getType() != null) {
+                derive(derivedRelations, relations, node, attribute.getParentNode(), attribute.getType(),
+                        RelationType.HAS_ATTRIBUTE_OF, attribute.getId(), attribute.getName());
+            }
+        }
         for (Operation operation : node.getOperations()) {
-            updateOrCreateInputParameterRelation(operation);
-            updateOrCreateReturnValueRelation(operation);
-            updateOverrideRelation(node, operation);
+            for (Parameter parameter : operation.getParameters()) {
+                if (parameter.getType() != null) {
+                    derive(derivedRelations, relations, node, operation.getParentNode(), parameter.getType(),
+                            RelationType.HAS_METHOD_PARAMETER_OF_TYPE, operation.getId(), operation.getName());
+                }
+            }
+            if (operation.getReturnType() != null) {
+                derive(derivedRelations, relations, node, operation.getParentNode(), operation.getReturnType(),
+                        RelationType.HAS_METHOD_RETURNTYPE, operation.getId(), operation.getName());
+            }
+            for (Map.Entry<Node, Relation> relation : relations.entrySet()) {
+                if (hasSameSignatureOperation(relation.getKey(), operation)) {
+                    derivedRelations.add(new DerivedRelation(node, relation.getKey(), relation.getValue(),
+                            RelationType.OVERRIDES_METHOD_OF, null, null));
+                }
+            }
         }
+        return derivedRelations;
     }
 
-    private void updateOverrideRelation(Node node, Operation operation) {
-        //for all outgoing edges of node, look if the operation signature of the source equals the signature of the target
-        for (Relation relation : system.outgoingEdgesOf(node)) {
-            boolean hasOverrideOperation = containsSameSignatureOperation(relation, operation);
-            if (hasOverrideOperation) {
-                relation.addRelationProperty(new RelationProperty(RelationType.OVERRIDES_METHOD_OF));
-            }
+    private void derive(List<DerivedRelation> derivedRelations, Map<Node, Relation> relations, Node node, Node source,
+                        Node target, RelationType relationType, String elementId, String elementName) {
+        final Relation relation = source == node ? relations.get(target) : null;
+        derivedRelations.add(new DerivedRelation(source, target, relation, relationType, elementId, elementName));
+        if (source == node && !relations.containsKey(target)) {
+            relations.put(target, null);
         }
     }
 
-    private boolean containsSameSignatureOperation(Relation relation, Operation operation) {
-        return system.getEdgeTarget(relation).getOperations().stream()
+    private boolean hasSameSignatureOperation(Node target, Operation operation) {
+        final Set<Operation> targetOperations = target.getOperations();
+        final long fingerprint = operation.getSignatureFingerprint();
+        if (targetOperations.size() < SIGNATURE_INDEX_THRESHOLD || !SignatureFingerprint.isDecisive(fingerprint)) {
+            return targetOperations.stream().anyMatch(targetOperation -> targetOperation.equalsSignature(operation));
+        }
+        final Map<Long, List<Operation>> index =
+                signatureIndex.computeIfAbsent(target, SystemRelationsExtractor::indexSignatures);
+        return Stream.concat(
+                index.getOrDefault(fingerprint, Collections.emptyList()).stream(),
+                index.getOrDefault(SignatureFingerprint.AMBIGUOUS, Collections.emptyList()).stream())
                 .anyMatch(targetOperation -> targetOperation.equalsSignature(operation));
     }
 
-    private void updateOrCreateInputParameterRelation(Operation operation) {
-        for (Parameter param : operation.getParameters()) {
-            final Node paramType = param.getType();
-            if (paramType != null) {
-	            Relation relation = system.getEdge(operation.getParentNode(), paramType);
-	            if (relation == null) {
-                    relation = createSystemOperationRelation(operation, paramType);
-	            }
-	            relation.addRelationProperty(new RelationProperty(RelationType.HAS_METHOD_PARAMETER_OF_TYPE));
-	            addEdge(operation, param, relation);
-        	}
-        }
+    private static Map<Long, List<Operation>> indexSignatures(Node node) {
+        return node.getOperations().stream().collect(Collectors.groupingBy(
+                operation -> SignatureFingerprint.getGroupKey(operation.getSignatureFingerprint())));
     }
 
-    private void updateOrCreateReturnValueRelation(Operation operation) {
-        if (operation.getReturnType() != null) {
-            Relation relation = system.getEdge(operation.getParentNode(), operation.getReturnType());
+    private void merge(List<DerivedRelation> derivedRelations) {
+        for (DerivedRelation derivedRelation : derivedRelations) {
+            Relation relation = derivedRelation.relation;
             if (relation == null) {
-                relation = createSystemOperationRelation(operation, operation.getReturnType());
+                // The relation may have been created for a previous derived relation
+                relation = system.getEdge(derivedRelation.source, derivedRelation.target);
+            }
+            if (relation != null) {
+                relation.addRelationProperty(new RelationProperty(derivedRelation.relationType));
+            } else {
+                relation = createSystemRelation(derivedRelation);
+                relation.addRelationProperty(new RelationProperty(derivedRelation.relationType));
+                system.addEdge(derivedRelation.source, derivedRelation.target, relation);
             }
-            relation.addRelationProperty(new RelationProperty(RelationType.HAS_METHOD_RETURNTYPE));
-            addEdge(operation, relation);
         }
     }
 
-    private Relation createSystemOperationRelation(Operation operation, Node type) {
-        final Node parentNode = operation.getParentNode();
-        final String relationId = String.format("%s-%s-%s", SYSTEM_RELATION_PREFIX, parentNode.getId(), operation.getId());
-        final String typeName = type.getName();
-        final String relationName = String.format("%s-%s (%s)", parentNode.getName(), typeName, operation.getName());
+    private Relation createSystemRelation(DerivedRelation derivedRelation) {
+        final Node parentNode = derivedRelation.source;
+        final String relationId = String.format("%s-%s-%s",
+                SYSTEM_RELATION_PREFIX, parentNode.getId(), derivedRelation.elementId);
+        final String typeName = derivedRelation.target.getName();
+        final String relationName = String.format("%s-%s (%s)",
+                parentNode.getName(), typeName, derivedRelation.elementName);
 
         return new Relation(relationId, relationName);
     }
 
-    private void addEdge(Attribute attr, Relation relation) {
-        Node source = attr.getParentNode();
-        Node target = attr.getType();
-        system.addEdge(source, target, relation);
-    }
-
-    private void addEdge(Operation operation, Parameter parameter, Relation relation) {
-        Node source = operation.getParentNode();
-        Node target = parameter.getType();
-        system.addEdge(source, target, relation);
-    }
-
-    private void addEdge(Operation operation, Relation relation) {
-        Node source = operation.getParentNode();
-        Node target = operation.getReturnType();
-        system.addEdge(source, target, relation);
+    /**
+     * A relation to be added to the system, or a property to be added to an existing relation.
+     */
+    private static final class DerivedRelation {
+        private final Node source;
+        private final Node target;
+        // The existing relation between source and target, if it was known when the relation was derived
+        private final Relation relation;
+        private final RelationType relationType;
+        // The id and name of the attribute or operation the relation is derived from
+        private final String elementId;
+        private final String elementName;
+
+        private DerivedRelation(Node source, Node target, Relation relation, RelationType relationType,
+                                String elementId, String elementName) {
+            this.source = source;
+            this.target = target;
+            this.relation = relation;
+            this.relationType = relationType;
+            this.elementId = elementId;
+            this.elementName = elementName;
+        }
     }
 
 }
@@ -0,0 +1,398 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Attribute;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.node.Operation;
+import nl.ou.dpd.domain.node.Parameter;
+import nl.ou.dpd.domain.node.Visibility;
+import nl.ou.dpd.domain.relation.Cardinality;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import nl.ou.dpd.domain.relation.RelationType;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes and reads binary snapshots of parsed {@link SystemUnderConsideration}s, so that a system design does not have
+ * to be parsed and extracted again when it is reopened. A snapshot contains the nodes with their types, attributes,
+ * operations and parameters, and the relations with their properties and cardinalities. It is read into a heap
+ * {@link ByteBuffer} at once. The file is not mapped into memory, because a mapping is only released when its buffer is
+ * garbage collected, and on Windows a mapped file cannot be replaced or deleted until then.
+ * <p>
+ * A snapshot consists of the following parts (all numbers are big-endian):
+ * <ol>
+ * <li>A header: the {@link #MAGIC} number, the {@link #VERSION} of the format, and the hash of the contents of the file
+ * the system was parsed from (see {@link nl.ou.dpd.util.Util#hash(Path)}), so stale snapshots can be recognized.</li>
+ * <li>A string table. All strings (ids and names) are stored only once, and referred to by their index. The index
+ * {@code -1} stands for {@code null}.</li>
+ * <li>The id and name of the system.</li>
+ * <li>The nodes: the vertices of the system, in the order of the graph, followed by any other nodes used as a type.
+ * Nodes are referred to by their index.</li>
+ * <li>The members of each node: its attributes and its operations with their parameters.</li>
+ * <li>The relations, in the order of the graph, with the indices of their source and target node.</li>
+ * </ol>
+ * Snapshots of another version are not read, so the format can be changed by incrementing the {@link #VERSION}.
+ *
+ * @author Martin de Boer
+ */
+public final class SystemSnapshot {
+
+    /**
+     * Identifies a snapshot file ("DPDS").
+     */
+    public static final int MAGIC = 0x44504453;
+
+    /**
+     * The version of the snapshot format.
+     */
+    public static final int VERSION = 1;
+
+    private static final int NULL = -1;
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    /**
+     * Private constructor, because this is a utility class.
+     */
+    private SystemSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the specified {@link SystemUnderConsideration} to the file with the specified {@code path}.
+     * The snapshot is written to a temporary file first, and then moved, so a snapshot is never read partially.
+     *
+     * @param system     the system to write.
+     * @param sourceHash the hash of the contents of the file the system was parsed from.
+     * @param path       the path of the snapshot file.
+     * @throws IOException if the snapshot could not be written.
+     */
+    public static void write(SystemUnderConsideration system, byte[] sourceHash, Path path) throws IOException {
+        final Path tempFile = path.resolveSibling(path.getFileName() + TEMP_FILE_SUFFIX);
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+            new Writer(system).write(sourceHash, output);
+        }
+        try {
+            Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a snapshot from the file with the specified {@code path}.
+     *
+     * @param path       the path of the snapshot file.
+     * @param sourceHash the hash of the current contents of the file the system was parsed from.
+     * @return the {@link SystemUnderConsideration} in the snapshot, or {@code null} if there is no snapshot, or if the
+     * snapshot has another version or was made of other contents.
+     * @throws IOException if the snapshot could not be read, or is corrupt.
+     */
+    public static SystemUnderConsideration read(Path path, byte[] sourceHash) throws IOException {
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(String.format("Snapshot '%s' is too large.", path));
+            }
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // Read until the buffer is full, or the end of the file is reached
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        buffer.flip();
+        try {
+            return new Reader(buffer).read(sourceHash);
+        } catch (RuntimeException e) {
+            throw new IOException(String.format("Snapshot '%s' is corrupt.", path), e);
+        }
+    }
+
+    /**
+     * Writes a system to a stream. The string table can only be written when all strings are known, so the rest of the
+     * snapshot is written to a buffer first.
+     */
+    private static final class Writer {
+        private final SystemUnderConsideration system;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final List<String> stringTable = new ArrayList<>();
+        private final Map<Node, Integer> nodes = new IdentityHashMap<>();
+        private final List<Node> nodeTable = new ArrayList<>();
+
+        private Writer(SystemUnderConsideration system) {
+            this.system = system;
+        }
+
+        private void write(byte[] sourceHash, OutputStream output) throws IOException {
+            final ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+            final DataOutputStream body = new DataOutputStream(bodyBytes);
+            writeSystem(body);
+            body.flush();
+
+            final DataOutputStream out = new DataOutputStream(output);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sourceHash.length);
+            out.write(sourceHash);
+            out.writeInt(stringTable.size());
+            for (String string : stringTable) {
+                final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            bodyBytes.writeTo(out);
+            out.flush();
+        }
+
+        private void writeSystem(DataOutputStream out) throws IOException {
+            out.writeInt(indexOf(system.getId()));
+            out.writeInt(indexOf(system.getName()));
+
+            system.vertexSet().forEach(this::indexOf);
+            // Nodes that are used as a type are added while the table is traversed
+            for (int i = 0; i < nodeTable.size(); i++) {
+                indexTypesOf(nodeTable.get(i));
+            }
+
+            out.writeInt(nodeTable.size());
+            for (Node node : nodeTable) {
+                out.writeInt(indexOf(node.getId()));
+                out.writeInt(indexOf(node.getName()));
+                out.writeLong(node.getTypeMask());
+                out.writeByte(ordinalOf(node.getVisibility()));
+                out.writeBoolean(system.containsVertex(node));
+            }
+            for (Node node : nodeTable) {
+                writeMembers(node, out);
+            }
+
+            out.writeInt(system.edgeSet().size());
+            for (Relation relation : system.edgeSet()) {
+                writeRelation(relation, out);
+            }
+        }
+
+        private void indexTypesOf(Node node) {
+            for (Attribute attribute : node.getAttributes()) {
+                indexOf(attribute.getType());
+            }
+            for (Operation operation : node.getOperations()) {
+                indexOf(operation.getReturnType());
+                for (Parameter parameter : operation.getParameters()) {
+                    indexOf(parameter.getType());
+                }
+            }
+        }
+
+        private void writeMembers(Node node, DataOutputStream out) throws IOException {
+            out.writeInt(node.getAttributes().size());
+            for (Attribute attribute : node.getAttributes()) {
+                out.writeInt(indexOf(attribute.getId()));
+                out.writeInt(indexOf(attribute.getName()));
+                out.writeInt(indexOf(attribute.getType()));
+                out.writeByte(ordinalOf(attribute.getVisibility()));
+            }
+            out.writeInt(node.getOperations().size());
+            for (Operation operation : node.getOperations()) {
+                out.writeInt(indexOf(operation.getId()));
+                out.writeInt(indexOf(operation.getName()));
+                out.writeInt(indexOf(operation.getReturnType()));
+                out.writeByte(ordinalOf(operation.getVisibility()));
+                out.writeInt(operation.getParameters().size());
+                for (Parameter parameter : operation.getParameters()) {
+                    out.writeInt(indexOf(parameter.getId()));
+                    out.writeInt(indexOf(parameter.getName()));
+                    out.writeInt(indexOf(parameter.getType()));
+                }
+            }
+        }
+
+        private void writeRelation(Relation relation, DataOutputStream out) throws IOException {
+            out.writeInt(indexOf(system.getEdgeSource(relation)));
+            out.writeInt(indexOf(system.getEdgeTarget(relation)));
+            out.writeInt(indexOf(relation.getId()));
+            out.writeInt(indexOf(relation.getName()));
+            out.writeInt(relation.getRelationProperties().size());
+            for (RelationProperty property : relation.getRelationProperties()) {
+                out.writeByte(property.getRelationType().ordinal());
+                writeCardinality(property.getCardinalityLeft(), out);
+                writeCardinality(property.getCardinalityRight(), out);
+            }
+        }
+
+        private void writeCardinality(Cardinality cardinality, DataOutputStream out) throws IOException {
+            out.writeBoolean(cardinality != null);
+            if (cardinality != null) {
+                out.writeInt(cardinality.getLower());
+                out.writeInt(cardinality.getUpper());
+            }
+        }
+
+        private int indexOf(String string) {
+            if (string == null) {
+                return NULL;
+            }
+            return strings.computeIfAbsent(string, s -> {
+                stringTable.add(s);
+                return stringTable.size() - 1;
+            });
+        }
+
+        private int indexOf(Node node) {
+            if (node == null) {
+                return NULL;
+            }
+            return nodes.computeIfAbsent(node, n -> {
+                nodeTable.add(n);
+                return nodeTable.size() - 1;
+            });
+        }
+
+        private static int ordinalOf(Enum<?> value) {
+            return value == null ? NULL : value.ordinal();
+        }
+    }
+
+    /**
+     * Reads a system from a buffer.
+     */
+    private static final class Reader {
+        private static final NodeType[] NODE_TYPES = NodeType.values();
+        private static final Visibility[] VISIBILITIES = Visibility.values();
+        private static final RelationType[] RELATION_TYPES = RelationType.values();
+
+        private final ByteBuffer buffer;
+        private String[] strings;
+        private Node[] nodes;
+
+        private Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private SystemUnderConsideration read(byte[] sourceHash) {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            final byte[] hash = new byte[buffer.getInt()];
+            buffer.get(hash);
+            if (!Arrays.equals(hash, sourceHash)) {
+                return null;
+            }
+
+            strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                final byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            final SystemUnderConsideration system = new SystemUnderConsideration(readString(), readString());
+            nodes = new Node[buffer.getInt()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = readNode(system);
+            }
+            for (Node node : nodes) {
+                readMembers(node);
+            }
+            final int relationCount = buffer.getInt();
+            for (int i = 0; i < relationCount; i++) {
+                readRelation(system);
+            }
+            return system;
+        }
+
+        private Node readNode(SystemUnderConsideration system) {
+            final Node node = new Node(readString(), readString());
+            final long typeMask = buffer.getLong();
+            for (NodeType type : NODE_TYPES) {
+                if ((typeMask & type.getMask()) != 0) {
+                    node.addType(type);
+                }
+            }
+            node.setVisibility(readVisibility());
+            if (buffer.get() != 0) {
+                system.addVertex(node);
+            }
+            return node;
+        }
+
+        private void readMembers(Node node) {
+            final int attributeCount = buffer.getInt();
+            for (int i = 0; i < attributeCount; i++) {
+                new Attribute(readString(), node)
+                        .setName(readString())
+                        .setType(readNode())
+                        .setVisibility(readVisibility());
+            }
+            final int operationCount = buffer.getInt();
+            for (int i = 0; i < operationCount; i++) {
+                final Operation operation = new Operation(readString(), node)
+                        .setName(readString())
+                        .setReturnType(readNode())
+                        .setVisibility(readVisibility());
+                final int parameterCount = buffer.getInt();
+                for (int j = 0; j < parameterCount; j++) {
+                    final Parameter parameter = new Parameter(readString(), operation);
+                    parameter.setName(readString());
+                    parameter.setType(readNode());
+                }
+            }
+        }
+
+        private void readRelation(SystemUnderConsideration system) {
+            final Node source = readNode();
+            final Node target = readNode();
+            final Relation relation = new Relation(readString(), readString());
+            final int propertyCount = buffer.getInt();
+            for (int i = 0; i < propertyCount; i++) {
+                final RelationType type = RELATION_TYPES[buffer.get()];
+                relation.addRelationProperty(new RelationProperty(type, readCardinality(), readCardinality()));
+            }
+            // The properties determine the hash code of the relation, so it is added to the system afterwards
+            system.addEdge(source, target, relation);
+        }
+
+        private Cardinality readCardinality() {
+            if (buffer.get() == 0) {
+                return null;
+            }
+            return new Cardinality(buffer.getInt(), buffer.getInt());
+        }
+
+        private String readString() {
+            final int index = buffer.getInt();
+            return index == NULL ? null : strings[index];
+        }
+
+        private Node readNode() {
+            final int index = buffer.getInt();
+            return index == NULL ? null : nodes[index];
+        }
+
+        private Visibility readVisibility() {
+            final byte ordinal = buffer.get();
+            return ordinal == NULL ? null : VISIBILITIES[ordinal];
+        }
+    }
+
+}
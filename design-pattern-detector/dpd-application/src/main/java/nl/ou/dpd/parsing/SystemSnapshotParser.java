@@ -0,0 +1,114 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.util.Util;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * A parser for ArgoUML export files (*.xmi) that keeps a binary {@link SystemSnapshot} of the parsed
+ * {@link SystemUnderConsideration} next to the xmi file. When the xmi file is parsed again, and its contents have not
+ * changed since the snapshot was written, the system is read from the snapshot instead. Otherwise, the xmi file is
+ * parsed by an {@link ArgoUMLParser}, and the snapshot is (re)written.
+ * <p>
+ * Snapshots are an optimisation only: if a snapshot cannot be read or written, this is logged, and the xmi file is
+ * parsed as usual.
+ *
+ * @author Martin de Boer
+ */
+public class SystemSnapshotParser {
+
+    private static final Logger LOGGER = LogManager.getLogger(SystemSnapshotParser.class);
+
+    /**
+     * The extension that is appended to the name of an xmi file to obtain the name of its snapshot.
+     */
+    public static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+    private static final String SNAPSHOT_READ_MSG = "Read system design '%s' from snapshot '%s'.";
+    private static final String SNAPSHOT_NOT_READ_MSG = "Snapshot '%s' could not be read: %s";
+    private static final String SNAPSHOT_NOT_WRITTEN_MSG = "Snapshot '%s' could not be written: %s";
+
+    private final ArgoUMLParser argoUMLParser;
+
+    /**
+     * Creates a parser that parses xmi files with the specified {@link ArgoUMLParser} if their snapshot is missing or
+     * stale.
+     * <p>
+     * This constructor has package protected access so it can only be instantiated from within the same package (by the
+     * ParserFactory or in a unit test in the same package).
+     *
+     * @param argoUMLParser the parser for xmi files.
+     */
+    SystemSnapshotParser(ArgoUMLParser argoUMLParser) {
+        this.argoUMLParser = argoUMLParser;
+    }
+
+    /**
+     * Returns the path of the snapshot of the xmi file with the specified {@code xmiFilename}.
+     *
+     * @param xmiFilename the name of the xmi file.
+     * @return the path of the snapshot.
+     */
+    public static Path getSnapshotPath(String xmiFilename) {
+        return Paths.get(xmiFilename + SNAPSHOT_EXTENSION);
+    }
+
+    /**
+     * Parses an xmi file with the specified {@code xmiFileName}, or reads the system from its snapshot if the snapshot
+     * is up-to-date.
+     *
+     * @param xmiFilename the name of the file to be parsed.
+     * @return a new {@link SystemUnderConsideration}.
+     */
+    public SystemUnderConsideration parse(String xmiFilename) {
+        byte[] hash;
+        try {
+            hash = Util.hash(Paths.get(xmiFilename));
+        } catch (IOException | RuntimeException e) {
+            // The ArgoUMLParser reports why the file cannot be read
+            hash = null;
+        }
+        return parse(xmiFilename, hash);
+    }
+
+    /**
+     * Parses an xmi file with the specified {@code xmiFileName}, or reads the system from its snapshot if the snapshot
+     * is up-to-date. The contents of the file are not hashed again: the caller has done that already (see
+     * {@link Util#hash(Path)}).
+     *
+     * @param xmiFilename the name of the file to be parsed.
+     * @param hash        the hash of the current contents of the file, or {@code null} if the contents could not be
+     *                    hashed, in which case the snapshot is neither read nor written.
+     * @return a new {@link SystemUnderConsideration}.
+     */
+    public SystemUnderConsideration parse(String xmiFilename, byte[] hash) {
+        if (hash == null) {
+            return argoUMLParser.parse(xmiFilename);
+        }
+
+        final Path snapshot = getSnapshotPath(xmiFilename);
+        try {
+            final SystemUnderConsideration system = SystemSnapshot.read(snapshot, hash);
+            if (system != null) {
+                LOGGER.info(String.format(SNAPSHOT_READ_MSG, xmiFilename, snapshot));
+                return system;
+            }
+        } catch (IOException e) {
+            LOGGER.warn(String.format(SNAPSHOT_NOT_READ_MSG, snapshot, e.getMessage()), e);
+        }
+
+        final SystemUnderConsideration system = argoUMLParser.parse(xmiFilename);
+        try {
+            SystemSnapshot.write(system, hash, snapshot);
+        } catch (IOException e) {
+            LOGGER.warn(String.format(SNAPSHOT_NOT_WRITTEN_MSG, snapshot, e.getMessage()), e);
+        }
+        return system;
+    }
+
+}
@@ -0,0 +1,169 @@
+package nl.ou.dpd.parsing;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * A source of an ArgoUML export (xmi), that is read by an {@link ArgoUMLParser}. The source can be a file, a
+ * {@link URL} (for instance of a resource in a jar), or an {@link InputStream}.
+ * <p>
+ * Compressed sources are decompressed on the fly while they are read, without temporary files. The compression is
+ * recognized by the first bytes of the source, regardless of its name:
+ * <ul>
+ * <li>a gzip stream (e.g. {@code *.xmi.gz}) is decompressed;</li>
+ * <li>of a zip archive (e.g. an ArgoUML project, {@code *.zargo}), the first entry with the extension {@code .xmi} is
+ * read;</li>
+ * <li>any other source is read as is.</li>
+ * </ul>
+ *
+ * @author Martin de Boer
+ */
+public abstract class XmiSource {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MAGIC = 0x1f8b;
+    private static final int ZIP_MAGIC = 0x504b0304;
+    private static final String XMI_EXTENSION = ".xmi";
+
+    private static final String NO_XMI_IN_ARCHIVE_MSG = "The archive '%s' does not contain an XMI file.";
+    private static final String ALREADY_READ_MSG = "The input stream '%s' can be read only once.";
+
+    private final String name;
+
+    private XmiSource(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Creates a source reading the file with the specified {@code path}.
+     *
+     * @param path the path of the file.
+     * @return the created {@link XmiSource}.
+     */
+    public static XmiSource of(Path path) {
+        return new XmiSource(path.toString()) {
+            @Override
+            protected InputStream openRaw() throws IOException {
+                return new FileInputStream(path.toFile());
+            }
+        };
+    }
+
+    /**
+     * Creates a source reading the resource with the specified {@link URL}.
+     *
+     * @param url the url of the resource.
+     * @return the created {@link XmiSource}.
+     */
+    public static XmiSource of(URL url) {
+        return new XmiSource(url.toString()) {
+            @Override
+            protected InputStream openRaw() throws IOException {
+                return url.openStream();
+            }
+        };
+    }
+
+    /**
+     * Creates a source reading the specified {@link InputStream}. The stream can be read only once, so the source
+     * cannot be parsed in two passes (see {@link #isReopenable()}). The stream is closed when it has been read.
+     *
+     * @param input the stream to read.
+     * @param name  the name of the source, used in messages.
+     * @return the created {@link XmiSource}.
+     */
+    public static XmiSource of(InputStream input, String name) {
+        return new XmiSource(name) {
+            private boolean opened;
+
+            @Override
+            public boolean isReopenable() {
+                return false;
+            }
+
+            @Override
+            protected synchronized InputStream openRaw() throws IOException {
+                if (opened) {
+                    throw new IOException(String.format(ALREADY_READ_MSG, name));
+                }
+                opened = true;
+                return input;
+            }
+        };
+    }
+
+    /**
+     * @return the name of this source, used in messages.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Determines whether this source can be opened more than once.
+     *
+     * @return {@code true} if this source can be opened more than once, or {@code false} otherwise.
+     */
+    public boolean isReopenable() {
+        return true;
+    }
+
+    /**
+     * Opens this source, decompressing it if necessary.
+     *
+     * @return a stream of the (decompressed) xmi.
+     * @throws IOException if the source cannot be opened, or does not contain an xmi file.
+     */
+    public InputStream open() throws IOException {
+        final BufferedInputStream input = new BufferedInputStream(openRaw(), BUFFER_SIZE);
+        try {
+            return decompress(input);
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the raw, possibly compressed, contents of this source.
+     *
+     * @return a stream of the raw contents.
+     * @throws IOException if the source cannot be opened.
+     */
+    protected abstract InputStream openRaw() throws IOException;
+
+    private InputStream decompress(BufferedInputStream input) throws IOException {
+        input.mark(Integer.BYTES);
+        final int magic = (input.read() << 24) | (input.read() << 16) | (input.read() << 8) | input.read();
+        input.reset();
+
+        if (magic >>> 16 == GZIP_MAGIC) {
+            return new GZIPInputStream(input, BUFFER_SIZE);
+        }
+        if (magic == ZIP_MAGIC) {
+            final ZipInputStream zip = new ZipInputStream(input);
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if (!entry.isDirectory() && entry.getName().toLowerCase(Locale.ROOT).endsWith(XMI_EXTENSION)) {
+                    // The stream ends at the end of the entry
+                    return zip;
+                }
+            }
+            throw new IOException(String.format(NO_XMI_IN_ARCHIVE_MSG, name));
+        }
+        return input;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
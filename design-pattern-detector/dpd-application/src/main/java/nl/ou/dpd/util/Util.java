@@ -1,5 +1,12 @@
 package nl.ou.dpd.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 /**
  * A general utility class.
  *
@@ -7,6 +14,9 @@ package nl.ou.dpd.util;
  */
 public final class Util {
 
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
     /**
      * Private constructor because this is a utility class that cannot be instantiated
      */
@@ -48,4 +58,29 @@ public final class Util {
         }
         return text.trim();
     }
+
+    /**
+     * Computes the SHA-256 hash of the contents of a file.
+     *
+     * @param path the path of the file
+     * @return the hash of the contents of the file
+     * @throws IOException if the file cannot be read
+     */
+    public static byte[] hash(Path path) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+        final byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream input = Files.newInputStream(path)) {
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, count);
+            }
+        }
+        return digest.digest();
+    }
 }
@@ -0,0 +1,70 @@
+package nl.ou.dpd.cli;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+
+/**
+ * Tests the {@link BatchDetector} class. Detection on real system designs is tested in the integration tests.
+ *
+ * @author Martin de Boer
+ */
+public class BatchDetectorTest {
+
+    private ByteArrayOutputStream out;
+    private ByteArrayOutputStream err;
+
+    @Before
+    public void initStreams() {
+        out = new ByteArrayOutputStream();
+        err = new ByteArrayOutputStream();
+    }
+
+    @Test
+    public void testMissingTemplates() {
+        assertThat(run("system.xmi"), is(BatchDetector.EXIT_USAGE));
+        assertThat(err.toString(), containsString("No templates file specified."));
+        assertThat(err.toString(), containsString(BatchDetector.USAGE));
+    }
+
+    @Test
+    public void testMissingSystem() {
+        assertThat(run("-t", "templates.xml"), is(BatchDetector.EXIT_USAGE));
+        assertThat(err.toString(), containsString("No system design specified."));
+    }
+
+    @Test
+    public void testMissingOptionValue() {
+        assertThat(run("system.xmi", "-t"), is(BatchDetector.EXIT_USAGE));
+        assertThat(err.toString(), containsString("Missing value for option -t."));
+    }
+
+    @Test
+    public void testUnknownOption() {
+        assertThat(run("-x", "system.xmi"), is(BatchDetector.EXIT_USAGE));
+        assertThat(err.toString(), containsString("Unknown option -x."));
+    }
+
+    @Test
+    public void testUnknownFormat() {
+        assertThat(run("-t", "templates.xml", "-f", "xml", "system.xmi"), is(BatchDetector.EXIT_USAGE));
+        assertThat(err.toString(), containsString("Unknown output format 'xml'."));
+    }
+
+    @Test
+    public void testUnparsableTemplates() {
+        assertThat(run("-t", "nonexisting.xml", "-f", "csv", "system.xmi"), is(BatchDetector.EXIT_FAILED));
+        assertThat(out.toString(), is(""));
+    }
+
+    private int run(String... args) {
+        return BatchDetector.run(args, new PrintStream(out), new PrintStream(err));
+    }
+
+}
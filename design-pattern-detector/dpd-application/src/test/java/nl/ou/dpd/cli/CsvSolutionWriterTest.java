@@ -0,0 +1,61 @@
+package nl.ou.dpd.cli;
+
+import nl.ou.dpd.domain.matching.Solution;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests the {@link CsvSolutionWriter} class.
+ *
+ * @author Martin de Boer
+ */
+public class CsvSolutionWriterTest {
+
+    @Test
+    public void testWrite() throws IOException {
+        final Solution solution = new Solution("Observer", "Behavioural");
+        solution.addMatchingNodes(new Node("s1", "Subject"), new Node("p1", "Subject"));
+        solution.addMatchingNodes(new Node("s2", null), new Node("p2", "Observer"));
+        solution.addMatchingRelations(new Relation("r1", "notifies"), new Relation("r2", "notify"));
+
+        final StringWriter output = new StringWriter();
+        final SolutionWriter writer = OutputFormat.CSV.createWriter(output);
+        writer.writeHeader();
+        writer.write("MyObserver.xmi", solution);
+
+        assertThat(output.toString(), is("system,pattern,family,nodes,relations\n"
+                + "MyObserver.xmi,Observer,Behavioural,Subject=Subject;s2=Observer,notifies=notify\n"));
+    }
+
+    @Test
+    public void testEscaping() throws IOException {
+        final Solution solution = new Solution("Observer", "Behavioural");
+        solution.addMatchingNodes(new Node("s1", "a=b;c"), new Node("p1", "Subject"));
+        solution.addMatchingNodes(new Node("s2", "C:\\dir"), new Node("p2", "Observer"));
+        solution.addMatchingRelations(new Relation("r1", "x;y"), new Relation("r2", "notify"));
+
+        final StringWriter output = new StringWriter();
+        OutputFormat.CSV.createWriter(output).write("sys", solution);
+
+        assertThat(output.toString(), is("sys,Observer,Behavioural,"
+                + "a\\=b\\;c=Subject;C:\\\\dir=Observer,x\\;y=notify\n"));
+    }
+
+    @Test
+    public void testQuoting() throws IOException {
+        final Solution solution = new Solution("A \"quoted\" name", "A, B");
+
+        final StringWriter output = new StringWriter();
+        OutputFormat.CSV.createWriter(output).write("sys", solution);
+
+        assertThat(output.toString(), is("sys,\"A \"\"quoted\"\" name\",\"A, B\",,\n"));
+    }
+
+}
@@ -0,0 +1,50 @@
+package nl.ou.dpd.cli;
+
+import nl.ou.dpd.domain.matching.Solution;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests the {@link JsonLinesSolutionWriter} class.
+ *
+ * @author Martin de Boer
+ */
+public class JsonLinesSolutionWriterTest {
+
+    @Test
+    public void testWrite() throws IOException {
+        final Solution solution = new Solution("Observer", "Behavioural");
+        solution.addMatchingNodes(new Node("s1", "Subject"), new Node("p1", "Subject"));
+        solution.addMatchingNodes(new Node("s2", null), new Node("p2", "Observer"));
+        solution.addMatchingRelations(new Relation("r1", "notifies"), new Relation("r2", "notify"));
+
+        final StringWriter output = new StringWriter();
+        final SolutionWriter writer = OutputFormat.JSONL.createWriter(output);
+        writer.writeHeader();
+        writer.write("MyObserver.xmi", solution);
+
+        assertThat(output.toString(), is("{\"system\":\"MyObserver.xmi\",\"pattern\":\"Observer\","
+                + "\"family\":\"Behavioural\","
+                + "\"nodes\":[{\"system\":\"Subject\",\"pattern\":\"Subject\"},{\"system\":\"s2\",\"pattern\":\"Observer\"}],"
+                + "\"relations\":[{\"system\":\"notifies\",\"pattern\":\"notify\"}]}\n"));
+    }
+
+    @Test
+    public void testEscaping() throws IOException {
+        final Solution solution = new Solution("A \"quoted\"\tname", "C:\\family\n");
+
+        final StringWriter output = new StringWriter();
+        OutputFormat.JSONL.createWriter(output).write("sys\u0001", solution);
+
+        assertThat(output.toString(), is("{\"system\":\"sys\\u0001\",\"pattern\":\"A \\\"quoted\\\"\\tname\","
+                + "\"family\":\"C:\\\\family\\n\",\"nodes\":[],\"relations\":[]}\n"));
+    }
+
+}
@@ -1,6 +1,8 @@
 package nl.ou.dpd.domain;
 
 import nl.ou.dpd.domain.matching.FeedbackEnabledComparator;
+import nl.ou.dpd.domain.matching.NodeComparatorFactory;
+import nl.ou.dpd.domain.matching.RelationComparatorFactory;
 import nl.ou.dpd.domain.node.Node;
 import nl.ou.dpd.domain.relation.Relation;
 import org.junit.Before;
@@ -11,6 +13,7 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -63,11 +66,21 @@ public class DesignPatternTest {
 
     @Test
     public void testSetComparators() {
-        designPattern.setNodeComparator(nodeComparator);
-        designPattern.setRelationComparator(relationComparator);
+        designPattern.setNodeComparator(() -> nodeComparator);
+        designPattern.setRelationComparator(() -> relationComparator);
 
         assertThat(designPattern.getNodeComparator(), is(nodeComparator));
         assertThat(designPattern.getRelationComparator(), is(relationComparator));
     }
 
+    @Test
+    public void testSetComparatorSuppliers() {
+        designPattern.setNodeComparator(() -> NodeComparatorFactory.createCompoundNodeComparator());
+        designPattern.setRelationComparator(() -> RelationComparatorFactory.createCompoundRelationComparator());
+
+        // Every request should result in a new comparator, so no feedback is shared between matching runs
+        assertNotSame(designPattern.getNodeComparator(), designPattern.getNodeComparator());
+        assertNotSame(designPattern.getRelationComparator(), designPattern.getRelationComparator());
+    }
+
 }
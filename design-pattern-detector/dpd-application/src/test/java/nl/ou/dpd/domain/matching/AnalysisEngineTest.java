@@ -0,0 +1,182 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.relation.Relation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the {@link AnalysisEngine} class.
+ *
+ * @author Martin de Boer
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AnalysisEngineTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private SystemUnderConsideration system;
+    private DesignPattern matchingPattern, mismatchingPattern;
+    private ExecutorService executor;
+
+    @Mock
+    private Relation systemRelation, patternRelation1, patternRelation2;
+    @Mock
+    private Node systemNode1, systemNode2, patternNode1, patternNode2, patternNode3, patternNode4;
+    @Mock
+    private FeedbackEnabledComparator<Node> acceptingNodeComparator, rejectingNodeComparator;
+    @Mock
+    private FeedbackEnabledComparator<Relation> acceptingRelationComparator, rejectingRelationComparator;
+
+    @Before
+    public void initSystem() {
+        system = new SystemUnderConsideration("sysId", "sysName");
+        system.addVertex(systemNode1);
+        system.addVertex(systemNode2);
+        system.addEdge(systemNode1, systemNode2, systemRelation);
+    }
+
+    @Before
+    public void initComparatorMocks() {
+        when(acceptingNodeComparator.getFeedback()).thenReturn(new Feedback());
+        when(acceptingNodeComparator.compare(any(Node.class), any(Node.class))).thenReturn(0);
+        when(acceptingRelationComparator.getFeedback()).thenReturn(new Feedback());
+        when(acceptingRelationComparator.compare(any(Relation.class), any(Relation.class))).thenReturn(0);
+
+        when(rejectingNodeComparator.getFeedback()).thenReturn(new Feedback());
+        when(rejectingNodeComparator.compare(any(Node.class), any(Node.class))).thenReturn(-1);
+        when(rejectingRelationComparator.getFeedback()).thenReturn(new Feedback());
+        when(rejectingRelationComparator.compare(any(Relation.class), any(Relation.class))).thenReturn(-1);
+    }
+
+    @Before
+    public void initDesignPatterns() {
+        matchingPattern = new DesignPattern("matching", "matching");
+        matchingPattern.addVertex(patternNode1);
+        matchingPattern.addVertex(patternNode2);
+        matchingPattern.addEdge(patternNode1, patternNode2, patternRelation1);
+        matchingPattern
+                .setNodeComparator(() -> acceptingNodeComparator)
+                .setRelationComparator(() -> acceptingRelationComparator);
+
+        mismatchingPattern = new DesignPattern("mismatching", "family");
+        mismatchingPattern.addVertex(patternNode3);
+        mismatchingPattern.addVertex(patternNode4);
+        mismatchingPattern.addEdge(patternNode3, patternNode4, patternRelation2);
+        mismatchingPattern
+                .setNodeComparator(() -> rejectingNodeComparator)
+                .setRelationComparator(() -> rejectingRelationComparator);
+    }
+
+    @Before
+    public void initExecutor() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testAnalyse() {
+        final Map<String, PatternInspector.MatchingResult> results = new AnalysisEngine(executor)
+                .analyse(system, Arrays.asList(matchingPattern, mismatchingPattern));
+
+        assertThat(results.size(), is(2));
+        assertThat(results.get("matching").getSolutions().size(), is(1));
+        assertTrue(results.get("mismatching (family)").getSolutions().isEmpty());
+    }
+
+    @Test
+    public void testAnalyseOnCommonPool() {
+        final Map<String, PatternInspector.MatchingResult> results = new AnalysisEngine()
+                .analyse(system, Arrays.asList(matchingPattern, mismatchingPattern));
+
+        assertThat(results.size(), is(2));
+        assertThat(results.get("matching").getSolutions().size(), is(1));
+        assertTrue(results.get("mismatching (family)").getSolutions().isEmpty());
+    }
+
+    @Test
+    public void testAnalyseRethrowsRuntimeExceptions() {
+        when(acceptingNodeComparator.compare(any(Node.class), any(Node.class)))
+                .thenThrow(new IllegalStateException("Comparison failed."));
+
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("Comparison failed.");
+
+        new AnalysisEngine(executor).analyse(system, Arrays.asList(matchingPattern, mismatchingPattern));
+    }
+
+    @Test
+    public void testAnalysePublishesResults() {
+        final List<String> progress = Collections.synchronizedList(new ArrayList<>());
+        final Map<String, PatternInspector.MatchingResult> published = new ConcurrentHashMap<>();
+        final AnalysisMonitor monitor = new AnalysisMonitor() {
+            @Override
+            public void patternAnalysed(DesignPattern pattern,
+                                        PatternInspector.MatchingResult result,
+                                        int analysed,
+                                        int total) {
+                published.put(AnalysisEngine.getResultKey(pattern), result);
+                progress.add(String.format("%d/%d", analysed, total));
+            }
+        };
+
+        final Map<String, PatternInspector.MatchingResult> results = new AnalysisEngine(executor)
+                .analyse(system, Arrays.asList(matchingPattern, mismatchingPattern), monitor);
+
+        // The patterns may finish in any order, but they are counted one by one
+        assertThat(progress, containsInAnyOrder("1/2", "2/2"));
+        // Every result was published as soon as it was found
+        assertThat(published, is(results));
+    }
+
+    @Test
+    public void testAnalyseCancelled() {
+        final AnalysisMonitor monitor = new AnalysisMonitor() {
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        };
+
+        thrown.expect(CancellationException.class);
+
+        new AnalysisEngine(executor).analyse(system, Arrays.asList(matchingPattern, mismatchingPattern), monitor);
+    }
+
+    @Test
+    public void testGetResultKey() {
+        assertThat(AnalysisEngine.getResultKey(matchingPattern), is("matching"));
+        assertThat(AnalysisEngine.getResultKey(mismatchingPattern), is("mismatching (family)"));
+    }
+
+}
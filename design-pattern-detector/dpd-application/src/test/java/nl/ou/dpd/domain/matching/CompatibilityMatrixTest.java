@@ -0,0 +1,140 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.relation.Relation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link CompatibilityMatrix} class.
+ *
+ * @author Martin de Boer
+ */
+public class CompatibilityMatrixTest {
+
+    private SystemUnderConsideration system;
+    private DesignPattern pattern;
+    private Node client, service1, service2, helper;
+    private Node patternClient, patternService;
+    private Relation clientService1, clientService2, helperService1, patternRelation;
+
+    private List<Node[]> comparedNodes;
+    private List<Relation[]> comparedRelations;
+    private Comparator<Node> nodeComparator;
+    private Comparator<Relation> relationComparator;
+
+    @Before
+    public void initSystem() {
+        system = new SystemUnderConsideration("sysId", "sysName");
+        client = addNode(system, "client", NodeType.CONCRETE_CLASS);
+        service1 = addNode(system, "service1", NodeType.INTERFACE);
+        service2 = addNode(system, "service2", NodeType.INTERFACE);
+        helper = addNode(system, "helper", NodeType.ABSTRACT_CLASS);
+        clientService1 = addRelation(system, client, service1);
+        clientService2 = addRelation(system, client, service2);
+        helperService1 = addRelation(system, helper, service1);
+    }
+
+    @Before
+    public void initDesignPattern() {
+        pattern = new DesignPattern("Client", "Client");
+        patternClient = addNode(pattern, "Client", NodeType.CONCRETE_CLASS);
+        patternService = addNode(pattern, "Service", NodeType.INTERFACE);
+        patternRelation = new Relation("cs", "ClientService");
+        pattern.addEdge(patternClient, patternService, patternRelation);
+    }
+
+    @Before
+    public void initComparators() {
+        // Nodes match if they are of the same types; relations match unless they start at the helper
+        comparedNodes = new ArrayList<>();
+        comparedRelations = new ArrayList<>();
+        nodeComparator = (systemNode, patternNode) -> {
+            comparedNodes.add(new Node[]{systemNode, patternNode});
+            return systemNode.getTypes().equals(patternNode.getTypes()) ? 0 : 1;
+        };
+        relationComparator = (systemRelation, patternRelation) -> {
+            comparedRelations.add(new Relation[]{systemRelation, patternRelation});
+            return systemRelation == helperService1 ? 1 : 0;
+        };
+    }
+
+    @Test
+    public void testEveryNodePairIsComparedOnce() {
+        final CompatibilityMatrix matrix = createMatrix();
+
+        assertThat(comparedNodes.size(), is(system.vertexSet().size() * pattern.vertexSet().size()));
+        final Set<List<Node>> distinctPairs = new HashSet<>();
+        comparedNodes.forEach(pair -> distinctPairs.add(Arrays.asList(pair)));
+        assertThat(distinctPairs.size(), is(comparedNodes.size()));
+
+        final CompiledSystem compiledSystem = new CompiledSystem(system);
+        final CompiledPattern compiledPattern = new CompiledPattern(pattern);
+        final Comparator<Node> lookup = matrix.getNodeComparator();
+        assertThat(lookup.compare(client, patternClient), is(0));
+        assertThat(lookup.compare(service2, patternService), is(0));
+        assertThat(lookup.compare(helper, patternClient), is(1));
+        assertTrue(matrix.isMatchingNode(compiledSystem.indexOf(service1), compiledPattern.indexOf(patternService)));
+        assertFalse(matrix.isMatchingNode(compiledSystem.indexOf(service1), compiledPattern.indexOf(patternClient)));
+
+        // Looking up does not compare again
+        assertThat(comparedNodes.size(), is(8));
+    }
+
+    @Test
+    public void testOnlyRelationsBetweenMatchingNodesAreCompared() {
+        final CompatibilityMatrix matrix = createMatrix();
+
+        // The helper does not match the client, so its relation is never compared
+        assertThat(comparedRelations.size(), is(2));
+        comparedRelations.forEach(pair -> assertTrue(pair[0] != helperService1));
+
+        final Comparator<Relation> lookup = matrix.getRelationComparator();
+        assertThat(lookup.compare(clientService1, patternRelation), is(0));
+        assertThat(lookup.compare(clientService2, patternRelation), is(0));
+        assertThat(lookup.compare(helperService1, patternRelation), is(1));
+        assertThat(comparedRelations.size(), is(2));
+    }
+
+    private CompatibilityMatrix createMatrix() {
+        return new CompatibilityMatrix(
+                new CompiledSystem(system),
+                new CompiledPattern(pattern),
+                nodeComparator,
+                relationComparator);
+    }
+
+    private Node addNode(SystemUnderConsideration graph, String name, NodeType type) {
+        final Node node = new Node(name, name, type);
+        graph.addVertex(node);
+        return node;
+    }
+
+    private Node addNode(DesignPattern graph, String name, NodeType type) {
+        final Node node = new Node(name, name, type);
+        graph.addVertex(node);
+        return node;
+    }
+
+    private Relation addRelation(SystemUnderConsideration graph, Node source, Node target) {
+        final Relation relation = new Relation(source.getId() + target.getId(), source.getName() + target.getName());
+        graph.addEdge(source, target, relation);
+        return relation;
+    }
+
+}
@@ -0,0 +1,194 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.relation.Relation;
+import org.jgrapht.GraphMapping;
+import org.jgrapht.alg.isomorphism.IsomorphismInspector;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the {@link CompiledPatternMatcher} class, using the {@link VF2PatternMatcher} as a reference.
+ *
+ * @author Martin de Boer
+ */
+public class CompiledPatternMatcherTest {
+
+    // Nodes match if they are of the same types; relations always match
+    private static final Comparator<Node> NODE_COMPARATOR = (s, p) -> s.getTypes().equals(p.getTypes()) ? 0 : 1;
+    private static final Comparator<Relation> RELATION_COMPARATOR = (s, p) -> 0;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private SystemUnderConsideration system;
+    private Node[] systemNodes;
+
+    @Before
+    public void initSystem() {
+        system = new SystemUnderConsideration("sysId", "sysName");
+        systemNodes = new Node[6];
+        for (int i = 0; i < systemNodes.length; i++) {
+            systemNodes[i] = new Node("s" + i, "S" + i, i < 2 ? NodeType.INTERFACE : NodeType.CONCRETE_CLASS);
+            system.addVertex(systemNodes[i]);
+        }
+        addRelation(system, systemNodes[0], systemNodes[2]);
+        addRelation(system, systemNodes[0], systemNodes[3]);
+        addRelation(system, systemNodes[0], systemNodes[4]);
+        addRelation(system, systemNodes[1], systemNodes[4]);
+        addRelation(system, systemNodes[1], systemNodes[5]);
+        addRelation(system, systemNodes[2], systemNodes[3]);
+        addRelation(system, systemNodes[5], systemNodes[5]);
+    }
+
+    @Test
+    public void testStarPattern() {
+        final DesignPattern pattern = new DesignPattern("Star", "Star");
+        final Node center = addNode(pattern, "center", NodeType.INTERFACE);
+        addRelation(pattern, center, addNode(pattern, "leaf1", NodeType.CONCRETE_CLASS));
+        addRelation(pattern, center, addNode(pattern, "leaf2", NodeType.CONCRETE_CLASS));
+
+        // S0-S2-S3 is not node induced; symmetry breaking leaves one mapping per pair of leaves
+        final Set<List<Node>> mappings = assertSameMappings(pattern);
+        assertThat(mappings.size(), is(3));
+    }
+
+    @Test
+    public void testPatternWithSelfRelation() {
+        final DesignPattern pattern = new DesignPattern("Loop", "Loop");
+        final Node source = addNode(pattern, "source", NodeType.INTERFACE);
+        final Node target = addNode(pattern, "target", NodeType.CONCRETE_CLASS);
+        addRelation(pattern, source, target);
+        addRelation(pattern, target, target);
+
+        assertSameMappings(pattern);
+    }
+
+    @Test
+    public void testPatternLargerThanSystem() {
+        final DesignPattern pattern = new DesignPattern("Large", "Large");
+        for (int i = 0; i <= systemNodes.length; i++) {
+            addNode(pattern, "p" + i, NodeType.CONCRETE_CLASS);
+        }
+        final Comparator<Node> failingComparator = (s, p) -> {
+            throw new AssertionError("No nodes should be compared");
+        };
+
+        final IsomorphismInspector<Node, Relation> inspector =
+                new CompiledPatternMatcher().createInspector(system, pattern, failingComparator, RELATION_COMPARATOR);
+        assertFalse(inspector.isomorphismExists());
+    }
+
+    @Test
+    public void testCancelledSearch() {
+        for (int i = 0; i < 50; i++) {
+            system.addVertex(new Node("c" + i, "C" + i, NodeType.CONCRETE_CLASS));
+        }
+        final DesignPattern pattern = new DesignPattern("Independent", "Independent");
+        for (int i = 0; i < 3; i++) {
+            addNode(pattern, "p" + i, NodeType.CONCRETE_CLASS);
+        }
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final Iterator<GraphMapping<Node, Relation>> mappings = new CompiledPatternMatcher(cancelled::get)
+                .createInspector(system, pattern, NODE_COMPARATOR, RELATION_COMPARATOR)
+                .getMappings();
+        mappings.next();
+
+        // The search stops long before all of the many mappings have been found
+        cancelled.set(true);
+        thrown.expect(CancellationException.class);
+        while (mappings.hasNext()) {
+            mappings.next();
+        }
+    }
+
+    @Test
+    public void testGraphMapping() {
+        final DesignPattern pattern = new DesignPattern("Edge", "Edge");
+        final Node source = addNode(pattern, "source", NodeType.INTERFACE);
+        final Node target = addNode(pattern, "target", NodeType.INTERFACE);
+        final Relation patternRelation = addRelation(pattern, source, target);
+
+        final Iterator<GraphMapping<Node, Relation>> mappings = new CompiledPatternMatcher()
+                .createInspector(system, pattern, NODE_COMPARATOR, RELATION_COMPARATOR)
+                .getMappings();
+        assertFalse(mappings.hasNext());
+
+        // Make S1 depend on S0, so that both interfaces are related
+        final Relation systemRelation = addRelation(system, systemNodes[0], systemNodes[1]);
+        final GraphMapping<Node, Relation> mapping = new CompiledPatternMatcher()
+                .createInspector(system, pattern, NODE_COMPARATOR, RELATION_COMPARATOR)
+                .getMappings()
+                .next();
+        assertSame(systemNodes[0], mapping.getVertexCorrespondence(source, false));
+        assertSame(target, mapping.getVertexCorrespondence(systemNodes[1], true));
+        assertNull(mapping.getVertexCorrespondence(systemNodes[2], true));
+        assertSame(systemRelation, mapping.getEdgeCorrespondence(patternRelation, false));
+        assertSame(patternRelation, mapping.getEdgeCorrespondence(systemRelation, true));
+    }
+
+    private Set<List<Node>> assertSameMappings(DesignPattern pattern) {
+        final Set<List<Node>> expected = getMappings(new VF2PatternMatcher(), pattern);
+        final Set<List<Node>> actual = getMappings(new CompiledPatternMatcher(), pattern);
+        assertEquals(expected, actual);
+        return actual;
+    }
+
+    /**
+     * Returns the mappings found by the specified matcher, each as a list of the system nodes matching the pattern
+     * nodes (in the iteration order of the pattern nodes).
+     */
+    private Set<List<Node>> getMappings(PatternMatcher matcher, DesignPattern pattern) {
+        final Set<List<Node>> result = new HashSet<>();
+        final Iterator<GraphMapping<Node, Relation>> mappings = matcher
+                .createInspector(system, pattern, NODE_COMPARATOR, RELATION_COMPARATOR)
+                .getMappings();
+        while (mappings.hasNext()) {
+            final GraphMapping<Node, Relation> mapping = mappings.next();
+            final List<Node> images = new ArrayList<>();
+            pattern.vertexSet().forEach(node -> images.add(mapping.getVertexCorrespondence(node, false)));
+            assertThat(result.add(images), is(true));
+        }
+        return result;
+    }
+
+    private Node addNode(DesignPattern pattern, String name, NodeType type) {
+        final Node node = new Node(name, name, type);
+        pattern.addVertex(node);
+        return node;
+    }
+
+    private Relation addRelation(SystemUnderConsideration graph, Node source, Node target) {
+        final Relation relation = new Relation(source.getId() + target.getId(), source.getName() + target.getName());
+        graph.addEdge(source, target, relation);
+        return relation;
+    }
+
+    private Relation addRelation(DesignPattern graph, Node source, Node target) {
+        final Relation relation = new Relation(source.getId() + target.getId(), source.getName() + target.getName());
+        graph.addEdge(source, target, relation);
+        return relation;
+    }
+
+}
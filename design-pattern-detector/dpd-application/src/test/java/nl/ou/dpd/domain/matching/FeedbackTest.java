@@ -17,6 +17,7 @@ import java.util.Set;
 import static nl.ou.dpd.domain.matching.MatchingTestHelper.assertFeedbackMessages;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
@@ -54,6 +55,22 @@ public class FeedbackTest {
         assertThat(feedback.getFeedbackMessages(node2, FeedbackType.NOT_ANALYSED).size(), is(1));
     }
 
+    @Test
+    public void testCountFeedbackMessages() {
+        final Feedback feedback = new Feedback(systemUnderConsideration);
+        assertThat(feedback.countFeedbackMessages(node2, FeedbackType.NOT_ANALYSED), is(1));
+
+        addAllTypesOfMessages(feedback);
+        feedback.addFeedbackMessage(node1, FeedbackType.MISMATCH, "Mismatch %s", "again");
+        for (FeedbackType type : FeedbackType.values()) {
+            assertThat(feedback.countFeedbackMessages(node1, type),
+                    is(feedback.getFeedbackMessages(node1, type).size()));
+            assertThat(feedback.countFeedbackMessages(relation1, type),
+                    is(feedback.getFeedbackMessages(relation1, type).size()));
+        }
+        assertThat(feedback.countFeedbackMessages(node1, FeedbackType.MISMATCH), is(2));
+    }
+
     @Test
     public void testGetNodeSet() {
         final Feedback feedback = new Feedback(systemUnderConsideration);
@@ -138,6 +155,70 @@ public class FeedbackTest {
         assertFeedbackMessages(fb3, (Relation)null, FeedbackType.INFO, new String[]{});
     }
 
+    @Test
+    public void testMessagesAreFormattedWhenRequested() {
+        final int[] formatted = {0};
+        final Object argument = new Object() {
+            @Override
+            public String toString() {
+                formatted[0]++;
+                return "arg";
+            }
+        };
+
+        final Feedback feedback = new Feedback();
+        feedback.addFeedbackMessage(node1, FeedbackType.MISMATCH, "Mismatch with '%s'.", argument);
+        feedback.addFeedbackMessage(node1, FeedbackType.MISMATCH, "Mismatch with '%s'.", argument);
+        feedback.addFeedbackMessage(relation1, FeedbackType.MATCH, "Matched with '%s'.", argument);
+        assertThat(formatted[0], is(0));
+
+        assertFeedbackMessages(feedback, node1, FeedbackType.MISMATCH, new String[]{"Mismatch with 'arg'."});
+        assertFeedbackMessages(feedback, relation1, FeedbackType.MATCH, new String[]{"Matched with 'arg'."});
+        assertThat(formatted[0], is(2));
+    }
+
+    @Test
+    public void testFeedbackLevels() {
+        final Feedback none = new Feedback().setFeedbackLevel(FeedbackLevel.NONE);
+        assertFalse(none.includes(FeedbackType.MISMATCH));
+        addAllTypesOfMessages(none);
+        assertTrue(none.getNodeSet().isEmpty());
+        assertTrue(none.getRelationSet().isEmpty());
+
+        final Feedback summary = new Feedback().setFeedbackLevel(FeedbackLevel.SUMMARY);
+        assertFalse(summary.includes(FeedbackType.INFO));
+        assertTrue(summary.includes(FeedbackType.MATCH));
+        addAllTypesOfMessages(summary);
+        assertFeedbackMessages(summary, node1, FeedbackType.INFO, new String[]{});
+        assertFeedbackMessages(summary, node1, FeedbackType.MISMATCH, new String[]{"Mismatch"});
+        assertFeedbackMessages(summary, relation1, FeedbackType.INFO, new String[]{});
+        assertFeedbackMessages(summary, relation1, FeedbackType.MATCH, new String[]{"Match"});
+
+        final Feedback full = new Feedback();
+        addAllTypesOfMessages(full);
+        assertFeedbackMessages(full, node1, FeedbackType.INFO, new String[]{"Info"});
+        assertFeedbackMessages(full, relation1, FeedbackType.INFO, new String[]{"Info"});
+    }
+
+    @Test
+    public void testMergeNotAnalysed() {
+        final Feedback other = new Feedback(systemUnderConsideration);
+        other.addFeedbackMessage(node1, FeedbackType.MATCH, "Match");
+
+        final Feedback feedback = new Feedback().merge(other);
+        assertFeedbackMessages(feedback, node1, FeedbackType.MATCH, new String[]{"Match"});
+        assertFeedbackMessages(feedback, node1, FeedbackType.NOT_ANALYSED, new String[]{});
+        assertFeedbackMessages(feedback, node2, FeedbackType.NOT_ANALYSED, new String[]{"Not analysed."});
+        assertFeedbackMessages(feedback, relation1, FeedbackType.NOT_ANALYSED, new String[]{"Not analysed."});
+    }
+
+    private void addAllTypesOfMessages(Feedback feedback) {
+        feedback.addFeedbackMessage(node1, FeedbackType.INFO, "Info");
+        feedback.addFeedbackMessage(node1, FeedbackType.MISMATCH, "Mismatch");
+        feedback.addFeedbackMessage(relation1, FeedbackType.INFO, "Info");
+        feedback.addFeedbackMessage(relation1, FeedbackType.MATCH, "Match");
+    }
+
     private void assertNotes(Feedback feedback, String... notes) {
         final Set<String> feedbackNotes = feedback.getNotes();
         assertThat(feedbackNotes.size(), is(notes.length));
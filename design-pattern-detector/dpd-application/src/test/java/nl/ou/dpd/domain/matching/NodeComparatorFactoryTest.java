@@ -46,6 +46,7 @@ public class NodeComparatorFactoryTest {
         final HashSet<NodeType> types1 = new HashSet<>();
         types1.add(NodeType.CONCRETE_CLASS);
         when(concreteClassNode.getTypes()).thenReturn(types1);
+        when(concreteClassNode.getTypeMask()).thenReturn(NodeType.CONCRETE_CLASS.getMask());
         when(concreteClassNode.getId()).thenReturn("concreteClassNode");
         when(concreteClassNode.getName()).thenReturn("ConcreteClassNode");
 
@@ -53,6 +54,7 @@ public class NodeComparatorFactoryTest {
         final HashSet<NodeType> types2 = new HashSet<>();
         types2.add(NodeType.ABSTRACT_CLASS);
         when(abstractClassNode.getTypes()).thenReturn(types2);
+        when(abstractClassNode.getTypeMask()).thenReturn(NodeType.ABSTRACT_CLASS.getMask());
         when(abstractClassNode.getId()).thenReturn("abstractClassNode");
         when(abstractClassNode.getName()).thenReturn("AbstractClassNode");
     }
@@ -10,6 +10,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Iterator;
 import java.util.List;
 
 import static junit.framework.TestCase.assertFalse;
@@ -18,6 +19,8 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -104,7 +107,7 @@ public class PatternInspectorTest {
     @Test
     public void testConstructor() {
         new PatternInspector(system, designPatternMock);
-        // Test if the comparators are retrieved to pass to super()
+        // Test if the comparators are retrieved (once) for this inspection
         verify(designPatternMock, times(1)).getNodeComparator();
         verify(designPatternMock, times(1)).getRelationComparator();
     }
@@ -113,8 +116,8 @@ public class PatternInspectorTest {
     public void testMatch() {
         // These comparators accept any node and any relation.
         designPattern
-                .setNodeComparator(acceptingNodeComparator)
-                .setRelationComparator(acceptingRelationComparator);
+                .setNodeComparator(() -> acceptingNodeComparator)
+                .setRelationComparator(() -> acceptingRelationComparator);
 
         final PatternInspector patternInspector = new PatternInspector(system, designPattern);
         assertTrue(patternInspector.isomorphismExists());
@@ -158,12 +161,91 @@ public class PatternInspectorTest {
         assertFeedbackMessages(feedback, systemRelation, FeedbackType.MATCH, new String[]{RELATION_MATCH_MSG});
     }
 
+    @Test
+    public void testSolutionIterator() {
+        designPattern
+                .setNodeComparator(() -> acceptingNodeComparator)
+                .setRelationComparator(() -> acceptingRelationComparator);
+
+        final Iterator<Solution> solutions = new PatternInspector(system, designPattern).solutionIterator();
+        assertTrue(solutions.hasNext());
+        final Solution solution = solutions.next();
+        assertThat(solution.getMatchingNodes().size(), is(2));
+        assertThat(solution.getMatchingRelations().size(), is(1));
+        assertFalse(solutions.hasNext());
+    }
+
+    @Test
+    public void testStreamSolutions() {
+        designPattern
+                .setNodeComparator(() -> acceptingNodeComparator)
+                .setRelationComparator(() -> acceptingRelationComparator);
+
+        final PatternInspector patternInspector = new PatternInspector(system, designPattern);
+        assertThat(patternInspector.streamSolutions().count(), is(1L));
+        assertThat(patternInspector.streamSolutions(1).count(), is(1L));
+    }
+
+    @Test
+    public void testStreamSolutionsIsLazy() {
+        designPattern
+                .setNodeComparator(() -> acceptingNodeComparator)
+                .setRelationComparator(() -> acceptingRelationComparator);
+
+        final PatternInspector patternInspector = new PatternInspector(system, designPattern);
+        assertThat(patternInspector.streamSolutions(0).count(), is(0L));
+        assertTrue(patternInspector.getMatchingResult(0).getSolutions().isEmpty());
+
+        // Nothing should have been searched for
+        verify(acceptingNodeComparator, never()).compare(any(Node.class), any(Node.class));
+        verify(acceptingRelationComparator, never()).compare(any(Relation.class), any(Relation.class));
+    }
+
+    @Test
+    public void testInterchangeablePatternNodesAreMatchedOnce() {
+        // A system node with relations to two other nodes, and a pattern in which both targets are interchangeable
+        final Node systemNode3 = mock(Node.class);
+        system.addVertex(systemNode3);
+        system.addEdge(systemNode1, systemNode3, mock(Relation.class));
+        final Node patternNode3 = mock(Node.class);
+        designPattern.addVertex(patternNode3);
+        designPattern.addEdge(patternNode1, patternNode3, mock(Relation.class));
+        designPattern
+                .setNodeComparator(() -> acceptingNodeComparator)
+                .setRelationComparator(() -> acceptingRelationComparator);
+
+        // Without symmetry breaking, both ways to match the targets would be found
+        final PatternInspector patternInspector = new PatternInspector(system, designPattern);
+        assertThat(patternInspector.streamSolutions().count(), is(1L));
+        assertThat(patternInspector.getMatchingResult().getSolutions(true).size(), is(1));
+    }
+
+    @Test
+    public void testFeedbackLevelNone() {
+        designPattern
+                .setNodeComparator(() -> NodeComparatorFactory.createCompoundNodeComparator())
+                .setRelationComparator(() -> RelationComparatorFactory.createCompoundRelationComparator())
+                .addNote("A note");
+
+        final PatternInspector patternInspector = new PatternInspector(system, designPattern)
+                .setFeedbackLevel(FeedbackLevel.NONE);
+        assertThat(patternInspector.getFeedbackLevel(), is(FeedbackLevel.NONE));
+        final PatternInspector.MatchingResult matchingResult = patternInspector.getMatchingResult();
+
+        // The solutions are found, but no feedback is gathered apart from the notes
+        assertThat(matchingResult.getSolutions().size(), is(1));
+        final Feedback feedback = matchingResult.getFeedback();
+        assertTrue(feedback.getNodeSet().isEmpty());
+        assertTrue(feedback.getRelationSet().isEmpty());
+        assertThat(feedback.getNotes().size(), is(1));
+    }
+
     @Test
     public void testNoMatch() {
         // These comparators reject any node and any relation.
         designPattern
-                .setNodeComparator(rejectingNodeComparator)
-                .setRelationComparator(rejectingRelationComparator);
+                .setNodeComparator(() -> rejectingNodeComparator)
+                .setRelationComparator(() -> rejectingRelationComparator);
 
         final PatternInspector patternInspector = new PatternInspector(system, designPattern);
         assertFalse(patternInspector.isomorphismExists());
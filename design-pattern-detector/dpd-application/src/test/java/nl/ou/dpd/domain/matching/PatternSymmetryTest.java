@@ -0,0 +1,110 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import nl.ou.dpd.domain.relation.RelationType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link PatternSymmetry} class.
+ *
+ * @author Martin de Boer
+ */
+public class PatternSymmetryTest {
+
+    private DesignPattern pattern;
+    private Node subject, observer1, observer2, observer3;
+
+    @Before
+    public void initDesignPattern() {
+        pattern = new DesignPattern("Observer", "Observer");
+        subject = new Node("subject", "Subject", NodeType.CONCRETE_CLASS);
+        observer1 = new Node("observer1", "Observer1", NodeType.CONCRETE_CLASS);
+        observer2 = new Node("observer2", "Observer2", NodeType.CONCRETE_CLASS);
+        observer3 = new Node("observer3", "Observer3", NodeType.CONCRETE_CLASS);
+        pattern.addVertex(subject);
+        pattern.addVertex(observer1);
+        pattern.addVertex(observer2);
+        pattern.addVertex(observer3);
+        addRelation(subject, observer1, RelationType.ASSOCIATES_WITH);
+        addRelation(subject, observer2, RelationType.ASSOCIATES_WITH);
+        addRelation(subject, observer3, RelationType.ASSOCIATES_WITH);
+    }
+
+    @Test
+    public void testInterchangeableNodes() {
+        final PatternSymmetry symmetry = new PatternSymmetry(pattern, new Node[]{subject, observer1, observer2, observer3});
+
+        final List<int[]> orbits = symmetry.getOrbits();
+        assertThat(orbits.size(), is(1));
+        assertArrayEquals(new int[]{1, 2, 3}, orbits.get(0));
+
+        // Observer1 precedes Observer2 and Observer3, and Observer2 precedes Observer3
+        final int[][] constraints = symmetry.getConstraints();
+        assertThat(constraints.length, is(3));
+        assertArrayEquals(new int[]{1, 2}, constraints[0]);
+        assertArrayEquals(new int[]{1, 3}, constraints[1]);
+        assertArrayEquals(new int[]{2, 3}, constraints[2]);
+    }
+
+    @Test
+    public void testDifferentRelationTypesBreakSymmetry() {
+        pattern.removeEdge(subject, observer3);
+        addRelation(subject, observer3, RelationType.DEPENDS_ON);
+
+        final PatternSymmetry symmetry = new PatternSymmetry(pattern, new Node[]{subject, observer1, observer2, observer3});
+
+        assertThat(symmetry.getOrbits().size(), is(1));
+        assertArrayEquals(new int[]{1, 2}, symmetry.getOrbits().get(0));
+        assertThat(symmetry.getConstraints().length, is(1));
+        assertArrayEquals(new int[]{1, 2}, symmetry.getConstraints()[0]);
+    }
+
+    @Test
+    public void testDifferentNodeTypesBreakSymmetry() {
+        observer1.addType(NodeType.ABSTRACT_CLASS);
+        observer2.addType(NodeType.INTERFACE);
+
+        final PatternSymmetry symmetry = new PatternSymmetry(pattern, new Node[]{subject, observer1, observer2, observer3});
+
+        assertTrue(symmetry.getOrbits().isEmpty());
+        assertThat(symmetry.getConstraints().length, is(0));
+    }
+
+    @Test
+    public void testCycle() {
+        // A directed cycle of three nodes can be rotated, but not reflected
+        final DesignPattern cycle = new DesignPattern("Cycle", "Cycle");
+        cycle.addVertex(observer1);
+        cycle.addVertex(observer2);
+        cycle.addVertex(observer3);
+        cycle.addEdge(observer1, observer2, new Relation("r1", "r1"));
+        cycle.addEdge(observer2, observer3, new Relation("r2", "r2"));
+        cycle.addEdge(observer3, observer1, new Relation("r3", "r3"));
+
+        final PatternSymmetry symmetry = new PatternSymmetry(cycle, new Node[]{observer1, observer2, observer3});
+
+        assertThat(symmetry.getOrbits().size(), is(1));
+        assertArrayEquals(new int[]{0, 1, 2}, symmetry.getOrbits().get(0));
+        // Once the first node is fixed, the others are fixed as well
+        assertThat(symmetry.getConstraints().length, is(2));
+    }
+
+    private void addRelation(Node source, Node target, RelationType relationType) {
+        final Relation relation = new Relation(source.getId() + target.getId(), source.getName() + target.getName());
+        relation.addRelationProperty(new RelationProperty(relationType));
+        pattern.addEdge(source, target, relation);
+    }
+
+}
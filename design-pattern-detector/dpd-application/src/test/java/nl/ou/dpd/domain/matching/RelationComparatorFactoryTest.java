@@ -56,6 +56,7 @@ public class RelationComparatorFactoryTest {
         inheritance.setCardinalityRight(Cardinality.valueOf("1"));
         relationProperties1.add(inheritance);
         when(inheritanceRelation.getRelationProperties()).thenReturn(relationProperties1);
+        when(inheritanceRelation.getRelationTypeMask()).thenReturn(RelationType.INHERITS_FROM.getMask());
         when(inheritanceRelation.getId()).thenReturn("inheritanceRelation");
         when(inheritanceRelation.getName()).thenReturn("inheritanceRelation");
 
@@ -66,6 +67,7 @@ public class RelationComparatorFactoryTest {
         inheritance2.setCardinalityRight(Cardinality.valueOf("2"));
         relationProperties2.add(inheritance2);
         when(inheritance2Relation.getRelationProperties()).thenReturn(relationProperties2);
+        when(inheritance2Relation.getRelationTypeMask()).thenReturn(RelationType.INHERITS_FROM.getMask());
         when(inheritance2Relation.getId()).thenReturn("inheritance2Relation");
         when(inheritance2Relation.getName()).thenReturn("inheritance2Relation");
 
@@ -76,6 +78,7 @@ public class RelationComparatorFactoryTest {
         inheritance3.setCardinalityRight(Cardinality.valueOf("1"));
         relationProperties3.add(inheritance3);
         when(inheritance3Relation.getRelationProperties()).thenReturn(relationProperties3);
+        when(inheritance3Relation.getRelationTypeMask()).thenReturn(RelationType.INHERITS_FROM.getMask());
         when(inheritance3Relation.getId()).thenReturn("inheritance3Relation");
         when(inheritance3Relation.getName()).thenReturn("inheritance3Relation");
 
@@ -86,6 +89,7 @@ public class RelationComparatorFactoryTest {
         association.setCardinalityLeft(Cardinality.valueOf("1"));
         association.setCardinalityRight(Cardinality.valueOf("1"));
         when(associationRelation.getRelationProperties()).thenReturn(relationProperties4);
+        when(associationRelation.getRelationTypeMask()).thenReturn(RelationType.ASSOCIATES_WITH.getMask());
         when(associationRelation.getId()).thenReturn("associationRelation");
         when(associationRelation.getName()).thenReturn("associationRelation");
     }
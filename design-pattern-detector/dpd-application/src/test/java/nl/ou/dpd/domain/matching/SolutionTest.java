@@ -140,4 +140,42 @@ public class SolutionTest {
         assertFalse(solution.isSimilar(solutionWithDifferentFamilyName));
     }
 
+    @Test
+    public void testGetSimilarityKey() {
+        solution.addMatchingNodes(systemNode, patternNode);
+        solution.addMatchingRelations(systemRelation, patternRelation);
+        final Solution other = new Solution(solution.getDesignPatternName(), solution.getPatternFamilyName());
+        assertThat(solution.getSimilarityKey().equals(other.getSimilarityKey()), is(false));
+
+        other.addMatchingNodes(systemNode, patternNode2);
+        assertThat(solution.getSimilarityKey().equals(other.getSimilarityKey()), is(false));
+
+        other.addMatchingRelations(systemRelation, patternRelation2);
+        assertThat(solution.getSimilarityKey(), is(other.getSimilarityKey()));
+        assertThat(solution.getSimilarityKey().hashCode(), is(other.getSimilarityKey().hashCode()));
+
+        other.addMatchingNodes(systemNode2, patternNode2);
+        assertThat(solution.getSimilarityKey().equals(other.getSimilarityKey()), is(false));
+
+        solution.addMatchingNodes(systemNode2, patternNode2);
+        assertThat(solution.getSimilarityKey(), is(other.getSimilarityKey()));
+
+        // The order in which the nodes were matched is irrelevant
+        final Solution reversed = new Solution(solution.getDesignPatternName(), solution.getPatternFamilyName())
+                .addMatchingNodes(systemNode2, patternNode)
+                .addMatchingNodes(systemNode, patternNode2)
+                .addMatchingRelations(systemRelation, patternRelation2);
+        assertThat(solution.getSimilarityKey(), is(reversed.getSimilarityKey()));
+
+        final Solution solutionWithDifferentName = new Solution("different", solution.getPatternFamilyName());
+        assertThat(solutionWithDifferentName.getSimilarityKey().equals(
+                new Solution(solution.getDesignPatternName(), solution.getPatternFamilyName()).getSimilarityKey()),
+                is(false));
+
+        final Solution solutionWithDifferentFamilyName = new Solution(solution.getDesignPatternName(), "different");
+        assertThat(solutionWithDifferentFamilyName.getSimilarityKey().equals(
+                new Solution(solution.getDesignPatternName(), solution.getPatternFamilyName()).getSimilarityKey()),
+                is(false));
+    }
+
 }
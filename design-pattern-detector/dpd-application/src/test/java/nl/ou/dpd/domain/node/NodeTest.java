@@ -113,6 +113,25 @@ public class NodeTest {
         assertFalse(node.equalsSignature(differentSignatureNode));
     }
 
+    @Test
+    public void testTypeMask() {
+        final Node node = new Node("id", "name", NodeType.INTERFACE);
+        assertThat(node.getTypeMask(), is(NodeType.INTERFACE.getMask()));
+
+        node.addType(NodeType.ABSTRACT_CLASS_OR_INTERFACE);
+        assertThat(node.getTypeMask(), is(NodeType.INTERFACE.getMask() | NodeType.ABSTRACT_CLASS_OR_INTERFACE.getMask()));
+
+        // Adding a type twice does not change the mask
+        node.addType(NodeType.INTERFACE);
+        assertThat(Long.bitCount(node.getTypeMask()), is(2));
+        assertThat(node.getTypes().size(), is(2));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testTypesAreUnmodifiable() {
+        new Node("id", "name", NodeType.INTERFACE).getTypes().add(NodeType.ABSTRACT_CLASS);
+    }
+
     private void addTypeToNode(Node node, NodeType type) {
         final int size = node.getTypes().size();
         node.addType(type);
@@ -186,4 +205,45 @@ public class NodeTest {
         assertFalse(node.equalsSignature(differentSignatureNode));
     }
 
+    @Test
+    public void testSignatureFingerprint() {
+        final Node node1 = createNodeWithOperations("node1", 200);
+        final Node node2 = createNodeWithOperations("node2", 200);
+        assertThat(node1.getSignatureFingerprint(), is(node2.getSignatureFingerprint()));
+        assertTrue(SignatureFingerprint.isDecisive(node1.getSignatureFingerprint()));
+        assertTrue(node1.equalsSignature(node2));
+
+        // Changing the name of an operation changes the fingerprint of its node
+        final long fingerprint = node2.getSignatureFingerprint();
+        node2.getOperations().iterator().next().setName("otherName");
+        assertFalse(fingerprint == node2.getSignatureFingerprint());
+        assertFalse(node1.equalsSignature(node2));
+        assertFalse(node2.equalsSignature(node1));
+    }
+
+    @Test
+    public void testAmbiguousSignatureFingerprint() {
+        // Every attribute of node1 has the same signature as an attribute of node2, but not the other way around
+        final Node type = new Node("type");
+        final Node node1 = new Node("node1", "name");
+        new Attribute("attr1", node1).setName("attr").setType(type);
+        new Attribute("attr2", node1).setName("attr").setType(type);
+        final Node node2 = new Node("node2", "name");
+        new Attribute("attr3", node2).setName("attr").setType(type);
+        new Attribute("attr4", node2).setName("otherAttr").setType(type);
+
+        assertFalse(SignatureFingerprint.isDecisive(node1.getSignatureFingerprint()));
+        assertTrue(node1.equalsSignature(node2));
+        assertFalse(node2.equalsSignature(node1));
+    }
+
+    private Node createNodeWithOperations(String id, int count) {
+        final Node node = new Node(id, "name", NodeType.CONCRETE_CLASS);
+        for (int i = 0; i < count; i++) {
+            final Operation operation = new Operation(id + "-op" + i, node).setName("operation" + i);
+            new Parameter(id + "-par" + i, operation).setName("parameter");
+        }
+        return node;
+    }
+
 }
@@ -60,6 +60,18 @@ public class RelationTest {
         assertTrue(relation.getRelationProperties().contains(relationProperty));
     }
 
+    @Test
+    public void testRelationTypeMask() {
+        assertThat(relation.getRelationTypeMask(), is(0L));
+
+        relation.addRelationProperty(relationProperty);
+        assertThat(relation.getRelationTypeMask(), is(RelationType.ASSOCIATES_WITH.getMask()));
+
+        relation.addRelationProperty(new RelationProperty(RelationType.DEPENDS_ON));
+        assertThat(relation.getRelationTypeMask(),
+                is(RelationType.ASSOCIATES_WITH.getMask() | RelationType.DEPENDS_ON.getMask()));
+    }
+
     @Test
     public void testEquals() {
         final Relation relation2 = new Relation(null, relation.getName());
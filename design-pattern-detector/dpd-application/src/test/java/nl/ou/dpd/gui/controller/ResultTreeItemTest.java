@@ -0,0 +1,78 @@
+package nl.ou.dpd.gui.controller;
+
+import javafx.scene.control.TreeItem;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link ResultTreeItem} class.
+ *
+ * @author Martin de Boer
+ */
+public class ResultTreeItemTest {
+
+    @Test
+    public void testChildrenAreCreatedWhenNeeded() {
+        final AtomicInteger created = new AtomicInteger();
+        final ResultTreeItem item = ResultTreeItem.withChildren("parent", () -> {
+            created.incrementAndGet();
+            return ResultTreeItem.createPages(3, 10, i -> new TreeItem<>("child" + i), (first, last) -> "page");
+        });
+
+        assertFalse(item.isLeaf());
+        assertThat(created.get(), is(0));
+
+        assertThat(item.getChildren().size(), is(3));
+        assertThat(item.getChildren().size(), is(3));
+        assertThat(created.get(), is(1));
+        assertThat(item.getChildren().get(2).getValue(), is("child2"));
+    }
+
+    @Test
+    public void testSelect() {
+        final AtomicInteger selected = new AtomicInteger();
+        final ResultTreeItem item = ResultTreeItem.withAction("solution", selected::incrementAndGet);
+
+        assertTrue(item.isLeaf());
+        assertTrue(item.select());
+        assertThat(selected.get(), is(1));
+        assertFalse(ResultTreeItem.withChildren("pattern", () -> null).select());
+    }
+
+    @Test
+    public void testCreatePages() {
+        final AtomicInteger created = new AtomicInteger();
+        final List<TreeItem<String>> pages = ResultTreeItem.createPages(
+                25000,
+                100,
+                i -> {
+                    created.incrementAndGet();
+                    return new TreeItem<>("item" + i);
+                },
+                (first, last) -> first + "-" + last);
+
+        // Pages of pages, with at most 100 children each
+        assertThat(getValues(pages), is("1-10000, 10001-20000, 20001-25000"));
+        final List<TreeItem<String>> lastPages = pages.get(2).getChildren();
+        assertThat(lastPages.size(), is(50));
+        assertThat(lastPages.get(49).getValue(), is("24901-25000"));
+        assertThat(created.get(), is(0));
+
+        // Only the items of an expanded page are created
+        assertThat(lastPages.get(49).getChildren().get(99).getValue(), is("item24999"));
+        assertThat(created.get(), is(100));
+    }
+
+    private String getValues(List<TreeItem<String>> items) {
+        return items.stream().map(TreeItem::getValue).collect(Collectors.joining(", "));
+    }
+
+}
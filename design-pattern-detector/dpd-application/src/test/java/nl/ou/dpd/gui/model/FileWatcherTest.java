@@ -0,0 +1,108 @@
+package nl.ou.dpd.gui.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Tests the {@link FileWatcher} class.
+ *
+ * @author Martin de Boer
+ */
+public class FileWatcherTest {
+
+    private static final long QUIET_PERIOD_MILLIS = 200;
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final AtomicInteger changes = new AtomicInteger();
+    private CountDownLatch changed;
+    private FileWatcher fileWatcher;
+
+    @Before
+    public void initFileWatcher() {
+        changed = new CountDownLatch(1);
+        fileWatcher = new FileWatcher(QUIET_PERIOD_MILLIS, () -> {
+            changes.incrementAndGet();
+            changed.countDown();
+        });
+    }
+
+    @After
+    public void stopFileWatcher() {
+        fileWatcher.stop();
+    }
+
+    @Test
+    public void testBurstOfChangesIsReportedOnce() throws Exception {
+        final File system = createFile("system.xmi", "content");
+        final File templates = createFile("templates.xml", "content");
+        fileWatcher.watch(system.getPath(), templates.getPath(), null);
+        assertThat(fileWatcher.isWatching(), is(true));
+
+        writeFile(system, "content1");
+        writeFile(templates, "content2");
+        writeFile(system, "content3");
+
+        assertThat(changed.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), is(true));
+        Thread.sleep(3 * QUIET_PERIOD_MILLIS);
+        assertThat(changes.get(), is(1));
+    }
+
+    @Test
+    public void testOtherFilesAreIgnored() throws Exception {
+        final File system = createFile("system.xmi", "content");
+        final File other = createFile("other.xmi", "content");
+        fileWatcher.watch(system.getPath());
+
+        writeFile(other, "changed");
+
+        assertThat(changed.await(3 * QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS), is(false));
+        assertThat(changes.get(), is(0));
+    }
+
+    @Test
+    public void testStoppedWatcherDoesNotReport() throws Exception {
+        final File system = createFile("system.xmi", "content");
+        fileWatcher.watch(system.getPath());
+
+        fileWatcher.stop();
+        writeFile(system, "changed");
+
+        assertThat(fileWatcher.isWatching(), is(false));
+        assertThat(changed.await(3 * QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS), is(false));
+        assertThat(changes.get(), is(0));
+    }
+
+    @Test
+    public void testNothingToWatch() {
+        fileWatcher.watch(null, "");
+        assertThat(fileWatcher.isWatching(), is(false));
+    }
+
+    private File createFile(String name, String content) throws IOException {
+        final File file = temporaryFolder.newFile(name);
+        writeFile(file, content);
+        return file;
+    }
+
+    private void writeFile(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
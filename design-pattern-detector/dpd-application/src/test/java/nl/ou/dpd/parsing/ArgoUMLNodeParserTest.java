@@ -13,18 +13,20 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
 
 import static junit.framework.TestCase.fail;
 import static nl.ou.dpd.parsing.ArgoUMLAbstractParser.XMI_FILE_COULD_NOT_BE_PARSED_SHORT_MSG;
-import static nl.ou.dpd.parsing.ParseTestHelper.createAttributeMock;
+import static nl.ou.dpd.parsing.ParseTestHelper.createXMLStreamReaderMock;
+import static nl.ou.dpd.parsing.ParseTestHelper.endElement;
+import static nl.ou.dpd.parsing.ParseTestHelper.startElement;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertTrue;
@@ -70,7 +72,7 @@ public class ArgoUMLNodeParserTest {
     private static final String ABSTRACT_CLASS_NODE_ID = "abstractClassNodeId";
 
     // This file is created just to satisfy the FileInputStream of the parser
-    private String xmiFile = getPath("/argoUML/dummy.xmi");
+    private XmiSource xmiFile = XmiSource.of(Paths.get(getPath("/argoUML/dummy.xmi")));
 
     @Rule
     public ExpectedException thrown = ExpectedException.none();
@@ -78,14 +80,6 @@ public class ArgoUMLNodeParserTest {
     @Mock
     private XMLInputFactory xmlInputFactory;
 
-    @Mock
-    private XMLEventReader xmlEventReader;
-
-    @Mock
-    XMLEvent modelEvent, classEvent, abstractClassEvent, interfaceEvent, datatypeEvent,
-            attributeEvent, operationEvent, inputParamEvent1, inputParamEvent2,
-            inputParamTypeEvent1, inputParamTypeEvent2, returnParamEvent, returnParamTypeEvent;
-
     private ArgoUMLNodeParser nodeParser;
 
     /**
@@ -96,110 +90,53 @@ public class ArgoUMLNodeParserTest {
     @Before
     public void initNodeParser() throws XMLStreamException {
         nodeParser = new ArgoUMLNodeParser(xmlInputFactory);
-        when(xmlInputFactory.createXMLEventReader(any(InputStream.class))).thenReturn(xmlEventReader);
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class))).thenReturn(createStreamReader(null));
     }
 
     /**
-     * Mocks the order in which the event reader reads the XML elements. Here, we put together a complete, mocked,
-     * structure of the system design that is being parsed by the {@link ArgoUMLNodeParser}.
+     * Mocks the order in which the stream reader reads the XML elements. Here, we put together a complete, mocked,
+     * structure of the system design that is being parsed by the {@link ArgoUMLNodeParser}. The model contains an
+     * interface, a class and an abstract class. The class has an attribute of type "Integer", and an operation that
+     * has two input parameters (one of type "interfaceNode" and one of type Integer) and one return value of type
+     * "interfaceNode".
      *
-     * @throws XMLStreamException not expected
-     */
-    @Before
-    public void initEventReader() throws XMLStreamException {
-        when(xmlEventReader.hasNext()).thenReturn(
-                true, // model start-element
-                true, // interface start-element
-                true, // interface end-element
-                true, // class start-element
-                true, // attribute start-element
-                true, // datatype start-element
-                true, // datatype end-element
-                true, // attribute end-element
-                true, // operation start-element
-                true, // input parameter start-element 1
-                true, // input paramType start-element 1
-                true, // input paramType end-element 1
-                true, // input parameter end-element 1
-                true, // input parameter start-element 2
-                true, // input paramType start-element 2
-                true, // input paramType end-element 2
-                true, // input parameter end-element 2
-                true, // return parameter start-element
-                true, // return paramType start-element
-                true, // return paramType end-element
-                true, // return parameter end-element
-                true, // operation end-element
-                true, // class end-element
-                true, // abstract class start-element
-                true, // abstract class end-element
-                true, // model end-element
-                false);
-        when(xmlEventReader.nextEvent()).thenReturn(
-                modelEvent,
-                interfaceEvent, interfaceEvent,
-                classEvent,
-                attributeEvent, datatypeEvent, datatypeEvent, attributeEvent,
-                operationEvent,
-                inputParamEvent1, inputParamTypeEvent1, inputParamTypeEvent1, inputParamEvent1,
-                inputParamEvent2, inputParamTypeEvent2, inputParamTypeEvent2, inputParamEvent2,
-                returnParamEvent, returnParamTypeEvent, returnParamTypeEvent, returnParamEvent,
-                operationEvent,
-                classEvent,
-                abstractClassEvent, abstractClassEvent,
-                modelEvent);
-    }
-
-    /**
-     * Mocks the events that the event reader reads.
+     * @param failure an exception to be thrown when the reader reaches the end of the interface, or {@code null}.
+     * @return the mocked stream reader.
      */
-    @Before
-    public void initEvents() {
-        modelEvent = ParseTestHelper.createXMLEventMock(MODEL_TAG);
-
-        // Mock an interface, a class and an abstract class
-        interfaceEvent = ParseTestHelper.createXMLEventMock(INTERFACE_TAG, mockId(INTERFACE_NODE_ID));
-        classEvent = ParseTestHelper.createXMLEventMock(CLASS_TAG, mockId(CLASS_NODE_ID));
-        abstractClassEvent = ParseTestHelper.createXMLEventMock(CLASS_TAG, mockId(ABSTRACT_CLASS_NODE_ID), mockIsAbstract(true));
-
-        // Mock an attribute of type "Integer"
-        attributeEvent = ParseTestHelper.createXMLEventMock(ATTRIBUTE_TAG, mockId(ATTRIBUTE_ID));
-        datatypeEvent = ParseTestHelper.createXMLEventMock(DATATYPE_TAG, mockHref(INTEGER_HREF));
-
-        // Mock an operation that has two input parameters: one of type "interfaceNode" and one of type Integer, and
-        // one return value of type "interfaceNode"
-        operationEvent = ParseTestHelper.createXMLEventMock(OPERATION_TAG, mockId(OPERATION_ID));
-        inputParamEvent1 = ParseTestHelper.createXMLEventMock(PARAMETER_TAG, mockParamKind(INPUT_ATTRIBUTE), mockId(PARAMETER_ID_1));
-        inputParamTypeEvent1 = ParseTestHelper.createXMLEventMock(INTERFACE_TAG, mockIdRef(INTERFACE_NODE_ID));
-        inputParamEvent2 = ParseTestHelper.createXMLEventMock(PARAMETER_TAG, mockParamKind(INPUT_ATTRIBUTE), mockId(PARAMETER_ID_2));
-        inputParamTypeEvent2 = ParseTestHelper.createXMLEventMock(DATATYPE_TAG, mockHref(INTEGER_HREF));
-        returnParamEvent = ParseTestHelper.createXMLEventMock(PARAMETER_TAG, mockParamKind(RETURN_ATTRIBUTE), mockId(RETURN_TYPE_ID));
-        returnParamTypeEvent = ParseTestHelper.createXMLEventMock(INTERFACE_TAG, mockIdRef(INTERFACE_NODE_ID));
-    }
-
-    private javax.xml.stream.events.Attribute mockHref(String href) {
-        return createAttributeMock(ArgoUMLAbstractParser.HREF_ATTRIBUTE, href);
-    }
-
-    private javax.xml.stream.events.Attribute mockIsAbstract(boolean isAbstract) {
-        return createAttributeMock(IS_ABSTRACT_ATTRIBUTE, Boolean.toString(isAbstract));
-    }
-
-    private javax.xml.stream.events.Attribute mockParamKind(String inOrReturn) {
-        return createAttributeMock(KIND_ATTRIBUTE, inOrReturn);
-    }
-
-    private javax.xml.stream.events.Attribute mockId(String id) {
-        return createAttributeMock(ID_ATTRIBUTE, id);
-    }
-
-    private javax.xml.stream.events.Attribute mockIdRef(String idRef) {
-        return createAttributeMock(IDREF_ATTRIBUTE, idRef);
+    private XMLStreamReader createStreamReader(RuntimeException failure) {
+        return createXMLStreamReaderMock(
+                startElement(MODEL_TAG),
+                startElement(INTERFACE_TAG).with(ID_ATTRIBUTE, INTERFACE_NODE_ID),
+                endElement(INTERFACE_TAG).failingWith(failure),
+                startElement(CLASS_TAG).with(ID_ATTRIBUTE, CLASS_NODE_ID),
+                startElement(ATTRIBUTE_TAG).with(ID_ATTRIBUTE, ATTRIBUTE_ID),
+                startElement(DATATYPE_TAG).with(ArgoUMLAbstractParser.HREF_ATTRIBUTE, INTEGER_HREF),
+                endElement(DATATYPE_TAG),
+                endElement(ATTRIBUTE_TAG),
+                startElement(OPERATION_TAG).with(ID_ATTRIBUTE, OPERATION_ID),
+                startElement(PARAMETER_TAG).with(KIND_ATTRIBUTE, INPUT_ATTRIBUTE).with(ID_ATTRIBUTE, PARAMETER_ID_1),
+                startElement(INTERFACE_TAG).with(IDREF_ATTRIBUTE, INTERFACE_NODE_ID),
+                endElement(INTERFACE_TAG),
+                endElement(PARAMETER_TAG),
+                startElement(PARAMETER_TAG).with(KIND_ATTRIBUTE, INPUT_ATTRIBUTE).with(ID_ATTRIBUTE, PARAMETER_ID_2),
+                startElement(DATATYPE_TAG).with(ArgoUMLAbstractParser.HREF_ATTRIBUTE, INTEGER_HREF),
+                endElement(DATATYPE_TAG),
+                endElement(PARAMETER_TAG),
+                startElement(PARAMETER_TAG).with(KIND_ATTRIBUTE, RETURN_ATTRIBUTE).with(ID_ATTRIBUTE, RETURN_TYPE_ID),
+                startElement(INTERFACE_TAG).with(IDREF_ATTRIBUTE, INTERFACE_NODE_ID),
+                endElement(INTERFACE_TAG),
+                endElement(PARAMETER_TAG),
+                endElement(OPERATION_TAG),
+                endElement(CLASS_TAG),
+                startElement(CLASS_TAG).with(ID_ATTRIBUTE, ABSTRACT_CLASS_NODE_ID)
+                        .with(IS_ABSTRACT_ATTRIBUTE, Boolean.toString(true)),
+                endElement(CLASS_TAG),
+                endElement(MODEL_TAG));
     }
 
     @Test
     public void testParsedNodes() {
-        assertTrue(nodeParser.events.isEmpty());
+        assertThat(nodeParser.getDepth(), is(0));
 
         final Map<String, Node> nodeMap = nodeParser.parse(xmiFile);
         assertThat(nodeMap.keySet().size(), is(4));
@@ -209,7 +146,7 @@ public class ArgoUMLNodeParserTest {
         assertInterface(nodeMap);
         assertDataType(nodeMap);
 
-        assertTrue(nodeParser.events.isEmpty());
+        assertThat(nodeParser.getDepth(), is(0));
     }
 
     private void assertClassNode(Map<String, Node> nodeMap) {
@@ -295,8 +232,9 @@ public class ArgoUMLNodeParserTest {
     }
 
     @Test
-    public void testAnyException() {
-        when(interfaceEvent.asEndElement()).thenThrow(new IllegalArgumentException());
+    public void testAnyException() throws XMLStreamException {
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class)))
+                .thenReturn(createStreamReader(new IllegalArgumentException()));
         thrown.expect(ParseException.class);
         thrown.expectCause(is(IllegalArgumentException.class));
         thrown.expectMessage(XMI_FILE_COULD_NOT_BE_PARSED_SHORT_MSG);
@@ -304,9 +242,10 @@ public class ArgoUMLNodeParserTest {
     }
 
     @Test
-    public void testParseException() {
+    public void testParseException() throws XMLStreamException {
         final String errorMsg = "Darn!";
-        when(interfaceEvent.asEndElement()).thenThrow(new ParseException(errorMsg, null));
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class)))
+                .thenReturn(createStreamReader(new ParseException(errorMsg, null)));
         thrown.expect(ParseException.class);
         thrown.expectMessage(errorMsg);
         nodeParser.parse(xmiFile);
@@ -4,13 +4,20 @@ import nl.ou.dpd.domain.SystemUnderConsideration;
 import nl.ou.dpd.domain.node.Node;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -45,13 +52,13 @@ public class ArgoUMLParserTest {
     public void testParseFile() {
         final ArgoUMLParser parser = new ArgoUMLParser(nodeParser, relationParser, systemRelationsExtractor);
         final String xmiFilename = getPath(DUMMY_XMI);
-        when(nodeParser.parse(eq(xmiFilename))).thenReturn(nodes);
-        when(relationParser.parse(xmiFilename, nodes)).thenReturn(system);
+        when(nodeParser.parse(sourceNamed(xmiFilename))).thenReturn(nodes);
+        when(relationParser.parse(sourceNamed(xmiFilename), eq(nodes))).thenReturn(system);
 
         parser.parse(xmiFilename);
 
-        verify(nodeParser, times(1)).parse(xmiFilename);
-        verify(relationParser, times(1)).parse(xmiFilename, nodes);
+        verify(nodeParser, times(1)).parse(sourceNamed(xmiFilename));
+        verify(relationParser, times(1)).parse(sourceNamed(xmiFilename), eq(nodes));
         verify(systemRelationsExtractor, times(1)).execute(system);
     }
 
@@ -59,17 +66,58 @@ public class ArgoUMLParserTest {
     public void testParseURL() {
         final ArgoUMLParser parser = new ArgoUMLParser(nodeParser, relationParser, systemRelationsExtractor);
         final URL xmiURL = getURL(DUMMY_XMI);
-        final String xmiFilename = xmiURL.getPath();
-        when(nodeParser.parse(eq(xmiFilename))).thenReturn(nodes);
-        when(relationParser.parse(xmiFilename, nodes)).thenReturn(system);
+        final String xmiName = xmiURL.toString();
+        when(nodeParser.parse(sourceNamed(xmiName))).thenReturn(nodes);
+        when(relationParser.parse(sourceNamed(xmiName), eq(nodes))).thenReturn(system);
 
         parser.parse(xmiURL);
 
-        verify(nodeParser, times(1)).parse(xmiFilename);
-        verify(relationParser, times(1)).parse(xmiFilename, nodes);
+        verify(nodeParser, times(1)).parse(sourceNamed(xmiName));
+        verify(relationParser, times(1)).parse(sourceNamed(xmiName), eq(nodes));
         verify(systemRelationsExtractor, times(1)).execute(system);
     }
 
+    @Test
+    public void testParseFileInOnePass() {
+        final ArgoUMLParser parser = new ArgoUMLParser(nodeParser, relationParser, systemRelationsExtractor, true);
+        final String xmiFilename = getPath(DUMMY_XMI);
+        when(nodeParser.parse(sourceNamed(xmiFilename), any(SymbolTable.class), any(Consumer.class))).thenReturn(nodes);
+        when(relationParser.parse(sourceNamed(xmiFilename), any(ArgoUMLRelationParser.Recording.class), any(SymbolTable.class))).thenReturn(system);
+
+        parser.parse(xmiFilename);
+
+        verify(nodeParser, times(1)).parse(sourceNamed(xmiFilename), any(SymbolTable.class), any(Consumer.class));
+        verify(nodeParser, never()).parse(any(XmiSource.class));
+        verify(relationParser, times(1)).parse(sourceNamed(xmiFilename), any(ArgoUMLRelationParser.Recording.class), any(SymbolTable.class));
+        verify(relationParser, never()).parse(any(XmiSource.class), eq(nodes));
+        verify(systemRelationsExtractor, times(1)).execute(system);
+    }
+
+    @Test
+    public void testParseInputStreamInOnePass() {
+        // Two passes are requested, but a stream can be read only once
+        final ArgoUMLParser parser = new ArgoUMLParser(nodeParser, relationParser, systemRelationsExtractor);
+        final InputStream xmiStream = new ByteArrayInputStream(new byte[0]);
+        when(nodeParser.parse(sourceNamed("stream"), any(SymbolTable.class), any(Consumer.class))).thenReturn(nodes);
+        when(relationParser.parse(sourceNamed("stream"), any(ArgoUMLRelationParser.Recording.class), any(SymbolTable.class))).thenReturn(system);
+
+        parser.parse(xmiStream, "stream");
+
+        verify(nodeParser, times(1)).parse(sourceNamed("stream"), any(SymbolTable.class), any(Consumer.class));
+        verify(nodeParser, never()).parse(any(XmiSource.class));
+        verify(relationParser, times(1)).parse(sourceNamed("stream"), any(ArgoUMLRelationParser.Recording.class), any(SymbolTable.class));
+        verify(systemRelationsExtractor, times(1)).execute(system);
+    }
+
+    private static XmiSource sourceNamed(String name) {
+        return argThat(new ArgumentMatcher<XmiSource>() {
+            @Override
+            public boolean matches(Object source) {
+                return source instanceof XmiSource && ((XmiSource) source).getName().equals(name);
+            }
+        });
+    }
+
     private String getPath(String resourceName) {
         return this.getClass().getResource(resourceName).getPath();
     }
@@ -15,14 +15,12 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
+import java.nio.file.Paths;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -32,7 +30,9 @@ import static nl.ou.dpd.domain.relation.RelationType.IMPLEMENTS;
 import static nl.ou.dpd.domain.relation.RelationType.INHERITS_FROM_OR_IMPLEMENTS;
 import static nl.ou.dpd.parsing.ArgoUMLAbstractParser.XMI_FILE_COULD_NOT_BE_PARSED_SHORT_MSG;
 import static nl.ou.dpd.parsing.ArgoUMLRelationParser.REVERSED_POSTFIX;
-import static nl.ou.dpd.parsing.ParseTestHelper.createAttributeMock;
+import static nl.ou.dpd.parsing.ParseTestHelper.createXMLStreamReaderMock;
+import static nl.ou.dpd.parsing.ParseTestHelper.endElement;
+import static nl.ou.dpd.parsing.ParseTestHelper.startElement;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.core.Is.is;
@@ -83,7 +83,7 @@ public class ArgoUMLRelationParserTest {
     private static final Cardinality CARDINALITY_1 = Cardinality.valueOf("1");
 
     // This file is created just to satisfy the FileInputStream of the parser
-    private String xmiFile = getPath("/argoUML/dummy.xmi");
+    private XmiSource xmiFile = XmiSource.of(Paths.get(getPath("/argoUML/dummy.xmi")));
 
     @Rule
     public ExpectedException thrown = ExpectedException.none();
@@ -91,15 +91,6 @@ public class ArgoUMLRelationParserTest {
     @Mock
     private XMLInputFactory xmlInputFactory;
 
-    @Mock
-    private XMLEventReader xmlEventReader;
-
-    @Mock
-    XMLEvent
-            modelEvent, classEvent, interfaceEvent, abstractionEvent, multiplicityRangeClassEvent,
-            multiplicityRangeInterfaceEvent, associationEvent, associationClassEndEvent,
-            associationInterfaceEndEvent;
-
     private Map<String, Node> nodes;
 
     private ArgoUMLRelationParser relationParser;
@@ -112,7 +103,7 @@ public class ArgoUMLRelationParserTest {
     @Before
     public void initRelationParser() throws XMLStreamException {
         relationParser = new ArgoUMLRelationParser(xmlInputFactory);
-        when(xmlInputFactory.createXMLEventReader(any(InputStream.class))).thenReturn(xmlEventReader);
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class))).thenReturn(createStreamReader(null));
     }
 
     /**
@@ -134,111 +125,58 @@ public class ArgoUMLRelationParserTest {
     }
 
     /**
-     * Mocks the order in which the event reader reads the XML elements. Here, we put together a complete, mocked,
-     * structure of the system design that is being parsed by the {@link ArgoUMLRelationParser}.
+     * Mocks the order in which the stream reader reads the XML elements. Here, we put together a complete, mocked,
+     * structure of the system design that is being parsed by the {@link ArgoUMLRelationParser}: an association between
+     * an interface with a multiplicity of 1..1 and a class with a multiplicity of 0..-1, and an abstraction between
+     * the class and the interface.
      *
-     * @throws XMLStreamException not expected
+     * @param failure an exception to be thrown when the reader reaches the end of the model, or {@code null}.
+     * @return the mocked stream reader.
      */
-    @Before
-    public void initEventReader() throws XMLStreamException {
-        when(xmlEventReader.hasNext()).thenReturn(
-                true, // model start-element
-                true, // association start-element
-                true, // association-end start-element
-                true, // multiplicity-range start-element
-                true, // multiplicity-range end-element
-                true, // interface start-element
-                true, // interface end-element
-                true, // association-end end-element
-                true, // association-end start-element
-                true, // multiplicity-range start-element
-                true, // multiplicity-range end-element
-                true, // class start-element
-                true, // class end-element
-                true, // association-end end-element
-                true, // association end-element
-                true, // model end-element
-                true, // abstraction start-element
-                true, // class start-element
-                true, // class end-element
-                true, // interface start-element
-                true, // interface end-element
-                true, // abstraction end-element
-                false
-        );
-        when(xmlEventReader.nextEvent()).thenReturn(
+    private XMLStreamReader createStreamReader(RuntimeException failure) {
+        return createXMLStreamReaderMock(
                 // Start model
-                modelEvent,
+                startElement(MODEL_TAG).with(ID_ATTRIBUTE, MODEL_ID),
                 // Een association tussen een interface met een mulitpliciteit van 1..1, en een class met een
                 // multipliciteit 0..-1
-                associationEvent,
-                associationInterfaceEndEvent, multiplicityRangeInterfaceEvent, multiplicityRangeInterfaceEvent, interfaceEvent, interfaceEvent, associationInterfaceEndEvent,
-                associationClassEndEvent, multiplicityRangeClassEvent, multiplicityRangeClassEvent, classEvent, classEvent, associationClassEndEvent,
-                associationEvent,
+                startElement(ASSOCIATION_TAG).with(ID_ATTRIBUTE, ASSOCIATION_ID),
+                startElement(ASSOCIATION_END_TAG).with(ID_ATTRIBUTE, ASSOCIATION_CLASS_END_ID)
+                        .with(IS_NAVIGABLE_ATTRIBUTE, "true"),
+                multiplicityRange(1, 1),
+                endElement(MULTIPLICITY_RANGE_TAG),
+                startElement(INTERFACE_TAG).with(IDREF_ATTRIBUTE, INTERFACE_ID),
+                endElement(INTERFACE_TAG),
+                endElement(ASSOCIATION_END_TAG),
+                startElement(ASSOCIATION_END_TAG).with(ID_ATTRIBUTE, ASSOCIATION_INTERFACE_END_ID)
+                        .with(IS_NAVIGABLE_ATTRIBUTE, "true"),
+                multiplicityRange(0, Cardinality.UNLIMITED),
+                endElement(MULTIPLICITY_RANGE_TAG),
+                startElement(CLASS_TAG).with(IDREF_ATTRIBUTE, CLASS_ID),
+                endElement(CLASS_TAG),
+                endElement(ASSOCIATION_END_TAG),
+                endElement(ASSOCIATION_TAG),
                 // Een abstraction tussen een class en en interface
-                abstractionEvent,
-                classEvent, classEvent,
-                interfaceEvent, interfaceEvent,
-                abstractionEvent,
+                startElement(ABSTRACTION_TAG).with(ID_ATTRIBUTE, ABSTRACTION_ID).with(NAME_ATTRIBUTE, ABSTRACTION_NAME),
+                startElement(CLASS_TAG).with(IDREF_ATTRIBUTE, CLASS_ID),
+                endElement(CLASS_TAG),
+                startElement(INTERFACE_TAG).with(IDREF_ATTRIBUTE, INTERFACE_ID),
+                endElement(INTERFACE_TAG),
+                endElement(ABSTRACTION_TAG),
                 // End model
-                modelEvent
+                endElement(MODEL_TAG).failingWith(failure)
         );
     }
 
-    /**
-     * Mocks the events that the event reader reads.
-     */
-    @Before
-    public void initEvents() {
-        modelEvent = ParseTestHelper.createXMLEventMock(MODEL_TAG, mockId(MODEL_ID));
-        abstractionEvent = ParseTestHelper.createXMLEventMock(ABSTRACTION_TAG, mockId(ABSTRACTION_ID), mockName(ABSTRACTION_NAME));
-        classEvent = ParseTestHelper.createXMLEventMock(CLASS_TAG, mockIdRef(CLASS_ID));
-        interfaceEvent = ParseTestHelper.createXMLEventMock(INTERFACE_TAG, mockIdRef(INTERFACE_ID));
-
-        associationEvent = ParseTestHelper.createXMLEventMock(ASSOCIATION_TAG, mockId(ASSOCIATION_ID));
-        multiplicityRangeClassEvent = ParseTestHelper.createXMLEventMock(
-                MULTIPLICITY_RANGE_TAG,
-                mockIdAndCardinality(MULTIPLICITY_RANGE_ID, 0, Cardinality.UNLIMITED));
-        multiplicityRangeInterfaceEvent = ParseTestHelper.createXMLEventMock(
-                MULTIPLICITY_RANGE_TAG,
-                mockIdAndCardinality(MULTIPLICITY_RANGE_ID, 1, 1));
-        associationInterfaceEndEvent = ParseTestHelper.createXMLEventMock(
-                ASSOCIATION_END_TAG,
-                mockId(ASSOCIATION_CLASS_END_ID),
-                mockNavigable("true"));
-        associationClassEndEvent = ParseTestHelper.createXMLEventMock(
-                ASSOCIATION_END_TAG,
-                mockId(ASSOCIATION_INTERFACE_END_ID),
-                mockNavigable("true"));
-    }
-
-    private Iterator<Attribute> mockIdAndCardinality(String id, int lower, int upper) {
-        final Set<Attribute> attributes = new HashSet<>();
-        attributes.add(mockId(id));
-        attributes.add(createAttributeMock(LOWER_ATTRIBUTE, Integer.toString(lower)));
-        attributes.add(createAttributeMock(UPPER_ATTRIBUTE, Integer.toString(upper)));
-        return attributes.iterator();
-    }
-
-    private Attribute mockId(String id) {
-        return createAttributeMock(ID_ATTRIBUTE, id);
-    }
-
-    private Attribute mockIdRef(String idRef) {
-        return createAttributeMock(IDREF_ATTRIBUTE, idRef);
-    }
-
-    private Attribute mockNavigable(String isNavigable) {
-        return createAttributeMock(IS_NAVIGABLE_ATTRIBUTE, isNavigable);
-    }
-
-    private Attribute mockName(String name) {
-        return createAttributeMock(NAME_ATTRIBUTE, name);
+    private ParseTestHelper.Element multiplicityRange(int lower, int upper) {
+        return startElement(MULTIPLICITY_RANGE_TAG)
+                .with(ID_ATTRIBUTE, MULTIPLICITY_RANGE_ID)
+                .with(LOWER_ATTRIBUTE, Integer.toString(lower))
+                .with(UPPER_ATTRIBUTE, Integer.toString(upper));
     }
 
     @Test
     public void testParseRelations() {
-        assertTrue(relationParser.events.isEmpty());
+        assertThat(relationParser.getDepth(), is(0));
 
         final SystemUnderConsideration system = relationParser.parse(xmiFile, nodes);
         assertThat(system.getId(), is(MODEL_ID));
@@ -311,7 +249,7 @@ public class ArgoUMLRelationParserTest {
             assertThat(associationProperty.getCardinalityRight(), is(Cardinality.valueOf("*")));
         }
 
-        assertTrue(relationParser.events.isEmpty());
+        assertThat(relationParser.getDepth(), is(0));
     }
 
     private Map<String, Relation> setToMap(Set<Relation> relations) {
@@ -321,8 +259,9 @@ public class ArgoUMLRelationParserTest {
     }
 
     @Test
-    public void testAnyException() {
-        when(modelEvent.asEndElement()).thenThrow(new IllegalArgumentException());
+    public void testAnyException() throws XMLStreamException {
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class)))
+                .thenReturn(createStreamReader(new IllegalArgumentException()));
         thrown.expect(ParseException.class);
         thrown.expectCause(is(IllegalArgumentException.class));
         thrown.expectMessage(XMI_FILE_COULD_NOT_BE_PARSED_SHORT_MSG);
@@ -330,9 +269,10 @@ public class ArgoUMLRelationParserTest {
     }
 
     @Test
-    public void testParseException() {
+    public void testParseException() throws XMLStreamException {
         final String errorMsg = "Darn!";
-        when(modelEvent.asEndElement()).thenThrow(new ParseException(errorMsg, null));
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class)))
+                .thenReturn(createStreamReader(new ParseException(errorMsg, null)));
         thrown.expect(ParseException.class);
         thrown.expectMessage(errorMsg);
         relationParser.parse(xmiFile, nodes);
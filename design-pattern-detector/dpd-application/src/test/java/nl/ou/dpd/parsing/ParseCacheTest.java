@@ -0,0 +1,248 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the {@link ParseCache} class.
+ *
+ * @author Martin de Boer
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ParseCacheTest {
+
+    // Room for two empty systems, but not for three
+    private static final long MAX_HEAP_SIZE = 2500;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Mock
+    private Function<String, SystemUnderConsideration> systemParser;
+    @Mock
+    private Function<String, List<DesignPattern>> designPatternsParser;
+
+    private ParseCache parseCache;
+
+    @Before
+    public void initParseCache() {
+        when(systemParser.apply(anyString())).thenAnswer(invocation -> new SystemUnderConsideration("id", "name"));
+        when(designPatternsParser.apply(anyString())).thenAnswer(invocation -> new ArrayList<>());
+        parseCache = new ParseCache(MAX_HEAP_SIZE, systemParser, designPatternsParser);
+    }
+
+    @Test
+    public void testUnchangedFileIsParsedOnce() throws IOException {
+        final String path = createFile("system.xmi", "content").getPath();
+
+        final SystemUnderConsideration system = parseCache.getSystem(path);
+        assertThat(parseCache.getSystem(path), is(sameInstance(system)));
+
+        verify(systemParser, times(1)).apply(path);
+        assertThat(parseCache.size(), is(1));
+    }
+
+    @Test
+    public void testFileBeingParsedIsNotParsedAgain() throws Exception {
+        final String path = createFile("system.xmi", "content").getPath();
+        final AtomicReference<SystemUnderConsideration> waitingResult = new AtomicReference<>();
+        final Thread waiting = new Thread(() -> waitingResult.set(parseCache.getSystem(path)));
+
+        // While the file is being parsed, another thread asks for it and waits for the parse in progress
+        when(systemParser.apply(path)).thenAnswer(invocation -> {
+            waiting.start();
+            while (waiting.getState() != Thread.State.WAITING && waiting.isAlive()) {
+                Thread.sleep(1);
+            }
+            return new SystemUnderConsideration("id", "name");
+        });
+
+        final SystemUnderConsideration system = parseCache.getSystem(path);
+        waiting.join();
+
+        assertThat(waitingResult.get(), is(sameInstance(system)));
+        verify(systemParser, times(1)).apply(path);
+        assertThat(parseCache.size(), is(1));
+    }
+
+    @Test
+    public void testFailedParseIsReportedToWaitingThreads() throws Exception {
+        final String path = createFile("system.xmi", "content").getPath();
+        final AtomicReference<Throwable> waitingError = new AtomicReference<>();
+        final Thread waiting = new Thread(() -> {
+            try {
+                parseCache.getSystem(path);
+            } catch (RuntimeException e) {
+                waitingError.set(e);
+            }
+        });
+        final ParseException parseException = new ParseException("Failed", null);
+
+        when(systemParser.apply(path)).thenAnswer(invocation -> {
+            waiting.start();
+            while (waiting.getState() != Thread.State.WAITING && waiting.isAlive()) {
+                Thread.sleep(1);
+            }
+            throw parseException;
+        });
+
+        try {
+            parseCache.getSystem(path);
+            fail("Expected a ParseException.");
+        } catch (ParseException e) {
+            assertThat(e, is(sameInstance(parseException)));
+        }
+        waiting.join();
+
+        assertThat(waitingError.get(), is(sameInstance(parseException)));
+        verify(systemParser, times(1)).apply(path);
+        assertThat(parseCache.size(), is(0));
+    }
+
+    @Test
+    public void testChangedFileIsParsedAgain() throws IOException {
+        final File file = createFile("system.xmi", "content");
+        final FileTime lastModified = Files.getLastModifiedTime(file.toPath());
+        final SystemUnderConsideration system = parseCache.getSystem(file.getPath());
+
+        // Same size, different contents and modification time
+        Files.write(file.toPath(), "CONTENT".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(lastModified.toMillis() + 2000));
+
+        assertNotSame(parseCache.getSystem(file.getPath()), system);
+        verify(systemParser, times(2)).apply(file.getPath());
+        assertThat(parseCache.size(), is(1));
+    }
+
+    @Test
+    public void testTouchedFileIsNotParsedAgain() throws IOException {
+        final File file = createFile("system.xmi", "content");
+        final FileTime lastModified = Files.getLastModifiedTime(file.toPath());
+        final SystemUnderConsideration system = parseCache.getSystem(file.getPath());
+
+        // Same contents, different modification time
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(lastModified.toMillis() + 2000));
+
+        assertThat(parseCache.getSystem(file.getPath()), is(sameInstance(system)));
+        assertThat(parseCache.getSystem(file.getPath()), is(sameInstance(system)));
+        verify(systemParser, times(1)).apply(file.getPath());
+        assertThat(parseCache.size(), is(1));
+    }
+
+    @Test
+    public void testKindsAreCachedSeparately() throws IOException {
+        final String path = createFile("file.xml", "content").getPath();
+
+        parseCache.getSystem(path);
+        parseCache.getDesignPatterns(path);
+        parseCache.getDesignPatterns(path);
+
+        verify(systemParser, times(1)).apply(path);
+        verify(designPatternsParser, times(1)).apply(path);
+        assertThat(parseCache.size(), is(2));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws IOException {
+        final String path1 = createFile("system1.xmi", "content1").getPath();
+        final String path2 = createFile("system2.xmi", "content2").getPath();
+        final String path3 = createFile("system3.xmi", "content3").getPath();
+
+        parseCache.getSystem(path1);
+        parseCache.getSystem(path2);
+        parseCache.getSystem(path1);
+        parseCache.getSystem(path3);
+        assertThat(parseCache.size(), is(2));
+        assertThat(parseCache.getHeapSize() <= MAX_HEAP_SIZE, is(true));
+
+        // The second system was used least recently, and was evicted
+        parseCache.getSystem(path1);
+        parseCache.getSystem(path2);
+        verify(systemParser, times(1)).apply(path1);
+        verify(systemParser, times(2)).apply(path2);
+    }
+
+    @Test
+    public void testTooLargeIsNotCached() throws IOException {
+        final String path = createFile("system.xmi", "content").getPath();
+        parseCache = new ParseCache(100, systemParser, designPatternsParser);
+
+        parseCache.getSystem(path);
+        parseCache.getSystem(path);
+
+        verify(systemParser, times(2)).apply(path);
+        assertThat(parseCache.size(), is(0));
+        assertThat(parseCache.getHeapSize(), is(0L));
+    }
+
+    @Test
+    public void testMissingFileIsNotCached() {
+        final String path = new File(temporaryFolder.getRoot(), "missing.xml").getPath();
+
+        parseCache.getDesignPatterns(path);
+        parseCache.getDesignPatterns(path);
+
+        verify(designPatternsParser, times(2)).apply(path);
+        assertThat(parseCache.size(), is(0));
+    }
+
+    @Test
+    public void testDesignPatternsAreUnmodifiable() throws IOException {
+        final String path = createFile("templates.xml", "content").getPath();
+
+        thrown.expect(UnsupportedOperationException.class);
+
+        parseCache.getDesignPatterns(path).add(new DesignPattern("name", "family"));
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        final String path = createFile("system.xmi", "content").getPath();
+        parseCache.getSystem(path);
+
+        parseCache.clear();
+        assertThat(parseCache.size(), is(0));
+        assertThat(parseCache.getHeapSize(), is(0L));
+
+        parseCache.getSystem(path);
+        verify(systemParser, times(2)).apply(path);
+    }
+
+    private File createFile(String name, String content) throws IOException {
+        final File file = temporaryFolder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+}
@@ -1,17 +1,21 @@
 package nl.ou.dpd.parsing;
 
-import javax.xml.namespace.QName;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
-import java.util.Iterator;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 /**
- * A helper class for XML parser unit testing. Mainly creates {@link XMLEvent} mock objects and their attributes.
+ * A helper class for XML parser unit testing. Mainly creates {@link XMLStreamReader} mock objects, reading a script of
+ * start and end elements.
  *
  * @author Martin de Boer
  */
@@ -24,128 +28,119 @@ public class ParseTestHelper {
     }
 
     /**
-     * Creates a representation of an attribute of an XML tag, with a name and a value.
+     * Creates a representation of the start of an XML tag. Attributes and failures can be added to it.
      *
-     * @param name  the name of the attribute
-     * @param value the value of the attribute
-     * @return the created {@link Attribute}
+     * @param name the name of the XML tag
+     * @return the created element
      */
-    static Attribute createAttributeMock(String name, String value) {
-        final Attribute mock = mock(Attribute.class);
-        when(mock.getName()).thenReturn(QName.valueOf(name));
-        when(mock.getValue()).thenReturn(value);
-        return mock;
+    static Element startElement(String name) {
+        return new Element(XMLStreamConstants.START_ELEMENT, name);
     }
 
     /**
-     * Creates a representation of an XMl tag with no attributes.
+     * Creates a representation of the end of an XML tag.
      *
      * @param name the name of the XML tag
-     * @return the created event
+     * @return the created element
      */
-    static XMLEvent createXMLEventMock(String name) {
-        return createXMLEventMock(name, (Iterator<Attribute>) null);
+    static Element endElement(String name) {
+        return new Element(XMLStreamConstants.END_ELEMENT, name);
     }
 
     /**
-     * Creates a representation of an XML tag with one attribute.
+     * Creates a representation of the text in an XML tag.
      *
-     * @param name      the name of the XML tag
-     * @param attribute the attibute (name and value)
-     * @return the created event
+     * @param text the text
+     * @return the created element
      */
-    static XMLEvent createXMLEventMock(String name, Attribute attribute) {
-        final Iterator attributesIterator = mock(Iterator.class);
-        when(attributesIterator.hasNext()).thenReturn(
-                true, // hasNext = true (next = attribute)
-                false, // hasNext = false (no more attributes)
-                true, // hasNext = true (next = attribute)
-                false, // hasNext = false (no more attributes)
-                true, // hasNext = true (next = attribute)
-                false, // hasNext = false (no more attributes)
-                true, // hasNext = true (next = attribute)
-                false, // hasNext = false (no more attributes)
-                true, // hasNext = true (next = attribute)
-                false // hasNext = false (no more attributes)
-        );
-        when(attributesIterator.next()).thenReturn(attribute);
-        return createXMLEventMock(name, attributesIterator);
+    static Element characters(String text) {
+        return new Element(XMLStreamConstants.CHARACTERS, null).withText(text);
     }
 
     /**
-     * Creates a representation of an XML tag with two attributes.
+     * Creates an {@link XMLStreamReader} mock, that reads the specified elements in the specified order. The reader
+     * behaves like a cursor: it is positioned on an element by {@link XMLStreamReader#next()}, and returns the name
+     * and attributes (or the text) of the element it is positioned on.
      *
-     * @param name       the name of the XML tag
-     * @param attribute1 the first attibute (name and value)
-     * @param attribute2 the second attibute (name and value)
-     * @return the created event
+     * @param elements the elements to be read
+     * @return the created reader
      */
-    static XMLEvent createXMLEventMock(String name, Attribute attribute1, Attribute attribute2) {
-        final Iterator attributesIterator = mock(Iterator.class);
-        when(attributesIterator.hasNext()).thenReturn(
-                true, // hasNext = true (next = attribute1)
-                true, // hasNext = true (next = attribute2)
-                false, // hasNext = false (no more attributes)
-                true, // hasNext = true (next = attribute1)
-                true, // hasNext = true (next = attribute2)
-                false, // hasNext = false (no more attributes)
-                true, // hasNext = true (next = attribute1)
-                true, // hasNext = true (next = attribute2)
-                false, // hasNext = false (no more attributes)
-                true, // hasNext = true (next = attribute1)
-                true, // hasNext = true (next = attribute2)
-                false // hasNext = false (no more attributes)
-        );
-        when(attributesIterator.next()).thenReturn(
-                attribute1, // first time: next() returns attribute1
-                attribute2, // second time: next() returns attribute2
-                attribute1, // third time: next() returns attribute1 again
-                attribute2, // ...
-                attribute1,
-                attribute2);
-        return createXMLEventMock(name, attributesIterator);
+    static XMLStreamReader createXMLStreamReaderMock(Element... elements) {
+        final List<Element> script = Arrays.asList(elements);
+        final int[] position = {-1};
+        return mock(XMLStreamReader.class, (Answer<Object>) invocation -> {
+            final Element current = position[0] < 0 ? null : script.get(position[0]);
+            switch (invocation.getMethod().getName()) {
+                case "hasNext":
+                    return position[0] + 1 < script.size();
+                case "next":
+                    final Element next = script.get(++position[0]);
+                    if (next.failure != null) {
+                        throw next.failure;
+                    }
+                    return next.eventType;
+                case "getEventType":
+                    return current == null ? XMLStreamConstants.START_DOCUMENT : current.eventType;
+                case "isStartElement":
+                    return current.eventType == XMLStreamConstants.START_ELEMENT;
+                case "isEndElement":
+                    return current.eventType == XMLStreamConstants.END_ELEMENT;
+                case "getLocalName":
+                    return current.name;
+                case "getAttributeValue":
+                    return current.attributes.get(invocation.getArguments()[1]);
+                case "getText":
+                    return current.text;
+                case "getLocation":
+                    return mock(Location.class);
+                default:
+                    return Mockito.RETURNS_DEFAULTS.answer(invocation);
+            }
+        });
     }
 
     /**
-     * Creates a reptresentation of an XML tag with an unspecified number of attributes.
-     *
-     * @param name              the tag name
-     * @param attributeIterator an iterator for the attributes (name and value)
-     * @return the created event
+     * A representation of the start, the end or the text of an XML tag, as read by the {@link XMLStreamReader} mock.
      */
-    static XMLEvent createXMLEventMock(String name, Iterator<Attribute> attributeIterator) {
-        final XMLEvent event = mock(XMLEvent.class);
+    static final class Element {
+        private final int eventType;
+        private final String name;
+        private final Map<String, String> attributes = new HashMap<>();
+        private String text;
+        private RuntimeException failure;
 
-        // Start element
-        final StartElement startElement = mock(StartElement.class);
-        when(event.isStartElement()).thenReturn(
-                true, // first time: start element
-                false, // second time: end element
-                true, // third time: start element
-                false, // fourth time: end element
-                true, // ...
-                false
-        );
-        when(event.asStartElement()).thenReturn(startElement);
-        when(startElement.getName()).thenReturn(QName.valueOf(name));
-        if (attributeIterator != null) {
-            when(startElement.getAttributes()).thenReturn(attributeIterator);
+        private Element(int eventType, String name) {
+            this.eventType = eventType;
+            this.name = name;
         }
 
-        // End element
-        final EndElement endElement = mock(EndElement.class);
-        when(event.isEndElement()).thenReturn(
-                false, // first time: start element
-                true, // second time: end element
-                false, // third time: start element
-                true, // fourth time: end element
-                false, // ...
-                true
-        );
-        when(event.asEndElement()).thenReturn(endElement);
-        when(endElement.getName()).thenReturn(QName.valueOf(name));
+        /**
+         * Adds an attribute to the element.
+         *
+         * @param name  the name of the attribute
+         * @param value the value of the attribute
+         * @return this element
+         */
+        Element with(String name, String value) {
+            attributes.put(name, value);
+            return this;
+        }
 
-        return event;
+        private Element withText(String text) {
+            this.text = text;
+            return this;
+        }
+
+        /**
+         * Lets the reader throw the specified exception when it moves to this element.
+         *
+         * @param failure the exception to be thrown
+         * @return this element
+         */
+        Element failingWith(RuntimeException failure) {
+            this.failure = failure;
+            return this;
+        }
     }
 
 }
@@ -0,0 +1,137 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.invocation.InvocationOnMock;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the {@link ParsingService} class.
+ *
+ * @author Martin de Boer
+ */
+public class ParsingServiceTest {
+
+    private static final int THREADS = 4;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private ExecutorService executor;
+    private ParsingService service;
+
+    // The parsers that were created, and the parsers that are parsing a file at the moment
+    private Set<ArgoUMLParser> parsers;
+    private Set<ArgoUMLParser> busyParsers;
+    private Thread lastParsingThread;
+
+    @Before
+    public void initService() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        parsers = ConcurrentHashMap.newKeySet();
+        busyParsers = ConcurrentHashMap.newKeySet();
+        service = new ParsingService(executor, this::createParser);
+    }
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testParseAll() {
+        final List<Path> paths = IntStream.range(0, 100)
+                .mapToObj(i -> Paths.get("system" + i + ".xmi"))
+                .collect(Collectors.toList());
+
+        final List<SystemUnderConsideration> systems = service.parseAllPaths(paths);
+
+        // The systems are returned in the order of the files
+        assertThat(systems.size(), is(paths.size()));
+        for (int i = 0; i < paths.size(); i++) {
+            assertThat(systems.get(i).getName(), is(paths.get(i).toString()));
+        }
+        // Parsers were reused, no more were created than could be used at the same time
+        assertTrue(parsers.size() <= THREADS);
+    }
+
+    @Test
+    public void testParseInCallingThread() {
+        final SystemUnderConsideration system = service.parse(XmiSource.of(Paths.get("system.xmi")));
+
+        assertThat(system.getName(), is("system.xmi"));
+        assertThat(lastParsingThread, is(Thread.currentThread()));
+    }
+
+    @Test
+    public void testIdleParserIsReused() {
+        service.parse(XmiSource.of(Paths.get("system1.xmi")));
+        service.parse(XmiSource.of(Paths.get("system2.xmi")));
+
+        assertThat(parsers.size(), is(1));
+    }
+
+    @Test
+    public void testParserIsReturnedAfterFailure() {
+        try {
+            service.parse(XmiSource.of(Paths.get("invalid.xmi")));
+        } catch (ParseException e) {
+            // Expected
+        }
+        service.parse(XmiSource.of(Paths.get("system.xmi")));
+
+        assertThat(parsers.size(), is(1));
+    }
+
+    @Test
+    public void testParseExceptionIsRethrown() {
+        thrown.expect(ParseException.class);
+        thrown.expectMessage("The XMI file could not be parsed.");
+        service.parseAllPaths(IntStream.range(0, 10)
+                .mapToObj(i -> Paths.get(i == 5 ? "invalid.xmi" : "system" + i + ".xmi"))
+                .collect(Collectors.toList()));
+    }
+
+    private ArgoUMLParser createParser() {
+        final ArgoUMLParser parser = mock(ArgoUMLParser.class);
+        parsers.add(parser);
+        when(parser.parse(any(XmiSource.class))).thenAnswer(invocation -> parse(parser, invocation));
+        return parser;
+    }
+
+    private SystemUnderConsideration parse(ArgoUMLParser parser, InvocationOnMock invocation) {
+        // A parser must never be used by two threads at the same time
+        assertTrue(busyParsers.add(parser));
+        try {
+            lastParsingThread = Thread.currentThread();
+            final String name = ((XmiSource) invocation.getArguments()[0]).getName();
+            if (name.equals("invalid.xmi")) {
+                throw new ParseException("The XMI file could not be parsed.", null);
+            }
+            return new SystemUnderConsideration(name, name);
+        } finally {
+            busyParsers.remove(parser);
+        }
+    }
+
+}
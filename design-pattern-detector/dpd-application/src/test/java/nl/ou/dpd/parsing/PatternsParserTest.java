@@ -14,17 +14,15 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.xml.sax.SAXException;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
+import javax.xml.transform.stax.StAXSource;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -32,11 +30,18 @@ import java.util.Set;
 import static nl.ou.dpd.domain.node.NodeType.CONCRETE_CLASS;
 import static nl.ou.dpd.domain.node.NodeType.INTERFACE;
 import static nl.ou.dpd.domain.relation.RelationType.IMPLEMENTS;
+import static nl.ou.dpd.parsing.ParseTestHelper.characters;
+import static nl.ou.dpd.parsing.ParseTestHelper.createXMLStreamReaderMock;
+import static nl.ou.dpd.parsing.ParseTestHelper.endElement;
+import static nl.ou.dpd.parsing.ParseTestHelper.startElement;
 import static nl.ou.dpd.parsing.PatternsParser.PATTERN_TEMPLATE_FILE_COULD_NOT_BE_PARSED_SHORT_MSG;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -89,18 +94,6 @@ public class PatternsParserTest {
     @Mock
     private XMLInputFactory xmlInputFactory;
 
-    @Mock
-    private SchemaFactory xsdSchemaFactory;
-
-    @Mock
-    private XMLEventReader xmlEventReader;
-
-    @Mock
-    private XMLEvent
-            patternsEvent, patternEvent, notesEvent, noteEvent, nodesEvent,
-            concreteClassNodeEvent, interfaceNodeEvent, relationsEvent, relationEvent,
-            interfaceRuleEvent, concreteClassRuleEvent, inheritanceRuleEvent;
-
     @Mock
     private Schema schema;
 
@@ -112,118 +105,68 @@ public class PatternsParserTest {
 
     @Before
     public void initParser() throws XMLStreamException, SAXException {
-        patternsParser = new PatternsParser(xsdSchemaFactory, xmlInputFactory);
-        when(xmlInputFactory.createXMLEventReader(any(InputStream.class))).thenReturn(xmlEventReader);
-        when(xsdSchemaFactory.newSchema(any(URL.class))).thenReturn(schema);
+        patternsParser = new PatternsParser(schema, xmlInputFactory);
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class))).thenReturn(createStreamReader(null));
         when(schema.newValidator()).thenReturn(validator);
     }
 
+    /**
+     * Lets the mocked validator read the stream, like a real validator does. The parser handles the elements while the
+     * validator reads them.
+     *
+     * @throws IOException  not expected
+     * @throws SAXException not expected
+     */
     @Before
-    public void initEventReader() throws XMLStreamException {
-        when(xmlEventReader.hasNext()).thenReturn(
-                true, // patterns start-element
-                true, // pattern start-element
-                true, // notes start-element
-                true, // note start-element
-                true, // note end-element
-                true, // notes end-element
-                true, // nodes start-element
-                true, // node1 start-element
-                true, // node1.rule start-element
-                true, // node1.rule end-element
-                true, // node1 end-element
-                true, // node2 start-element
-                true, // node2.rule start-element
-                true, // node2.rule end-element
-                true, // node2 end-element
-                true, // nodes end-element
-                true, // relations start-element
-                true, // relation start-element
-                true, // relation.rule start-element
-                true, // relation.rule end-element
-                true, // relation end-element
-                true, // relations end-element
-                true, // pattern end-element
-                true, // patterns end-element
-                false);
-        when(xmlEventReader.nextEvent()).thenReturn(
-                patternsEvent, patternEvent,
-                notesEvent,
-                noteEvent, noteEvent,
-                notesEvent,
-                nodesEvent,
-                concreteClassNodeEvent,
-                concreteClassRuleEvent, concreteClassRuleEvent,
-                concreteClassNodeEvent,
-                interfaceNodeEvent,
-                interfaceRuleEvent, interfaceRuleEvent,
-                interfaceNodeEvent,
-                nodesEvent,
-                relationsEvent,
-                relationEvent,
-                inheritanceRuleEvent, inheritanceRuleEvent,
-                relationEvent,
-                relationsEvent,
-                patternEvent, patternsEvent);
-    }
-
-    @Before
-    public void initPatternEvent() throws XMLStreamException {
-        patternsEvent = ParseTestHelper.createXMLEventMock(PATTERNS_TAG);
-        patternEvent = ParseTestHelper.createXMLEventMock(
-                PATTERN_TAG,
-                ParseTestHelper.createAttributeMock(NAME_ATTRIBUTE, A_PATTERN_NAME),
-                ParseTestHelper.createAttributeMock(FAMILY_ATTRIBUTE, A_PATTERN_FAMILY_NAME)
-        );
-    }
-
-    @Before
-    public void initNoteEvent() throws XMLStreamException {
-        notesEvent = ParseTestHelper.createXMLEventMock(NOTES_TAG);
-        noteEvent = ParseTestHelper.createXMLEventMock(NOTE_TAG);
-        when(xmlEventReader.getElementText()).thenReturn(A_NOTE_VALUE);
-    }
-
-    @Before
-    public void initNodeEvents() {
-        nodesEvent = ParseTestHelper.createXMLEventMock(NODES_TAG);
-
-        // A concrete class node + rule
-        concreteClassNodeEvent = ParseTestHelper.createXMLEventMock(
-                NODE_TAG,
-                ParseTestHelper.createAttributeMock(NAME_ATTRIBUTE, A_CONCRETE_CLASS_NAME),
-                ParseTestHelper.createAttributeMock(ID_ATTRIBUTE, A_CONCRETE_CLASS_ID));
-        concreteClassRuleEvent = ParseTestHelper.createXMLEventMock(
-                NODE_RULE_TAG,
-                ParseTestHelper.createAttributeMock(NODE_TYPE_ATTRIBUTE, CONCRETE_CLASS.name())
-        );
-
-        // An interface node + rule
-        interfaceNodeEvent = ParseTestHelper.createXMLEventMock(
-                NODE_TAG,
-                ParseTestHelper.createAttributeMock(ID_ATTRIBUTE, AN_INTERFACE_ID)
-        );
-        interfaceRuleEvent = ParseTestHelper.createXMLEventMock(
-                NODE_RULE_TAG,
-                ParseTestHelper.createAttributeMock(NODE_TYPE_ATTRIBUTE, INTERFACE.name())
-        );
+    public void initValidator() throws IOException, SAXException {
+        doAnswer(invocation -> {
+            final XMLStreamReader reader = ((StAXSource) invocation.getArguments()[0]).getXMLStreamReader();
+            while (reader.hasNext()) {
+                reader.next();
+            }
+            return null;
+        }).when(validator).validate(any(Source.class));
     }
 
-    @Before
-    public void initRelationEvents() {
-        relationsEvent = ParseTestHelper.createXMLEventMock(RELATIONS_TAG);
-
-        // A relation + rule
-        relationEvent = ParseTestHelper.createXMLEventMock(
-                RELATION_TAG,
-                ParseTestHelper.createAttributeMock(NODE_1_ATTRIBUTE, A_CONCRETE_CLASS_ID),
-                ParseTestHelper.createAttributeMock(NODE_2_ATTRIBUTE, AN_INTERFACE_ID)
-        );
-        inheritanceRuleEvent = ParseTestHelper.createXMLEventMock(
-                RELATION_RULE_TAG,
-                ParseTestHelper.createAttributeMock(RELATION_TYPE_ATTRIBUTE, IMPLEMENTS.name()),
-                ParseTestHelper.createAttributeMock(CARDINALITY_LEFT_ATTRIBUTE, CARDINALITY_1_UNLIMITED.toString())
-        );
+    /**
+     * Mocks the order in which the stream reader reads the XML elements: a pattern with a note, a concrete class node
+     * and an interface node, and a relation between them.
+     *
+     * @param failure an exception to be thrown when the reader reaches the concrete class node, or {@code null}.
+     * @return the mocked stream reader.
+     */
+    private XMLStreamReader createStreamReader(RuntimeException failure) {
+        return createXMLStreamReaderMock(
+                startElement(PATTERNS_TAG),
+                startElement(PATTERN_TAG).with(NAME_ATTRIBUTE, A_PATTERN_NAME).with(FAMILY_ATTRIBUTE, A_PATTERN_FAMILY_NAME),
+                startElement(NOTES_TAG),
+                startElement(NOTE_TAG),
+                characters(A_NOTE_VALUE),
+                endElement(NOTE_TAG),
+                endElement(NOTES_TAG),
+                startElement(NODES_TAG),
+                // A concrete class node + rule
+                startElement(NODE_TAG).with(NAME_ATTRIBUTE, A_CONCRETE_CLASS_NAME).with(ID_ATTRIBUTE, A_CONCRETE_CLASS_ID)
+                        .failingWith(failure),
+                startElement(NODE_RULE_TAG).with(NODE_TYPE_ATTRIBUTE, CONCRETE_CLASS.name()),
+                endElement(NODE_RULE_TAG),
+                endElement(NODE_TAG),
+                // An interface node + rule
+                startElement(NODE_TAG).with(ID_ATTRIBUTE, AN_INTERFACE_ID),
+                startElement(NODE_RULE_TAG).with(NODE_TYPE_ATTRIBUTE, INTERFACE.name()),
+                endElement(NODE_RULE_TAG),
+                endElement(NODE_TAG),
+                endElement(NODES_TAG),
+                startElement(RELATIONS_TAG),
+                // A relation + rule
+                startElement(RELATION_TAG).with(NODE_1_ATTRIBUTE, A_CONCRETE_CLASS_ID).with(NODE_2_ATTRIBUTE, AN_INTERFACE_ID),
+                startElement(RELATION_RULE_TAG).with(RELATION_TYPE_ATTRIBUTE, IMPLEMENTS.name())
+                        .with(CARDINALITY_LEFT_ATTRIBUTE, CARDINALITY_1_UNLIMITED.toString()),
+                endElement(RELATION_RULE_TAG),
+                endElement(RELATION_TAG),
+                endElement(RELATIONS_TAG),
+                endElement(PATTERN_TAG),
+                endElement(PATTERNS_TAG));
     }
 
     /**
@@ -246,9 +189,10 @@ public class PatternsParserTest {
     }
 
     @Test
-    public void testAnyException() {
+    public void testAnyException() throws XMLStreamException {
         // Simulate an arbitrary exception somewhere along the way
-        when(concreteClassNodeEvent.asStartElement()).thenThrow(new NullPointerException());
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class)))
+                .thenReturn(createStreamReader(new NullPointerException()));
 
         // We expect the arbitrary exception to be mapped to a ParseException
         thrown.expect(ParseException.class);
@@ -259,11 +203,12 @@ public class PatternsParserTest {
     }
 
     @Test
-    public void testParseException() {
+    public void testParseException() throws XMLStreamException {
         final String errorMsg = "Oops";
 
         // Simulate an arbitrary exception somewhere along the way
-        when(concreteClassNodeEvent.asStartElement()).thenThrow(new ParseException(errorMsg, null));
+        when(xmlInputFactory.createXMLStreamReader(any(InputStream.class)))
+                .thenReturn(createStreamReader(new ParseException(errorMsg, null)));
 
         // We expect the ParseException to be rethrown directly
         thrown.expect(ParseException.class);
@@ -318,6 +263,23 @@ public class PatternsParserTest {
         assertThat(relationProperty.getCardinalityRight(), is(DEFAULT_CARDINALITY));
     }
 
+    /**
+     * Tests that the XML file is validated and parsed in a single pass: the validator reads the same stream as the
+     * parser.
+     *
+     * @throws XMLStreamException not expected
+     * @throws IOException        not expected
+     * @throws SAXException       not expected
+     */
+    @Test
+    public void testValidateAndParseInOnePass() throws XMLStreamException, IOException, SAXException {
+        final List<DesignPattern> designPatterns = patternsParser.parse(xmlFile);
+        assertThat(designPatterns.size(), is(1));
+
+        verify(xmlInputFactory, times(1)).createXMLStreamReader(any(InputStream.class));
+        verify(validator, times(1)).validate(any(StAXSource.class));
+    }
+
     private String getPath(String resourceName) {
         return this.getClass().getResource(resourceName).getPath();
     }
@@ -0,0 +1,83 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.node.Attribute;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.Operation;
+import nl.ou.dpd.domain.node.Parameter;
+import nl.ou.dpd.domain.relation.Relation;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests the {@link SymbolTable} class.
+ *
+ * @author Martin de Boer
+ */
+public class SymbolTableTest {
+
+    @Test
+    public void testNodes() {
+        final Map<String, Node> nodes = new HashMap<>();
+        final Node node1 = new Node("node1");
+        nodes.put(node1.getId(), node1);
+        final SymbolTable symbols = new SymbolTable(nodes);
+        assertThat(symbols.getNode("node1"), is(sameInstance(node1)));
+
+        final Node node2 = new Node("node2");
+        symbols.addNode(node2);
+        assertThat(symbols.getNode("node2"), is(sameInstance(node2)));
+        assertThat(symbols.getNodes(), is(sameInstance(nodes)));
+        assertThat(nodes.size(), is(2));
+
+        // Nodes are replaced
+        final Node otherNode1 = new Node("node1");
+        symbols.addNode(otherNode1);
+        assertThat(symbols.getNode("node1"), is(sameInstance(otherNode1)));
+    }
+
+    @Test
+    public void testElements() {
+        final SymbolTable symbols = new SymbolTable();
+        final Node node = new Node("node");
+        final Attribute attribute = new Attribute("attribute", node);
+        final Operation operation = new Operation("operation", node);
+        final Parameter parameter = new Parameter("parameter", operation);
+        final Relation relation = new Relation("relation", null);
+        symbols.addAttribute(attribute);
+        symbols.addOperation(operation);
+        symbols.addParameter(parameter);
+        symbols.addRelation(relation);
+
+        assertThat(symbols.getAttribute("attribute"), is(sameInstance(attribute)));
+        assertThat(symbols.getOperation("operation"), is(sameInstance(operation)));
+        assertThat(symbols.getParameter("parameter"), is(sameInstance(parameter)));
+        assertThat(symbols.getRelation("relation"), is(sameInstance(relation)));
+
+        // Elements of another kind are not returned
+        assertThat(symbols.getOperation("attribute"), is(nullValue()));
+        assertThat(symbols.getRelation("parameter"), is(nullValue()));
+
+        // Unknown ids and null ids are not found
+        assertThat(symbols.getAttribute("unknown"), is(nullValue()));
+        assertThat(symbols.getAttribute(null), is(nullValue()));
+        assertThat(symbols.getNode("attribute"), is(nullValue()));
+    }
+
+    @Test
+    public void testFirstElementIsKept() {
+        final SymbolTable symbols = new SymbolTable();
+        final Relation relation1 = new Relation("relation", "first");
+        final Relation relation2 = new Relation("relation", "second");
+        symbols.addRelation(relation1);
+        symbols.addRelation(relation2);
+        assertThat(symbols.getRelation("relation"), is(sameInstance(relation1)));
+    }
+
+}
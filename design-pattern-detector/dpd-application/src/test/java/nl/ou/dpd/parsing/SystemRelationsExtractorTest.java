@@ -3,6 +3,7 @@ package nl.ou.dpd.parsing;
 import nl.ou.dpd.domain.SystemUnderConsideration;
 import nl.ou.dpd.domain.node.Attribute;
 import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
 import nl.ou.dpd.domain.node.Operation;
 import nl.ou.dpd.domain.node.Parameter;
 import nl.ou.dpd.domain.relation.Cardinality;
@@ -23,6 +24,7 @@ import java.util.Set;
 import static nl.ou.dpd.parsing.SystemRelationsExtractor.SYSTEM_RELATION_PREFIX;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -205,4 +207,43 @@ public class SystemRelationsExtractorTest {
 
         assertThat(result, is(system));
     }
+
+    /**
+     * Tests that the {@link RelationType#OVERRIDES_METHOD_OF} relation property is added when the target of a relation
+     * has many operations, which are looked up by their signature. Operations with the same name, return type and
+     * number of parameters, but different parameter names, do not override each other.
+     */
+    @Test
+    public void testOverrideOfManyOperations() {
+        final SystemUnderConsideration realSystem = new SystemUnderConsideration("sysId", "sysName");
+        final Node subclass = createNodeWithOperations("sub", 10, "x");
+        final Node superclass = createNodeWithOperations("super", 10, "x");
+        final Node otherclass = createNodeWithOperations("other", 10, "y");
+        realSystem.addVertex(subclass);
+        realSystem.addVertex(superclass);
+        realSystem.addVertex(otherclass);
+        final Relation inheritance = new Relation("rel1", null)
+                .addRelationProperty(new RelationProperty(RelationType.INHERITS_FROM));
+        realSystem.addEdge(subclass, superclass, inheritance);
+        final Relation association = new Relation("rel2", null)
+                .addRelationProperty(new RelationProperty(RelationType.ASSOCIATES_WITH));
+        realSystem.addEdge(subclass, otherclass, association);
+
+        systemRelationsExtractor.execute(realSystem);
+
+        assertThat(realSystem.edgeSet().size(), is(2));
+        assertThat(inheritance.getRelationProperties().size(), is(2));
+        assertTrue(inheritance.getRelationProperties().contains(new RelationProperty(RelationType.OVERRIDES_METHOD_OF)));
+        assertThat(association.getRelationProperties().size(), is(1));
+    }
+
+    private Node createNodeWithOperations(String id, int count, String parameterName) {
+        final Node node = new Node(id, id, NodeType.CONCRETE_CLASS);
+        for (int i = 0; i < count; i++) {
+            final Operation operation = new Operation(id + "-op" + i, node).setName("operation" + i);
+            new Parameter(id + "-par" + i, operation).setName(parameterName);
+        }
+        return node;
+    }
+
 }
@@ -0,0 +1,195 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Attribute;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.NodeType;
+import nl.ou.dpd.domain.node.Operation;
+import nl.ou.dpd.domain.node.Parameter;
+import nl.ou.dpd.domain.node.Visibility;
+import nl.ou.dpd.domain.relation.Cardinality;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import nl.ou.dpd.domain.relation.RelationType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the {@link SystemSnapshotParser} and {@link SystemSnapshot} classes.
+ *
+ * @author Martin de Boer
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SystemSnapshotParserTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private ArgoUMLParser argoUMLParser;
+
+    private SystemSnapshotParser parser;
+    private String xmiFilename;
+    private Path snapshot;
+
+    @Before
+    public void initParser() throws IOException {
+        xmiFilename = temporaryFolder.newFile("system.xmi").getPath();
+        writeXmi("version 1");
+        snapshot = SystemSnapshotParser.getSnapshotPath(xmiFilename);
+        when(argoUMLParser.parse(xmiFilename)).thenAnswer(invocation -> createSystem());
+        parser = new SystemSnapshotParser(argoUMLParser);
+    }
+
+    @Test
+    public void testSystemIsReadFromSnapshot() {
+        final SystemUnderConsideration parsed = parser.parse(xmiFilename);
+        assertTrue(Files.exists(snapshot));
+
+        final SystemUnderConsideration read = parser.parse(xmiFilename);
+        verify(argoUMLParser, times(1)).parse(xmiFilename);
+        assertNotSame(read, parsed);
+        assertThat(describe(read), is(describe(parsed)));
+    }
+
+    @Test
+    public void testStaleSnapshotIsReplaced() throws IOException {
+        parser.parse(xmiFilename);
+        writeXmi("version 2");
+
+        parser.parse(xmiFilename);
+        verify(argoUMLParser, times(2)).parse(xmiFilename);
+
+        // The replaced snapshot is up-to-date again
+        parser.parse(xmiFilename);
+        verify(argoUMLParser, times(2)).parse(xmiFilename);
+    }
+
+    @Test
+    public void testCorruptSnapshotIsReplaced() throws IOException {
+        parser.parse(xmiFilename);
+        final byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+
+        parser.parse(xmiFilename);
+        verify(argoUMLParser, times(2)).parse(xmiFilename);
+        assertThat(Files.readAllBytes(snapshot).length, is(bytes.length));
+    }
+
+    @Test
+    public void testWithoutHashSnapshotIsNotWritten() {
+        parser.parse(xmiFilename, null);
+        verify(argoUMLParser, times(1)).parse(xmiFilename);
+        assertFalse(Files.exists(snapshot));
+    }
+
+    @Test
+    public void testSnapshotOfOtherContents() throws IOException {
+        SystemSnapshot.write(createSystem(), new byte[]{1, 2, 3}, snapshot);
+        assertThat(SystemSnapshot.read(snapshot, new byte[]{3, 2, 1}), is(nullValue()));
+    }
+
+    @Test
+    public void testMissingSnapshot() throws IOException {
+        assertThat(SystemSnapshot.read(snapshot, new byte[]{1, 2, 3}), is(nullValue()));
+    }
+
+    private void writeXmi(String content) throws IOException {
+        Files.write(temporaryFolder.getRoot().toPath().resolve("system.xmi"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates a system containing all the elements that are stored in a snapshot, including {@code null} values and a
+     * data type that is not a vertex of the system.
+     */
+    private SystemUnderConsideration createSystem() {
+        final SystemUnderConsideration system = new SystemUnderConsideration("sysId", "sysName");
+        final Node dataType = new Node("int", "int", NodeType.DATATYPE);
+        final Node client = new Node("client", "Client", NodeType.CONCRETE_CLASS);
+        final Node target = new Node("target", "Target", NodeType.ABSTRACT_CLASS);
+        target.addType(NodeType.ABSTRACT_CLASS_OR_INTERFACE);
+        target.setVisibility(Visibility.PACKAGE);
+        final Node unnamed = new Node("unnamed");
+        unnamed.setVisibility(null);
+
+        new Attribute("attr1", client).setName("target").setType(target).setVisibility(Visibility.PRIVATE);
+        new Attribute("attr2", client).setName("count").setType(dataType);
+        new Attribute("attr3", client);
+        final Operation request = new Operation("op1", target).setName("request").setReturnType(dataType);
+        final Parameter parameter = new Parameter("par1", request);
+        parameter.setName("client");
+        parameter.setType(client);
+        new Parameter("par2", request);
+        new Operation("op2", target).setVisibility(Visibility.PROTECTED);
+
+        system.addVertex(client);
+        system.addVertex(target);
+        system.addVertex(unnamed);
+        system.addEdge(client, target, new Relation("rel1", "uses")
+                .addRelationProperty(new RelationProperty(RelationType.ASSOCIATES_WITH,
+                        Cardinality.valueOf("1"), Cardinality.valueOf("0..*")))
+                .addRelationProperty(new RelationProperty(RelationType.HAS_ATTRIBUTE_OF, null, null)));
+        system.addEdge(target, client, new Relation("rel2", null)
+                .addRelationProperty(new RelationProperty(RelationType.HAS_METHOD_PARAMETER_OF_TYPE)));
+        system.addEdge(unnamed, unnamed, new Relation(null, null));
+        return system;
+    }
+
+    private List<String> describe(SystemUnderConsideration system) {
+        final List<String> description = new ArrayList<>();
+        description.add(system.getId() + " " + system.getName());
+        for (Node node : system.vertexSet()) {
+            description.add(describe(node) + " " + node.getVisibility());
+            for (Attribute attribute : node.getAttributes()) {
+                description.add(String.format("  %s %s %s %s", attribute.getId(), attribute.getName(),
+                        describe(attribute.getType()), attribute.getVisibility()));
+            }
+            for (Operation operation : node.getOperations()) {
+                description.add(String.format("  %s %s %s %s", operation.getId(), operation.getName(),
+                        describe(operation.getReturnType()), operation.getVisibility()));
+                for (Parameter parameter : operation.getParameters()) {
+                    description.add(String.format("    %s %s %s", parameter.getId(), parameter.getName(),
+                            describe(parameter.getType())));
+                }
+            }
+        }
+        for (Relation relation : system.edgeSet()) {
+            description.add(String.format("%s %s %s %s %s", relation.getId(), relation.getName(),
+                    system.getEdgeSource(relation).getId(), system.getEdgeTarget(relation).getId(),
+                    relation.getRelationTypeMask()));
+            for (RelationProperty property : relation.getRelationProperties()) {
+                description.add(String.format("  %s %s %s", property.getRelationType(),
+                        property.getCardinalityLeft(), property.getCardinalityRight()));
+            }
+        }
+        return description;
+    }
+
+    private String describe(Node node) {
+        return node == null ? null : node.getId() + " " + node.getName() + " " + node.getTypes();
+    }
+
+}
@@ -0,0 +1,66 @@
+package nl.ou.dpd.benchmarks;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.parsing.ArgoUMLParser;
+import nl.ou.dpd.parsing.ParserFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of system designs by the {@link ArgoUMLParser}: a small and a medium sized example file, and a
+ * huge synthetic file consisting of {@link #HUGE_COPIES} copies of the medium sized one. Each file is parsed in a
+ * single pass, and in two passes.
+ *
+ * @author Martin de Boer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = Benchmarks.LOGGING_CONFIGURATION)
+@State(Scope.Benchmark)
+public class ArgoUMLParserBenchmark {
+
+    static final int HUGE_COPIES = 250;
+
+    @Param({"small", "medium", "huge"})
+    private String size;
+
+    @Param({"true", "false"})
+    private boolean singlePass;
+
+    private String xmiFile;
+
+    @Setup(Level.Trial)
+    public void createInput() throws IOException {
+        switch (size) {
+            case "small":
+                xmiFile = BenchmarkResources.copyToTempFile(BenchmarkResources.SMALL_XMI).toString();
+                break;
+            case "medium":
+                xmiFile = BenchmarkResources.copyToTempFile(BenchmarkResources.MEDIUM_XMI).toString();
+                break;
+            default:
+                xmiFile = BenchmarkResources.createSyntheticXmi(BenchmarkResources.MEDIUM_XMI, HUGE_COPIES).toString();
+        }
+    }
+
+    @Benchmark
+    public SystemUnderConsideration parse() {
+        return ParserFactory.createArgoUMLParser(singlePass).parse(xmiFile);
+    }
+
+}
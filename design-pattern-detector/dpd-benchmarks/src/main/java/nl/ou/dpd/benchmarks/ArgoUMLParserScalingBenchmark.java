@@ -0,0 +1,51 @@
+package nl.ou.dpd.benchmarks;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.parsing.ArgoUMLParser;
+import nl.ou.dpd.parsing.ParserFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the parsing of system designs by the {@link ArgoUMLParser} scales with the size of the design, using
+ * synthetic designs of 10,000 up to 100,000 classes. The parsing time should grow linearly with the number of classes.
+ *
+ * @author Martin de Boer
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = Benchmarks.LOGGING_CONFIGURATION)
+@State(Scope.Benchmark)
+public class ArgoUMLParserScalingBenchmark {
+
+    @Param({"10000", "25000", "50000", "100000"})
+    private int classes;
+
+    private String xmiFile;
+
+    @Setup(Level.Trial)
+    public void createInput() throws IOException {
+        xmiFile = BenchmarkResources.createSyntheticXmi(classes).toString();
+    }
+
+    @Benchmark
+    public SystemUnderConsideration parse() {
+        return ParserFactory.createArgoUMLParser().parse(xmiFile);
+    }
+
+}
@@ -0,0 +1,187 @@
+package nl.ou.dpd.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Provides the input files of the benchmarks. The parsers expect file names, so the example files (packaged as
+ * resources) are copied to temporary files first.
+ *
+ * @author Martin de Boer
+ */
+final class BenchmarkResources {
+
+    static final String TEMPLATES_XML = "/patterns/designpatterns_templates.xml";
+    static final String SMALL_XMI = "/systems/MyClassAdapter.xmi";
+    static final String MEDIUM_XMI = "/systems/MyCommand.xmi";
+
+    private static final String OWNED_ELEMENT_START = "<UML:Namespace.ownedElement>";
+    private static final String OWNED_ELEMENT_END = "</UML:Namespace.ownedElement>";
+    private static final Pattern IDS_AND_NAMES = Pattern.compile("((?:xmi\\.id|xmi\\.idref|name) = ')([^']*)'");
+
+    /**
+     * Private constructor because this is a utility class that cannot be instantiated.
+     */
+    private BenchmarkResources() {
+    }
+
+    /**
+     * Returns the name of a system design of the integration tests for the specified design pattern, e.g.
+     * "/systems/MyChainOfResponsibility.xmi" for "Chain Of Responsibility".
+     *
+     * @param patternName the name of the design pattern
+     * @return the resource name of the system design
+     */
+    static String getSystemXmi(String patternName) {
+        return "/systems/My" + patternName.replace(" ", "") + ".xmi";
+    }
+
+    /**
+     * Copies the specified resource to a temporary file, that is deleted when the JVM exits.
+     *
+     * @param resourceName the name of the resource
+     * @return the temporary file.
+     * @throws IOException when the resource cannot be copied
+     */
+    static Path copyToTempFile(String resourceName) throws IOException {
+        final Path file = createTempFile(resourceName);
+        try (InputStream in = BenchmarkResources.class.getResourceAsStream(resourceName)) {
+            if (in == null) {
+                throw new IOException(String.format("Resource '%s' not found.", resourceName));
+            }
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+
+    /**
+     * Copies the specified resource to the specified number of temporary files, that are deleted when the JVM exits.
+     *
+     * @param resourceName the name of the resource
+     * @param count        the number of copies
+     * @return the temporary files.
+     * @throws IOException when the resource cannot be copied
+     */
+    static List<Path> copyToTempFiles(String resourceName, int count) throws IOException {
+        final List<Path> files = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            files.add(copyToTempFile(resourceName));
+        }
+        return files;
+    }
+
+    /**
+     * Creates a synthetic system design by repeating the model elements of the specified system design. Every copy
+     * gets its own ids and names, so the result is a system design with {@code copies} times as many nodes and
+     * relations.
+     *
+     * @param resourceName the name of the system design resource to repeat
+     * @param copies       the number of copies
+     * @return a temporary file containing the synthetic system design, that is deleted when the JVM exits.
+     * @throws IOException when the resource cannot be read, or the file cannot be written
+     */
+    static Path createSyntheticXmi(String resourceName, int copies) throws IOException {
+        final String xmi = new String(Files.readAllBytes(copyToTempFile(resourceName)), StandardCharsets.UTF_8);
+        final int start = xmi.indexOf(OWNED_ELEMENT_START) + OWNED_ELEMENT_START.length();
+        final int end = xmi.lastIndexOf(OWNED_ELEMENT_END);
+        final String elements = xmi.substring(start, end);
+
+        final StringBuilder synthetic = new StringBuilder(xmi.length() * copies);
+        synthetic.append(xmi, 0, start);
+        for (int copy = 0; copy < copies; copy++) {
+            final Matcher matcher = IDS_AND_NAMES.matcher(elements);
+            final StringBuffer renamed = new StringBuffer(elements.length() + 1024);
+            while (matcher.find()) {
+                matcher.appendReplacement(renamed, Matcher.quoteReplacement(
+                        matcher.group(1) + matcher.group(2) + "_" + copy + "'"));
+            }
+            matcher.appendTail(renamed);
+            synthetic.append(renamed);
+        }
+        synthetic.append(xmi, end, xmi.length());
+
+        final Path file = createTempFile(resourceName);
+        Files.write(file, synthetic.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Creates a synthetic system design with the specified number of classes. Every class has an attribute typed by the
+     * next class (a forward reference), and an operation with a parameter typed by the previous class. Every class,
+     * except the first, inherits from the previous class. The size of the file is proportional to the number of
+     * classes.
+     *
+     * @param classes the number of classes
+     * @return a temporary file containing the synthetic system design, that is deleted when the JVM exits.
+     * @throws IOException when the file cannot be written
+     */
+    static Path createSyntheticXmi(int classes) throws IOException {
+        final Path file = createTempFile(".xmi");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("<?xml version = '1.0' encoding = 'UTF-8' ?>\n"
+                    + "<XMI xmi.version = '1.2' xmlns:UML = 'org.omg.xmi.namespace.UML'>\n"
+                    + "  <XMI.content>\n"
+                    + "    <UML:Model xmi.id = 'model' name = 'Synthetic'>\n"
+                    + "      <UML:Namespace.ownedElement>\n");
+            for (int i = 0; i < classes; i++) {
+                final int next = (i + 1) % classes;
+                final int previous = (i + classes - 1) % classes;
+                writer.write(String.format(
+                        "        <UML:Class xmi.id = 'c%1$d' name = 'Class%1$d' visibility = 'public' isAbstract = 'false'>\n"
+                                + "          <UML:Classifier.feature>\n"
+                                + "            <UML:Attribute xmi.id = 'a%1$d' name = 'next' visibility = 'private'>\n"
+                                + "              <UML:StructuralFeature.type>\n"
+                                + "                <UML:Class xmi.idref = 'c%2$d'/>\n"
+                                + "              </UML:StructuralFeature.type>\n"
+                                + "            </UML:Attribute>\n"
+                                + "            <UML:Operation xmi.id = 'o%1$d' name = 'operation' visibility = 'public'>\n"
+                                + "              <UML:BehavioralFeature.parameter>\n"
+                                + "                <UML:Parameter xmi.id = 'p%1$d' name = 'previous' kind = 'in'>\n"
+                                + "                  <UML:Parameter.type>\n"
+                                + "                    <UML:Class xmi.idref = 'c%3$d'/>\n"
+                                + "                  </UML:Parameter.type>\n"
+                                + "                </UML:Parameter>\n"
+                                + "                <UML:Parameter xmi.id = 'r%1$d' name = 'return' kind = 'return'/>\n"
+                                + "              </UML:BehavioralFeature.parameter>\n"
+                                + "            </UML:Operation>\n"
+                                + "          </UML:Classifier.feature>\n"
+                                + "        </UML:Class>\n",
+                        i, next, previous));
+                if (i > 0) {
+                    writer.write(String.format(
+                            "        <UML:Generalization xmi.id = 'g%1$d' name = 'Class%1$d-Class%2$d'>\n"
+                                    + "          <UML:Generalization.child>\n"
+                                    + "            <UML:Class xmi.idref = 'c%1$d'/>\n"
+                                    + "          </UML:Generalization.child>\n"
+                                    + "          <UML:Generalization.parent>\n"
+                                    + "            <UML:Class xmi.idref = 'c%2$d'/>\n"
+                                    + "          </UML:Generalization.parent>\n"
+                                    + "        </UML:Generalization>\n",
+                            i, previous));
+                }
+            }
+            writer.write("      </UML:Namespace.ownedElement>\n"
+                    + "    </UML:Model>\n"
+                    + "  </XMI.content>\n"
+                    + "</XMI>\n");
+        }
+        return file;
+    }
+
+    private static Path createTempFile(String resourceName) throws IOException {
+        final String suffix = resourceName.substring(resourceName.lastIndexOf('.'));
+        final Path file = Files.createTempFile("dpd-benchmark-", suffix);
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+}
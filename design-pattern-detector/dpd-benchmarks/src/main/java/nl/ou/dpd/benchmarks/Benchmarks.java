@@ -0,0 +1,63 @@
+package nl.ou.dpd.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * The main class of the benchmarks jar. It accepts the same arguments as JMH's own main class, but writes the results
+ * as JSON to {@value #DEFAULT_RESULT_FILE} unless another result format ({@code -rf}) or result file ({@code -rff})
+ * is specified, so that results can be compared between releases.
+ *
+ * @author Martin de Boer
+ */
+public final class Benchmarks {
+
+    /**
+     * The JVM argument for the forked benchmark JVMs, replacing the logging configuration of the application.
+     */
+    static final String LOGGING_CONFIGURATION = "-Dlog4j.configurationFile=log4j2-benchmarks.xml";
+
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    /**
+     * Private constructor because this class cannot be instantiated.
+     */
+    private Benchmarks() {
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args the JMH command line arguments, e.g. a regular expression selecting the benchmarks to run
+     * @throws CommandLineOptionException when the arguments are invalid
+     * @throws RunnerException            when running the benchmarks fails
+     * @throws IOException                when the help text cannot be written
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp()) {
+            commandLineOptions.showHelp();
+            return;
+        }
+        if (commandLineOptions.shouldList()) {
+            new Runner(commandLineOptions).list();
+            return;
+        }
+        final ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+
+}
@@ -0,0 +1,68 @@
+package nl.ou.dpd.benchmarks;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.parsing.ParserFactory;
+import nl.ou.dpd.parsing.ParsingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of a batch of 500 system designs by a {@link ParsingService} with 1 up to 8 threads. The
+ * throughput should scale with the number of threads, up to the number of available cores. The
+ * {@link SequentialParsingBenchmark} measures the same batch without a {@link ParsingService}, as a baseline.
+ *
+ * @author Martin de Boer
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = Benchmarks.LOGGING_CONFIGURATION)
+@State(Scope.Benchmark)
+public class ParsingServiceBenchmark {
+
+    static final int BATCH_SIZE = 500;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private List<Path> xmiFiles;
+    private ExecutorService executor;
+    private ParsingService service;
+
+    @Setup(Level.Trial)
+    public void createInput() throws IOException {
+        xmiFiles = BenchmarkResources.copyToTempFiles(BenchmarkResources.MEDIUM_XMI, BATCH_SIZE);
+        executor = Executors.newFixedThreadPool(threads);
+        service = new ParsingService(executor, ParserFactory::createArgoUMLParser);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public List<SystemUnderConsideration> parseAll() {
+        return service.parseAllPaths(xmiFiles);
+    }
+
+}
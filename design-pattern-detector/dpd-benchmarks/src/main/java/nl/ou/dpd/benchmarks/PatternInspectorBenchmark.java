@@ -0,0 +1,75 @@
+package nl.ou.dpd.benchmarks;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.matching.PatternInspector;
+import nl.ou.dpd.parsing.ParserFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PatternInspector#getMatchingResult()} for every design pattern we have an example system design
+ * for, matching the pattern with that system design. A new {@link PatternInspector} is created for every invocation,
+ * just like the application does for every analysis.
+ *
+ * @author Martin de Boer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = Benchmarks.LOGGING_CONFIGURATION)
+@State(Scope.Benchmark)
+public class PatternInspectorBenchmark {
+
+    @Param({
+            "Bridge",
+            "Builder",
+            "Chain Of Responsibility",
+            "Class Adapter",
+            "Command",
+            "Composite",
+            "Decorator",
+            "Flyweight",
+            "Interpreter",
+            "Iterator",
+            "Mediator",
+            "Memento",
+            "Object Adapter",
+            "Observer",
+            "Strategy"})
+    private String patternName;
+
+    private SystemUnderConsideration system;
+    private DesignPattern pattern;
+
+    @Setup(Level.Trial)
+    public void createInput() throws IOException {
+        final String templatesFile = BenchmarkResources.copyToTempFile(BenchmarkResources.TEMPLATES_XML).toString();
+        pattern = ParserFactory.createPatternParser().parse(templatesFile).stream()
+                .filter(designPattern -> designPattern.getName().equals(patternName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(String.format("Unknown pattern '%s'.", patternName)));
+        final String xmiFile = BenchmarkResources.copyToTempFile(BenchmarkResources.getSystemXmi(patternName)).toString();
+        system = ParserFactory.createArgoUMLParser().parse(xmiFile);
+    }
+
+    @Benchmark
+    public PatternInspector.MatchingResult getMatchingResult() {
+        return new PatternInspector(system, pattern).getMatchingResult();
+    }
+
+}
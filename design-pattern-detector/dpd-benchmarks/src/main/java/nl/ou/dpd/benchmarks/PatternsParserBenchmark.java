@@ -0,0 +1,47 @@
+package nl.ou.dpd.benchmarks;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.parsing.ParserFactory;
+import nl.ou.dpd.parsing.PatternsParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of the design pattern templates file by the {@link PatternsParser}.
+ *
+ * @author Martin de Boer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = Benchmarks.LOGGING_CONFIGURATION)
+@State(Scope.Benchmark)
+public class PatternsParserBenchmark {
+
+    private String templatesFile;
+
+    @Setup(Level.Trial)
+    public void createInput() throws IOException {
+        templatesFile = BenchmarkResources.copyToTempFile(BenchmarkResources.TEMPLATES_XML).toString();
+    }
+
+    @Benchmark
+    public List<DesignPattern> parse() {
+        return ParserFactory.createPatternParser().parse(templatesFile);
+    }
+
+}
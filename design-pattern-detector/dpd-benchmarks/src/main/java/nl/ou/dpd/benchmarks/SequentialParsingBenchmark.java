@@ -0,0 +1,57 @@
+package nl.ou.dpd.benchmarks;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.parsing.ArgoUMLParser;
+import nl.ou.dpd.parsing.ParserFactory;
+import nl.ou.dpd.parsing.ParsingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of the batch of the {@link ParsingServiceBenchmark} by a single {@link ArgoUMLParser}, one file
+ * after the other. This is the baseline for the {@link ParsingService}.
+ *
+ * @author Martin de Boer
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = Benchmarks.LOGGING_CONFIGURATION)
+@State(Scope.Benchmark)
+public class SequentialParsingBenchmark {
+
+    private List<Path> xmiFiles;
+
+    @Setup(Level.Trial)
+    public void createInput() throws IOException {
+        xmiFiles = BenchmarkResources.copyToTempFiles(
+                BenchmarkResources.MEDIUM_XMI, ParsingServiceBenchmark.BATCH_SIZE);
+    }
+
+    @Benchmark
+    public List<SystemUnderConsideration> parseSequentially() {
+        final ArgoUMLParser parser = ParserFactory.createArgoUMLParser();
+        final List<SystemUnderConsideration> systems = new ArrayList<>(xmiFiles.size());
+        for (Path xmiFile : xmiFiles) {
+            systems.add(parser.parse(xmiFile));
+        }
+        return systems;
+    }
+
+}
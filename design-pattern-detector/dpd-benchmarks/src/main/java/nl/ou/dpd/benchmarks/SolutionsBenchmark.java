@@ -0,0 +1,67 @@
+package nl.ou.dpd.benchmarks;
+
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.matching.PatternInspector;
+import nl.ou.dpd.domain.matching.Solution;
+import nl.ou.dpd.parsing.ParserFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the filtering of similar solutions by {@link PatternInspector.MatchingResult#getSolutions(boolean)}. The
+ * solutions are those of a design pattern in a synthetic system design, consisting of {@code copies} copies of the
+ * example system design of the pattern, so that there are many solutions to filter.
+ *
+ * @author Martin de Boer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = Benchmarks.LOGGING_CONFIGURATION)
+@State(Scope.Benchmark)
+public class SolutionsBenchmark {
+
+    @Param({"Bridge", "Observer"})
+    private String patternName;
+
+    @Param({"1", "100"})
+    private int copies;
+
+    private PatternInspector.MatchingResult matchingResult;
+
+    @Setup(Level.Trial)
+    public void createInput() throws IOException {
+        final String templatesFile = BenchmarkResources.copyToTempFile(BenchmarkResources.TEMPLATES_XML).toString();
+        final DesignPattern pattern = ParserFactory.createPatternParser().parse(templatesFile).stream()
+                .filter(designPattern -> designPattern.getName().equals(patternName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(String.format("Unknown pattern '%s'.", patternName)));
+        final String xmiFile = BenchmarkResources
+                .createSyntheticXmi(BenchmarkResources.getSystemXmi(patternName), copies)
+                .toString();
+        final SystemUnderConsideration system = ParserFactory.createArgoUMLParser().parse(xmiFile);
+        matchingResult = new PatternInspector(system, pattern).getMatchingResult();
+    }
+
+    @Benchmark
+    public List<Solution> getSolutions() {
+        return matchingResult.getSolutions(false);
+    }
+
+}
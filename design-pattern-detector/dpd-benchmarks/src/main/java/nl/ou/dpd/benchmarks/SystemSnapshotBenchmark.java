@@ -0,0 +1,72 @@
+package nl.ou.dpd.benchmarks;
+
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.parsing.ParserFactory;
+import nl.ou.dpd.parsing.SystemSnapshot;
+import nl.ou.dpd.parsing.SystemSnapshotParser;
+import nl.ou.dpd.util.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading a system design from its {@link SystemSnapshot}, compared to parsing it with the
+ * {@link nl.ou.dpd.parsing.ArgoUMLParser} (see {@link ArgoUMLParserBenchmark}). Reading a snapshot includes hashing the
+ * xmi file, to check that the snapshot is up-to-date.
+ *
+ * @author Martin de Boer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = Benchmarks.LOGGING_CONFIGURATION)
+@State(Scope.Benchmark)
+public class SystemSnapshotBenchmark {
+
+    @Param({"medium", "huge"})
+    private String size;
+
+    private Path xmiFile;
+    private Path snapshotFile;
+    private SystemUnderConsideration system;
+
+    @Setup(Level.Trial)
+    public void createSnapshot() throws IOException {
+        if ("medium".equals(size)) {
+            xmiFile = BenchmarkResources.copyToTempFile(BenchmarkResources.MEDIUM_XMI);
+        } else {
+            xmiFile = BenchmarkResources.createSyntheticXmi(
+                    BenchmarkResources.MEDIUM_XMI, ArgoUMLParserBenchmark.HUGE_COPIES);
+        }
+        snapshotFile = SystemSnapshotParser.getSnapshotPath(xmiFile.toString());
+        snapshotFile.toFile().deleteOnExit();
+        system = ParserFactory.createArgoUMLParser().parse(xmiFile.toString());
+        SystemSnapshot.write(system, Util.hash(xmiFile), snapshotFile);
+    }
+
+    @Benchmark
+    public SystemUnderConsideration read() throws IOException {
+        return SystemSnapshot.read(snapshotFile, Util.hash(xmiFile));
+    }
+
+    @Benchmark
+    public Path write() throws IOException {
+        SystemSnapshot.write(system, Util.hash(xmiFile), snapshotFile);
+        return snapshotFile;
+    }
+
+}
@@ -0,0 +1,90 @@
+package nl.ou.dpd.cli;
+
+import nl.ou.dpd.IntegrationTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.hamcrest.core.StringStartsWith.startsWith;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the {@link BatchDetector} on some of our example system designs.
+ *
+ * @author Martin de Boer
+ */
+@Category(IntegrationTest.class)
+public class BatchDetectorTest {
+
+    private static final String TEMPLATES_XML = "/patterns/designpatterns_templates.xml";
+    private static final String OBSERVER_XMI = "/systems/MyObserver.xmi";
+    private static final String BRIDGE_XMI = "/systems/MyBridge.xmi";
+    private static final String INVALID_XMI = "/systems/invalid.xmi";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Test
+    public void testJsonLines() {
+        assertThat(run("-t", getPath(TEMPLATES_XML), getPath(OBSERVER_XMI), getPath(BRIDGE_XMI)),
+                is(BatchDetector.EXIT_OK));
+
+        final List<String> lines = getLines(out.toString());
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith(
+                "{\"system\":\"MyObserver.xmi\",\"pattern\":\"Observer\",")));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith(
+                "{\"system\":\"MyBridge.xmi\",\"pattern\":\"Bridge\",")));
+        lines.forEach(line -> assertTrue(line.startsWith("{") && line.endsWith("]}")));
+        assertThat(err.toString(), is(""));
+    }
+
+    @Test
+    public void testCsvToFile() throws IOException {
+        final File outputFile = temporaryFolder.newFile("solutions.csv");
+        assertThat(run("-t", getPath(TEMPLATES_XML), "-f", "csv", "-o", outputFile.getPath(), getPath(OBSERVER_XMI)),
+                is(BatchDetector.EXIT_OK));
+
+        final List<String> lines = Files.readAllLines(outputFile.toPath(), StandardCharsets.UTF_8);
+        assertThat(lines.get(0), is("system,pattern,family,nodes,relations"));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("MyObserver.xmi,Observer,")));
+        assertThat(out.toString(), is(""));
+    }
+
+    @Test
+    public void testInvalidSystemIsSkipped() {
+        assertThat(run("-t", getPath(TEMPLATES_XML), getPath(INVALID_XMI), getPath(OBSERVER_XMI)),
+                is(BatchDetector.EXIT_FAILED));
+        assertThat(err.toString(), startsWith("The system design '"));
+        assertThat(err.toString(), containsString("invalid.xmi' could not be analysed"));
+        assertTrue(out.toString().contains("\"system\":\"MyObserver.xmi\""));
+    }
+
+    private int run(String... args) {
+        return BatchDetector.run(args, new PrintStream(out), new PrintStream(err));
+    }
+
+    private List<String> getLines(String output) {
+        return output.isEmpty() ? Arrays.asList() : Arrays.asList(output.split("\n"));
+    }
+
+    private String getPath(String resourceName) {
+        return BatchDetectorTest.class.getResource(resourceName).getFile();
+    }
+
+}
@@ -0,0 +1,87 @@
+package nl.ou.dpd.domain.matching;
+
+import nl.ou.dpd.IntegrationTest;
+import nl.ou.dpd.domain.DesignPattern;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.parsing.ArgoUMLParser;
+import nl.ou.dpd.parsing.ParserFactory;
+import nl.ou.dpd.parsing.PatternsParser;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests whether the {@link CompiledPatternMatcher} finds exactly the same solutions as the reference implementation,
+ * the {@link VF2PatternMatcher}, for every design pattern in every system design we have.
+ *
+ * @author Martin de Boer
+ */
+@Category(IntegrationTest.class)
+public class PatternMatcherTest extends AbstractMatchingTest {
+
+    private static final String[] SYSTEM_XMIS = {
+            "/systems/MyBridge.xmi",
+            "/systems/MyBuilder.xmi",
+            "/systems/MyChainOfResponsibility.xmi",
+            "/systems/MyClassAdapter.xmi",
+            "/systems/MyCommand.xmi",
+            "/systems/MyComposite.xmi",
+            "/systems/MyDecorator.xmi",
+            "/systems/MyFlyweight.xmi",
+            "/systems/MyInterpreter.xmi",
+            "/systems/MyIterator.xmi",
+            "/systems/MyMediator.xmi",
+            "/systems/MyMemento.xmi",
+            "/systems/MyObjectAdapter.xmi",
+            "/systems/MyObserver.xmi",
+            "/systems/MyStrategy.xmi",
+            "/systems/MyStrategyAbstract.xmi",
+    };
+
+    private List<DesignPattern> designPatterns;
+
+    @Before
+    public void initTests() {
+        final PatternsParser patternsParser = ParserFactory.createPatternParser();
+        final String patternsXmlFile = PatternMatcherTest.class.getResource(TEMPLATES_XML).getFile();
+        designPatterns = patternsParser.parse(patternsXmlFile);
+    }
+
+    @Test
+    public void testCompiledMatcherFindsSameSolutionsAsVF2Matcher() {
+        final ArgoUMLParser xmiParser = ParserFactory.createArgoUMLParser();
+        for (String systemXmi : SYSTEM_XMIS) {
+            final SystemUnderConsideration system = xmiParser.parse(PatternMatcherTest.class.getResource(systemXmi));
+            final PatternMatcher compiledMatcher = new CompiledPatternMatcher();
+            for (DesignPattern pattern : designPatterns) {
+                final List<String> expected = getSolutions(new PatternInspector(system, pattern, new VF2PatternMatcher()));
+                final List<String> actual = getSolutions(new PatternInspector(system, pattern, compiledMatcher));
+                assertEquals(String.format("%s in %s", pattern.getName(), systemXmi), expected, actual);
+            }
+        }
+    }
+
+    @Override
+    protected void assertMatchingSolutions(PatternInspector.MatchingResult matchingResult) {
+        // Not applicable: the solutions of both matchers are compared with each other
+    }
+
+    /**
+     * Returns the solutions, each described by its sorted matching node names, in a fixed order.
+     */
+    private List<String> getSolutions(PatternInspector inspector) {
+        return inspector.getMatchingResult().getSolutions(true).stream()
+                .map(solution -> solution.getMatchingNodeNames().stream()
+                        .map(names -> names[0] + "=" + names[1])
+                        .sorted()
+                        .collect(Collectors.joining(", ")))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+}
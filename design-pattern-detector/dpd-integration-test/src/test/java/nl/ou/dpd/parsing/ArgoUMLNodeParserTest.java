@@ -10,6 +10,7 @@ import org.junit.rules.ExpectedException;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import java.io.FileNotFoundException;
+import java.nio.file.Paths;
 
 import static org.hamcrest.core.Is.is;
 
@@ -45,7 +46,7 @@ public class ArgoUMLNodeParserTest {
         thrown.expect(ParseException.class);
         thrown.expectCause(is(XMLStreamException.class));
         thrown.expectMessage("The XMI file could not be parsed.");
-        argoUMLNodeParser.parse(path);
+        argoUMLNodeParser.parse(XmiSource.of(Paths.get(path)));
     }
 
     /**
@@ -56,7 +57,7 @@ public class ArgoUMLNodeParserTest {
         thrown.expect(ParseException.class);
         thrown.expectCause(is(FileNotFoundException.class));
         thrown.expectMessage("The XMI file could not be parsed.");
-        argoUMLNodeParser.parse("missing.xmi");
+        argoUMLNodeParser.parse(XmiSource.of(Paths.get("missing.xmi")));
     }
 
     private String getPath(String resourceName) {
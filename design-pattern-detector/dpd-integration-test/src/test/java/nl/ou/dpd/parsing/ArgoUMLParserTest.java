@@ -0,0 +1,209 @@
+package nl.ou.dpd.parsing;
+
+import nl.ou.dpd.IntegrationTest;
+import nl.ou.dpd.domain.SystemUnderConsideration;
+import nl.ou.dpd.domain.node.Attribute;
+import nl.ou.dpd.domain.node.Node;
+import nl.ou.dpd.domain.node.Operation;
+import nl.ou.dpd.domain.node.Parameter;
+import nl.ou.dpd.domain.relation.Relation;
+import nl.ou.dpd.domain.relation.RelationProperty;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link ArgoUMLParser} class, by parsing all the example system designs in a single pass as well as in two
+ * passes. Both modes must result in the same {@link SystemUnderConsideration}. The system designs read from a
+ * {@link SystemSnapshot}, from compressed copies of the files, or by a {@link ParsingService} in parallel, must be the
+ * same as well.
+ *
+ * @author Martin de Boer
+ */
+@Category(IntegrationTest.class)
+public class ArgoUMLParserTest {
+
+    private static final String SYSTEMS_DIR = "/systems";
+    private static final String INVALID_XMI = "invalid.xmi";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testSinglePassEqualsTwoPasses() {
+        for (File xmiFile : getXmiFiles()) {
+            final SystemUnderConsideration singlePass = ParserFactory.createArgoUMLParser(true).parse(xmiFile.getPath());
+            final SystemUnderConsideration twoPasses = ParserFactory.createArgoUMLParser(false).parse(xmiFile.getPath());
+            assertEquals(xmiFile.getName(), describe(twoPasses), describe(singlePass));
+        }
+    }
+
+    @Test
+    public void testSnapshotEqualsParsedSystem() throws IOException {
+        for (File xmiFile : getXmiFiles()) {
+            // Copy the file, so the snapshot is not written next to the test resources
+            final Path xmiCopy = temporaryFolder.getRoot().toPath().resolve(xmiFile.getName());
+            Files.copy(xmiFile.toPath(), xmiCopy);
+            final SystemSnapshotParser parser = ParserFactory.createSystemSnapshotParser();
+
+            final SystemUnderConsideration parsed = parser.parse(xmiCopy.toString());
+            assertTrue(Files.exists(SystemSnapshotParser.getSnapshotPath(xmiCopy.toString())));
+            final SystemUnderConsideration fromSnapshot = parser.parse(xmiCopy.toString());
+
+            assertEquals(xmiFile.getName(), describe(parsed), describe(fromSnapshot));
+            // The order of the nodes and relations is preserved as well
+            assertEquals(xmiFile.getName(), getIds(parsed), getIds(fromSnapshot));
+        }
+    }
+
+    @Test
+    public void testCompressedEqualsUncompressed() throws IOException {
+        final ArgoUMLParser parser = ParserFactory.createArgoUMLParser(false);
+        for (File xmiFile : getXmiFiles()) {
+            final byte[] xmi = Files.readAllBytes(xmiFile.toPath());
+            final String expected = describe(parser.parse(xmiFile.getPath()));
+
+            final Path gzip = temporaryFolder.getRoot().toPath().resolve(xmiFile.getName() + ".gz");
+            try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+                output.write(xmi);
+            }
+            assertEquals(xmiFile.getName(), expected, describe(parser.parse(gzip)));
+
+            // An ArgoUML project contains the xmi next to other files
+            final Path zargo = temporaryFolder.getRoot().toPath().resolve(xmiFile.getName() + ".zargo");
+            try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(zargo))) {
+                output.putNextEntry(new ZipEntry("model.argo"));
+                output.write("<argo/>".getBytes(StandardCharsets.UTF_8));
+                output.putNextEntry(new ZipEntry(xmiFile.getName()));
+                output.write(xmi);
+            }
+            assertEquals(xmiFile.getName(), expected, describe(parser.parse(zargo)));
+
+            final InputStream stream = new ByteArrayInputStream(xmi);
+            assertEquals(xmiFile.getName(), expected, describe(parser.parse(stream, xmiFile.getName())));
+        }
+    }
+
+    @Test
+    public void testParallelEqualsSequential() {
+        final List<Path> paths = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Arrays.stream(getXmiFiles()).map(File::toPath).forEach(paths::add);
+        }
+        final ArgoUMLParser parser = ParserFactory.createArgoUMLParser();
+
+        final List<SystemUnderConsideration> systems = new ParsingService().parseAllPaths(paths);
+
+        for (int i = 0; i < paths.size(); i++) {
+            assertEquals(paths.get(i).toString(), describe(parser.parse(paths.get(i))), describe(systems.get(i)));
+        }
+    }
+
+    @Test
+    public void testArchiveWithoutXmi() throws IOException {
+        final Path zargo = temporaryFolder.getRoot().toPath().resolve("empty.zargo");
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(zargo))) {
+            output.putNextEntry(new ZipEntry("model.argo"));
+        }
+        thrown.expect(ParseException.class);
+        thrown.expectCause(is(IOException.class));
+        ParserFactory.createArgoUMLParser(false).parse(zargo);
+    }
+
+    private File[] getXmiFiles() {
+        final File[] xmiFiles = new File(getPath(SYSTEMS_DIR))
+                .listFiles((dir, name) -> name.endsWith(".xmi") && !INVALID_XMI.equals(name));
+        assertNotNull(xmiFiles);
+        assertTrue(xmiFiles.length > 0);
+        Arrays.sort(xmiFiles);
+        return xmiFiles;
+    }
+
+    private List<String> getIds(SystemUnderConsideration system) {
+        final List<String> ids = system.vertexSet().stream().map(Node::getId).collect(Collectors.toList());
+        system.edgeSet().forEach(relation -> ids.add(relation.getId()));
+        return ids;
+    }
+
+    /**
+     * Describes everything the parsers extract from a system design. Nodes are described in the order in which they
+     * were added to the system. Other elements are added in the (unpredictable) iteration order of hash sets, so they
+     * are sorted.
+     */
+    private String describe(SystemUnderConsideration system) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("system ").append(system.getId()).append(' ').append(system.getName()).append('\n');
+        for (Node node : system.vertexSet()) {
+            sb.append("node ").append(node.getId()).append(' ').append(node.getName())
+                    .append(' ').append(node.getTypes()).append(' ').append(node.getVisibility()).append('\n');
+            for (Attribute attribute : sort(node.getAttributes(), Attribute::getId)) {
+                sb.append("  attribute ").append(attribute.getId()).append(' ').append(attribute.getName())
+                        .append(' ').append(getId(attribute.getType()))
+                        .append(' ').append(attribute.getVisibility()).append('\n');
+            }
+            for (Operation operation : sort(node.getOperations(), Operation::getId)) {
+                sb.append("  operation ").append(operation.getId()).append(' ').append(operation.getName())
+                        .append(' ').append(getId(operation.getReturnType()))
+                        .append(' ').append(operation.getVisibility()).append('\n');
+                for (Parameter parameter : sort(operation.getParameters(), Parameter::getId)) {
+                    sb.append("    parameter ").append(parameter.getId()).append(' ').append(parameter.getName())
+                            .append(' ').append(getId(parameter.getType())).append('\n');
+                }
+            }
+        }
+        for (Relation relation : sort(system.edgeSet(), Relation::getId)) {
+            sb.append("relation ").append(relation.getId()).append(' ').append(relation.getName())
+                    .append(' ').append(system.getEdgeSource(relation).getId())
+                    .append(' ').append(system.getEdgeTarget(relation).getId()).append('\n');
+            for (RelationProperty property : sort(relation.getRelationProperties(), this::describe)) {
+                sb.append("  property ").append(describe(property)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private String describe(RelationProperty property) {
+        return property.getRelationType() + " " + property.getCardinalityLeft() + " " + property.getCardinalityRight();
+    }
+
+    private <T> List<T> sort(Set<T> elements, Function<T, String> key) {
+        return elements.stream().sorted(Comparator.comparing(key)).collect(Collectors.toList());
+    }
+
+    private String getId(Node node) {
+        return node == null ? null : node.getId();
+    }
+
+    private String getPath(String resourceName) {
+        return this.getClass().getResource(resourceName).getPath();
+    }
+}
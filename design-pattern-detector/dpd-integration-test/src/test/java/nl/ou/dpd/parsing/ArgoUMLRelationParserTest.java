@@ -11,6 +11,7 @@ import org.junit.rules.ExpectedException;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import java.io.FileNotFoundException;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -52,7 +53,7 @@ public class ArgoUMLRelationParserTest {
         thrown.expectMessage("The XMI file could not be parsed.");
 
         nodes = new HashMap<>();
-        argoUMLRelationParser.parse(path, nodes);
+        argoUMLRelationParser.parse(XmiSource.of(Paths.get(path)), nodes);
     }
 
     /**
@@ -65,7 +66,7 @@ public class ArgoUMLRelationParserTest {
         thrown.expectMessage("The XMI file could not be parsed.");
 
         nodes = new HashMap<>();
-        argoUMLRelationParser.parse("missing.xmi", nodes);
+        argoUMLRelationParser.parse(XmiSource.of(Paths.get("missing.xmi")), nodes);
     }
 
     private String getPath(String resourceName) {
@@ -8,6 +8,7 @@ import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
 import org.xml.sax.SAXParseException;
 
+import javax.xml.stream.XMLStreamException;
 import java.io.FileNotFoundException;
 
 import static org.hamcrest.core.Is.is;
@@ -24,6 +25,9 @@ public class PatternsParserTest {
     // A test file containing invalid XML.
     private static final String INVALID_XML = "/patterns/invalid.xml";
 
+    // A test file containing well-formed XML that does not conform to the XSD schema.
+    private static final String NONCONFORMING_XML = "/patterns/nonconforming.xml";
+
     private PatternsParser parser;
 
     @Rule
@@ -41,6 +45,21 @@ public class PatternsParserTest {
     public void testXMLStreamException() {
         final String path = getPath(INVALID_XML);
 
+        thrown.expect(ParseException.class);
+        thrown.expectCause(is(XMLStreamException.class));
+        thrown.expectMessage("The design pattern template file could not be parsed.");
+
+        parser.parse(path);
+    }
+
+    /**
+     * Test the processing of an XML file that does not conform to the XSD schema. The file is validated while it is
+     * parsed, but the invalid element is reported by the validator before it is handled by the parser.
+     */
+    @Test
+    public void testSAXParseException() {
+        final String path = getPath(NONCONFORMING_XML);
+
         thrown.expect(ParseException.class);
         thrown.expectCause(is(SAXParseException.class));
         thrown.expectMessage("The design pattern template file could not be parsed.");